@@ -53,12 +53,6 @@ public class DeepLearning extends ModelBuilder<DeepLearningModel,DeepLearningMod
 
   @Override public boolean isSupervised() { return !_parms._autoencoder; }
 
-  @Override protected int nModelsInParallel() {
-    if (!_parms._parallelize_cross_validation || _parms._max_runtime_secs != 0) return 1; //user demands serial building (or we need to honor the time constraints for all CV models equally)
-    if (_train.byteSize() < 1e6) return _parms._nfolds; //for small data, parallelize over CV models
-    return 1;
-  }
-
   @Override protected DeepLearningDriver trainModelImpl() { return new DeepLearningDriver(); }
 
   /** Initialize the ModelBuilder, validating all arguments and preparing the
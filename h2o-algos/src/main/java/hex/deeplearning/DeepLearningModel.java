@@ -701,8 +701,66 @@ public class DeepLearningModel extends Model<DeepLearningModel,DeepLearningModel
     Neurons[] neurons = DeepLearningTask.makeNeuronsForTesting(model_info);
     ((Neurons.Input)neurons[0]).setInput(-1, data, mb);
     DeepLearningTask.fpropMiniBatch(-1, neurons, model_info, null, false, null, new double[]{offset}, n);
-    double[] out = neurons[neurons.length - 1]._a[mb].raw();
+    return outputToPreds(neurons[neurons.length - 1]._a[mb].raw(), preds);
+  }
+
+  /**
+   * Number of rows propagated through the network at once by the block scoring API
+   */
+  static final int SCORE_MINI_BATCH_SIZE = 32;
 
+  /**
+   * Block scoring: instead of building a fresh network per row, the rows of the block are propagated through
+   * one network as mini-batches, with each layer evaluated as a matrix-matrix product
+   */
+  @Override
+  public void score0(Chunk chks[], double[] weights, double[] offsets, int from, int to, double[] tmp, double[][] preds) {
+    if (get_params()._autoencoder) {
+      super.score0(chks, weights, offsets, from, to, tmp, preds);
+      return;
+    }
+    if (model_info().isUnstable()) {
+      Log.err(unstable_msg);
+      throw new UnsupportedOperationException(unstable_msg);
+    }
+    final int batch = Math.min(to - from, SCORE_MINI_BATCH_SIZE);
+    final Neurons[] neurons = DeepLearningTask.makeNeuronsForTesting(model_info, batch);
+    final Neurons.Input input = (Neurons.Input) neurons[0];
+    final double[][] rows = new double[batch][tmp.length];
+    final double[] col = new double[batch];
+    final double[] mbOffsets = new double[batch];
+    final int[] mbRows = new int[batch];
+    for (int lo = from; lo < to; lo += batch) {
+      final int hi = Math.min(to, lo + batch);
+      for (int i = 0; i < tmp.length; ++i) {
+        chks[i].getDoubles(col, lo, hi);
+        for (int r = 0; r < hi - lo; ++r)
+          rows[r][i] = col[r];
+      }
+      int n = 0;
+      for (int row = lo; row < hi; ++row) {
+        if (weights[row - from] == 0) continue;
+        input.setInput(-1, rows[row - lo], n);
+        mbOffsets[n] = offsets[row - from];
+        mbRows[n++] = row;
+      }
+      if (n == 0) continue;
+      DeepLearningTask.fpropMiniBatch(-1, neurons, model_info, null, false, null, mbOffsets, n);
+      for (int mb = 0; mb < n; ++mb) {
+        final int row = mbRows[mb];
+        outputToPreds(neurons[neurons.length - 1]._a[mb].raw(), preds[row - from]);
+        scoreLabel(chks, row, rows[row - lo], tmp, preds[row - from]);
+      }
+    }
+  }
+
+  /**
+   * Turn the activations of the output layer into predictions
+   * @param out activations of the output layer
+   * @param preds predicted label and per-class probabilities (for classification), predicted target (regression)
+   * @return preds
+   */
+  private double[] outputToPreds(double[] out, double[] preds) {
     if (get_params()._distribution == DistributionFamily.modified_huber) {
       preds[0] = -1;
       preds[2] = _dist.linkInv(out[0]);
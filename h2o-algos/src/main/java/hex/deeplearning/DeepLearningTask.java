@@ -241,10 +241,28 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
     return makeNeurons(minfo, false);
   }
 
+  /**
+   * Make neurons for testing that hold a mini-batch of the given size, regardless of the training mini-batch size
+   * @param minfo Model information
+   * @param mini_batch_size Number of points that can be propagated through the network at once
+   * @return Neurons for forward propagation
+   */
+  public static Neurons[] makeNeuronsForTesting(final DeepLearningModelInfo minfo, int mini_batch_size) {
+    DeepLearningParameters params = minfo.get_params();
+    if (params._mini_batch_size != mini_batch_size) {
+      params = (DeepLearningParameters) params.clone();
+      params._mini_batch_size = mini_batch_size;
+    }
+    return makeNeurons(minfo, params, false);
+  }
+
   // Helper
   private static Neurons[] makeNeurons(final DeepLearningModelInfo minfo, boolean training) {
+    return makeNeurons(minfo, minfo.get_params(), training);
+  }
+
+  private static Neurons[] makeNeurons(final DeepLearningModelInfo minfo, final DeepLearningParameters params, boolean training) {
     DataInfo dinfo = minfo.data_info();
-    final DeepLearningParameters params = minfo.get_params();
     final int[] h = params._hidden;
     Neurons[] neurons = new Neurons[h.length + 2]; // input + hidden + output
     // input
@@ -624,9 +624,7 @@ public abstract class Neurons {
   public static class Tanh extends Neurons {
     public Tanh(int units) { super(units); }
     @Override protected void fprop(long seed, boolean training, int n) {
-      // TODO: implement GEMM
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      gemm(_a, _w, _previous._a, _b, _dropout != null ? _dropout.bits() : null, n);
       final int rows = _a[0].size();
       for (int mb=0;mb<n;++mb)
         for( int row = 0; row < rows; row++ )
@@ -749,9 +747,7 @@ public abstract class Neurons {
   public static class Rectifier extends Neurons {
     public Rectifier(int units) { super(units); }
     @Override protected void fprop(long seed, boolean training, int n) {
-      // TODO: implement GEMM
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      gemm(_a, _w, _previous._a, _b, _dropout != null ? _dropout.bits() : null, n);
       final int rows = _a[0].size();
       for (int mb=0;mb<n;++mb) {
         for( int row = 0; row < rows; row++ ) {
@@ -799,8 +795,7 @@ public abstract class Neurons {
   public static class ExpRectifier extends Neurons {
     public ExpRectifier(int units) { super(units); }
     @Override protected void fprop(long seed, boolean training, int n) {
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      gemm(_a, _w, _previous._a, _b, _dropout != null ? _dropout.bits() : null, n);
       final int rows = _a[0].size();
       for( int row = 0; row < rows; row++ ) {
         for (int mb=0;mb<n;++mb) {
@@ -862,8 +857,7 @@ public abstract class Neurons {
   public static class Softmax extends Output {
     public Softmax(int units) { super(units); }
     protected void fprop(long seed, boolean training, int n) {
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, null);
+      gemm(_a, _w, _previous._a, _b, null, n);
       for (int mb=0;mb<n;++mb) {
         final double max = ArrayUtils.maxValue(_a[mb].raw());
         double scaling = 0;
@@ -919,8 +913,7 @@ public abstract class Neurons {
       super(1);
     }
     protected void fprop(long seed, boolean training, int n) {
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      gemm(_a, _w, _previous._a, _b, _dropout != null ? _dropout.bits() : null, n);
     }
 
     /**
@@ -969,30 +962,70 @@ public abstract class Neurons {
     final int cols = x.length;
     final int rows = y.length;
     assert(res.length == rows);
+    int idx = 0;
+    for (int row = 0; row<rows; row++) {
+      res[row] = 0;
+      if( row_bits == null || (row_bits[row / 8] & (1 << (row % 8))) != 0)
+        res[row] = dot_row_optimized(a, idx, x, cols) + y[row];
+      idx += cols;
+    }
+  }
+
+  /**
+   * Dot product of one matrix row with a vector, evaluated as 8 partial sums
+   * @param a matrix of size rows x cols
+   * @param idx offset of the row in a
+   * @param x vector of length cols
+   * @param cols number of columns
+   */
+  private static double dot_row_optimized(final float[] a, final int idx, final double[] x, final int cols) {
     final int extra=cols-cols%8;
     final int multiple = (cols/8)*8-1;
+    double res = 0;
+    double psum0 = 0, psum1 = 0, psum2 = 0, psum3 = 0, psum4 = 0, psum5 = 0, psum6 = 0, psum7 = 0;
+    for (int col = 0; col < multiple; col += 8) {
+      int off = idx + col;
+      psum0 += a[off    ] * x[col    ];
+      psum1 += a[off + 1] * x[col + 1];
+      psum2 += a[off + 2] * x[col + 2];
+      psum3 += a[off + 3] * x[col + 3];
+      psum4 += a[off + 4] * x[col + 4];
+      psum5 += a[off + 5] * x[col + 5];
+      psum6 += a[off + 6] * x[col + 6];
+      psum7 += a[off + 7] * x[col + 7];
+    }
+    res += psum0 + psum1 + psum2 + psum3;
+    res += psum4 + psum5 + psum6 + psum7;
+    for (int col = extra; col < cols; col++)
+      res += a[idx + col] * x[col];
+    return res;
+  }
+
+  /**
+   * Mini-batch Mat-Mat Plus Add (with optional row dropout): res[mb] = a*x[mb]+y for the first n points
+   * Optimization: each row of a is applied to all n points of the mini-batch while it is in cache,
+   * results are identical to n calls of gemv()
+   * @param res pre-allocated, will be overwritten
+   * @param a matrix of size rows x cols
+   * @param x mini-batch of vectors of length cols
+   * @param y vector of length rows
+   * @param row_bits if not null, check bits of this byte[] to determine whether a row is used or not
+   * @param n number of points in the mini-batch
+   */
+  static void gemm(final Storage.DenseVector[] res, final Storage.DenseRowMatrix a, final Storage.DenseVector[] x, final Storage.DenseVector y, final byte[] row_bits, final int n) {
+    if (n == 1) {
+      gemv(res[0], a, x[0], y, row_bits);
+      return;
+    }
+    final float[] w = a.raw();
+    final double[] b = y.raw();
+    final int cols = x[0].size();
+    final int rows = b.length;
     int idx = 0;
     for (int row = 0; row<rows; row++) {
-      res[row] = 0;
-      if( row_bits == null || (row_bits[row / 8] & (1 << (row % 8))) != 0) {
-        double psum0 = 0, psum1 = 0, psum2 = 0, psum3 = 0, psum4 = 0, psum5 = 0, psum6 = 0, psum7 = 0;
-        for (int col = 0; col < multiple; col += 8) {
-          int off = idx + col;
-          psum0 += a[off    ] * x[col    ];
-          psum1 += a[off + 1] * x[col + 1];
-          psum2 += a[off + 2] * x[col + 2];
-          psum3 += a[off + 3] * x[col + 3];
-          psum4 += a[off + 4] * x[col + 4];
-          psum5 += a[off + 5] * x[col + 5];
-          psum6 += a[off + 6] * x[col + 6];
-          psum7 += a[off + 7] * x[col + 7];
-        }
-        res[row] += psum0 + psum1 + psum2 + psum3;
-        res[row] += psum4 + psum5 + psum6 + psum7;
-        for (int col = extra; col < cols; col++)
-          res[row] += a[idx + col] * x[col];
-        res[row] += y[row];
-      }
+      final boolean active = row_bits == null || (row_bits[row / 8] & (1 << (row % 8))) != 0;
+      for (int mb = 0; mb < n; mb++)
+        res[mb].raw()[row] = active ? dot_row_optimized(w, idx, x[mb].raw(), cols) + b[row] : 0;
       idx += cols;
     }
   }
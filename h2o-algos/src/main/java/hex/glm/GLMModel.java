@@ -982,28 +982,48 @@ public class GLMModel extends Model<GLMModel,GLMModel.GLMParameters,GLMModel.GLM
       double[] eta = _eta.get();
       if(eta == null || eta.length < _output.nclasses()) _eta.set(eta = MemoryManager.malloc8d(_output.nclasses()));
       final double[][] bm = _output._global_beta_multinomial;
-      double sumExp = 0;
-      double maxRow = 0;
-      for (int c = 0; c < bm.length; ++c) {
-        eta[c] = r.innerProduct(bm[c]) + o;
-        if(eta[c] > maxRow)
-          maxRow = eta[c];
-      }
-      for (int c = 0; c < bm.length; ++c)
-        sumExp += eta[c] = Math.exp(eta[c]-maxRow); // intercept
-      sumExp = 1.0 / sumExp;
       for (int c = 0; c < bm.length; ++c)
-        preds[c + 1] = eta[c] * sumExp;
-      preds[0] = ArrayUtils.maxIndex(eta);
-    } else {
-      double mu = _parms.linkInv(r.innerProduct(beta()) + o);
-      if (_parms._family == Family.binomial) { // threshold for prediction
-        preds[0] = mu >= defaultThreshold()?1:0;
-        preds[1] = 1.0 - mu; // class 0
-        preds[2] = mu; // class 1
-      } else
-        preds[0] = mu;
+        eta[c] = r.innerProduct(bm[c]) + o;
+      return scoreMultinomialEta(eta, preds);
+    } else
+      return scoreEta(r.innerProduct(beta()) + o, preds);
+  }
+
+  /**
+   * Turn the per-class linear predictors of one row (offset included) into multinomial predictions.
+   * @param eta one linear predictor per class, overwritten
+   * @param preds prediction, filled in and returned
+   */
+  final double [] scoreMultinomialEta(double [] eta, double [] preds) {
+    final int nclasses = _output._global_beta_multinomial.length;
+    double sumExp = 0;
+    double maxRow = 0;
+    for (int c = 0; c < nclasses; ++c) {
+      if(eta[c] > maxRow)
+        maxRow = eta[c];
     }
+    for (int c = 0; c < nclasses; ++c)
+      sumExp += eta[c] = Math.exp(eta[c]-maxRow); // intercept
+    sumExp = 1.0 / sumExp;
+    for (int c = 0; c < nclasses; ++c)
+      preds[c + 1] = eta[c] * sumExp;
+    preds[0] = ArrayUtils.maxIndex(eta);
+    return preds;
+  }
+
+  /**
+   * Turn the linear predictor of one row (offset included) into predictions.
+   * @param eta linear predictor
+   * @param preds prediction, filled in and returned
+   */
+  final double [] scoreEta(double eta, double [] preds) {
+    double mu = _parms.linkInv(eta);
+    if (_parms._family == Family.binomial) { // threshold for prediction
+      preds[0] = mu >= defaultThreshold()?1:0;
+      preds[1] = 1.0 - mu; // class 0
+      preds[2] = mu; // class 1
+    } else
+      preds[0] = mu;
     return preds;
   }
 
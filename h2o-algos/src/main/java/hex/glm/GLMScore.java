@@ -1,6 +1,7 @@
 package hex.glm;
 
 import hex.DataInfo;
+import hex.Model;
 import hex.ModelMetrics;
 import water.Job;
 import water.MRTask;
@@ -63,6 +64,8 @@ public class GLMScore extends MRTask<GLMScore> {
     if (_sparse) {
       for (DataInfo.Row r : _dinfo.extractSparseRows(chks))
         processRow(r,res,ps,preds,ncols);
+    } else if (_dinfo._interactions == null) {
+      scoreBlocks(chks, res, ps, preds, ncols);
     } else {
       DataInfo.Row r = _dinfo.newDenseRow();
       for (int rid = 0; rid < chks[0]._len; ++rid) {
@@ -73,6 +76,108 @@ public class GLMScore extends MRTask<GLMScore> {
     if (_j != null) _j.update(1);
   }
 
+  /**
+   * Dense scoring a block of rows at a time: the linear predictors of the block are accumulated column by column
+   * straight from the chunks (in the same order as Row.innerProduct, so the results are identical), skipping
+   * columns with all-zero coefficients and the zero rows of sparse chunks.
+   */
+  private void scoreBlocks(Chunk[] chks, float[] res, double[] ps, NewChunk[] preds, int ncols) {
+    final int len = chks[0]._len;
+    final int blockSize = Math.min(len, Model.SCORE_BLOCK_SIZE);
+    final boolean multinomial = _m._parms._family == GLMModel.GLMParameters.Family.multinomial;
+    final double[][] betas = multinomial ? _m._output._global_beta_multinomial : new double[][]{_m.beta()};
+    final double[][] eta = new double[betas.length][blockSize];
+    final double[] etaRow = new double[betas.length];
+    final double[] vals = new double[blockSize];
+    final Chunk wChk = _dinfo._weights ? chks[_dinfo.weightChunkId()] : null;
+    final Chunk oChk = _dinfo._offset ? chks[_dinfo.offsetChunkId()] : null;
+    final Chunk rChk = _dinfo._responses != 0 ? chks[_dinfo.responseChunkId(0)] : null;
+    for (int from = 0; from < len; from += blockSize) {
+      final int to = Math.min(len, from + blockSize);
+      linearPredictors(chks, from, to, betas, vals, eta);
+      for (int rid = from; rid < to; ++rid) {
+        final double w = wChk == null ? 1 : wChk.atd(rid);
+        if (w == 0) {
+          Arrays.fill(ps, 0);
+        } else if (_dinfo._skipMissing && hasMissingPredictors(chks, rid)) {
+          Arrays.fill(ps, Double.NaN);
+        } else {
+          final double o = oChk == null ? 0 : oChk.atd(rid);
+          if (multinomial) {
+            for (int c = 0; c < betas.length; ++c)
+              etaRow[c] = eta[c][rid - from] + o;
+            _m.scoreMultinomialEta(etaRow, ps);
+          } else
+            _m.scoreEta(eta[0][rid - from] + o, ps);
+          if (rChk != null) res[0] = (float) rChk.atd(rid);
+          if (_computeMetrics && (rChk == null || !rChk.isNA(rid)))
+            _mb.perRow(ps, res, w, o, _m);
+        }
+        if (_generatePredictions)
+          for (int c = 0; c < ncols; c++)  // Output predictions; sized for train only (excludes extra test classes)
+            preds[c].addNum(ps[c]);
+      }
+    }
+  }
+
+  private boolean hasMissingPredictors(Chunk[] chks, int rid) {
+    for (int i = 0; i < _dinfo._cats + _dinfo._nums; ++i)
+      if (chks[i].isNA(rid)) return true;
+    return false;
+  }
+
+  /**
+   * Linear predictors (without offset) of rows [from,to) for each set of coefficients.
+   */
+  private void linearPredictors(Chunk[] chks, int from, int to, double[][] betas, double[] vals, double[][] eta) {
+    final int nrows = to - from;
+    for (double[] e : eta)
+      Arrays.fill(e, 0, nrows, 0);
+    for (int i = 0; i < _dinfo._cats; ++i) {
+      chks[i].getDoubles(vals, from, to);
+      for (int r = 0; r < nrows; ++r) {
+        int cid = _dinfo.getCategoricalId(i, vals[r]);
+        if (cid < 0) continue;
+        for (int c = 0; c < betas.length; ++c)
+          eta[c][r] += betas[c][cid];
+      }
+    }
+    final int numStart = _dinfo.numStart();
+    for (int i = 0; i < _dinfo._nums; ++i) {
+      final int bid = numStart + i;
+      if (allZero(betas, bid)) continue;
+      final Chunk chk = chks[_dinfo._cats + i];
+      final double mean = _dinfo._numMeans[i];
+      if (chk.isSparseZero() && !chk.isSparseNA()) {
+        for (int rid = chk.nextNZ(from - 1); rid < to; rid = chk.nextNZ(rid)) {
+          double d = chk.atd(rid);
+          if (Double.isNaN(d)) d = mean;
+          for (int c = 0; c < betas.length; ++c)
+            eta[c][rid - from] += d * betas[c][bid];
+        }
+      } else {
+        chk.getDoubles(vals, from, to);
+        for (int r = 0; r < nrows; ++r) {
+          double d = Double.isNaN(vals[r]) ? mean : vals[r];
+          for (int c = 0; c < betas.length; ++c)
+            eta[c][r] += d * betas[c][bid];
+        }
+      }
+    }
+    if (_dinfo._intercept)
+      for (int c = 0; c < betas.length; ++c) {
+        final double icpt = betas[c][betas[c].length - 1];
+        for (int r = 0; r < nrows; ++r)
+          eta[c][r] += icpt;
+      }
+  }
+
+  private static boolean allZero(double[][] betas, int bid) {
+    for (double[] b : betas)
+      if (b[bid] != 0) return false;
+    return true;
+  }
+
   @Override
   public void reduce(GLMScore bs) {
     if (_mb != null) _mb.reduce(bs._mb);
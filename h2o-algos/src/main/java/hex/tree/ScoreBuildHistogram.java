@@ -81,15 +81,19 @@ public class ScoreBuildHistogram extends MRTask<ScoreBuildHistogram> {
     // Init all the internal tree fields after shipping over the wire
     _tree.init_tree();
     // Allocate local shared memory histograms
-    for( int l=_leaf; l<_tree._len; l++ ) {
-      DTree.UndecidedNode udn = _tree.undecided(l);
-      DHistogram hs[] = _hcs[l-_leaf];
+    initHistograms(_tree, _leaf, _hcs, _ncols);
+  }
+
+  static void initHistograms(DTree tree, int leaf, DHistogram hcs[][], int ncols) {
+    for( int l=leaf; l<tree._len; l++ ) {
+      DTree.UndecidedNode udn = tree.undecided(l);
+      DHistogram hs[] = hcs[l-leaf];
       int sCols[] = udn._scoreCols;
       if( sCols != null ) { // Sub-selecting just some columns?
         for( int col : sCols ) // For tracked cols
           hs[col].init();
       } else {                 // Else all columns
-        for( int j=0; j<_ncols; j++) // For all columns
+        for( int j=0; j<ncols; j++) // For all columns
           if( hs[j] != null )        // Tracking this column?
             hs[j].init();
       }
@@ -108,13 +112,9 @@ public class ScoreBuildHistogram extends MRTask<ScoreBuildHistogram> {
     // giving it an improved prediction).
     int nnids[] = new int[nids._len];
     if( _leaf > 0)            // Prior pass exists?
-      score_decide(chks,nids,nnids);
+      score_decide(chks,nids,nnids,_tree,_leaf);
     else                      // Just flag all the NA rows
-      for( int row=0; row<nids._len; row++ ) {
-        if( weight.atd(row) == 0) continue;
-        if( isDecidedRow((int)nids.atd(row)) )
-          nnids[row] = DECIDED_ROW;
-      }
+      flag_decided(nids,weight,nnids);
 
     // Pass 2: accumulate all rows, cols into histograms
 //    if (_subset)
@@ -128,9 +128,13 @@ public class ScoreBuildHistogram extends MRTask<ScoreBuildHistogram> {
     if( sbh._hcs == _hcs )
       return; // Local histograms all shared; free to merge
     // Distributed histograms need a little work
-    for( int i=0; i<_hcs.length; i++ ) {
-      DHistogram hs1[] = _hcs[i], hs2[] = sbh._hcs[i];
-      if( hs1 == null ) _hcs[i] = hs2;
+    mergeHistograms(_hcs, sbh._hcs);
+  }
+
+  static void mergeHistograms(DHistogram hcs1[][], DHistogram hcs2[][]) {
+    for( int i=0; i<hcs1.length; i++ ) {
+      DHistogram hs1[] = hcs1[i], hs2[] = hcs2[i];
+      if( hs1 == null ) hcs1[i] = hs2;
       else if( hs2 != null )
         for( int j=0; j<hs1.length; j++ )
           if( hs1[j] == null ) hs1[j] = hs2[j];
@@ -144,24 +148,24 @@ public class ScoreBuildHistogram extends MRTask<ScoreBuildHistogram> {
   // assigned DecidedNode, "scoring" the row against that Node's decision
   // criteria, and assigning the row to a new child UndecidedNode (and
   // giving it an improved prediction).
-  private void score_decide(Chunk chks[], Chunk nids, int nnids[]) {
+  static void score_decide(Chunk chks[], Chunk nids, int nnids[], DTree tree, int leaf) {
     for( int row=0; row<nids._len; row++ ) { // Over all rows
       int nid = (int)nids.at8(row);          // Get Node to decide from
       if( isDecidedRow(nid)) {               // already done
-        nnids[row] = nid-_leaf;              // will be negative, flagging a completed row
+        nnids[row] = nid-leaf;               // will be negative, flagging a completed row
         continue;
       }
       // Score row against current decisions & assign new split
       boolean oob = isOOBRow(nid);
       if( oob ) nid = oob2Nid(nid); // sampled away - we track the position in the tree
-      DTree.DecidedNode dn = _tree.decided(nid);
+      DTree.DecidedNode dn = tree.decided(nid);
       if( dn == null || dn._split == null ) { // Might have a leftover non-split
-        if( DTree.isRootNode(dn) ) { nnids[row] = nid-_leaf; continue; }
+        if( DTree.isRootNode(dn) ) { nnids[row] = nid-leaf; continue; }
         nid = dn._pid;             // Use the parent split decision then
         int xnid = oob ? nid2Oob(nid) : nid;
         nids.set(row, xnid);
-        nnids[row] = xnid-_leaf;
-        dn = _tree.decided(nid); // Parent steers us
+        nnids[row] = xnid-leaf;
+        dn = tree.decided(nid); // Parent steers us
       }
 
       assert !isDecidedRow(nid);
@@ -170,7 +174,16 @@ public class ScoreBuildHistogram extends MRTask<ScoreBuildHistogram> {
         if( oob ) nid = nid2Oob(nid); // Re-apply OOB encoding
         nids.set(row, nid);
       }
-      nnids[row] = nid-_leaf;
+      nnids[row] = nid-leaf;
+    }
+  }
+
+  // First pass of a fresh tree: just flag the rows that are already decided
+  static void flag_decided(Chunk nids, Chunk weight, int nnids[]) {
+    for( int row=0; row<nids._len; row++ ) {
+      if( weight.atd(row) == 0) continue;
+      if( isDecidedRow((int)nids.atd(row)) )
+        nnids[row] = DECIDED_ROW;
     }
   }
 
@@ -215,51 +228,70 @@ public class ScoreBuildHistogram extends MRTask<ScoreBuildHistogram> {
    */
   private void accum_all(Chunk chks[], Chunk wrks, Chunk weight, int nnids[]) {
     // Sort the rows by NID, so we visit all the same NIDs in a row
-    // Find the count of unique NIDs in this chunk
     int nh[] = new int[_hcs.length+1];
-    for( int i : nnids )
-      if( i >= 0 )
-        nh[i+1]++;
-    // Rollup the histogram of rows-per-NID in this chunk
-    for( int i=0; i<_hcs.length; i++ ) nh[i+1] += nh[i];
-    // Splat the rows into NID-groups
-    int rows[] = new int[nnids.length];
-    for( int row=0; row<nnids.length; row++ )
-      if( nnids[row] >= 0 )
-        rows[nh[nnids[row]]++] = row;
-    // rows[] has Chunk-local ROW-numbers now, in-order, grouped by NID.
-    // nh[] lists the start of each new NID, and is indexed by NID+1.
+    int rows[] = sort_rows(nnids, nh);
     final DHistogram hcs[][] = _hcs;
     if( hcs.length==0 ) return; // Unlikely fast cutout
     // Local temp arrays, no atomic updates.
     LocalHisto lh = new LocalHisto(Math.max(_nbins,_nbins_cats));
     final int cols = _ncols;
-    final int hcslen = hcs.length;
     // these arrays will be re-used for all cols and nodes
     double[] ws = new double[chks[0]._len];
     double[] cs = new double[chks[0]._len];
     double[] ys = new double[chks[0]._len];
     weight.getDoubles(ws,0,ws.length);
     wrks.getDoubles(ys,0,ys.length);
-    for (int c = 0; c < cols; c++) {
-      boolean extracted = false;
-      for (int n = 0; n < hcslen; n++) {
-        int sCols[] = _tree.undecided(n + _leaf)._scoreCols; // Columns to score (null, or a list of selected cols)
-        if (sCols == null || ArrayUtils.find(sCols,c) >= 0) {
-          if (!extracted) {
-            chks[c].getDoubles(cs, 0, cs.length);
-            extracted = true;
-          }
-          DHistogram h = hcs[n][c];
-          if( h==null ) continue; // Ignore untracked columns in this split
-          lh.resizeIfNeeded(h._w.length);
-          h.updateSharedHistosAndReset(lh, ws, cs, ys, rows, nh[n], n == 0 ? 0 : nh[n - 1]);
+    for (int c = 0; c < cols; c++)
+      accum_col(chks[c], c, false, hcs, _tree, _leaf, lh, ws, cs, ys, rows, nh);
+  }
+
+  /**
+   * Group the rows of a chunk by node id.  Returns chunk-local row numbers,
+   * in order, grouped by NID; {@code nh} (of length #NIDs+1) is filled with
+   * the end of each NID's group, indexed by NID.
+   */
+  static int[] sort_rows(int nnids[], int nh[]) {
+    // Find the count of unique NIDs in this chunk
+    for( int i : nnids )
+      if( i >= 0 )
+        nh[i+1]++;
+    // Rollup the histogram of rows-per-NID in this chunk
+    for( int i=0; i<nh.length-1; i++ ) nh[i+1] += nh[i];
+    // Splat the rows into NID-groups
+    int rows[] = new int[nnids.length];
+    for( int row=0; row<nnids.length; row++ )
+      if( nnids[row] >= 0 )
+        rows[nh[nnids[row]]++] = row;
+    // rows[] has Chunk-local ROW-numbers now, in-order, grouped by NID.
+    // nh[] lists the start of each new NID, and is indexed by NID+1.
+    return rows;
+  }
+
+  /**
+   * Accumulate one predictor column into the histograms of all the active
+   * nodes of one tree.  The column is decoded into {@code cs} on first use,
+   * unless {@code extracted} says it is already there.
+   *
+   * @return whether {@code cs} holds the decoded column
+   */
+  static boolean accum_col(Chunk chk, int c, boolean extracted, DHistogram hcs[][], DTree tree, int leaf, LocalHisto lh,
+                           double[] ws, double[] cs, double[] ys, int rows[], int nh[]) {
+    for (int n = 0; n < hcs.length; n++) {
+      int sCols[] = tree.undecided(n + leaf)._scoreCols; // Columns to score (null, or a list of selected cols)
+      if (sCols == null || ArrayUtils.find(sCols,c) >= 0) {
+        if (!extracted) {
+          chk.getDoubles(cs, 0, cs.length);
+          extracted = true;
         }
+        DHistogram h = hcs[n][c];
+        if( h==null ) continue; // Ignore untracked columns in this split
+        lh.resizeIfNeeded(h._w.length);
+        h.updateSharedHistosAndReset(lh, ws, cs, ys, rows, nh[n], n == 0 ? 0 : nh[n - 1]);
       }
     }
+    return extracted;
   }
 
-
   /**
    * Helper class to store the thread-local histograms
    * Can now change the internal memory layout without affecting the calling code
@@ -0,0 +1,106 @@
+package hex.tree;
+
+import water.MRTask;
+import water.fvec.C0DChunk;
+import water.fvec.Chunk;
+
+import static hex.tree.ScoreBuildHistogram.*;
+
+/** Score and Build Histograms for several trees at once
+ *
+ * <p>The multi-tree variant of {@link ScoreBuildHistogram}: one pass over the
+ * data scores and builds the histograms of a whole layer of several trees,
+ * e.g. the K per-class trees of a multinomial model.  Each tree keeps its own
+ * work (target) and NIDs columns; the predictor columns and the observation
+ * weights are decoded once per chunk and shared by all the trees.
+ *
+ * <p>Pass 1 (score and reassign rows to the new leaves) runs per tree, then
+ * pass 2 visits the predictor columns in the outer loop and accumulates every
+ * decoded column into the histograms of all the trees that track it.
+ */
+public class ScoreBuildHistogramKTrees extends MRTask<ScoreBuildHistogramKTrees> {
+  final int   _ncols;// Active feature columns
+  final int   _nbins;// Numerical columns: Number of bins in each histogram
+  final int   _nbins_cats;// Categorical columns: Number of bins in each histogram
+  final DTree _trees[]; // Read-only, shared (except at the histograms in the Nodes)
+  final int   _leafs[]; // Index of the first active leaf, per tree
+  // Histograms for every tree, split & active column
+  final DHistogram _hcs[/*tree*/][/*tree-relative node-id*/][/*column*/];
+  final int _weightIdx;
+  final int _workIdx[];
+  final int _nidIdx[];
+
+  public ScoreBuildHistogramKTrees(int ncols, int nbins, int nbins_cats, DTree trees[], int leafs[], DHistogram hcs[][][], int weightIdx, int workIdx[], int nidIdx[]) {
+    _ncols= ncols;
+    _nbins= nbins;
+    _nbins_cats= nbins_cats;
+    _trees= trees;
+    _leafs= leafs;
+    _hcs  = hcs;
+    _weightIdx = weightIdx;
+    _workIdx = workIdx;
+    _nidIdx = nidIdx;
+  }
+
+  // Once-per-node shared init
+  @Override public void setupLocal( ) {
+    for( int t=0; t<_trees.length; t++ ) {
+      // Init all the internal tree fields after shipping over the wire
+      _trees[t].init_tree();
+      // Allocate local shared memory histograms
+      initHistograms(_trees[t], _leafs[t], _hcs[t], _ncols);
+    }
+  }
+
+  @Override public void map( Chunk[] chks ) {
+    final int len = chks[0]._len;
+    final Chunk weight = _weightIdx>=0 ? chks[_weightIdx] : new C0DChunk(1, len);
+    double[] ws = new double[len];
+    weight.getDoubles(ws,0,len);
+
+    // Pass 1, per tree: score the prior layer, assign rows to the new leaves
+    // and group them by NID; load the tree's targets.
+    final int ntrees = _trees.length;
+    int rows[][] = new int[ntrees][];
+    int nh[][] = new int[ntrees][];
+    double ys[][] = new double[ntrees][];
+    for( int t=0; t<ntrees; t++ ) {
+      Chunk nids = chks[_nidIdx[t]];
+      int nnids[] = new int[len];
+      if( _leafs[t] > 0 )       // Prior pass exists?
+        score_decide(chks,nids,nnids,_trees[t],_leafs[t]);
+      else                      // Just flag all the NA rows
+        flag_decided(nids,weight,nnids);
+      if( _hcs[t].length == 0 ) continue; // Nothing to histogram for this tree
+      nh[t] = new int[_hcs[t].length+1];
+      rows[t] = sort_rows(nnids, nh[t]);
+      ys[t] = new double[len];
+      chks[_workIdx[t]].getDoubles(ys[t],0,len);
+    }
+
+    // Pass 2: decode each column once, accumulate it into all the trees
+    LocalHisto lh = new LocalHisto(Math.max(_nbins,_nbins_cats));
+    double[] cs = new double[len];
+    for( int c=0; c<_ncols; c++ ) {
+      boolean extracted = false;
+      for( int t=0; t<ntrees; t++ )
+        if( rows[t] != null )
+          extracted = accum_col(chks[c], c, extracted, _hcs[t], _trees[t], _leafs[t], lh, ws, cs, ys[t], rows[t], nh[t]);
+    }
+  }
+
+  @Override public void reduce( ScoreBuildHistogramKTrees sbh ) {
+    if( sbh._hcs == _hcs )
+      return; // Local histograms all shared; free to merge
+    for( int t=0; t<_hcs.length; t++ )
+      mergeHistograms(_hcs[t], sbh._hcs[t]);
+  }
+
+  /**
+   * Per-thread scratch memory of one map call, per tree: targets, the rows
+   * grouped by NID and the new NIDs of a chunk with the given number of rows.
+   */
+  static long scratchBytesPerTree(int chunkRows) {
+    return 16L*chunkRows;
+  }
+}
@@ -376,6 +376,11 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
   // Build an entire layer of all K trees
   protected DHistogram[][][] buildLayer(final Frame fr, final int nbins, int nbins_cats, final DTree ktrees[], final int leafs[], final DHistogram hcs[][][], boolean build_tree_one_node) {
     // Build K trees, one per class.
+    int ntrees = 0;
+    for( DTree tree : ktrees )
+      if( tree != null ) ntrees++;
+    if( ntrees > 1 && Boolean.parseBoolean(System.getProperty(HISTOGRAM_KTREES, "true")) )  // Multinomial: histogram all the class trees together
+      return buildLayerKTrees(fr, nbins, nbins_cats, ktrees, ntrees, leafs, hcs, build_tree_one_node);
 
     // Build up the next-generation tree splits from the current histograms.
     // Nearly all leaves will split one more level.  This loop nest is
@@ -473,32 +478,146 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
     @Override public void onCompletion(CountedCompleter caller) {
       ScoreBuildHistogram sbh = (ScoreBuildHistogram)caller;
       //System.out.println(sbh.profString());
+      _did_split = decideSplits(_st, _k, _tree, _leafOffsets, _hcs, sbh._hcs, _improvPerVar);
+    }
+  }
 
-      final int leafOffset = _leafOffsets[_k];
-      int tmax = _tree.len();   // Number of total splits in tree K
-      for(int leaf = leafOffset; leaf<tmax; leaf++ ) { // Visit all the new splits (leaves)
-        DTree.UndecidedNode udn = _tree.undecided(leaf);
-//        System.out.println((_st._nclass==1?"Regression":("Class "+_st._response.domain()[_k]))+",\n  Undecided node:"+udn);
-        // Replace the Undecided with the Split decision
-        DTree.DecidedNode dn = _st.makeDecided(udn,sbh._hcs[leaf-leafOffset]);
-//        System.out.println(dn + "\n" + dn._split);
-        if( dn._split == null ) udn.do_not_split();
-        else {
-          _did_split = true;
-          DTree.Split s = dn._split; // Accumulate squared error improvements per variable
-          float improvement = (float)(s.pre_split_se()-s.se());
-          assert(improvement>=0);
-          AtomicUtils.FloatArray.add(_improvPerVar,s.col(),improvement);
-        }
+  // Replace the undecided leaves of tree K with split decisions made from the
+  // layer's histograms, and set up the leaves and histograms of the next layer.
+  private static boolean decideSplits(SharedTree st, int k, DTree tree, int leafOffsets[], DHistogram hcs[][][], DHistogram layer[][], float[] improvPerVar) {
+    boolean did_split = false;
+    final int leafOffset = leafOffsets[k];
+    int tmax = tree.len();   // Number of total splits in tree K
+    for(int leaf = leafOffset; leaf<tmax; leaf++ ) { // Visit all the new splits (leaves)
+      DTree.UndecidedNode udn = tree.undecided(leaf);
+//      System.out.println((st._nclass==1?"Regression":("Class "+st._response.domain()[k]))+",\n  Undecided node:"+udn);
+      // Replace the Undecided with the Split decision
+      DTree.DecidedNode dn = st.makeDecided(udn,layer[leaf-leafOffset]);
+//      System.out.println(dn + "\n" + dn._split);
+      if( dn._split == null ) udn.do_not_split();
+      else {
+        did_split = true;
+        DTree.Split s = dn._split; // Accumulate squared error improvements per variable
+        float improvement = (float)(s.pre_split_se()-s.se());
+        assert(improvement>=0);
+        AtomicUtils.FloatArray.add(improvPerVar,s.col(),improvement);
       }
-      _leafOffsets[_k]=tmax;          // Setup leafs for next tree level
-      int new_leafs = _tree.len()-tmax; //new_leafs can be 0 if no actual splits were made
-      _hcs[_k] = new DHistogram[new_leafs][/*ncol*/];
-      for( int nl = tmax; nl<_tree.len(); nl ++ )
-        _hcs[_k][nl-tmax] = _tree.undecided(nl)._hs;
-//      if (_did_split && new_leafs > 0) _tree._depth++;
-      if (_did_split) _tree._depth++; //
     }
+    leafOffsets[k]=tmax;          // Setup leafs for next tree level
+    int new_leafs = tree.len()-tmax; //new_leafs can be 0 if no actual splits were made
+    hcs[k] = new DHistogram[new_leafs][/*ncol*/];
+    for( int nl = tmax; nl<tree.len(); nl ++ )
+      hcs[k][nl-tmax] = tree.undecided(nl)._hs;
+//    if (did_split && new_leafs > 0) tree._depth++;
+    if (did_split) tree._depth++; //
+    return did_split;
+  }
+
+  // --------------------------------------------------------------------------
+  // Build a layer of several trees (the K class trees of a multinomial model)
+  // with a single histogram pass over the data per batch of trees.  The row
+  // decoding of the predictors and weights is shared by the trees of a batch;
+  // trees are batched so that their histograms and per-chunk scratch space
+  // fit into a quarter of the free heap, so usually all K trees go together.
+  // The budget can be set explicitly with -Dsys.ai.h2o.tree.histogramBatchBytes.
+  public static final String HISTOGRAM_BATCH_BYTES = H2O.OptArgs.SYSTEM_PROP_PREFIX + "tree.histogramBatchBytes";
+  // -Dsys.ai.h2o.tree.histogramKTrees=false builds every class tree with its own pass, as before
+  public static final String HISTOGRAM_KTREES = H2O.OptArgs.SYSTEM_PROP_PREFIX + "tree.histogramKTrees";
+  private DHistogram[][][] buildLayerKTrees(final Frame fr, final int nbins, int nbins_cats, final DTree ktrees[], int ntrees, final int leafs[], final DHistogram hcs[][][], boolean build_tree_one_node) {
+    Vec vecs[] = fr.vecs();
+    long budget = Long.getLong(HISTOGRAM_BATCH_BYTES, H2O.SELF._heartbeat.get_free_mem() / 4);
+    if( budget <= 0 ) budget = MemoryManager.MEM_MAX / 4;
+    long scratch = ScoreBuildHistogramKTrees.scratchBytesPerTree(maxChunkRows(fr.anyVec())) * H2O.ARGS.nthreads;
+    boolean did_split = false;
+    int k = 0;
+    while( k < _nclass ) {
+      // Collect the next batch of trees
+      List<Integer> batch = new ArrayList<>();
+      long bytes = 0;
+      for( ; k < _nclass; k++ ) {
+        if( ktrees[k] == null ) continue;
+        long b = histogramBytes(hcs[k]) + scratch;
+        if( !batch.isEmpty() && bytes + b > budget ) break;
+        batch.add(k);
+        bytes += b;
+      }
+      if( batch.isEmpty() ) break;
+      int n = batch.size();
+      Frame fr2 = new Frame(Arrays.copyOf(fr._names,_ncols+1), Arrays.copyOf(vecs,_ncols+1)); //predictors and actual response
+      int weightIdx = fr2.find(_parms._weights_column);
+      DTree trees[] = new DTree[n];
+      int batchLeafs[] = new int[n];
+      DHistogram batchHcs[][][] = new DHistogram[n][][];
+      int workIdx[] = new int[n];
+      int nidIdx[] = new int[n];
+      for( int t = 0; t < n; t++ ) {
+        int c = batch.get(t);
+        trees[t] = ktrees[c];
+        batchLeafs[t] = leafs[c];
+        batchHcs[t] = hcs[c];
+        workIdx[t] = fr2.numCols(); fr2.add(fr._names[idx_work(c)],vecs[idx_work(c)]); //target value to fit
+        nidIdx[t]  = fr2.numCols(); fr2.add(fr._names[idx_nids(c)],vecs[idx_nids(c)]); //node indices for tree construction
+      }
+      if( n < ntrees )
+        Log.debug("Histogramming " + n + " of " + ntrees + " trees in one pass (" + PrettyPrint.bytes(bytes) + ")");
+      // step 1: build the histograms of all the trees of the batch
+      ScoreBuildHistogramKTrees sbh = new ScoreBuildHistogramKTrees(_ncols, nbins, nbins_cats, trees, batchLeafs, batchHcs, weightIdx, workIdx, nidIdx)
+              .doAll(fr2, build_tree_one_node);
+      // step 2: split the nodes, one tree per task
+      DecideSplits ds[] = new DecideSplits[n];
+      for( int t = 0; t < n; t++ )
+        H2O.submitTask(ds[t] = new DecideSplits(this, batch.get(t), trees[t], leafs, hcs, sbh._hcs[t], _improvPerVar));
+      for( int t = 0; t < n; t++ ) {
+        ds[t].join();
+        if( ds[t]._did_split ) did_split = true;
+      }
+    }
+    // The layer is done.
+    return did_split ? hcs : null;
+  }
+
+  private static class DecideSplits extends H2OCountedCompleter {
+    final SharedTree _st;
+    final int _k;
+    final DTree _tree;
+    final int _leafOffsets[];
+    final DHistogram _hcs[][][];
+    final DHistogram _layer[][];
+    final float[] _improvPerVar;
+
+    boolean _did_split;
+    DecideSplits(SharedTree st, int k, DTree tree, int leafOffsets[], DHistogram hcs[][][], DHistogram layer[][], float[] improvPerVar) {
+      _st = st;
+      _k = k;
+      _tree = tree;
+      _leafOffsets = leafOffsets;
+      _hcs = hcs;
+      _layer = layer;
+      _improvPerVar = improvPerVar;
+    }
+    @Override public void compute2() {
+      _did_split = decideSplits(_st, _k, _tree, _leafOffsets, _hcs, _layer, _improvPerVar);
+      tryComplete();
+    }
+  }
+
+  // Bytes of the (not yet allocated) histograms of one layer of a tree
+  private static long histogramBytes(DHistogram hcs[][]) {
+    long bytes = 0;
+    for( DHistogram hs[] : hcs )
+      if( hs != null )
+        for( DHistogram h : hs )
+          if( h != null )
+            bytes += 3L * 8 * h.nbins();
+    return bytes;
+  }
+
+  private static int maxChunkRows(Vec v) {
+    long espc[] = v.espc();
+    long max = 0;
+    for( int i = 0; i < espc.length-1; i++ )
+      max = Math.max(max, espc[i+1]-espc[i]);
+    return (int)max;
   }
 
   // --------------------------------------------------------------------------
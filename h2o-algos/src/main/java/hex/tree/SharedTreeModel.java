@@ -274,9 +274,51 @@ public abstract class SharedTreeModel<
     Arrays.fill(preds,0);
     for( int tidx=0; tidx<ntrees; tidx++ )
       score0(data, preds, tidx);
+    return unifyPreds(data, preds, offset);
+  }
+
+  /** Turn the raw per-class sums of the tree predictions into the final
+   *  prediction, in place.  Java counterpart of {@link #toJavaUnifyPreds}. */
+  protected double[] unifyPreds(double[] data, double[] preds, double offset) {
     return preds;
   }
 
+  /** Block scoring: rows are decoded column-at-a-time into a bounded buffer,
+   *  then the forest is walked tree-major, so each tree is fetched once per
+   *  slice of rows and stays hot in cache while it scores all of them. */
+  @Override public void score0(Chunk chks[], double[] weights, double[] offsets, int from, int to, double[] tmp, double[][] preds) {
+    final int slice = Math.max(1, Math.min(to - from, (1 << 16) / Math.max(1, tmp.length)));
+    final double[][] rows = new double[slice][tmp.length];
+    final double[] col = new double[slice];
+    for( int lo = from; lo < to; lo += slice )
+      scoreSlice(chks, weights, offsets, from, lo, Math.min(to, lo + slice), rows, col, tmp, preds);
+  }
+
+  private void scoreSlice(Chunk chks[], double[] weights, double[] offsets, int from, int lo, int hi, double[][] rows, double[] col, double[] tmp, double[][] preds) {
+    final int nrows = hi - lo, off = lo - from;
+    for( int i = 0; i < tmp.length; i++ ) {
+      chks[i].getDoubles(col, lo, hi);
+      for( int r = 0; r < nrows; r++ )
+        rows[r][i] = col[r];
+    }
+    for( int r = 0; r < nrows; r++ )
+      Arrays.fill(preds[off + r], 0);
+    for( Key<CompressedTree>[] keys : _output._treeKeys ) {
+      for( int c = 0; c < keys.length; c++ ) {
+        if( keys[c] == null ) continue;
+        final CompressedTree tree = DKV.get(keys[c]).get();
+        final int idx = keys.length == 1 ? 0 : c + 1;
+        for( int r = 0; r < nrows; r++ )
+          preds[off + r][idx] += tree.score(rows[r]);
+      }
+    }
+    for( int r = 0; r < nrows; r++ ) {
+      if( weights[off + r] == 0 ) continue;
+      unifyPreds(rows[r], preds[off + r], offsets[off + r]);
+      scoreLabel(chks, lo + r, rows[r], tmp, preds[off + r]);
+    }
+  }
+
   // Score per line per tree
   private void score0(double[] data, double[] preds, int treeIdx) {
     Key[] keys = _output._treeKeys[treeIdx];
@@ -36,9 +36,8 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
   public GBM(boolean startup_once) { super(new GBMModel.GBMParameters(),startup_once); }
 
   @Override protected int nModelsInParallel() {
-    if (!_parms._parallelize_cross_validation || _parms._max_runtime_secs != 0) return 1; //user demands serial building (or we need to honor the time constraints for all CV models equally)
-    if (_train.byteSize() < 1e6) return _parms._nfolds; //for small data, parallelize over CV models
-    return 2; //GBM always has some serial work, so it's fine to build two models at once
+    if (!_parms._parallelize_cross_validation) return 1; //user demands serial building
+    return nModelsInParallel(2); //GBM always has some serial work, so it's fine to build two models at once
   }
 
   /** Start the GBM training Job on an F/J thread. */
@@ -41,12 +41,9 @@ public class GBMModel extends SharedTreeModel<GBMModel, GBMModel.GBMParameters,
     super(selfKey,parms,output);
   }
 
-  /** Bulk scoring API for one row.  Chunks are all compatible with the model,
-   *  and expect the last Chunks are for the final distribution and prediction.
-   *  Default method is to just load the data into the tmp array, then call
-   *  subclass scoring logic. */
-  @Override protected double[] score0(double data[/*ncols*/], double preds[/*nclasses+1*/], double weight, double offset, int ntrees) {
-    super.score0(data, preds, weight, offset, ntrees);    // These are f_k(x) in Algorithm 10.4
+  /** Preds arrive holding the f_k(x) of Algorithm 10.4; turn them into
+   *  probabilities (classification) or the response (regression). */
+  @Override protected double[] unifyPreds(double data[/*ncols*/], double preds[/*nclasses+1*/], double offset) {
     if (_parms._distribution == DistributionFamily.bernoulli || _parms._distribution == DistributionFamily.modified_huber) {
       double f = preds[1] + _output._init_f + offset; //Note: class 1 probability stored in preds[1] (since we have only one tree)
       preds[2] = new Distribution(_parms).linkInv(f);
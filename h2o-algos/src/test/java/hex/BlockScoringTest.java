@@ -0,0 +1,119 @@
+package hex;
+
+import hex.deeplearning.DeepLearning;
+import hex.deeplearning.DeepLearningModel;
+import hex.tree.drf.DRF;
+import hex.tree.drf.DRFModel;
+import hex.tree.gbm.GBM;
+import hex.tree.gbm.GBMModel;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.MRTask;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Block scoring ({@link Model#score0(Chunk[], double[], double[], int, int, double[], double[][])})
+ * must produce exactly the predictions of the row-at-a-time path.
+ */
+public class BlockScoringTest extends TestUtil {
+
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  public static Frame makeFrame(int responseFactors) {
+    CreateFrame cf = new CreateFrame();
+    cf.rows = 3000;
+    cf.cols = 10;
+    cf.seed = 42;
+    cf.categorical_fraction = 0.3;
+    cf.factors = 5;
+    cf.integer_fraction = 0.2;
+    cf.binary_fraction = 0.1;
+    cf.missing_fraction = 0.02;
+    cf.response_factors = responseFactors;
+    cf.has_response = true;
+    return Scope.track(cf.execImpl().get());
+  }
+
+  /** Predictions of the row-at-a-time scoring path */
+  private static Frame scoreByRow(final Model m, Frame fr) {
+    Frame adapted = new Frame(fr);
+    m.adaptTestForTrain(adapted, true, false);
+    final int npreds = m._output.nclasses() == 1 ? 1 : m._output.nclasses() + 1;
+    return new MRTask() {
+      @Override public void map(Chunk[] cs, NewChunk[] ncs) {
+        double[] tmp = new double[m._output.nfeatures()];
+        double[] preds = new double[npreds];
+        for (int row = 0; row < cs[0]._len; row++) {
+          double[] p = m.score0(cs, 1, 0, row, tmp, preds);
+          for (int c = 0; c < npreds; c++)
+            ncs[c].addNum(p[c]);
+        }
+      }
+    }.doAll(npreds, Vec.T_NUM, adapted).outputFrame();
+  }
+
+  public static void assertSamePredictions(Frame expected, Frame actual) {
+    Scope.track(expected);
+    Scope.track(actual);
+    assertEquals(expected.numCols(), actual.numCols());
+    for (int c = 0; c < expected.numCols(); c++)
+      for (long r = 0; r < expected.numRows(); r++)
+        assertEquals("row " + r + ", col " + c, expected.vec(c).at(r), actual.vec(c).at(r), 0);
+  }
+
+  @Test public void testTrees() {
+    Scope.enter();
+    try {
+      for (int nclasses : new int[]{1, 2, 4}) {
+        Frame fr = makeFrame(nclasses);
+        GBMModel.GBMParameters gp = new GBMModel.GBMParameters();
+        gp._train = fr._key;
+        gp._response_column = "response";
+        gp._ntrees = 5;
+        gp._seed = 1;
+        GBMModel gbm = new GBM(gp).trainModel().get();
+        assertSamePredictions(scoreByRow(gbm, fr), gbm.score(fr));
+        gbm.delete();
+
+        DRFModel.DRFParameters dp = new DRFModel.DRFParameters();
+        dp._train = fr._key;
+        dp._response_column = "response";
+        dp._ntrees = 5;
+        dp._seed = 1;
+        DRFModel drf = new DRF(dp).trainModel().get();
+        assertSamePredictions(scoreByRow(drf, fr), drf.score(fr));
+        drf.delete();
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testDeepLearning() {
+    Scope.enter();
+    try {
+      for (int nclasses : new int[]{1, 3}) {
+        Frame fr = makeFrame(nclasses);
+        DeepLearningModel.DeepLearningParameters p = new DeepLearningModel.DeepLearningParameters();
+        p._train = fr._key;
+        p._response_column = "response";
+        p._hidden = new int[]{17, 9};
+        p._epochs = 1;
+        p._reproducible = true;
+        p._seed = 1;
+        DeepLearningModel dl = new DeepLearning(p).trainModel().get();
+        assertSamePredictions(scoreByRow(dl, fr), dl.score(fr));
+        dl.delete();
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package hex.glm;
+
+import hex.BlockScoringTest;
+import hex.DataInfo;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.MRTask;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+
+/**
+ * Column-wise block scoring in {@link GLMScore} must produce exactly the
+ * predictions of the dense row-at-a-time path.
+ */
+public class GLMScoreTest extends TestUtil {
+
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  /** Predictions of the pre-block GLM scoring path (dense DataInfo rows) */
+  static Frame scoreGLMByRow(final GLMModel m, Frame fr) {
+    Frame adapted = new Frame(fr);
+    m.adaptTestForTrain(adapted, true, false);
+    final DataInfo dinfo = m._output._dinfo.scoringInfo(adapted);
+    final int npreds = m._output.nclasses() == 1 ? 1 : m._output.nclasses() + 1;
+    return new MRTask() {
+      @Override public void map(Chunk[] cs, NewChunk[] ncs) {
+        double[] preds = new double[npreds];
+        DataInfo.Row r = dinfo.newDenseRow();
+        for (int row = 0; row < cs[0]._len; row++) {
+          dinfo.extractDenseRow(cs, row, r);
+          m.scoreRow(r, r.offset, preds);
+          for (int c = 0; c < npreds; c++)
+            ncs[c].addNum(preds[c]);
+        }
+      }
+    }.doAll(npreds, Vec.T_NUM, adapted).outputFrame();
+  }
+
+  @Test public void testGLM() {
+    Scope.enter();
+    try {
+      GLMModel.GLMParameters.Family[] families = {
+          GLMModel.GLMParameters.Family.gaussian,
+          GLMModel.GLMParameters.Family.binomial,
+          GLMModel.GLMParameters.Family.multinomial};
+      int[] nclasses = {1, 2, 3};
+      for (int i = 0; i < families.length; i++) {
+        Frame fr = BlockScoringTest.makeFrame(nclasses[i]);
+        GLMModel.GLMParameters p = new GLMModel.GLMParameters(families[i]);
+        p._train = fr._key;
+        p._response_column = "response";
+        p._alpha = new double[]{1};
+        p._lambda = new double[]{1e-2};
+        GLMModel glm = new GLM(p).trainModel().get();
+        BlockScoringTest.assertSamePredictions(scoreGLMByRow(glm, fr), glm.score(fr));
+        glm.delete();
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+}
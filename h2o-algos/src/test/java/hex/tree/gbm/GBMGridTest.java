@@ -13,10 +13,13 @@ import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 
+import hex.CreateFrame;
 import hex.Distribution;
 import hex.Model;
 import hex.grid.Grid;
 import hex.grid.GridSearch;
+import hex.grid.HyperSpaceSearchCriteria;
+import hex.schemas.HyperSpaceSearchCriteriaV99;
 import water.DKV;
 import water.Job;
 import water.Key;
@@ -284,4 +287,124 @@ public class GBMGridTest extends TestUtil {
       if (gbmRebuilt != null) gbmRebuilt.remove();
     }
   }
+
+  @Test
+  public void testParallelGrid() {
+    Grid<GBMModel.GBMParameters> grid = null;
+    Frame fr = null;
+    try {
+      CreateFrame cf = new CreateFrame();
+      cf.rows = 2000;
+      cf.cols = 8;
+      cf.seed = 1234;
+      cf.categorical_fraction = 0.2;
+      cf.factors = 4;
+      cf.integer_fraction = 0.2;
+      cf.missing_fraction = 0;
+      cf.response_factors = 2;
+      cf.has_response = true;
+      fr = cf.execImpl().get();
+
+      HashMap<String, Object[]> hyperParms = new HashMap<String, Object[]>() {{
+        put("_ntrees", new Integer[]{2, 4});
+        put("_max_depth", new Integer[]{2, 3, 5});
+        put("_learn_rate", new Double[]{0.1, 0.3, -1.0});
+      }};
+      int hyperSpaceSize = ArrayUtils.crossProductSize(hyperParms);
+
+      GBMModel.GBMParameters params = new GBMModel.GBMParameters();
+      params._train = fr._key;
+      params._response_column = "response";
+      params._seed = 42;
+      for (int parallelism : new int[]{0, 3}) {
+        HyperSpaceSearchCriteria.CartesianSearchCriteria criteria = new HyperSpaceSearchCriteria.CartesianSearchCriteria();
+        criteria.set_parallelism(parallelism);
+        Job<Grid> gs = GridSearch.startGridSearch(null, params, hyperParms,
+            new GridSearch.SimpleParametersBuilderFactory<GBMModel.GBMParameters>(), criteria);
+        grid = (Grid<GBMModel.GBMParameters>) gs.get();
+        Assert.assertEquals("Size of grid (models+failures) should match to size of hyper space",
+                            hyperSpaceSize, grid.getModelCount() + grid.getFailureCount());
+        Assert.assertEquals(hyperSpaceSize / 3, grid.getFailureCount());
+        Assert.assertEquals(grid.getModelCount(), grid.getScoringInfos().length);
+        for (Model m : grid.getModels())
+          assertTrue(((GBMModel.GBMParameters) m._parms)._learn_rate > 0);
+        grid.remove();
+        grid = null;
+      }
+    } finally {
+      if (fr != null) fr.remove();
+      if (grid != null) grid.remove();
+    }
+  }
+
+  @Test
+  public void testSequentialByDefault() {
+    // Grids started over REST without search criteria fall back to this schema
+    HyperSpaceSearchCriteria criteria = new HyperSpaceSearchCriteriaV99.CartesianSearchCriteriaV99().createAndFillImpl();
+    Assert.assertEquals(1, criteria.parallelism());
+    Assert.assertEquals(1, new HyperSpaceSearchCriteria.RandomDiscreteValueSearchCriteria().parallelism());
+  }
+
+  @Test
+  public void testSuccessiveHalvingGrid() {
+    Grid<GBMModel.GBMParameters> grid = null;
+    Frame fr = null;
+    try {
+      CreateFrame cf = new CreateFrame();
+      cf.rows = 2000;
+      cf.cols = 8;
+      cf.seed = 4321;
+      cf.categorical_fraction = 0.2;
+      cf.factors = 4;
+      cf.integer_fraction = 0.2;
+      cf.missing_fraction = 0;
+      cf.response_factors = 2;
+      cf.has_response = true;
+      fr = cf.execImpl().get();
+
+      HashMap<String, Object[]> hyperParms = new HashMap<String, Object[]>() {{
+        put("_max_depth", new Integer[]{2, 3, 4, 5});
+        put("_learn_rate", new Double[]{0.05, 0.1, 0.2});
+      }};
+
+      GBMModel.GBMParameters params = new GBMModel.GBMParameters();
+      params._train = fr._key;
+      params._response_column = "response";
+      params._seed = 42;
+      for (int parallelism : new int[]{1, 3}) {
+        HyperSpaceSearchCriteria.SuccessiveHalvingSearchCriteria criteria = new HyperSpaceSearchCriteria.SuccessiveHalvingSearchCriteria();
+        criteria.set_seed(12345);
+        criteria.set_budget_parameter("ntrees");
+        criteria.set_min_budget(1);
+        criteria.set_max_budget(9);
+        criteria.set_reduction_factor(3);
+        criteria.set_parallelism(parallelism);
+        Job<Grid> gs = GridSearch.startGridSearch(null, params, hyperParms,
+            new GridSearch.SimpleParametersBuilderFactory<GBMModel.GBMParameters>(), criteria);
+        grid = (Grid<GBMModel.GBMParameters>) gs.get();
+
+        // One bracket: 9 configurations with 1 tree, the best 3 with 3 trees, the best one with 9 trees
+        Assert.assertEquals(0, grid.getFailureCount());
+        Assert.assertEquals(9 + 3 + 1, grid.getModelCount());
+        int[] ntrees = new int[10];
+        GBMModel winner = null;
+        for (Model m : grid.getModels()) {
+          GBMModel gbm = (GBMModel) m;
+          ntrees[gbm._parms._ntrees]++;
+          if (gbm._parms._ntrees > 1)
+            Assert.assertNotNull("Survivors continue from checkpoints", gbm._parms._checkpoint);
+          if (gbm._parms._ntrees == 9) winner = gbm;
+        }
+        Assert.assertEquals(9, ntrees[1]);
+        Assert.assertEquals(3, ntrees[3]);
+        Assert.assertEquals(1, ntrees[9]);
+        Assert.assertEquals(9, winner._output._ntrees);
+        grid.remove();
+        grid = null;
+      }
+    } finally {
+      if (fr != null) fr.remove();
+      if (grid != null) grid.remove();
+    }
+  }
 }
@@ -2,6 +2,8 @@ package hex.tree.gbm;
 
 import hex.*;
 import hex.genmodel.utils.DistributionFamily;
+import hex.tree.CompressedTree;
+import hex.tree.SharedTree;
 import hex.tree.SharedTreeModel;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -2750,4 +2752,162 @@ public class GBMTest extends TestUtil {
     }
   }
 
+
+  @Test public void testParallelAndSerialCVAgree() {
+    Frame fr = null;
+    GBMModel serial = null, parallel = null;
+    try {
+      CreateFrame cf = new CreateFrame();
+      cf.rows = 3000;
+      cf.cols = 6;
+      cf.seed = 77;
+      cf.categorical_fraction = 0.2;
+      cf.factors = 4;
+      cf.missing_fraction = 0;
+      cf.response_factors = 2;
+      cf.has_response = true;
+      fr = cf.execImpl().get();
+
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = fr._key;
+      parms._response_column = "response";
+      parms._ntrees = 5;
+      parms._nfolds = 4;
+      parms._fold_assignment = Model.Parameters.FoldAssignmentScheme.Modulo;
+      parms._seed = 1;
+      parms._parallelize_cross_validation = false;
+      serial = new GBM(parms).trainModel().get();
+      parms._parallelize_cross_validation = true;
+      parms._max_runtime_secs = 1e4; // no longer forces serial CV
+      parallel = new GBM(parms).trainModel().get();
+
+      assertEquals(serial._output._cross_validation_metrics.mse(), parallel._output._cross_validation_metrics.mse(), 1e-10);
+      assertEquals(((ModelMetricsBinomial) serial._output._cross_validation_metrics).auc(),
+                   ((ModelMetricsBinomial) parallel._output._cross_validation_metrics).auc(), 1e-10);
+    } finally {
+      if (fr != null) fr.remove();
+      if (serial != null) serial.deleteCrossValidationModels();
+      if (serial != null) serial.delete();
+      if (parallel != null) parallel.deleteCrossValidationModels();
+      if (parallel != null) parallel.delete();
+    }
+  }
+
+  // All K class trees of a layer are histogrammed in one pass, unless the
+  // histograms exceed the batch budget; both must grow the same trees as the
+  // legacy path, which runs one histogram pass per class tree.
+  @Test public void testMultinomialTreesInOnePass() {
+    Frame fr = null;
+    GBMModel legacy = null, onePass = null, batched = null;
+    try {
+      CreateFrame cf = new CreateFrame();
+      cf.rows = 5000;
+      cf.cols = 8;
+      cf.seed = 1234;
+      cf.categorical_fraction = 0.25;
+      cf.factors = 5;
+      cf.missing_fraction = 0.02;
+      cf.response_factors = 5;
+      cf.has_response = true;
+      fr = cf.execImpl().get();
+
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = fr._key;
+      parms._response_column = "response";
+      parms._ntrees = 5;
+      parms._max_depth = 4;
+      parms._seed = 42;
+      parms._sample_rate = 0.8;   // The seed drives the row sampling of every path alike
+      System.setProperty(SharedTree.HISTOGRAM_KTREES, "false");
+      try {
+        legacy = new GBM(parms).trainModel().get();
+      } finally {
+        System.clearProperty(SharedTree.HISTOGRAM_KTREES);
+      }
+      onePass = new GBM(parms).trainModel().get();
+      System.setProperty(SharedTree.HISTOGRAM_BATCH_BYTES, "1"); // one tree per pass
+      try {
+        batched = new GBM(parms).trainModel().get();
+      } finally {
+        System.clearProperty(SharedTree.HISTOGRAM_BATCH_BYTES);
+      }
+
+      for (GBMModel m : new GBMModel[]{onePass, batched}) {
+        assertEquals(((ModelMetricsMultinomial) legacy._output._training_metrics).logloss(),
+                     ((ModelMetricsMultinomial) m._output._training_metrics).logloss(), 1e-10);
+        assertSameTrees(legacy, m);
+        assertSamePredictions(legacy, m, fr);
+      }
+    } finally {
+      if (fr != null) fr.remove();
+      if (legacy != null) legacy.delete();
+      if (onePass != null) onePass.delete();
+      if (batched != null) batched.delete();
+    }
+  }
+
+  private static void assertSameTrees(GBMModel exp, GBMModel act) {
+    assertEquals(exp._output._ntrees, act._output._ntrees);
+    for (int t = 0; t < exp._output._ntrees; t++)
+      for (int k = 0; k < exp._output._treeKeys[t].length; k++) {
+        Key<CompressedTree> ek = exp._output._treeKeys[t][k], ak = act._output._treeKeys[t][k];
+        if (ek == null) { Assert.assertNull(ak); continue; }
+        assertEquals("tree " + t + " class " + k, DKV.<CompressedTree>getGet(ek).toString(exp._output),
+                     DKV.<CompressedTree>getGet(ak).toString(act._output));
+      }
+  }
+
+  private static void assertSamePredictions(GBMModel exp, GBMModel act, Frame fr) {
+    Frame pe = null, pa = null;
+    try {
+      pe = exp.score(fr);
+      pa = act.score(fr);
+      assertTrue(isBitIdentical(pe, pa));
+    } finally {
+      if (pe != null) pe.remove();
+      if (pa != null) pa.remove();
+    }
+  }
+
+  @Test public void testFailedCVLeavesNoVecs() {
+    Frame fr = null;
+    try {
+      fr = new Frame(Key.<Frame>make("tiny"), new String[]{"x", "y"},
+          new Vec[]{ivec(1, 2, 3, 4, 5, 6), dvec(0.5, 1.5, 0.2, 2.5, 0.7, 1.1)});
+      DKV.put(fr);
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = fr._key;
+      parms._response_column = "y";
+      parms._ntrees = 1;
+      parms._min_rows = 1;
+      parms._nfolds = 5;
+      parms._fold_assignment = Model.Parameters.FoldAssignmentScheme.Random;
+      // Find a seed leaving a fold without rows, so CV fails after the folds are assigned
+      int failures = 0;
+      for (parms._seed = 0; parms._seed < 20; parms._seed++) {
+        int vecs = vecKeys();
+        GBMModel model = null;
+        try {
+          model = new GBM(parms).trainModel().get();
+        } catch (RuntimeException e) {
+          assertTrue(e.getMessage(), e.getMessage().contains("Not enough data"));
+          failures++;
+          assertEquals("Vecs left by seed " + parms._seed, vecs, vecKeys());
+        } finally {
+          if (model != null) model.deleteCrossValidationModels();
+          if (model != null) model.delete();
+        }
+      }
+      assertTrue(failures > 0);
+    } finally {
+      if (fr != null) fr.delete();
+    }
+  }
+
+  private static int vecKeys() {
+    int n = 0;
+    for (Key k : H2O.localKeySet())
+      if (k.isVec()) n++;
+    return n;
+  }
 }
@@ -151,13 +151,181 @@ public class DMatrix  {
     public float progress(){ return (float)((double)chunksDone/chunksTotal);}
   }
 
-  public static Frame mmul(Frame x, Frame y) {
-    MatrixMulTsk t = new MatrixMulTsk(null,null,x,y);
-    if(Thread.currentThread() instanceof FJWThr)
-      t.fork().join();
-    else
-      H2O.submitTask(t).join();
-    return t._z;
+  /** Number of doubles of the right-hand matrix broadcast to all nodes in one pass of {@link #mmul} */
+  static final int BROADCAST_LIMIT = Integer.getInteger(H2O.OptArgs.SYSTEM_PROP_PREFIX + "mmul.broadcastLimit", 1 << 22);
+  /** Doubles of the block of rows of the left-hand matrix laid out row-major, sized to stay in cache */
+  static final int BLOCK_DOUBLES = 1 << 15;
+
+  /**
+   * Multiply x by y, both as matrices.
+   *
+   * y is pulled into memory and broadcast, in blocks of columns of at most
+   * {@link #BROADCAST_LIMIT} doubles, and every block is one pass over x that
+   * computes all the output columns of the block per chunk.  In the common
+   * tall-skinny x small case that is a single pass.  Only if a single column
+   * of y is too large is the output computed a column at a time.
+   *
+   * NAs propagate as in dense arithmetic: an output value is NA if any of the
+   * values of x and y it is made of is NA, even if the other one is zero.
+   */
+  public static Frame mmul(Frame x, Frame y) { return mmul(x, y, BROADCAST_LIMIT); }
+
+  static Frame mmul(Frame x, Frame y, int broadcastLimit) {
+    if(x.numCols() != y.numRows())
+      throw new IllegalArgumentException("dimensions do not match! x.numcols = " + x.numCols() + ", y.numRows = " + y.numRows());
+    int p = x.numCols(), q = y.numCols();
+    int block = Math.min(q, broadcastLimit / Math.max(1, p));
+    if(block == 0) {
+      MatrixMulTsk t = new MatrixMulTsk(null,null,x,y);
+      if(Thread.currentThread() instanceof FJWThr)
+        t.fork().join();
+      else
+        H2O.submitTask(t).join();
+      return t._z;
+    }
+    Frame z = new Frame();
+    for(int c0 = 0; c0 < q; c0 += block) {
+      int c1 = Math.min(q, c0 + block);
+      String[] names = new String[c1 - c0];
+      for(int c = c0; c < c1; ++c) names[c - c0] = "C" + (c + 1);
+      double[][] ys = new RowsTsk(p).doAll(Arrays.copyOfRange(y.vecs(), c0, c1))._rows;
+      z.add(new BlockMulTsk(ys).doAll(c1 - c0, Vec.T_NUM, x).outputFrame(names, null));
+    }
+    return z;
+  }
+
+  /**
+   * Multiply the transpose of x by y, both as matrices with the same rows, in
+   * a single pass reducing the small p by q result; a Gram matrix if y is x.
+   * NAs propagate as in {@link #mmul}.
+   */
+  public static Frame tmmul(Frame x, Frame y) {
+    if(x.numRows() != y.numRows())
+      throw new IllegalArgumentException("dimensions do not match! x.numrows = " + x.numRows() + ", y.numRows = " + y.numRows());
+    Vec[] yvecs = x.makeCompatible(y);
+    double[] xty = new GramTsk(x.numCols(), y.numCols()).doAll(ArrayUtils.append(x.vecs(), yvecs))._xty;
+    if(yvecs != y.vecs())       // Drop the rebalanced copy
+      for(Vec v : yvecs) v.remove();
+    double[][] rows = new double[x.numCols()][];
+    for(int j = 0; j < rows.length; ++j)
+      rows[j] = Arrays.copyOfRange(xty, j * y.numCols(), (j + 1) * y.numCols());
+    return ArrayUtils.frame(rows);
+  }
+
+  // Values of the rows of the Vecs of a small matrix
+  private static class RowsTsk extends MRTask<RowsTsk> {
+    final int _nrows;
+    double[][] _rows;
+    RowsTsk(int nrows) {_nrows = nrows;}
+    @Override public void setupLocal() {_rows = new double[_nrows][];}
+    @Override public void map(Chunk[] cs) {
+      int start = (int)cs[0].start();
+      for(int r = 0; r < cs[0]._len; ++r) {
+        double[] row = _rows[start + r] = MemoryManager.malloc8d(cs.length);
+        for(int c = 0; c < cs.length; ++c) row[c] = cs[c].atd(r);
+      }
+    }
+    @Override public void reduce(RowsTsk t) {
+      if(_rows != t._rows)
+        for(int r = 0; r < _nrows; ++r)
+          if(t._rows[r] != null) _rows[r] = t._rows[r];
+    }
+  }
+
+  // Values of rows [from,to) of a chunk into vals, NAs included
+  private static void getDoubles(Chunk c, double[] vals, int from, int to) {
+    if(c.isSparseZero()) {
+      Arrays.fill(vals, 0, to - from, 0);
+      for(int k = c.nextNZ(from - 1); k < to; k = c.nextNZ(k)) vals[k - from] = c.atd(k);
+    } else c.getDoubles(vals, from, to, Double.NaN);
+  }
+
+  // All the output columns of a block of columns of y, per chunk of x
+  private static class BlockMulTsk extends MRTask<BlockMulTsk> {
+    final double[] _y;          // Row-major, [x column * m + output column]
+    final boolean[] _nas;       // Rows of y holding NAs, which zeros of x do not skip
+    final int _m;
+    BlockMulTsk(double[][] y) {
+      _m = y[0].length;
+      _y = MemoryManager.malloc8d(y.length * _m);
+      _nas = new boolean[y.length];
+      for(int j = 0; j < y.length; ++j) {
+        System.arraycopy(y[j], 0, _y, j * _m, _m);
+        for(double d : y[j]) _nas[j] |= Double.isNaN(d);
+      }
+    }
+    @Override public void map(Chunk[] xs, NewChunk[] zs) {
+      int len = xs[0]._len, p = xs.length, m = _m;
+      int nrows = Math.max(1, Math.min(len, BLOCK_DOUBLES / p));
+      double[] xb = MemoryManager.malloc8d(nrows * p);   // Row-major block of x
+      double[] col = MemoryManager.malloc8d(nrows);
+      double[] zrow = MemoryManager.malloc8d(m);         // Output row, kept in cache
+      double[][] zcols = new double[m][];
+      for(int c = 0; c < m; ++c) zcols[c] = MemoryManager.malloc8d(len);
+      for(int r0 = 0; r0 < len; r0 += nrows) {
+        int r1 = Math.min(len, r0 + nrows);
+        for(int j = 0; j < p; ++j) {
+          getDoubles(xs[j], col, r0, r1);
+          for(int k = 0; k < r1 - r0; ++k) xb[k * p + j] = col[k];
+        }
+        for(int k = 0; k < r1 - r0; ++k) {
+          Arrays.fill(zrow, 0);
+          for(int j = 0; j < p; ++j) {
+            double a = xb[k * p + j];
+            if(a != 0 || _nas[j]) axpyRow(a, _y, j * m, zrow, 0, m);
+          }
+          for(int c = 0; c < m; ++c) zcols[c][r0 + k] = zrow[c];
+        }
+      }
+      for(int c = 0; c < m; ++c) zs[c].setDoubles(zcols[c]);
+    }
+  }
+
+  // x'y of the first p and the other q columns, as a reduction
+  private static class GramTsk extends MRTask<GramTsk> {
+    final int _p, _q;
+    double[] _xty;              // [x column * q + y column]
+    GramTsk(int p, int q) {_p = p; _q = q;}
+    @Override public void map(Chunk[] cs) {
+      int len = cs[0]._len;
+      int nrows = Math.max(1, Math.min(len, BLOCK_DOUBLES / Math.max(1, _q)));
+      _xty = MemoryManager.malloc8d(_p * _q);
+      double[] yb = MemoryManager.malloc8d(nrows * _q); // Row-major block of y
+      boolean[] nas = new boolean[nrows];                // Rows of the block of y holding NAs
+      double[] col = MemoryManager.malloc8d(nrows);
+      for(int r0 = 0; r0 < len; r0 += nrows) {
+        int r1 = Math.min(len, r0 + nrows);
+        Arrays.fill(nas, false);
+        boolean anyNA = false;
+        for(int c = 0; c < _q; ++c) {
+          getDoubles(cs[_p + c], col, r0, r1);
+          for(int k = 0; k < r1 - r0; ++k) {
+            yb[k * _q + c] = col[k];
+            if(Double.isNaN(col[k])) anyNA = nas[k] = true;
+          }
+        }
+        for(int j = 0; j < _p; ++j) {
+          Chunk xc = cs[j];
+          if(xc.isSparseZero() && !anyNA) {
+            for(int k = xc.nextNZ(r0 - 1); k < r1; k = xc.nextNZ(k))
+              axpyRow(xc.atd(k), yb, (k - r0) * _q, _xty, j * _q, _q);
+          } else {
+            getDoubles(xc, col, r0, r1);
+            for(int k = 0; k < r1 - r0; ++k)
+              if(col[k] != 0 || nas[k]) axpyRow(col[k], yb, k * _q, _xty, j * _q, _q);
+          }
+        }
+      }
+    }
+    @Override public void reduce(GramTsk t) {
+      if(_xty == null) _xty = t._xty;
+      else if(t._xty != null) ArrayUtils.add(_xty, t._xty);
+    }
+  }
+
+  // acc[aoff..aoff+n) += a*y[yoff..yoff+n)
+  private static void axpyRow(double a, double[] y, int yoff, double[] acc, int aoff, int n) {
+    for(int c = 0; c < n; ++c) acc[aoff + c] += a * y[yoff + c];
   }
 
   public static class MatrixMulTsk extends H2OCountedCompleter {
@@ -175,8 +343,16 @@ public class DMatrix  {
       _progressKey = progressKey;
     }
 
+    // Columns of x holding NAs; they make NAs of the output even where y is zero
+    private int[] _naCols;
+
     @Override
     public void compute2() {
+      int[] naCols = new int[_x.numCols()];
+      int n = 0;
+      for(int j = 0; j < naCols.length; ++j)
+        if(_x.vec(j).naCnt() > 0) naCols[n++] = j;
+      _naCols = Arrays.copyOf(naCols, n);
       _z = new Frame(_x.anyVec().makeZeros(_y.numCols()));
       int total_cores = H2O.CLOUD.size()*H2O.NUMCPUS;
       int chunksPerCol = _y.anyVec().nChunks();
@@ -192,7 +368,15 @@ public class DMatrix  {
       new GetNonZerosTsk(new H2OCallback<GetNonZerosTsk>(this) {
         @Override
         public void callback(GetNonZerosTsk gnz) {
-          new VecTsk(new Callback(), _progressKey, gnz._vals).dfork(ArrayUtils.append(_x.vecs(gnz._idxs), _z.vec(i)));
+          // Add the columns of x with NAs, times the zeros of y
+          int[] naCols = new int[_naCols.length];
+          int n = 0;
+          for(int j : _naCols)
+            if(Arrays.binarySearch(gnz._idxs, j) < 0) naCols[n++] = j;
+          int[] idxs = new int[gnz._idxs.length + n];
+          double[] vals = new double[idxs.length];
+          ArrayUtils.sortedMerge(gnz._idxs, gnz._vals, Arrays.copyOf(naCols, n), new double[n], idxs, vals);
+          new VecTsk(new Callback(), _progressKey, vals).dfork(ArrayUtils.append(_x.vecs(idxs), _z.vec(i)));
         }
       }).dfork(_y.vec(i));
     }
@@ -258,9 +442,16 @@ public class DMatrix  {
     @Override public void map(Chunk [] chks) {
       Chunk zChunk = chks[chks.length-1];
       double [] res = MemoryManager.malloc8d(chks[0]._len);
-      for(int i = 0; i < _y.length; ++i) {
+      boolean yNA = false;
+      for(double d : _y) yNA |= Double.isNaN(d);
+      if(yNA) Arrays.fill(res, Double.NaN); // Even the zeros of x times an NA of y
+      else for(int i = 0; i < _y.length; ++i) {
         final double yVal = _y[i];
         final Chunk xChunk = chks[i];
+        if (xChunk.isSparseNA()) { // Rows not stored are NAs, not zeros
+          for (int k = 0; k < res.length; ++k) res[k] += yVal * xChunk.atd(k);
+          continue;
+        }
         for (int k = xChunk.nextNZ(-1); k < res.length; k = xChunk.nextNZ(k))
           try { res[k] += yVal * xChunk.atd(k);} catch(Throwable t) {
             t.printStackTrace();
@@ -1099,31 +1099,42 @@ public abstract class Model<M extends Model<M,P,O>, P extends Model.Parameters,
         } else
           actual = new float[chks.length];
       }
-      double[] preds = _mb._work;  // Sized for the union of test and train classes
       int len = chks[0]._len;
-      for (int row = 0; row < len; row++) {
-        double weight = weightsChunk!=null?weightsChunk.atd(row):1;
-        if (weight == 0) {
+      // Rows are scored a block at a time; preds are sized for the union of test and train classes
+      final int blockSize = Math.min(len, SCORE_BLOCK_SIZE);
+      double[][] preds = new double[blockSize][_mb._work.length];
+      double[] weights = new double[blockSize];
+      double[] offsets = new double[blockSize];
+      for (int from = 0; from < len; from += blockSize) {
+        final int to = Math.min(len, from + blockSize);
+        for (int row = from; row < to; row++) {
+          weights[row - from] = weightsChunk != null ? weightsChunk.atd(row) : 1;
+          offsets[row - from] = offsetChunk != null ? offsetChunk.atd(row) : 0;
+        }
+        score0(chks, weights, offsets, from, to, tmp, preds);
+        for (int row = from; row < to; row++) {
+          double weight = weights[row - from];
+          if (weight == 0) {
+            if (_makePreds) {
+              for (int c = 0; c < _npredcols; c++)  // Output predictions; sized for train only (excludes extra test classes)
+                cpreds[c].addNum(0);
+            }
+            continue;
+          }
+          double [] p = preds[row - from];
+          if (_computeMetrics) {
+            if(isSupervised()) {
+              actual[0] = (float)responseChunk.atd(row);
+            } else {
+              for(int i = 0; i < actual.length; ++i)
+                actual[i] = (float)chks[i].atd(row);
+            }
+            _mb.perRow(p, actual, weight, offsets[row - from], Model.this);
+          }
           if (_makePreds) {
             for (int c = 0; c < _npredcols; c++)  // Output predictions; sized for train only (excludes extra test classes)
-              cpreds[c].addNum(0);
-          }
-          continue;
-        }
-        double offset = offsetChunk!=null?offsetChunk.atd(row):0;
-        double [] p = score0(chks, weight, offset, row, tmp, preds);
-        if (_computeMetrics) {
-          if(isSupervised()) {
-            actual[0] = (float)responseChunk.atd(row);
-          } else {
-            for(int i = 0; i < actual.length; ++i)
-              actual[i] = (float)chks[i].atd(row);
+              cpreds[c].addNum(p[c]);
           }
-          _mb.perRow(preds, actual, weight, offset, Model.this);
-        }
-        if (_makePreds) {
-          for (int c = 0; c < _npredcols; c++)  // Output predictions; sized for train only (excludes extra test classes)
-            cpreds[c].addNum(p[c]);
         }
       }
       if ( _j != null) _j.update(1);
@@ -1159,6 +1170,55 @@ public abstract class Model<M extends Model<M,P,O>, P extends Model.Parameters,
     return scored;
   }
 
+  /** Number of rows handed at once to the block scoring API by {@link BigScore}. */
+  public static final int SCORE_BLOCK_SIZE = 1024;
+
+  /** Bulk scoring API for a block of rows {@code [from,to)} of the same Chunks.
+   *  On return {@code preds[row-from]} holds what
+   *  {@link #score0(Chunk[], double, double, int, double[], double[])} computes
+   *  for that row, including the corrected probabilities and the label.  Rows
+   *  with a zero weight may be left unscored.  Default method scores one row at
+   *  a time; algos override it to score the whole block column- or tree-major
+   *  directly over the Chunks.
+   *  @param weights per-row weights of the block, indexed by {@code row-from}
+   *  @param offsets per-row offsets of the block, indexed by {@code row-from}
+   *  @param tmp temp array sized for one row of features
+   *  @param preds at least {@code to-from} pre-allocated prediction arrays */
+  public void score0( Chunk chks[], double[] weights, double[] offsets, int from, int to, double[] tmp, double[][] preds ) {
+    for( int row = from; row < to; row++ ) {
+      double weight = weights[row - from];
+      if( weight == 0 ) continue;
+      double[] p = score0(chks, weight, offsets[row - from], row, tmp, preds[row - from]);
+      if( p != preds[row - from] ) System.arraycopy(p, 0, preds[row - from], 0, p.length);
+    }
+  }
+
+  /** Finish a row scored by a block scoring implementation: correct the
+   *  probabilities and assign the label, exactly as the per-row path does.
+   *  The row features are only needed to break ties between classes, so the
+   *  row is decoded into {@code tmp} lazily unless the caller already has it.
+   *  @param data decoded row features, or null if the row was never decoded */
+  protected final void scoreLabel( Chunk chks[], int row_in_chunk, double[] data, double[] tmp, double[] preds ) {
+    if( !isSupervised() || !_output.isClassifier() ) return;
+    if (_parms._balance_classes)
+      GenModel.correctProbabilities(preds, _output._priorClassDist, _output._modelClassDist);
+    if( data == null && preds.length > 3 && hasTies(preds) ) {
+      for( int i=0; i< tmp.length; i++ )
+        tmp[i] = chks[i].atd(row_in_chunk);
+      data = tmp;
+    }
+    preds[0] = hex.genmodel.GenModel.getPrediction(preds, _output._priorClassDist, data, defaultThreshold());
+  }
+
+  private static boolean hasTies( double[] preds ) {
+    int best = 1;
+    for( int c = 2; c < preds.length; c++ )
+      if( preds[best] < preds[c] ) best = c;
+    for( int c = 1; c < preds.length; c++ )
+      if( c != best && preds[c] == preds[best] ) return true;
+    return false;
+  }
+
   /** Subclasses implement the scoring logic.  The data is pre-loaded into a
    *  re-used temp array, in the order the model expects.  The predictions are
    *  loaded into the re-used temp array, which is also returned.  */
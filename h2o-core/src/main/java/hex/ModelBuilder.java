@@ -233,14 +233,44 @@ abstract public class ModelBuilder<M extends Model<M,P,O>, P extends Model.Param
 
   /**
    * How many should be trained in parallel during N-fold cross-validation?
-   * Train all CV models in parallel when parallelism is enabled, otherwise train one at a time
+   * Train as many CV models in parallel as the cores and memory of the cloud allow when parallelism
+   * is enabled, otherwise train one at a time.
    * Each model can override this logic, based on parameters, dataset size, etc.
    * @return How many models to train in parallel during cross-validation
    */
   protected int nModelsInParallel() {
-    if (!_parms._parallelize_cross_validation || _parms._max_runtime_secs != 0) return 1; //user demands serial building (or we need to honor the time constraints for all CV models equally)
-    if (_train.byteSize() < 1e6) return _parms._nfolds; //for small data, parallelize over CV models
-    return 1; //safe fallback
+    if (!_parms._parallelize_cross_validation) return 1; //user demands serial building
+    return nModelsInParallel(1);
+  }
+
+  /**
+   * Number of CV models which fit the cloud at once, but at least <code>min</code>.
+   *
+   * A model's MRTasks run over the chunks of the training frame, so a model on a frame with fewer
+   * chunks than the cloud has cores leaves cores idle which other fold models can use.  With
+   * virtual folds the CV models share the training data; each in-flight model is charged the size
+   * of the training frame for its working state.
+   */
+  protected int nModelsInParallel(int min) {
+    int cores = H2O.CLOUD.size() * (H2O.ARGS.nthreads > 0 ? H2O.ARGS.nthreads : H2O.NUMCPUS);
+    return nModelsInParallel(_parms, train(), cores, min);
+  }
+
+  /**
+   * Number of CV models on the given training frame which fit a cloud of <code>cores</code> cores
+   * at once, but at least <code>min</code>; also used by grid searches to reserve cores for a build.
+   */
+  public static int nModelsInParallel(Model.Parameters parms, Frame train, int cores, int min) {
+    int folds = parms._nfolds > 0 ? parms._nfolds : 1;
+    if (parms._fold_column != null) {
+      Vec f = train.vec(parms._fold_column);
+      if (f != null) folds = f.isCategorical() ? f.domain().length : (int) (f.max() - f.min() + 1);
+    }
+    int busy = Math.max(1, Math.min(cores, train.anyVec().nChunks())); // cores kept busy by one model
+    long bytes = Math.max(1, train.byteSize());
+    long memory = Math.max(1, H2O.CLOUD.free_mem() / bytes);
+    int fit = (int) Math.min(cores / busy, memory);
+    return Math.max(1, Math.min(folds, Math.max(min, fit)));
   }
 
   // Work for each requested fold
@@ -262,11 +292,12 @@ abstract public class ModelBuilder<M extends Model<M,P,O>, P extends Model.Param
     _job.setReadyForView(false); //wait until the main job starts to let the user inspect the main job
     final Integer N = nFoldWork();
     init(false);
+    Vec foldAssignment = null;
     try {
       Scope.enter();
 
       // Step 1: Assign each row to a fold
-      final Vec foldAssignment = cv_AssignFold(N);
+      foldAssignment = cv_AssignFold(N);
 
       // Step 2: Make 2*N binary weight vectors
       final Vec[] weights = cv_makeWeights(N,foldAssignment);
@@ -279,6 +310,8 @@ abstract public class ModelBuilder<M extends Model<M,P,O>, P extends Model.Param
 
       // Step 5: Score the CV models
       ModelMetrics.MetricBuilder mbs[] = cv_scoreCVModels(N, weights, cvModelBuilders);
+      if( _parms._fold_column == null ) foldAssignment.remove(); // Backs the virtual fold weights
+      foldAssignment = null;
 
       // Step 6: Build the main model
       buildMainModel();
@@ -295,6 +328,8 @@ abstract public class ModelBuilder<M extends Model<M,P,O>, P extends Model.Param
       DKV.put(_job);
 
     } finally {
+      // A failed fold build or scoring leaves the Vec behind the fold weights
+      if( foldAssignment != null && _parms._fold_column == null ) foldAssignment.remove();
       cleanUp();
       Scope.exit();
     }
@@ -324,29 +359,18 @@ abstract public class ModelBuilder<M extends Model<M,P,O>, P extends Model.Param
     }
   }
 
-  // Step 2: Make 2*N binary weight vectors
+  // Step 2: Make 2*N binary weight vectors; the vectors are virtual (computed on the fly from the
+  // fold assignment), so foldAssignment must be kept until they are removed.
   public Vec[] cv_makeWeights( final int N, Vec foldAssignment ) {
     String origWeightsName = _parms._weights_column;
-    Vec origWeight  = origWeightsName != null ? train().vec(origWeightsName) : train().anyVec().makeCon(1.0);
-    Frame folds_and_weights = new Frame(foldAssignment, origWeight);
-    Vec[] weights = new MRTask() {
-        @Override public void map(Chunk chks[], NewChunk nchks[]) {
-          Chunk fold = chks[0], orig = chks[1];
-          for( int row=0; row< orig._len; row++ ) {
-            int foldIdx = (int)fold.at8(row) % N;
-            double w = orig.atd(row);
-            for( int f = 0; f < N; f++ ) {
-              boolean holdout = foldIdx == f;
-              nchks[2 * f].addNum(holdout ? 0 : w);
-              nchks[2*f+1].addNum(holdout ? w : 0);
-            }
-          }
-        }
-      }.doAll(2*N,Vec.T_NUM,folds_and_weights).outputFrame().vecs();
+    Vec origWeight  = origWeightsName != null ? train().vec(origWeightsName) : null;
+    Vec[] weights = new Vec[2*N];
+    for( int f = 0; f < N; f++ ) {
+      weights[2*f  ] = new FoldWeightVec(foldAssignment, origWeight, N, f, false);
+      weights[2*f+1] = new FoldWeightVec(foldAssignment, origWeight, N, f, true);
+    }
     if (_parms._keep_cross_validation_fold_assignment)
       DKV.put(new Frame(Key.<Frame>make("cv_fold_assignment_" + _result.toString()), new String[]{"fold_assignment"}, new Vec[]{foldAssignment.makeCopy()}));
-    if( _parms._fold_column == null && !_parms._keep_cross_validation_fold_assignment) foldAssignment.remove();
-    if( origWeightsName == null ) origWeight.remove(); // Cleanup temp
 
     for( Vec weight : weights )
       if( weight.isConst() )
@@ -406,17 +430,18 @@ abstract public class ModelBuilder<M extends Model<M,P,O>, P extends Model.Param
   // Step 4: Run all the CV models and launch the main model
   public void cv_buildModels(int N, ModelBuilder<M, P, O>[] cvModelBuilders ) {
     H2O.H2OCountedCompleter submodel_tasks[] = new H2O.H2OCountedCompleter[N];
-    int nRunning=0;
+    final int nParallel = nModelsInParallel();
+    Log.info("Building " + N + " cross-validation models, " + nParallel + " at a time.");
     for( int i=0; i<N; ++i ) {
       if( _job.stop_requested() ) break; // Stop launching but still must block for all async jobs
       Log.info("Building cross-validation model " + (i + 1) + " / " + N + ".");
       cvModelBuilders[i]._start_time = System.currentTimeMillis();
       submodel_tasks[i] = H2O.submitTask(cvModelBuilders[i].trainModelImpl());
-      if(++nRunning == nModelsInParallel()) //piece-wise advance in training the CV models
-        while (nRunning>0) submodel_tasks[i+1-nRunning--].join();
+      if( i+1 >= nParallel ) // sliding window: wait for the oldest running model before launching the next one
+        submodel_tasks[i+1-nParallel].join();
     }
     for( int i=0; i<N; ++i ) //all sub-models must be completed before the main model can be built
-      submodel_tasks[i].join();
+      if( submodel_tasks[i] != null ) submodel_tasks[i].join();
     cv_computeAndSetOptimalParameters(cvModelBuilders);
   }
 
@@ -0,0 +1,196 @@
+package hex.grid;
+
+import hex.Model;
+import hex.ModelBuilder;
+import jsr166y.ForkJoinPool;
+import water.H2O;
+import water.H2ONode;
+import water.HeartBeat;
+import water.Job;
+import water.Key;
+import water.fvec.Frame;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admission control for model builds launched by parallel grid searches.
+ *
+ * Before a grid launches a model it reserves the number of cores the build
+ * is expected to keep busy. Capacity is the number of F/J worker threads in
+ * the cloud; a reservation is granted while it fits into the free capacity
+ * and the F/J queues reported by the heartbeats are not backed up (a grid
+ * always gets at least one model running, so nothing starves).
+ *
+ * When several grids are waiting, the grid with the least estimated work in
+ * flight goes first, ties broken by arrival. Grids submitted by different
+ * users therefore interleave instead of the first grid occupying the cloud
+ * until it is done.
+ *
+ * The scheduler is node-local: it arbitrates between the grids driven from
+ * this node, and sees load caused by other nodes only through heartbeats.
+ */
+final class GridScheduler {
+
+  static final GridScheduler INSTANCE = new GridScheduler();
+
+  /** How long a waiting launch sleeps before re-reading cloud load; heartbeats arrive about once a second. */
+  private static final long RECHECK_MS = 500;
+
+  /** Granted reservation; must be handed back to {@link #release}. */
+  static final class Reservation {
+    final Key<Grid> _grid;
+    final int _cores;
+    final long _work;
+    final long _ticket;
+    Reservation(Key<Grid> grid, int cores, long work, long ticket) {
+      _grid = grid; _cores = cores; _work = work; _ticket = ticket;
+    }
+  }
+
+  private final List<Reservation> _waiting = new ArrayList<>();
+  /** Estimated work of the running builds, per grid. */
+  private final Map<Key<Grid>, Long> _inflightWork = new HashMap<>();
+  private int _reservedCores;
+  private long _tickets;
+
+  private GridScheduler() {}
+
+  /**
+   * Block until a build of a model with the given parameters may start.
+   *
+   * @return the reservation, or null if the job was asked to stop while waiting
+   */
+  Reservation acquire(Key<Grid> grid, Model.Parameters params, Job job) {
+    final int cores = estimateCores(params, cloudCores());
+    final long work = estimateWork(params);
+    synchronized (this) {
+      Reservation r = new Reservation(grid, cores, work, _tickets++);
+      _waiting.add(r);
+      try {
+        Admission admission = new Admission(r, job);
+        while (!admission.isReleasable()) {
+          try {
+            ForkJoinPool.managedBlock(admission);
+          } catch (InterruptedException ignore) { }
+        }
+        if (job.stop_requested()) return null;
+        _reservedCores += r._cores;
+        Long w = _inflightWork.get(r._grid);
+        _inflightWork.put(r._grid, (w == null ? 0 : w) + r._work);
+        return r;
+      } finally {
+        _waiting.remove(r);
+        notifyAll();              // the next waiter in line may now fit
+      }
+    }
+  }
+
+  /**
+   * Wait for a reservation to be admitted or its job to be stopped, as a managed
+   * block so the F/J pool can add a thread meanwhile. Only used holding the lock.
+   */
+  private final class Admission implements ForkJoinPool.ManagedBlocker {
+    private final Reservation _r;
+    private final Job _job;
+    Admission(Reservation r, Job job) { _r = r; _job = job; }
+    @Override public boolean block() throws InterruptedException {
+      GridScheduler.this.wait(RECHECK_MS);
+      return isReleasable();
+    }
+    @Override public boolean isReleasable() { return _job.stop_requested() || (next() == _r && admissible(_r)); }
+  }
+
+  /** Return the cores and work of a finished build. */
+  synchronized void release(Reservation r) {
+    _reservedCores -= r._cores;
+    long left = _inflightWork.get(r._grid) - r._work;
+    if (left > 0) _inflightWork.put(r._grid, left);
+    else _inflightWork.remove(r._grid);
+    notifyAll();
+  }
+
+  /** Waiting reservation of the grid with the least work in flight. */
+  private Reservation next() {
+    Reservation best = null;
+    long bestWork = Long.MAX_VALUE;
+    for (Reservation r : _waiting) {
+      Long w = _inflightWork.get(r._grid);
+      long work = w == null ? 0 : w;
+      if (work < bestWork || (work == bestWork && r._ticket < best._ticket)) {
+        best = r;
+        bestWork = work;
+      }
+    }
+    return best;
+  }
+
+  private boolean admissible(Reservation r) {
+    if (!_inflightWork.containsKey(r._grid)) return true; // every grid may run at least one model
+    int capacity = cloudCores();
+    return _reservedCores + r._cores <= capacity && queuedTasks() <= capacity;
+  }
+
+  /**
+   * Upper bound on the number of concurrent builds of models like this one,
+   * from free cloud memory. Each in-flight build is charged twice the size of
+   * its training frame (working copies, histograms, CV frames).
+   */
+  static int maxConcurrentModels(Model.Parameters params) {
+    Frame train = params.train();
+    if (train == null) return 1;
+    long bytes = Math.max(1, train.byteSize());
+    if (params._nfolds > 1) bytes *= 2;
+    long free = H2O.CLOUD.free_mem();
+    return (int) Math.max(1, Math.min(Integer.MAX_VALUE, free / (2 * bytes)));
+  }
+
+  /**
+   * Number of cores a build is expected to keep busy. MRTasks parallelize over
+   * chunks, so a frame with few chunks cannot use the whole cloud; parallel
+   * cross-validation runs as many fold models at once as the builder will, see
+   * {@link ModelBuilder#nModelsInParallel(Model.Parameters, Frame, int, int)}.
+   */
+  static int estimateCores(Model.Parameters params, int capacity) {
+    Frame train = params.train();
+    if (train == null || train.anyVec() == null) return capacity;
+    int cores = Math.max(1, Math.min(capacity, train.anyVec().nChunks()));
+    if ((params._nfolds > 1 || params._fold_column != null) && params._parallelize_cross_validation)
+      cores *= ModelBuilder.nModelsInParallel(params, train, capacity, 1);
+    return Math.min(capacity, cores);
+  }
+
+  /** Relative cost of a build: rows times progress units (trees, iterations, epochs) times folds. */
+  static long estimateWork(Model.Parameters params) {
+    Frame train = params.train();
+    long rows = train == null ? 1 : Math.max(1, train.numRows());
+    long units = Math.max(1, params.progressUnits());
+    long models = params._nfolds > 1 ? params._nfolds + 1 : 1;
+    return rows * units * models;
+  }
+
+  /** F/J worker threads of the whole cloud. */
+  static int cloudCores() {
+    int cores = 0;
+    for (H2ONode node : H2O.CLOUD.members()) {
+      HeartBeat hb = node._heartbeat;
+      if (hb == null) continue;
+      cores += hb._nthreads > 0 ? hb._nthreads : Math.max(1, (int) hb._cpus_allowed);
+    }
+    return Math.max(1, cores);
+  }
+
+  /** Tasks queued (not yet running) in the F/J pools of the cloud, as of the last heartbeats. */
+  private static int queuedTasks() {
+    int queued = 0;
+    for (H2ONode node : H2O.CLOUD.members()) {
+      HeartBeat hb = node._heartbeat;
+      if (hb == null || hb._fjqueue == null) continue;
+      for (short q : hb._fjqueue)
+        if (q > 0) queued += q;
+    }
+    return queued;
+  }
+}
@@ -2,6 +2,7 @@ package hex.grid;
 
 import hex.*;
 import hex.grid.HyperSpaceWalker.BaseWalker;
+import jsr166y.ForkJoinPool;
 import water.*;
 import water.exceptions.H2OIllegalArgumentException;
 import water.fvec.Frame;
@@ -13,6 +14,8 @@ import java.io.StringWriter;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * Grid search job.
@@ -28,8 +31,11 @@ import java.util.Map;
  *
  * The job is started by the <code>startGridSearch</code> method which create a new grid search, put
  * representation of Grid into distributed KV store, and for each parameter in hyper space of
- * possible parameters, it launches a separated model building job. The launch of jobs is sequential
- * and blocking. So after finish the last model, whole grid search job is done as well.
+ * possible parameters, it launches a separated model building job. By default the launch of jobs is
+ * sequential and blocking, so after finish the last model, whole grid search job is done as well.
+ * With {@link HyperSpaceSearchCriteria#parallelism()} other than 1 several models are built
+ * concurrently; each launch is admitted by the {@link GridScheduler}, which budgets cloud cores
+ * between all running grids.
  *
  * By default, the grid search invokes cartezian grid search, but it can be
  * modified by passing explicit hyper space walk strategy via the
@@ -158,6 +164,11 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
    * @param grid grid object to save results; grid already locked
    */
   private void gridSearch(Grid<MP> grid) {
+    int parallelism = _hyperSpaceWalker.search_criteria().parallelism();
+    if (parallelism != 1) {
+      parallelGridSearch(grid, parallelism);
+      return;
+    }
     Model model = null;
     // Prepare nice model key and override default key by appending model counter
     //String protoModelKey = _hyperSpaceWalker.getParams()._model_id == null
@@ -192,18 +203,8 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
           // exception up, just mark combination of model parameters as wrong
 
           // Do we need to limit the model build time?
-          if (max_runtime_secs > 0) {
-            Log.info("Grid time is limited to: " + max_runtime_secs + " for grid: " + grid._key + ". Remaining time is: " + time_remaining_secs);
-            double scale = params._nfolds > 0 ? params._nfolds+1 : 1; //remaining time per cv model is less
-            if (params._max_runtime_secs == 0) { // unlimited
-              params._max_runtime_secs = time_remaining_secs/scale;
-              Log.info("Due to the grid time limit, changing model max runtime to: " + params._max_runtime_secs + " secs.");
-            } else {
-              double was = params._max_runtime_secs;
-              params._max_runtime_secs = Math.min(params._max_runtime_secs, time_remaining_secs/scale);
-              Log.info("Due to the grid time limit, changing model max runtime from: " + was + " secs to: " + params._max_runtime_secs + " secs.");
-            }
-          }
+          if (max_runtime_secs > 0)
+            limitRuntime(params, grid, max_runtime_secs, time_remaining_secs);
 
           try {
             ScoringInfo scoringInfo = new ScoringInfo();
@@ -212,11 +213,9 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
             //// build the model!
             model = buildModel(params, grid, counter++, protoModelKey);
 
-            if (model!=null) {
-              model.fillScoringInfo(scoringInfo);
-              grid.setScoringInfos(ScoringInfo.prependScoringInfo(scoringInfo, grid.getScoringInfos()));
-              ScoringInfo.sort(grid.getScoringInfos(), _hyperSpaceWalker.search_criteria().stopping_metric()); // Currently AUTO for Cartesian and user-specified for RandomDiscrete
-            }
+            if (model!=null)
+              addScoringInfo(grid, model, scoringInfo);
+            reportBuild(it, params, model);
           } catch (RuntimeException e) { // Catch everything
             if (!Job.isCancelledException(e)) {
               StringWriter sw = new StringWriter();
@@ -225,6 +224,7 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
               Log.warn("Grid search: model builder for parameters " + params + " failed! Exception: ", e, sw.toString());
             }
             grid.appendFailedModelParameters(params, e);
+            reportBuild(it, params, null);
           }
         } catch (IllegalArgumentException e) {
           Log.warn("Grid search: construction of model parameters failed! Exception: ", e);
@@ -251,6 +251,212 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
     }
   }
 
+  /**
+   * Invokes grid search building several models concurrently.
+   *
+   * The walker is driven from this thread only, and so are all updates of the grid; model builds
+   * run as separate F/J tasks and report back through a queue. Each launch first reserves cores
+   * in the {@link GridScheduler}. The walker's stopping rules see the most recently finished
+   * model; once they (or the time limit) end the search no new builds are launched, and builds
+   * already running are waited for and kept in the grid.
+   *
+   * @param grid grid object to save results; grid already locked
+   * @param parallelism maximal number of concurrent builds, 0 to size it from cores and free memory
+   */
+  private void parallelGridSearch(Grid<MP> grid, int parallelism) {
+    String protoModelKey = grid._key + "_model_";
+    if (parallelism <= 0) // Every build reserves at least one core, more would only wait in the scheduler
+      parallelism = Math.min(GridScheduler.cloudCores(), GridScheduler.maxConcurrentModels(_hyperSpaceWalker.getParams()));
+    Log.info("Grid search " + grid._key + ": building up to " + parallelism + " models in parallel.");
+
+    final BlockingQueue<ModelBuild> finished = new LinkedBlockingQueue<>();
+    int running = 0;
+    try {
+      HyperSpaceWalker.HyperSpaceIterator<MP> it = _hyperSpaceWalker.iterator();
+      int counter = grid.getModelCount();
+      Model model = null;         // Most recently finished model, drives the walker
+      boolean launching = true;
+      while (launching || running > 0) {
+        // Fill up the free build slots
+        while (launching && running < parallelism) {
+          if (_job.stop_requested()) {
+            launching = false;
+            break;
+          }
+          if (!it.hasNext(model)) {
+            // The walker may wait for running builds (e.g. the end of a successive halving round)
+            if (running == 0) launching = false;
+            break;
+          }
+          double max_runtime_secs = it.max_runtime_secs();
+          double time_remaining_secs = Double.MAX_VALUE;
+          if (max_runtime_secs > 0) {
+            time_remaining_secs = it.time_remaining_secs();
+            if (time_remaining_secs < 0) {
+              Log.info("Grid max_runtime_secs of " + max_runtime_secs + " secs has expired; stopping early.");
+              launching = false;
+              break;
+            }
+          }
+
+          MP params;
+          try {
+            params = it.nextModelParameters(model);
+          } catch (IllegalArgumentException e) {
+            Log.warn("Grid search: construction of model parameters failed! Exception: ", e);
+            it.modelFailed(model);
+            grid.appendFailedModelParameters(it.getCurrentRawParameters(), e);
+            _job.update(1);
+            grid.update(_job);
+            continue;
+          }
+          if (max_runtime_secs > 0)
+            limitRuntime(params, grid, max_runtime_secs, time_remaining_secs);
+
+          long checksum = params.checksum();
+          Model existing = findModel(params, grid, checksum);
+          if (existing != null) {
+            model = existing;
+            reportBuild(it, params, model);
+            _job.update(1);
+            continue;
+          }
+          GridScheduler.Reservation reservation = GridScheduler.INSTANCE.acquire(_result, params, _job);
+          if (reservation == null) { // Cancelled while waiting for resources
+            launching = false;
+            break;
+          }
+          Key<Model> result = Key.make(protoModelKey + counter++);
+          H2O.submitTask(new ModelBuild(params, checksum, result, reservation, finished));
+          running++;
+        }
+        if (running == 0) break;
+
+        // Collect the next finished build
+        ModelBuild build = take(finished);
+        running--;
+        try {
+          if (build._ex == null) {
+            model = build._model;
+            grid.putModel(build._checksum, build._result);
+            addScoringInfo(grid, model, build._scoringInfo);
+            reportBuild(it, build._params, model);
+          } else {
+            if (!Job.isCancelledException(build._ex)) {
+              StringWriter sw = new StringWriter();
+              PrintWriter pw = new PrintWriter(sw);
+              build._ex.printStackTrace(pw);
+              Log.warn("Grid search: model builder for parameters " + build._params + " failed! Exception: ", build._ex, sw.toString());
+            }
+            grid.appendFailedModelParameters(build._params, build._ex);
+            reportBuild(it, build._params, null);
+          }
+        } finally {
+          _job.update(1);
+          grid.update(_job);
+        }
+        if (launching && build._ex == null && grid.getScoringInfos() != null &&
+            _hyperSpaceWalker.stopEarly(model, grid.getScoringInfos())) {
+          Log.info("Convergence detected based on simple moving average of the loss function. Grid building completed.");
+          launching = false;
+        }
+      }
+      Log.info("For grid: " + grid._key + " built: " + grid.getModelCount() + " models.");
+    } finally {
+      // Never unlock the grid under running builds
+      for (; running > 0; running--)
+        take(finished);
+      grid.unlock(_job);
+    }
+  }
+
+  // Take from the queue in a managed block, so the F/J pool can add a thread while the driver waits
+  private static <T> T take(BlockingQueue<T> queue) {
+    QueueTaker<T> taker = new QueueTaker<>(queue);
+    while (!taker.isReleasable()) {
+      try {
+        ForkJoinPool.managedBlock(taker);
+      } catch (InterruptedException ignore) { }
+    }
+    return taker._item;
+  }
+
+  private static final class QueueTaker<T> implements ForkJoinPool.ManagedBlocker {
+    final BlockingQueue<T> _queue;
+    volatile T _item;
+    QueueTaker(BlockingQueue<T> queue) { _queue = queue; }
+    @Override public boolean block() throws InterruptedException {
+      if (_item == null) _item = _queue.take();
+      return true;
+    }
+    @Override public boolean isReleasable() { return _item != null || (_item = _queue.poll()) != null; }
+  }
+
+  /** A single model build of a parallel grid search; returns its reservation and hands itself to the driver's queue when done. */
+  private final class ModelBuild extends H2O.H2OCountedCompleter<ModelBuild> {
+    final MP _params;
+    final long _checksum;       // Checksum of the params before the builder modified them
+    final Key<Model> _result;
+    final GridScheduler.Reservation _reservation;
+    final BlockingQueue<ModelBuild> _finished;
+    final ScoringInfo _scoringInfo = new ScoringInfo();
+    Model _model;
+    RuntimeException _ex;
+
+    ModelBuild(MP params, long checksum, Key<Model> result, GridScheduler.Reservation reservation,
+               BlockingQueue<ModelBuild> finished) {
+      _params = params;
+      _checksum = checksum;
+      _result = result;
+      _reservation = reservation;
+      _finished = finished;
+    }
+
+    @Override public void compute2() {
+      try {
+        _scoringInfo.time_stamp_ms = System.currentTimeMillis();
+        ModelBuilder mb = ModelBuilder.make(_params.algoName(), _job, _result);
+        mb._parms = _params;
+        _model = mb.trainModelNested(null);
+      } catch (RuntimeException e) { // Catch everything, the driver records the failure
+        _ex = e;
+      } finally {
+        // Free the cores right away: the driver may itself be waiting for them
+        GridScheduler.INSTANCE.release(_reservation);
+        _finished.add(this);
+      }
+      tryComplete();
+    }
+  }
+
+  /** Tell walkers which rank their candidates how a build ended; a null model means failure. */
+  private static <MP extends Model.Parameters> void reportBuild(HyperSpaceWalker.HyperSpaceIterator<MP> it, MP params, Model model) {
+    if (!(it instanceof HyperSpaceWalker.BuildListener)) return;
+    HyperSpaceWalker.BuildListener<MP> listener = (HyperSpaceWalker.BuildListener<MP>) it;
+    if (model != null) listener.modelBuilt(params, model);
+    else listener.modelBuildFailed(params);
+  }
+
+  /** Cap the build time of a model so that it fits into the remaining grid time. */
+  private void limitRuntime(MP params, Grid<MP> grid, double max_runtime_secs, double time_remaining_secs) {
+    Log.info("Grid time is limited to: " + max_runtime_secs + " for grid: " + grid._key + ". Remaining time is: " + time_remaining_secs);
+    double scale = params._nfolds > 0 ? params._nfolds+1 : 1; //remaining time per cv model is less
+    if (params._max_runtime_secs == 0) { // unlimited
+      params._max_runtime_secs = time_remaining_secs/scale;
+      Log.info("Due to the grid time limit, changing model max runtime to: " + params._max_runtime_secs + " secs.");
+    } else {
+      double was = params._max_runtime_secs;
+      params._max_runtime_secs = Math.min(params._max_runtime_secs, time_remaining_secs/scale);
+      Log.info("Due to the grid time limit, changing model max runtime from: " + was + " secs to: " + params._max_runtime_secs + " secs.");
+    }
+  }
+
+  private void addScoringInfo(Grid<MP> grid, Model model, ScoringInfo scoringInfo) {
+    model.fillScoringInfo(scoringInfo);
+    grid.setScoringInfos(ScoringInfo.prependScoringInfo(scoringInfo, grid.getScoringInfos()));
+    ScoringInfo.sort(grid.getScoringInfos(), _hyperSpaceWalker.search_criteria().stopping_metric()); // Currently AUTO for Cartesian and user-specified for RandomDiscrete
+  }
+
   /**
    * Build a model based on specified parameters and save it to resulting Grid object.
    *
@@ -270,11 +476,29 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
    * @return return a new model if it does not exist
    */
   private Model buildModel(final MP params, Grid<MP> grid, int paramsIdx, String protoModelKey) {
-    // Make sure that the model is not yet built (can be case of duplicated hyper parameters).
-    // We first look in the grid _models cache, then we look in the DKV.
     // FIXME: get checksum here since model builder will modify instance of params!!!
-
     final long checksum = params.checksum();
+    Model m = findModel(params, grid, checksum);
+    if (m != null) return m;
+
+    // Modify model key to have nice version with counter
+    // Note: Cannot create it before checking the cache since checksum would differ for each model
+    Key<Model> result = Key.make(protoModelKey + paramsIdx);
+    // Build a new model
+    // THIS IS BLOCKING call since we do not have enough information about free resources
+    // (see parallelGridSearch for the concurrent launching strategy)
+    m = (Model)startBuildModel(result,params, grid).dest().get();
+    grid.putModel(checksum, result);
+    return m;
+  }
+
+  /**
+   * Make sure that the model is not yet built (can be case of duplicated hyper parameters).
+   * We first look in the grid _models cache, then we look in the DKV.
+   *
+   * @return an already built model for the given parameters, or null
+   */
+  private Model findModel(final MP params, Grid<MP> grid, final long checksum) {
     Key<Model> key = grid.getModelKey(checksum);
     if (key != null) {
       if (DKV.get(key) == null) {
@@ -298,17 +522,7 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
       grid.putModel(checksum, modelKeys[0]);
       return modelKeys[0].get();
     }
-
-
-    // Modify model key to have nice version with counter
-    // Note: Cannot create it before checking the cache since checksum would differ for each model
-    Key<Model> result = Key.make(protoModelKey + paramsIdx);
-    // Build a new model
-    // THIS IS BLOCKING call since we do not have enough information about free resources
-    // FIXME: we should allow here any launching strategy (not only sequential)
-    Model m = (Model)startBuildModel(result,params, grid).dest().get();
-    grid.putModel(checksum, result);
-    return m;
+    return null;
   }
 
   /**
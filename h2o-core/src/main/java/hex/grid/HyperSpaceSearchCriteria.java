@@ -8,13 +8,25 @@ import water.Iced;
  * when to stop the search.
  */
 public class HyperSpaceSearchCriteria extends Iced {
-  public enum Strategy { Unknown, Cartesian, RandomDiscrete } // search strategy
+  public enum Strategy { Unknown, Cartesian, RandomDiscrete, SuccessiveHalving, Hyperband } // search strategy
 
   public final Strategy _strategy;
   public final Strategy strategy() { return _strategy; }
 
   public ScoreKeeper.StoppingMetric stopping_metric() { return ScoreKeeper.StoppingMetric.AUTO; }
 
+  private int _parallelism = 1;
+
+  /**
+   * Number of models to build concurrently. 1 builds them one after another; 0 lets the grid
+   * scheduler size concurrency from the estimated model cost, free memory and cluster load;
+   * n > 1 builds at most n models at a time, still subject to the scheduler's core budget.
+   */
+  public int parallelism() { return _parallelism; }
+
+  public void set_parallelism(int parallelism) {
+    this._parallelism = parallelism;
+  }
 
 // TODO: add a factory which accepts a Strategy and calls the right constructor
 
@@ -105,4 +117,91 @@ public class HyperSpaceSearchCriteria extends Iced {
       this._stopping_tolerance = _stopping_tolerance;
     }
   }
+
+  /**
+   * Search criteria for successive halving and Hyperband searches.
+   *
+   * Successive halving trains many random configurations on a small budget (number of trees,
+   * epochs, ...), keeps the best 1/reduction_factor of them, and continues the survivors with a
+   * budget reduction_factor times larger, until max_budget is reached. Hyperband runs several
+   * such brackets, trading the number of configurations against the starting budget.
+   */
+  public static final class SuccessiveHalvingSearchCriteria extends HyperSpaceSearchCriteria {
+    private long _seed = -1; // -1 means true random
+    private String _budget_parameter = "ntrees";
+    private double _min_budget = 1;
+    private double _max_budget = 0;
+    private double _reduction_factor = 3;
+    private boolean _resume_from_checkpoint = true;
+    private double _max_runtime_secs = 0;
+    private ScoreKeeper.StoppingMetric _stopping_metric = ScoreKeeper.StoppingMetric.AUTO;
+
+    public SuccessiveHalvingSearchCriteria() {
+      this(Strategy.SuccessiveHalving);
+    }
+
+    public SuccessiveHalvingSearchCriteria(Strategy strategy) {
+      super(strategy);
+      assert strategy == Strategy.SuccessiveHalving || strategy == Strategy.Hyperband;
+    }
+
+    /** Run all Hyperband brackets rather than the single, most exploratory successive halving bracket. */
+    public boolean hyperband() { return _strategy == Strategy.Hyperband; }
+
+    /** Seed for sampling the configurations.  Set to a value other than -1 to get a repeatable pseudorandom sequence. */
+    public long seed() { return _seed; }
+
+    /** Name of the model parameter which carries the budget, e.g. <i>ntrees</i> or <i>epochs</i>. */
+    public String budget_parameter() { return _budget_parameter; }
+
+    /** Budget of the first round. */
+    public double min_budget() { return _min_budget; }
+
+    /** Budget of the last round, i.e. the budget of a fully trained model. */
+    public double max_budget() { return _max_budget; }
+
+    /** Only the best 1/reduction_factor configurations of a round continue, with reduction_factor times the budget. */
+    public double reduction_factor() { return _reduction_factor; }
+
+    /** Continue the surviving models from their checkpoints instead of training them again from scratch. */
+    public boolean resume_from_checkpoint() { return _resume_from_checkpoint; }
+
+    /** Max runtime for the entire grid, in seconds. Set to 0 to disable. */
+    public double max_runtime_secs() { return _max_runtime_secs; }
+
+    /** Metric used to rank the configurations of a round (AUTO: logloss for classification, deviance for regression). */
+    public ScoreKeeper.StoppingMetric stopping_metric() { return _stopping_metric; }
+
+    public void set_seed(long _seed) {
+      this._seed = _seed;
+    }
+
+    public void set_budget_parameter(String _budget_parameter) {
+      this._budget_parameter = _budget_parameter;
+    }
+
+    public void set_min_budget(double _min_budget) {
+      this._min_budget = _min_budget;
+    }
+
+    public void set_max_budget(double _max_budget) {
+      this._max_budget = _max_budget;
+    }
+
+    public void set_reduction_factor(double _reduction_factor) {
+      this._reduction_factor = _reduction_factor;
+    }
+
+    public void set_resume_from_checkpoint(boolean _resume_from_checkpoint) {
+      this._resume_from_checkpoint = _resume_from_checkpoint;
+    }
+
+    public void set_max_runtime_secs(double _max_runtime_secs) {
+      this._max_runtime_secs = _max_runtime_secs;
+    }
+
+    public void set_stopping_metric(ScoreKeeper.StoppingMetric _stopping_metric) {
+      this._stopping_metric = _stopping_metric;
+    }
+  }
 }
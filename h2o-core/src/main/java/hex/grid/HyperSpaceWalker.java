@@ -4,7 +4,9 @@ import hex.Model;
 import hex.ModelParametersBuilderFactory;
 import hex.ScoreKeeper;
 import hex.ScoringInfo;
+import water.Key;
 import water.exceptions.H2OIllegalArgumentException;
+import water.util.Log;
 import water.util.PojoUtils;
 
 import java.util.*;
@@ -71,6 +73,19 @@ public interface HyperSpaceWalker<MP extends Model.Parameters, C extends HyperSp
     Object[] getCurrentRawParameters();
   } // interface HyperSpaceIterator
 
+  /**
+   * Optionally implemented by a {@link HyperSpaceIterator} which needs the outcome of every model
+   * build it asked for, e.g. to rank the candidates.  The grid search reports each build with the
+   * very parameters object returned by {@link HyperSpaceIterator#nextModelParameters(Model)}.
+   */
+  interface BuildListener<MP extends Model.Parameters> {
+    /** A model for the given parameters was built, or was already present. */
+    void modelBuilt(MP params, Model model);
+
+    /** Building a model for the given parameters failed. */
+    void modelBuildFailed(MP params);
+  }
+
   /**
    * Search criteria for the hyperparameter search including directives for how to search and
    * when to stop the search.
@@ -184,6 +199,8 @@ public interface HyperSpaceWalker<MP extends Model.Parameters, C extends HyperSp
           return new HyperSpaceWalker.CartesianWalker<>(params, hyperParams, paramsBuilderFactory, (HyperSpaceSearchCriteria.CartesianSearchCriteria) search_criteria);
         else if (strategy == HyperSpaceSearchCriteria.Strategy.RandomDiscrete )
           return new HyperSpaceWalker.RandomDiscreteValueWalker<>(params, hyperParams, paramsBuilderFactory, (HyperSpaceSearchCriteria.RandomDiscreteValueSearchCriteria) search_criteria);
+        else if (strategy == HyperSpaceSearchCriteria.Strategy.SuccessiveHalving || strategy == HyperSpaceSearchCriteria.Strategy.Hyperband)
+          return new HyperSpaceWalker.SuccessiveHalvingWalker<>(params, hyperParams, paramsBuilderFactory, (HyperSpaceSearchCriteria.SuccessiveHalvingSearchCriteria) search_criteria);
         else
           throw new H2OIllegalArgumentException("strategy", "GridSearch", strategy);
       }
@@ -557,4 +574,256 @@ public interface HyperSpaceWalker<MP extends Model.Parameters, C extends HyperSp
     } // nextModel
 
   } // RandomDiscreteValueWalker
+
+  /**
+   * Hyperparameter space walker implementing successive halving and Hyperband.
+   *
+   * A bracket samples random configurations (without repetition, like RandomDiscreteValueWalker)
+   * and trains them with a small budget; the budget is a model parameter such as <i>ntrees</i> or
+   * <i>epochs</i> and is set by the walker, not searched over.  When all models of a round are
+   * built they are ranked by the stopping metric, the best 1/eta of them survive, and are trained
+   * with eta times the budget, continuing from the previous model as a checkpoint.  The last round
+   * trains with max_budget.
+   *
+   * With max_budget/min_budget = eta^s_max, bracket s starts ceil((s_max+1)/(s+1) * eta^s)
+   * configurations with budget max_budget * eta^-s.  Successive halving runs only bracket s_max,
+   * Hyperband runs all brackets s_max..0.
+   *
+   * Models of all rounds are built by the grid and remain in it.  A round is a barrier: the next
+   * round is not handed out before all builds of the current round were reported through
+   * {@link BuildListener}.
+   */
+  public static class SuccessiveHalvingWalker<MP extends Model.Parameters>
+      extends BaseWalker<MP, HyperSpaceSearchCriteria.SuccessiveHalvingSearchCriteria> {
+
+    /** Model parameter holding the budget (with the leading underscore). */
+    private final String _budgetField;
+    /** Number of halvings of the most exploratory bracket. */
+    private final int _sMax;
+
+    public SuccessiveHalvingWalker(MP params,
+                                   Map<String, Object[]> hyperParams,
+                                   ModelParametersBuilderFactory<MP> paramsBuilderFactory,
+                                   HyperSpaceSearchCriteria.SuccessiveHalvingSearchCriteria search_criteria) {
+      super(params, hyperParams, paramsBuilderFactory, search_criteria);
+      String budget = search_criteria.budget_parameter();
+      if (budget == null || budget.isEmpty())
+        throw new H2OIllegalArgumentException("budget_parameter", "SuccessiveHalvingWalker", budget);
+      _budgetField = budget.startsWith("_") ? budget : "_" + budget;
+      if (hyperParams.containsKey(_budgetField) || hyperParams.containsKey(_budgetField.substring(1)))
+        throw new H2OIllegalArgumentException("Grid search hyperparameter '" + budget + "' is the budget of the search; it is set by the search and cannot be given in the hyperparameters map.");
+      if (!(PojoUtils.getFieldValue(params, _budgetField, PojoUtils.FieldNaming.CONSISTENT) instanceof Number))
+        throw new H2OIllegalArgumentException("budget_parameter", "SuccessiveHalvingWalker", budget);
+      if (search_criteria.min_budget() <= 0 || search_criteria.max_budget() < search_criteria.min_budget())
+        throw new H2OIllegalArgumentException("Successive halving needs 0 < min_budget <= max_budget, got min_budget = " + search_criteria.min_budget() + " and max_budget = " + search_criteria.max_budget() + ".");
+      if (search_criteria.reduction_factor() <= 1)
+        throw new H2OIllegalArgumentException("reduction_factor", "SuccessiveHalvingWalker", search_criteria.reduction_factor());
+      double eta = search_criteria.reduction_factor();
+      _sMax = (int) Math.floor(Math.log(search_criteria.max_budget() / search_criteria.min_budget()) / Math.log(eta) + 1e-9);
+    }
+
+    /** Number of configurations started by bracket s. */
+    private int bracketSize(int s) {
+      double eta = search_criteria().reduction_factor();
+      double n = Math.ceil((_sMax + 1) / (double) (s + 1) * Math.pow(eta, s));
+      return (int) Math.max(1, Math.min(n, _maxHyperSpaceSize));
+    }
+
+    /** Number of configurations in round i of a bracket which started n of them. */
+    private int roundSize(int n, int i) {
+      return (int) Math.max(1, Math.floor(n * Math.pow(search_criteria().reduction_factor(), -i)));
+    }
+
+    /** Budget of round i of bracket s. */
+    private double roundBudget(int s, int i) {
+      if (i == s) return search_criteria().max_budget();
+      return search_criteria().max_budget() * Math.pow(search_criteria().reduction_factor(), i - s);
+    }
+
+    private int lastBracket() {
+      return search_criteria().hyperband() ? 0 : _sMax;
+    }
+
+    /** Budget value boxed like the type of the budget field. */
+    private Object budgetValue(double budget) {
+      Object current = PojoUtils.getFieldValue(_params, _budgetField, PojoUtils.FieldNaming.CONSISTENT);
+      if (current instanceof Integer) return (int) Math.max(1, Math.round(budget));
+      if (current instanceof Long) return Math.max(1L, Math.round(budget));
+      if (current instanceof Float) return (float) budget;
+      return budget;
+    }
+
+    /** Rank models by the stopping metric, best first; models without the metric go last. */
+    private double rankingMetric(Model m, ScoreKeeper.StoppingMetric metric) {
+      ScoringInfo si = new ScoringInfo();
+      m.fillScoringInfo(si);
+      if (metric == ScoreKeeper.StoppingMetric.AUTO)
+        metric = m._output.isClassifier() ? ScoreKeeper.StoppingMetric.logloss : ScoreKeeper.StoppingMetric.deviance;
+      double v = si.metric(metric);
+      if (Double.isNaN(v)) return Double.POSITIVE_INFINITY;
+      return ScoreKeeper.moreIsBetter(metric) ? -v : v;
+    }
+
+    /** A configuration taking part in the current round. */
+    private static final class Candidate<MP extends Model.Parameters> {
+      final int[] _hidx;
+      final Key<Model> _checkpoint;
+      MP _params;               // Parameters handed out to the grid search, null until then
+      Model _model;             // Built model, null if not built (yet)
+      boolean _done;            // Build reported, successful or not
+      double _rank;
+      Candidate(int[] hidx, Key<Model> checkpoint) { _hidx = hidx; _checkpoint = checkpoint; }
+    }
+
+    @Override
+    public HyperSpaceIterator<MP> iterator() {
+      return new ShIterator();
+    }
+
+    private final class ShIterator implements HyperSpaceIterator<MP>, BuildListener<MP> {
+      private Random _random;
+      private int _bracket;
+      private int _round;
+      private List<Candidate<MP>> _candidates;
+      private int _nextCandidate;
+      private Candidate<MP> _current;
+      private long _start_time;
+
+      ShIterator() { reset(); }
+
+      @Override
+      public void reset() {
+        _random = -1 == search_criteria().seed() ? new Random() : new Random(search_criteria().seed());
+        _start_time = System.currentTimeMillis();
+        _bracket = _sMax;
+        startBracket();
+      }
+
+      /** Sample fresh configurations for round 0 of the current bracket. */
+      private void startBracket() {
+        _round = 0;
+        int n = bracketSize(_bracket);
+        Set<Integer> seen = new HashSet<>();
+        _candidates = new ArrayList<>(n);
+        while (_candidates.size() < n) {
+          int[] hidx = new int[_hyperParamNames.length];
+          for (int i = 0; i < hidx.length; i++)
+            hidx[i] = _random.nextInt(_hyperParams.get(_hyperParamNames[i]).length);
+          if (seen.add(integerHash(hidx)))
+            _candidates.add(new Candidate<MP>(hidx, null));
+        }
+        _nextCandidate = 0;
+        Log.debug("Successive halving: bracket " + _bracket + " starts " + n + " configurations with " + _budgetField + " = " + budgetValue(roundBudget(_bracket, 0)));
+      }
+
+      /** All builds of the round are reported: move on to the survivors, or to the next bracket. */
+      private boolean advance() {
+        List<Candidate<MP>> built = new ArrayList<>();
+        for (Candidate<MP> c : _candidates)
+          if (c._model != null) {
+            c._rank = rankingMetric(c._model, search_criteria().stopping_metric());
+            built.add(c);
+          }
+        if (_round < _bracket && !built.isEmpty()) {
+          Collections.sort(built, new Comparator<Candidate<MP>>() {
+            @Override public int compare(Candidate<MP> a, Candidate<MP> b) { return Double.compare(a._rank, b._rank); }
+          });
+          int n = roundSize(bracketSize(_bracket), ++_round);
+          List<Candidate<MP>> survivors = new ArrayList<>(n);
+          for (Candidate<MP> c : built.subList(0, Math.min(n, built.size())))
+            survivors.add(new Candidate<MP>(c._hidx, search_criteria().resume_from_checkpoint() ? c._model._key : null));
+          _candidates = survivors;
+          _nextCandidate = 0;
+          Log.info("Successive halving: bracket " + _bracket + " round " + _round + " continues " + survivors.size() + " of " + built.size() + " configurations with " + _budgetField + " = " + budgetValue(roundBudget(_bracket, _round)));
+          return true;
+        }
+        if (_bracket > lastBracket()) {
+          _bracket--;
+          startBracket();
+          return true;
+        }
+        _candidates = Collections.emptyList();
+        _nextCandidate = 0;
+        return false;
+      }
+
+      @Override
+      public MP nextModelParameters(Model previousModel) {
+        if (_nextCandidate >= _candidates.size())
+          throw new NoSuchElementException("No more elements to explore in hyper-space!");
+        _current = _candidates.get(_nextCandidate++);
+        try {
+          Object[] hypers = hypers(_current._hidx, new Object[_hyperParamNames.length]);
+          MP params = getModelParams((MP) _params.clone(), hypers);
+          PojoUtils.setField(params, _budgetField, budgetValue(roundBudget(_bracket, _round)), PojoUtils.FieldNaming.CONSISTENT);
+          params._checkpoint = _current._checkpoint;
+          _current._params = params;
+          return params;
+        } catch (RuntimeException e) {
+          _current._done = true;
+          throw e;
+        }
+      }
+
+      @Override
+      public boolean hasNext(Model previousModel) {
+        if (_nextCandidate < _candidates.size()) return true;
+        for (Candidate<MP> c : _candidates)
+          if (!c._done) return false; // Round barrier: wait for the outstanding builds
+        return !_candidates.isEmpty() && advance();
+      }
+
+      @Override
+      public void modelBuilt(MP params, Model model) {
+        Candidate<MP> c = find(params);
+        if (c != null) {
+          c._model = model;
+          c._done = true;
+        }
+      }
+
+      @Override
+      public void modelBuildFailed(MP params) {
+        Candidate<MP> c = find(params);
+        if (c != null) c._done = true;
+      }
+
+      private Candidate<MP> find(MP params) {
+        for (Candidate<MP> c : _candidates)
+          if (c._params == params) return c;
+        return null;
+      }
+
+      @Override
+      public double max_runtime_secs() {
+        return search_criteria().max_runtime_secs();
+      }
+
+      /** Number of builds of all rounds of all brackets. */
+      @Override
+      public int max_models() {
+        long models = 0;
+        for (int s = _sMax; s >= lastBracket(); s--)
+          for (int i = 0, n = bracketSize(s); i <= s; i++)
+            models += roundSize(n, i);
+        return (int) Math.min(Integer.MAX_VALUE, models);
+      }
+
+      @Override
+      public double time_remaining_secs() {
+        return search_criteria().max_runtime_secs() - (System.currentTimeMillis() - _start_time) / 1000.0;
+      }
+
+      @Override
+      public void modelFailed(Model failedModel) {
+        if (_current != null) _current._done = true;
+      }
+
+      @Override
+      public Object[] getCurrentRawParameters() {
+        Object[] hyperValues = new Object[_hyperParamNames.length];
+        return hypers(_current._hidx, hyperValues);
+      }
+    } // ShIterator
+  } // SuccessiveHalvingWalker
 }
@@ -2,6 +2,7 @@ package hex.schemas;
 
 import hex.Model;
 import hex.grid.Grid;
+import hex.grid.HyperSpaceSearchCriteria;
 import water.H2O;
 import water.Key;
 import water.api.*;
@@ -89,6 +90,14 @@ public class GridSearchSchema<G extends Grid<MP>,
         if (p.containsKey("max_models") && Integer.parseInt((String) p.get("max_models"))<0) {
           throw new H2OIllegalArgumentException("max_models must be >= 0 (0 for all models)", strategy);
         }
+      } else if ("SuccessiveHalving".equals(strategy) || "Hyperband".equals(strategy)) {
+        search_criteria = new HyperSpaceSearchCriteriaV99.SuccessiveHalvingSearchCriteriaV99(HyperSpaceSearchCriteria.Strategy.valueOf(strategy));
+        if (p.containsKey("max_runtime_secs") && Double.parseDouble((String) p.get("max_runtime_secs"))<0) {
+          throw new H2OIllegalArgumentException("max_runtime_secs must be >= 0 (0 for unlimited time)", strategy);
+        }
+        if (!p.containsKey("max_budget")) {
+          throw new H2OIllegalArgumentException("search_criteria.max_budget", "null");
+        }
       } else {
         throw new H2OIllegalArgumentException("search_criteria.strategy", strategy);
       }
@@ -13,9 +13,12 @@ import water.exceptions.H2OIllegalArgumentException;
 public class HyperSpaceSearchCriteriaV99<I extends HyperSpaceSearchCriteria, S extends HyperSpaceSearchCriteriaV99<I,S>>
     extends SchemaV3<I, S> {
 
-  @API(help = "Hyperparameter space search strategy.", required = true, values = { "Unknown", "Cartesian", "RandomDiscrete" }, direction = API.Direction.INOUT)
+  @API(help = "Hyperparameter space search strategy.", required = true, values = { "Unknown", "Cartesian", "RandomDiscrete", "SuccessiveHalving", "Hyperband" }, direction = API.Direction.INOUT)
   public HyperSpaceSearchCriteria.Strategy strategy;
 
+  @API(help = "Number of models to build in parallel: 1 builds sequentially, 0 sizes the parallelism from model cost and cluster load, n > 1 builds at most n models at a time.", required = false, level = API.Level.secondary, direction = API.Direction.INOUT)
+  public int parallelism = 1;
+
 // TODO: add a factory which accepts a Strategy and calls the right constructor
 
   /**
@@ -62,6 +65,48 @@ public class HyperSpaceSearchCriteriaV99<I extends HyperSpaceSearchCriteria, S e
     public double stopping_tolerance;
   }
 
+  /**
+   * Search criteria for successive halving and Hyperband searches, which train many configurations
+   * on a small budget and continue only the best ones with a larger budget.
+   */
+  public static class SuccessiveHalvingSearchCriteriaV99 extends HyperSpaceSearchCriteriaV99<HyperSpaceSearchCriteria.SuccessiveHalvingSearchCriteria, SuccessiveHalvingSearchCriteriaV99> {
+    public SuccessiveHalvingSearchCriteriaV99() {
+      strategy = HyperSpaceSearchCriteria.Strategy.SuccessiveHalving;
+    }
+
+    public SuccessiveHalvingSearchCriteriaV99(HyperSpaceSearchCriteria.Strategy strategy) {
+      this.strategy = strategy;
+    }
+
+    @Override public HyperSpaceSearchCriteria.SuccessiveHalvingSearchCriteria createImpl() {
+      return new HyperSpaceSearchCriteria.SuccessiveHalvingSearchCriteria(strategy);
+    }
+
+    @API(help = "Seed for random number generator; set to a value other than -1 for reproducibility.", required = false, direction = API.Direction.INOUT)
+    public long seed;
+
+    @API(help = "Model parameter used as the training budget, e.g. ntrees or epochs; it is set by the search and must not be a hyperparameter.", required = false, direction = API.Direction.INOUT)
+    public String budget_parameter;
+
+    @API(help = "Budget of the first round.", required = false, direction = API.Direction.INOUT)
+    public double min_budget;
+
+    @API(help = "Budget of the last round, i.e. of a fully trained model.", required = true, direction = API.Direction.INOUT)
+    public double max_budget;
+
+    @API(help = "Only the best 1/reduction_factor configurations of a round continue, with reduction_factor times the budget.", required = false, direction = API.Direction.INOUT)
+    public double reduction_factor;
+
+    @API(help = "Continue surviving models from their checkpoints instead of retraining them from scratch.", required = false, level = API.Level.secondary, direction = API.Direction.INOUT)
+    public boolean resume_from_checkpoint;
+
+    @API(help = "Maximum time to spend building models (optional).", required = false, direction = API.Direction.INOUT)
+    public double max_runtime_secs;
+
+    @API(help = "Metric used to rank the configurations of a round (AUTO: logloss for classification, deviance for regression)", values = {"AUTO", "deviance", "logloss", "MSE", "RMSE", "MAE", "RMSLE", "AUC", "lift_top_group", "misclassification", "mean_per_class_error"}, level = API.Level.secondary, direction=API.Direction.INOUT)
+    public ScoreKeeper.StoppingMetric stopping_metric;
+  }
+
   /**
    * Fill with the default values from the corresponding Iced object.
    */
@@ -72,6 +117,9 @@ public class HyperSpaceSearchCriteriaV99<I extends HyperSpaceSearchCriteria, S e
       defaults = new HyperSpaceSearchCriteria.CartesianSearchCriteria();
     } else if (HyperSpaceSearchCriteria.Strategy.RandomDiscrete == strategy) {
       defaults = new HyperSpaceSearchCriteria.RandomDiscreteValueSearchCriteria();
+    } else if (HyperSpaceSearchCriteria.Strategy.SuccessiveHalving == strategy ||
+               HyperSpaceSearchCriteria.Strategy.Hyperband == strategy) {
+      defaults = new HyperSpaceSearchCriteria.SuccessiveHalvingSearchCriteria(strategy);
     } else {
       throw new H2OIllegalArgumentException("search_criteria.strategy", strategy.toString());
     }
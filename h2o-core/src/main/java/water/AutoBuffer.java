@@ -8,6 +8,7 @@ import java.nio.channels.*;
 import java.util.ArrayList;
 import java.util.Random;
 
+import water.network.CompressedSocketChannel;
 import water.network.SocketChannelUtils;
 import water.util.Log;
 import water.util.TwoDimTable;
@@ -92,6 +93,9 @@ public final class AutoBuffer {
   // i/o thread spends doing other stuff (e.g. allocating Java objects or
   // (de)serializing).
   long _time_start_ms, _time_close_ms, _time_io_ns;
+  // TypeMap id of the task carried by a TCP message, for the compression
+  // statistics; 0 if not known.
+  int _wireType;
   // I/O persistence flavor: Value.ICE, NFS, HDFS, S3, TCP.  Used to record I/O time.
   final byte _persist;
 
@@ -138,6 +142,13 @@ public final class AutoBuffer {
     _bb.flip();
     _read = true;               // Reading by default
     _firstPage = true;
+    // A compressed message?  Then read the rest of it via the decompressing
+    // channel, starting with the bytes already read past the first byte.
+    if( getCtrl() == CompressedSocketChannel.MAGIC ) {
+      _chan = new CompressedSocketChannel(sock, _bb);
+      _bb.clear().flip();
+    } else _bb.position(0);
+    _firstPage = true;
     // Read Inet from socket, port from the stream, figure out H2ONode
     _h2o = H2ONode.intern(remoteAddress, getPort());
     _firstPage = true;          // Yes, must reset this.
@@ -428,22 +439,27 @@ public final class AutoBuffer {
             // Write the reader-handshake-byte.
             SocketChannelUtils.underlyingSocketChannel(_chan).socket().getOutputStream().write(0xcd);
             // do not close actually reader socket; recycle it in TCPReader thread
+            if( _chan instanceof CompressedSocketChannel )
+              TCPCompression.record(_wireType, true, (CompressedSocketChannel)_chan);
           } else {              // Writer?
             put1(0xab);         // Write one-more byte  ; might set _chan from null to not-null
             sendPartial();      // Finish partial writes; might set _chan from null to not-null
             assert _chan != null; // _chan is set not-null now!
+            if( _chan instanceof CompressedSocketChannel ) ((CompressedSocketChannel)_chan).flush();
             // Read the writer-handshake-byte.
             int x = SocketChannelUtils.underlyingSocketChannel(_chan).socket().getInputStream().read();
             // either TCP con was dropped or other side closed connection without reading/confirming (e.g. task was cancelled).
             if( x == -1 ) throw new IOException("Other side closed connection before handshake byte read");
             assert x == 0xcd : "Handshake; writer expected a 0xcd from reader but got "+x;
+            if( _chan instanceof CompressedSocketChannel )
+              TCPCompression.record(_wireType, false, (CompressedSocketChannel)_chan);
           }
         } catch( IOException ioe ) {
           try { _chan.close(); } catch( IOException ignore ) {} // Silently close
           _chan = null;         // No channel now, since i/o error
           throw ioe;            // Rethrow after close
         } finally {
-          if( !_read ) _h2o.freeTCPSocket(_chan); // Recycle writable TCP channel
+          if( !_read ) _h2o.freeTCPSocket(CompressedSocketChannel.unwrap(_chan)); // Recycle writable TCP channel
           restorePriority();        // And if we raised priority, lower it back
         }
 
@@ -465,15 +481,19 @@ public final class AutoBuffer {
   }
 
   // Need a sock for a big read or write operation.
-  // See if we got one already, else open a new socket.
+  // See if we got one already, else open a new socket.  Compress the message
+  // if the receiver takes it and the first page is big enough.
   private void tcpOpen() throws IOException {
     assert _firstPage && _bb.limit() >= 1+2+4; // At least something written
     assert _chan == null;
 //    assert _bb.position()==0;
-    _chan = _h2o.getTCPSocket();
+    _chan = TCPCompression.wrap(_h2o.getTCPSocket(), _h2o, _bb.limit());
     raisePriority();
   }
 
+  // True if the TCP message goes compressed
+  boolean compressedTCP() { return _chan instanceof CompressedSocketChannel; }
+
   // Just close the channel here without reading anything.  Without the task
   // object at hand we do not know what (how many bytes) should we read from
   // the channel.  And since the other side will try to read confirmation from
@@ -487,7 +507,7 @@ public final class AutoBuffer {
     if( chan != null ) {                  // Channel assumed sick from prior IOException
       try { chan.close(); } catch( IOException ignore ) {} // Silently close
       _chan = null;                       // No channel now!
-      if( !_read && SocketChannelUtils.isSocketChannel(chan)) _h2o.freeTCPSocket(chan); // Recycle writable TCP channel
+      if( !_read && SocketChannelUtils.isSocketChannel(chan)) _h2o.freeTCPSocket(CompressedSocketChannel.unwrap(chan)); // Recycle writable TCP channel
     }
     restorePriority();          // And if we raised priority, lower it back
     bbFree();
@@ -640,13 +660,12 @@ public final class AutoBuffer {
   private ByteBuffer sendPartial() {
     // Doing I/O with the full ByteBuffer - ship partial results
     _size += _bb.position();
-    if( _chan == null )
-      TimeLine.record_send(this, true);
-
     _bb.flip(); // Prep for writing.
     try {
-      if( _chan == null )
+      if( _chan == null ) {
         tcpOpen(); // This is a big operation.  Open a TCP socket as-needed.
+        TimeLine.record_send(this, true);
+      }
       //for( int i=0; i < _bb.limit(); i++ ) if( _bb.get(i)==0 ) _zeros++;
       long ns = System.nanoTime();
       while( _bb.hasRemaining() ) {
@@ -1,5 +1,10 @@
 package water;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /** A Distributed Key/Value Store.
  *  <p>
  *  Functions to Get and Put Values into the K/V store by Key.
@@ -184,6 +189,58 @@ public abstract class DKV {
    *  Non-blocking. */
   static public void prefetch( String key_name ) {        get(Key.make(key_name),false); }
 
+  /** Return the {@link Value}s mapped to the keys (null for keys with no
+   *  mapping).  The keys missing locally are fetched with one request per
+   *  home Node (for up to a few MB of Values), rather than one per key.
+   *  Blocks till data available, always caches.
+   *  @return The {@link Value}s mapped to the keys */
+  static public Value[] getAll( Key... keys ) { return getAll(keys,true); }
+  /** Prefetch and cache the Values of the keys, with one request per home
+   *  Node.  Non-blocking. */
+  static public void prefetchAll( Key... keys ) { getAll(keys,false); }
+
+  static private Value[] getAll( Key[] keys, boolean blocking ) {
+    H2O cloud = H2O.CLOUD;
+    Value[] res = new Value[keys.length];
+    // Local hits first, group the misses by home Node
+    List<Key>[] misses = new List[cloud.size()];
+    for( int i = 0; i < keys.length; i++ ) {
+      Key key = keys[i];
+      Value val = Value.STORE_get(key);
+      if( val != null && (val.rawMem() != null || val.rawPOJO() != null || val.isPersisted()) ) {
+        res[i] = val;
+        continue;
+      }
+      int hidx = key.home(cloud);
+      H2ONode home = cloud._memary[hidx];
+      if( home == H2O.SELF ) continue; // No V for this K
+      TaskPutKey tpk = home.pendingPutKey(key);
+      if( tpk != null ) {       // Take the pending write instead
+        res[i] = tpk._xval == null || tpk._xval.isNull() ? null : tpk._xval;
+        continue;
+      }
+      if( misses[hidx] == null ) misses[hidx] = new ArrayList<>();
+      misses[hidx].add(key);
+    }
+    List<RPC<TaskGetKeys>> rpcs = new ArrayList<>();
+    for( int h = 0; h < misses.length; h++ )
+      if( misses[h] != null )
+        rpcs.addAll(TaskGetKeys.start(cloud._memary[h], misses[h].toArray(new Key[misses[h].size()])));
+    if( !blocking ) return null;
+    // Collect the answers; keys fetched by others, or left out of an answer,
+    // are fetched by the plain get
+    Map<Key,Value> fetched = new HashMap<>();
+    for( RPC<TaskGetKeys> rpc : rpcs ) {
+      TaskGetKeys tgk = rpc.get();
+      for( int j = 0; j < tgk._vals.length; j++ )
+        fetched.put(tgk._xkeys[j], tgk._vals[j]);
+    }
+    for( int i = 0; i < keys.length; i++ )
+      if( res[i] == null && cloud._memary[keys[i].home(cloud)] != H2O.SELF )
+        res[i] = fetched.containsKey(keys[i]) ? fetched.get(keys[i]) : get(keys[i]);
+    return res;
+  }
+
   static private Value get( Key key, boolean blocking ) {
     // Read the Cloud once per put-attempt, to keep a consistent snapshot.
     H2O cloud = H2O.CLOUD;
@@ -213,6 +270,15 @@ public abstract class DKV {
     TaskPutKey tpk = home.pendingPutKey(key);
     if( tpk != null ) return tpk._xval == null || tpk._xval.isNull() ? null : tpk._xval;
 
+    // Being fetched by a batch?  Wait for it.  (A batch done but still
+    // pending is re-asking for the keys left out; fetch on our own.)
+    RPC<TaskGetKeys> batch = TaskGetKeys.pending(key);
+    if( batch != null && !batch.isDone() ) {
+      if( !blocking ) return null;
+      batch.get();
+      return get(key,true);
+    }
+
     // Get data "the hard way"
     RPC<TaskGetKey> tgk = TaskGetKey.start(home,key);
     return blocking ? TaskGetKey.get(tgk) : null;
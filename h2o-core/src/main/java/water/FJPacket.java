@@ -1,5 +1,7 @@
 package water;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import water.H2O.H2OCountedCompleter;
 import water.UDP.udp;
 
@@ -14,10 +16,13 @@ import water.UDP.udp;
 class FJPacket extends H2OCountedCompleter {
   final AutoBuffer _ab;
   final int _ctrl;              // 1st byte of packet
-  FJPacket( AutoBuffer ab, int ctrl ) {
+  final AtomicInteger _pending; // Count of the not-yet-handled packets of the channel, or null
+  FJPacket( AutoBuffer ab, int ctrl ) { this(ab, ctrl, null); }
+  FJPacket( AutoBuffer ab, int ctrl, AtomicInteger pending ) {
     // Run at max priority until we decrypt the packet enough to get priorities out
     super(UDP.udp.UDPS[ctrl]._prior);
-    _ab = ab; _ctrl = ctrl;
+    _ab = ab; _ctrl = ctrl; _pending = pending;
+    if( pending != null ) pending.incrementAndGet();
     assert 0 < _ctrl && _ctrl < udp.UDPS.length;
     assert udp.UDPS[_ctrl]._udp != null:"missing udp " + _ctrl;
   }
@@ -32,12 +37,16 @@ class FJPacket extends H2OCountedCompleter {
       RPC.remote_exec(_ab);
     tryComplete();
   }
+  @Override public void onCompletion(jsr166y.CountedCompleter caller) {
+    if( _pending != null ) _pending.decrementAndGet();
+  }
   /** Exceptional completion path; mostly does printing if the exception was
    *  not handled earlier in the stack.  */
   @Override public boolean onExceptionalCompletion(Throwable ex, jsr166y.CountedCompleter caller) {
     System.err.println("onExCompletion for "+this);
     ex.printStackTrace();
     water.util.Log.err(ex);
+    if( _pending != null ) _pending.decrementAndGet();
     return true;
   }
 }
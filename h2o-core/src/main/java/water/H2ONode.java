@@ -45,6 +45,10 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
       _sendThread._stopRequested = true;
       _sendThread = null;
     }
+    if(_outbound != null) {
+      _outbound.stop();
+      _outbound = null;
+    }
     _removed_from_cloud = true;
   }
   // A JVM is uniquely named by machine IP address and port#
@@ -151,8 +155,12 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
         IDX = Arrays.copyOf(IDX,IDX.length<<1);
       IDX[idx] = h2o;
     }
-    h2o._sendThread = h2o.new UDP_TCP_SendThread(); // Launch the UDP send thread
-    h2o._sendThread.start();
+    if( TCPSelectorThread.enabled(h2o._security) ) {
+      h2o._outbound = TCPSelectorThread.outbound(h2o); // Served by a shared selector thread
+    } else {
+      h2o._sendThread = h2o.new UDP_TCP_SendThread(); // Launch the UDP send thread
+      h2o._sendThread.start();
+    }
     return h2o;
   }
   public static H2ONode intern( InetAddress ip, int port ) { return intern(new H2Okey(ip,port)); }
@@ -297,7 +305,40 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
   // messages which are presented in their entirety (not streamed) thus never
   // need another (nested) TCP channel.
   private transient UDP_TCP_SendThread _sendThread = null; // set notnull if properly interned, and done before first sendMessage
-  public void sendMessage( ByteBuffer bb, byte msg_priority ) { _sendThread.sendMessage(bb,msg_priority); }
+  // Or, with the event-driven transport, the channel multiplexed by a TCPSelectorThread
+  transient TCPSelectorThread.Outbound _outbound = null;
+
+  /** Send small message to this node.  Passes the message on to a private msg
+   *  q, prioritized by the message priority.  MSG queue is served by sender
+   *  thread, message are continuously extracted, buffered together and sent
+   *  over TCP channel.
+   *  @param bb Message to send
+   *  @param msg_priority priority (e.g. NACK and ACKACK beat most other priorities
+   */
+  public void sendMessage( ByteBuffer bb, byte msg_priority ) {
+    assert bb.position()==0 && bb.limit() > 0;
+    // Secret back-channel priority: the position field (capped at bb.limit);
+    // this is to avoid making Yet Another Object per send.
+
+    // Priority can exceed position.  "interesting" priorities are everything
+    // above H2O.MIN_HI_PRIORITY and things just above 0; priorities in the
+    // middl'n range from 10 to MIN_HI are really rare.  Need to compress
+    // priorities a little for this hack to work.
+    if( msg_priority >= H2O.MIN_HI_PRIORITY ) msg_priority = (byte)((msg_priority-H2O.MIN_HI_PRIORITY)+10);
+    else if( msg_priority >= 10 ) msg_priority = 10;
+    if( msg_priority > bb.limit() ) msg_priority = (byte)bb.limit();
+    bb.position(msg_priority);
+
+    TCPSelectorThread.Outbound outbound = _outbound;
+    if( outbound != null ) outbound.sendMessage(bb);
+    else _sendThread._msgQ.put(bb);
+  }
+
+  // Order of the queued small messages.
+  // Secret back-channel priority: the position field (capped at bb.limit)
+  static final Comparator<ByteBuffer> MSG_PRIORITY = new Comparator<ByteBuffer>() {
+    @Override public int compare( ByteBuffer bb1, ByteBuffer bb2 ) { return bb1.position() - bb2.position(); }
+  };
 
   // Private thread serving (actually ships the bytes over) small msg Q.
   // Buffers the small messages together and sends the bytes over via TCP channel.
@@ -312,35 +353,7 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
       _bb = AutoBuffer.BBP_BIG.make();
     }
   
-    /** Send small message to this node.  Passes the message on to a private msg
-     *  q, prioritized by the message priority.  MSG queue is served by sender
-     *  thread, message are continuously extracted, buffered together and sent
-     *  over TCP channel.
-     *  @param bb Message to send
-     *  @param msg_priority priority (e.g. NACK and ACKACK beat most other priorities
-     */
-    public void sendMessage(ByteBuffer bb, byte msg_priority) {
-      assert bb.position()==0 && bb.limit() > 0;
-      // Secret back-channel priority: the position field (capped at bb.limit);
-      // this is to avoid making Yet Another Object per send.
-  
-      // Priority can exceed position.  "interesting" priorities are everything
-      // above H2O.MIN_HI_PRIORITY and things just above 0; priorities in the
-      // middl'n range from 10 to MIN_HI are really rare.  Need to compress
-      // priorities a little for this hack to work.
-      if( msg_priority >= H2O.MIN_HI_PRIORITY ) msg_priority = (byte)((msg_priority-H2O.MIN_HI_PRIORITY)+10);
-      else if( msg_priority >= 10 ) msg_priority = 10;
-      if( msg_priority > bb.limit() ) msg_priority = (byte)bb.limit();
-      bb.position(msg_priority);
-  
-      _msgQ.put(bb); 
-    }
-  
-    private final PriorityBlockingQueue<ByteBuffer> _msgQ
-      = new PriorityBlockingQueue<>(11,new Comparator<ByteBuffer>() {
-          // Secret back-channel priority: the position field (capped at bb.limit)
-          @Override public int compare( ByteBuffer bb1, ByteBuffer bb2 ) { return bb1.position() - bb2.position(); }
-        });
+    private final PriorityBlockingQueue<ByteBuffer> _msgQ = new PriorityBlockingQueue<>(11,MSG_PRIORITY);
   
     @Override public void run(){
       try {
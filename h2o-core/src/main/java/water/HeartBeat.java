@@ -73,4 +73,5 @@ public class HeartBeat extends Iced<HeartBeat> {
   public short _fjthrds[];      // Number of threads (not all are runnable)
   public short _fjqueue[];      // Number of elements in FJ work queue
   public char _tcps_active;     // Threads trying do a TCP send
+  public boolean _tcp_compression; // Takes compressed TCP messages
 }
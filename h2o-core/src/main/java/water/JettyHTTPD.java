@@ -15,6 +15,7 @@ import org.eclipse.jetty.server.ssl.SslSocketConnector;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.util.security.Constraint;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
+import water.api.ColumnarFrameServlet;
 import water.api.DatasetServlet;
 import water.api.NpsBinServlet;
 import water.api.PostFileServlet;
@@ -311,6 +312,8 @@ public class JettyHTTPD {
     context.addServlet(PostFileServlet.class, "/3/PostFile");
     context.addServlet(DatasetServlet.class,  "/3/DownloadDataset");
     context.addServlet(DatasetServlet.class,  "/3/DownloadDataset.bin");
+    context.addServlet(ColumnarFrameServlet.class, "/3/DownloadDataset.columnar");
+    context.addServlet(ColumnarFrameServlet.class, "/3/UploadFrame.columnar");
     context.addServlet(RequestServer.class,   "/");
 
     HandlerCollection hc = new HandlerCollection();
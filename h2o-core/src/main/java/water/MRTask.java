@@ -4,10 +4,17 @@ import jsr166y.CountedCompleter;
 import jsr166y.ForkJoinPool;
 import water.fvec.*;
 import water.util.DistributedException;
+import water.util.Log;
 import water.util.PrettyPrint;
 import water.fvec.Vec.VectorGroup;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Map/Reduce style distributed computation.
@@ -70,7 +77,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   *
   *    internal "top-level" fields
   *    ---------------------------
-  *     - RPC<T> _nleft, _nrite: "child" node/JVMs that are doing work
+  *     - RPC<T>[] _nrpcs      : "child" node/JVMs that are doing work, 2 by default (see _fanIn)
   *     - boolean _topLocal    : "root" MRTask on a local machine
   *     - boolean _topGlobal   : "root" MRTask on the "root" node
   *     - T _left, _rite       : "child" MRTasks on a local machine
@@ -83,7 +90,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   *              3 node cloud              Inside one of the 'N' nodes:
   *                   N1                               T  _topLocal**
   *                 /   \                            /  \
-  *         N2 (_nleft)  N3 (_nrite)         T (_left)   T (_rite)
+  *     N2 (_nrpcs[0]) N3 (_nrpcs[1])        T (_left)   T (_rite)
   *
   *                  **: T is also _topGlobal if N==N1
   *
@@ -102,8 +109,8 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   *                            - topLocal=true
   *                            - _fs = new Futures()
   *                            - nmid = (_nlo + _nhi) >> 1 => split the range of nodes (divide-conquer)
-  *                            - _nleft = remote_compute(_nlo,nmid) => chooses a node in range and does new RPC().call()
-  *                            - _nrite = remote_compute(nmid,_nhi)    serializing MRTask and call dinvoke on remote.
+  *                            - _nrpcs[0] = remote_compute(_nlo,nmid) => chooses a node in range and does new RPC().call()
+  *                            - _nrpcs[1] = remote_compute(nmid,_nhi)    serializing MRTask and call dinvoke on remote.
   *                           /                                 \
   *                         /                                     \
   *                       /                                         \
@@ -149,8 +156,14 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
    *  style, can not be passed via K/V store).*/
   protected AppendableVec[] _appendables;
 
-  /** Internal field to track the left &amp; right remote nodes/JVMs to work on */
-  transient protected RPC<T> _nleft, _nrite;
+  /** Internal field to track the remote nodes/JVMs to work on, in Node order */
+  transient protected RPC<T>[] _nrpcs;
+
+  /** Results of the remote nodes/JVMs reduced as they arrive, if pipelined */
+  transient NodeResults _nres;
+
+  /** Races of the remote nodes/JVMs against their speculative local runs, if speculative */
+  transient Race[] _races;
 
   /** Internal field to track if this is a top-level local call */
   transient protected boolean _topLocal; // Top-level local call, returning results over the wire
@@ -179,6 +192,91 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   /** If true, run entirely local - which will pull all the data locally. */
   protected boolean _run_local;
 
+  /** Number of chunks of a run-local task whose remote chunks are fetched
+   *  together, with one request per home Node; 0 to fetch chunk by chunk. */
+  static final int PREFETCH_CHUNKS = Integer.getInteger(H2O.OptArgs.SYSTEM_PROP_PREFIX + "mrtask.prefetchChunks", 64);
+
+  /** Default number of parts the Nodes of a task are split into by each Node,
+   *  the first part being handled by the Node itself and the others handed to
+   *  remote Nodes.  2 makes a binary tree; the cloud size or more makes the
+   *  invoking Node call all the other Nodes directly. */
+  static final int FAN_IN = Integer.getInteger(H2O.OptArgs.SYSTEM_PROP_PREFIX + "mrtask.fanIn", 2);
+
+  /** Default for reducing the results of the remote Nodes as soon as they
+   *  arrive, rather than after all the local work is done. */
+  static final boolean PIPELINED_REDUCE = Boolean.getBoolean(H2O.OptArgs.SYSTEM_PROP_PREFIX + "mrtask.pipelinedReduce");
+
+  /** Number of parts the Nodes are split into at each Node, see {@link #reduceTopology} */
+  private short _fanIn = (short)Math.max(2,Math.min(Short.MAX_VALUE,FAN_IN));
+
+  /** Reduce the results of the remote Nodes as soon as they arrive */
+  private boolean _pipelined = PIPELINED_REDUCE;
+
+  /** Sets the shape of the reduction over the Nodes, for this task only.
+   *  <p>Each Node splits the Nodes it is given into <code>fanIn</code> parts,
+   *  does the first part itself (running the splitting further) and hands the
+   *  others to remote Nodes, each getting their results back in one piece.  A
+   *  large fan-in makes for a shallow tree with fewer hops, but makes the
+   *  invoking Node receive and reduce more results.</p>
+   *  <p>If <code>pipelined</code>, the results of the remote Nodes are reduced
+   *  as soon as they arrive, rather than after the local work is done: a Node
+   *  slow with its local work does not delay the reduction of the results of
+   *  the others, and large results are not all reduced at the end.  The order
+   *  of the reduction is kept, only the associativity of <code>reduce</code>
+   *  is needed.  The reduction then runs concurrently with the local
+   *  <code>map</code> calls, though never concurrently with itself.</p>
+   *  @param fanIn number of parts, at least 2
+   *  @param pipelined reduce the remote results as they arrive
+   *  @return this */
+  public T reduceTopology( int fanIn, boolean pipelined ) {
+    if( fanIn < 2 ) throw new IllegalArgumentException("Fan-in must be at least 2, got " + fanIn);
+    _fanIn = (short)Math.min(Short.MAX_VALUE,fanIn);
+    _pipelined = pipelined;
+    return self();
+  }
+
+  /** A Node done with its local work speculates on the remote Nodes it handed
+   *  work to, once they have not answered after this many times its own local
+   *  work time... */
+  static final int SPECULATION_FACTOR = Integer.getInteger(H2O.OptArgs.SYSTEM_PROP_PREFIX + "mrtask.speculationFactor", 2);
+  /** ...and at least this many milliseconds after the task started on the Node */
+  static final long SPECULATION_MIN_MS = Long.getLong(H2O.OptArgs.SYSTEM_PROP_PREFIX + "mrtask.speculationMinMs", 1000);
+
+  /** Run the chunks of slow remote Nodes speculatively, see {@link #speculative} */
+  private boolean _speculate;
+
+  /** Makes this task speculative: a Node done with its local work runs the
+   *  chunks of the remote Nodes it handed work to, if they are far behind (see
+   *  SPECULATION_FACTOR and SPECULATION_MIN_MS), reading replicas of the
+   *  chunks.  The first result wins, the other one is discarded; a slow Node
+   *  is not waited for once its chunks are done elsewhere.  A Node only
+   *  speculates on the parts (see {@link #reduceTopology}) which are a single
+   *  Node, so it never re-runs a whole subtree; a Node relaying work to other
+   *  Nodes is not speculated on, and the larger the fan-in, the fewer such
+   *  Nodes there are.
+   *  <p>Only for tasks over a Frame with no output Vecs, whose
+   *  <code>map</code> calls are idempotent and do not modify their input
+   *  Chunks.  Other tasks ignore the setting.  The slow Nodes are not
+   *  stopped, they finish their part unaware that its result is dropped.</p>
+   *  @return this */
+  public T speculative() { _speculate = true; return self(); }
+
+  // Speculation support.  Timer waiting for remote Nodes to fall behind.
+  private static Timer SPECULATION_TIMER;
+  private static synchronized Timer speculationTimer() {
+    if( SPECULATION_TIMER == null ) SPECULATION_TIMER = new Timer("MRTask-speculation",true);
+    return SPECULATION_TIMER;
+  }
+  // On the top local task: copy to make the speculative runs of, time the
+  // task started on this Node, and the local parts of the work not done yet.
+  transient T _specTemplate;
+  transient long _localStart;
+  transient AtomicInteger _localParts;
+  // On a speculative run: the Nodes whose chunks to run (relative to _nlo),
+  // and the race it is part of.
+  transient short _specLo, _specHi;
+  transient Race _race;
+
   public String profString() { return _profile != null ? _profile.toString() : "Profiling turned off"; }
   MRProfile _profile;
 
@@ -321,6 +419,9 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     long _time1st, _done1st;
     int _size_rez0, _size_rez1; // i/o size in bytes during reduce
     MRProfile _last;
+    // On the top local task of a Node: times of this Node and of all the
+    // Nodes it handed remote work to, directly or not.
+    NodeTime[] _nodes;
     long sumTime() { return _onCdone - (_localstart==0 ? _mapstart : _localstart); }
     void gather( MRProfile p, int size_rez ) {
       p._clz=null;
@@ -333,11 +434,64 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       if( size_rez !=0 )        // Record i/o result size
         if( _size_rez0 == 0 ) _size_rez0=size_rez;
         else                  _size_rez1=size_rez;
+      if( p._nodes != null ) {  // Remote Node's times
+        p._nodes[0]._size_rez = size_rez;
+        int n = _nodes == null ? 0 : _nodes.length;
+        _nodes = _nodes == null ? new NodeTime[p._nodes.length] : Arrays.copyOf(_nodes, n + p._nodes.length);
+        System.arraycopy(p._nodes, 0, _nodes, n, p._nodes.length);
+        p._nodes = null;
+      }
       assert _userstart !=0 || _last != null;
       assert _last._onCdone >= _done1st;
     }
 
-    @Override public String toString() { return print(new StringBuilder(),0).toString(); }
+    // Top local task done: record the times of this Node, ahead of the
+    // gathered remote ones.  All times are taken by this Node's clock.
+    void nodeDone( long mapdone ) {
+      NodeTime nt = new NodeTime();
+      nt._node = H2O.SELF.toString();
+      nt._setup = _localdone - _localstart;
+      nt._map = mapdone - _mapstart;
+      nt._wait = Math.max(0, _onCstart - mapdone);
+      nt._red = _onCdone - _onCstart;
+      nt._total = _onCdone - _localstart;
+      int n = _nodes == null ? 0 : _nodes.length;
+      NodeTime[] nodes = new NodeTime[n+1];
+      nodes[0] = nt;
+      if( n > 0 ) System.arraycopy(_nodes, 0, nodes, 1, n);
+      _nodes = nodes;
+    }
+
+    @Override public String toString() {
+      StringBuilder sb = print(new StringBuilder(),0);
+      if( _nodes != null ) printNodes(sb);
+      return sb.toString();
+    }
+
+    // Per-Node times, slowest first.  Nodes whose local map work took more
+    // than twice the median (and at least 10ms more) are flagged as stragglers.
+    private void printNodes(StringBuilder sb) {
+      NodeTime[] nodes = _nodes.clone();
+      long[] maps = new long[nodes.length];
+      for( int i=0; i<nodes.length; i++ ) maps[i] = nodes[i]._map;
+      Arrays.sort(maps);
+      long median = maps[maps.length/2];
+      Arrays.sort(nodes, new java.util.Comparator<NodeTime>() {
+        @Override public int compare(NodeTime a, NodeTime b) { return Long.compare(b._total, a._total); }
+      });
+      sb.append("Nodes, slowest first:\n");
+      for( NodeTime nt : nodes ) {
+        sb.append("  ").append(nt._node).append(" total ").append(nt._total);
+        sb.append("ms (setup ").append(nt._setup);
+        sb.append("ms, map ").append(nt._map);
+        sb.append("ms, wait ").append(nt._wait);
+        sb.append("ms, red ").append(nt._red).append("ms");
+        if( nt._size_rez != 0 ) sb.append(", size ").append(PrettyPrint.bytes(nt._size_rez));
+        sb.append(")");
+        if( nt._map > 2*median && nt._map - median >= 10 ) sb.append(" straggler");
+        sb.append("\n");
+      }
+    }
     private StringBuilder print(StringBuilder sb, int d) {
       if( d==0 ) sb.append(_clz).append("\n");
       for( int i=0; i<d; i++ ) sb.append("  ");
@@ -368,6 +522,15 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     }
   }
 
+  // Times of one Node doing its part of a task, in milliseconds: setup (incl.
+  // launching the remote work), local map work, then waiting for the remote
+  // Nodes, and reducing (incl. closeLocal and blocking for pending work).
+  private static class NodeTime extends Iced {
+    String _node;
+    long _setup, _map, _wait, _red, _total;
+    int _size_rez;              // Size of the result sent to the parent Node
+  }
+
   // Support for fluid-programming with strong types
   protected T self() { return (T)this; }
 
@@ -517,16 +680,27 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     int selfidx = selfidx();
     int nlo = subShift(selfidx);
     assert nlo < _nhi;
-    final int nmid = (nlo+_nhi)>>>1; // Mid-point
 
     // Run remote IF:
     // - Not forced to run local (no remote jobs allowed) AND
     // - - There's remote work, or Client mode (always remote work)
     if( (!_run_local) && ((nlo+1 < _nhi) || H2O.ARGS.client) ) {
       if(_profile!=null) _profile._rpcLstart = System.currentTimeMillis();
-      _nleft = remote_compute(H2O.ARGS.client ? nlo : nlo+1,nmid);
-      if(_profile!=null) _profile._rpcRstart = System.currentTimeMillis();
-      _nrite = remote_compute( nmid,_nhi);
+      // Split the Nodes into _fanIn parts; the first one includes self (unless
+      // a client), each of the others goes to the first Node in it.  With 2
+      // parts, the split is at the mid-point.
+      final int span = _nhi-nlo;
+      final int nparts = Math.max(2,Math.min(_fanIn,span));
+      _nrpcs = new RPC[nparts];
+      if( _pipelined ) _nres = new NodeResults(nparts);
+      if( _speculate && _fr != null && _output_types == null && !H2O.ARGS.client ) _races = (Race[])new MRTask.Race[nparts];
+      for( int i=0; i<nparts; i++ ) {
+        int lo = nlo + (int)((long)span* i   /nparts);
+        int hi = nlo + (int)((long)span*(i+1)/nparts);
+        _nrpcs[i] = remote_compute(i==0 && !H2O.ARGS.client ? lo+1 : lo, hi, i);
+        if( _nrpcs[i] == null && _nres != null ) _nres.arrived(i,null); // No remote work, nothing will arrive
+        if(_profile!=null && i==0) _profile._rpcRstart = System.currentTimeMillis();
+      }
       if(_profile!=null) _profile._rpcRdone  = System.currentTimeMillis();
     } else {
       if(_profile!=null)
@@ -537,18 +711,24 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       _lo = 0;  _hi = _fr.numCols()==0 ? 0 : _fr.anyVec().nChunks(); // Do All Chunks
       // get the Vecs from the K/V store, to avoid racing fetches from the map calls
       _fr.vecs();
+      if( _run_local && _hi - _lo <= PREFETCH_CHUNKS ) prefetchChunks(_lo,_hi);
     } else if( _keys != null ) {    // Else doing a set of Keys
       _lo = 0;  _hi = _keys.length; // Do All Keys
     }
     // Setup any user's shared local structures for both normal cluster nodes
     // and any client; want this for possible reduction ONTO client
     setupLocal();
+    if( _races != null ) {      // Speculative: a clean copy for the speculative runs
+      _specTemplate = copyAndInit();
+      _localStart = System.currentTimeMillis();
+      _localParts = new AtomicInteger(1);
+    }
     if(_profile!=null) _profile._localdone = System.currentTimeMillis();
   }
 
-  // Make an RPC call to some node in the middle of the given range.  Add a
-  // pending completion to self, so that we complete when the RPC completes.
-  private RPC<T> remote_compute( int nlo, int nhi ) {
+  // Make an RPC call to the first node of the given range.  Add a pending
+  // completion to self, so that we complete when the RPC completes.
+  private RPC<T> remote_compute( int nlo, int nhi, int part ) {
     if( nlo < nhi ) {  // have remote work
       int node = addShift(nlo);
       assert node != H2O.SELF.index(); // Not the same as selfidx() if this is a client
@@ -564,11 +744,189 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       // - when launched on the local (right here, in this next line of code)
       //   the completed RPC calls our self completion.  i.e. the completed RPC
       //   calls MRTask.onCompletion
-      return new RPC<>(H2O.CLOUD._memary[node], mrt).addCompleter(this).call();
+      // - if pipelined, the completed RPC first reduces its result, then
+      //   calls our self completion
+      // - if speculative and the RPC goes to a single Node, the completed RPC
+      //   first races the speculative run
+      H2O.H2OCountedCompleter cc = _races != null && nhi-nlo == 1 ? (_races[part] = new Race(part,nlo,nhi))
+        : _nres == null ? this : new NodeDone(part);
+      mrt.setCompleter(cc);     // The RPC completes the task's completer, once only
+      return new RPC<>(H2O.CLOUD._memary[node], mrt).addCompleter(cc).call();
     }
     return null; // nlo >= nhi => no remote work
   }
 
+  // Completion of a remote Node's RPC in a pipelined reduction: reduce the
+  // result, then complete (one pending count of) the MRTask.
+  private final class NodeDone extends H2O.H2OCountedCompleter {
+    private final int _part;
+    NodeDone( int part ) { super(MRTask.this); _part = part; }
+    @Override public void compute2() { throw H2O.fail(); } // Never run, only completed by the RPC
+    @Override public void onCompletion( CountedCompleter caller ) { _nres.arrived(_part,(T)caller); }
+  }
+
+  // Race between the RPC doing the work of a remote Node, and the speculative
+  // run of the same chunks on this Node once it is idle and the remote Node
+  // is far behind.  The first result wins, the other one is discarded.
+  final class Race extends H2O.H2OCountedCompleter {
+    private final int _part;
+    private final short _lo, _hi;    // Nodes of the RPC, relative to _nlo
+    private boolean _done;           // The result is in...
+    private boolean _local;          // ...from the speculative run
+    private T _res;                  // The result, null if no results
+    private T _spec;                 // The speculative run, if started
+    private TimerTask _timer;
+    Race( int part, int lo, int hi ) {
+      super(MRTask.this.priority());
+      _part = part; _lo = (short)lo; _hi = (short)hi;
+    }
+    @Override public void compute2() { throw H2O.fail(); } // Never run, only completed by the RPC
+    @Override public void onCompletion( CountedCompleter caller ) {
+      T mrt = (T)caller;
+      finish(mrt._nhi == -1 ? null : mrt, false); // Flag for no results *at all*
+    }
+    @Override public boolean onExceptionalCompletion( Throwable ex, CountedCompleter caller ) {
+      synchronized( this ) {
+        if( _done ) return false; // Lost to the speculative run, ignore
+        _done = true;
+      }
+      MRTask.this.completeExceptionally(ex);
+      return false;
+    }
+    synchronized boolean lost() { return _done && !_local; }
+    private String nodes() {
+      H2ONode first = H2O.CLOUD._memary[addShift(_lo)];
+      return _hi-_lo == 1 ? first.toString() : (_hi-_lo) + " Nodes from " + first;
+    }
+
+    // Speculate after the given delay, unless the RPC is done by then
+    synchronized void schedule( long delay ) {
+      if( _done || _timer != null ) return;
+      _timer = new TimerTask() { @Override public void run() { speculate(); } };
+      speculationTimer().schedule(_timer,Math.max(0,delay));
+    }
+
+    private void speculate() {
+      T spec;
+      synchronized( this ) {
+        if( _done ) return;
+        spec = _spec = _specTemplate.clone();
+        MRTask.this.addToPendingCount(1); // Wait also for the speculative run to settle
+      }
+      spec._specLo = _lo;
+      spec._specHi = _hi;
+      spec._race = this;
+      spec.setCompleter(new SpecDone(this));
+      spec.setPendingCount(0);
+      Log.info("Speculatively running the chunks of " + nodes() + " for " + MRTask.this.getClass().getName());
+      H2O.submitTask(spec);
+    }
+
+    // First result wins, then completes (the pending count of) the MRTask
+    void finish( T res, boolean local ) {
+      synchronized( this ) {
+        if( _done ) return;
+        _done = true;
+        _local = local;
+        _res = res;
+        if( _timer != null ) _timer.cancel();
+      }
+      if( local ) Log.info("Speculative run won over " + nodes() + " for " + MRTask.this.getClass().getName());
+      if( _nres != null ) _nres.arrived(_part,res);
+      MRTask.this.tryComplete();
+    }
+  }
+
+  // Completion of a speculative run: race its result
+  private final class SpecDone extends H2O.H2OCountedCompleter {
+    private final Race _race;
+    SpecDone( Race race ) { super(MRTask.this.priority()); _race = race; }
+    @Override public void compute2() { throw H2O.fail(); } // Never run, only completed by the speculative run
+    @Override public void onCompletion( CountedCompleter caller ) {
+      _race.finish(((MRTask<T>)caller)._res,true);
+      MRTask.this.tryComplete();
+    }
+    @Override public boolean onExceptionalCompletion( Throwable ex, CountedCompleter caller ) {
+      Log.warn("Speculative run failed, waiting for the remote Nodes: " + ex);
+      MRTask.this.tryComplete();
+      return false;
+    }
+  }
+
+  // Does a speculative run do the chunk with the given key?
+  private boolean specChunk( Key k ) {
+    int idx = k.home_node().index();
+    if( idx < 0 ) return false;
+    int n = subShift(idx);
+    return _specLo <= n && n < _specHi;
+  }
+
+  // This Node is done with its local work: speculate on the remote Nodes
+  // which do not answer within SPECULATION_FACTOR times the local work time
+  private void localDone() {
+    long local = System.currentTimeMillis() - _localStart;
+    long delay = Math.max(SPECULATION_MIN_MS, SPECULATION_FACTOR*local) - local;
+    for( Race race : _races )
+      if( race != null ) race.schedule(delay);
+  }
+
+  // Results of the remote Nodes, reduced in Node order as soon as they arrive:
+  // an arriving result is reduced with the runs of already arrived results
+  // right before and after it.  So only associativity of reduce is needed, and
+  // once the last result arrives at most two reduces remain.
+  private final class NodeResults {
+    private final T[] _res;          // Reduction of the run starting at i, null if no results
+    private final int[] _end;        // The run starting at i ends before _end[i]
+    private final int[] _start;      // The run ending at i starts at _start[i]
+    private final boolean[] _done;   // Result i has arrived
+    NodeResults( int n ) {
+      _res = (T[])new MRTask[n];
+      _end = new int[n];
+      _start = new int[n];
+      _done = new boolean[n];
+    }
+    synchronized void arrived( int i, T mrt ) {
+      assert !_done[i];
+      T res = mrt == null || mrt._nhi == -1 ? null : mrt; // Flag for no results *at all*
+      int s = i, e = i+1;
+      if( i > 0 && _done[i-1] ) {          // Join the run before
+        s = _start[i-1];
+        res = reduce(_res[s],res);
+      }
+      if( e < _done.length && _done[e] ) { // Join the run after
+        res = reduce(res,_res[e]);
+        _res[e] = null;
+        e = _end[e];
+      }
+      _res[s] = res;
+      _end[s] = e;
+      _start[e-1] = s;
+      _done[i] = true;
+    }
+    private T reduce( T a, T b ) {
+      if( a == null ) return b;
+      if( b != null ) a.reduce4(b);
+      return a;
+    }
+    // The reduction of all the results, once all arrived
+    synchronized T result() {
+      assert _end[0] == _done.length;
+      return _res[0];
+    }
+  }
+
+  // Start fetching the remote chunks of [lo,hi) of all the Vecs, with one
+  // request per home Node rather than one per chunk.
+  private void prefetchChunks( int lo, int hi ) {
+    List<Key> keys = new ArrayList<>();
+    for( Vec v : _fr.vecs() )
+      if( v != null ) v.remoteChunkKeys(lo,hi,keys);
+    if( _specHi > _specLo )     // Speculative run: only the chunks of the slow Nodes
+      for( Iterator<Key> it = keys.iterator(); it.hasNext(); )
+        if( !specChunk(it.next()) ) it.remove();
+    if( !keys.isEmpty() ) DKV.prefetchAll(keys.toArray(new Key[keys.size()]));
+  }
+
   /** Called from FJ threads to do local work.  The first called Task (which is
    *  also the last one to Complete) also reduces any global work.  Called
    *  internal by F/J.  Not expected to be user-called.  */
@@ -581,6 +939,13 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       _rite = copyAndInit();
       _left._hi = mid;          // Reset mid-point
       _rite._lo = mid;          // Also set self mid-point
+      // Run-local task reading chunks homed elsewhere: start fetching them in
+      // batches, one for each subrange of up to PREFETCH_CHUNKS chunks
+      if( (_run_local || _specHi > _specLo) && _fr != null && _hi-_lo > PREFETCH_CHUNKS ) {
+        if( mid-_lo <= PREFETCH_CHUNKS ) prefetchChunks(_lo,mid);
+        if( _hi-mid <= PREFETCH_CHUNKS ) prefetchChunks(mid,_hi);
+      }
+      if( _topLocal && _localParts != null ) _localParts.set(2); // Both halves must be done for localDone
       addToPendingCount(1);     // One fork awaiting completion
       if( !isCompletedAbnormally() ) _left.fork();     // Runs in another thread/FJ instance
       if( !isCompletedAbnormally() ) _rite.compute2(); // Runs in THIS F/J thread
@@ -599,7 +964,9 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       }
     } else if( _hi > _lo ) {    // Frame, Single chunk?
       Vec v0 = _fr.anyVec();
-      if( _run_local || v0.chunkKey(_lo).home() ) { // And chunk is homed here?
+      // And chunk is homed here?  Or on the slow Nodes, if a speculative run
+      // still racing them?
+      if( _run_local || (_specHi > _specLo ? specChunk(v0.chunkKey(_lo)) && !_race.lost() : v0.chunkKey(_lo).home()) ) {
         assert(_run_local || !H2O.ARGS.client) : "Client node should not process any keys in MRTask!";
 
         // Make decompression chunk headers for these chunks
@@ -608,7 +975,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         NewChunk [] appendableChunks = null;
         for( int i=0; i<vecs.length; i++ )
           if( vecs[i] != null ) {
-            assert _run_local || vecs[i].chunkKey(_lo).home()
+            assert _run_local || _specHi > _specLo || vecs[i].chunkKey(_lo).home()
               : "Chunk="+_lo+" v0="+v0+", k="+v0.chunkKey(_lo)+"   v["+i+"]="+vecs[i]+", k="+vecs[i].chunkKey(_lo);
             bvs[i] = vecs[i].chunkForChunkIdx(_lo);
           }
@@ -661,6 +1028,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     }
     if(_profile!=null)
       _profile._mapdone = System.currentTimeMillis();
+    if( _topLocal && _localParts != null ) localDone(); // No split: local work done
     tryComplete();
   }
 
@@ -668,6 +1036,15 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
    *  F/J.  Not expected to be user-called. */
   @Override public final void onCompletion( CountedCompleter caller ) {
     if(_profile!=null) _profile._onCstart = System.currentTimeMillis();
+    // A half of the local work of a speculative top local task is done
+    CountedCompleter cc = getCompleter();
+    if( !_topLocal && cc instanceof MRTask ) {
+      MRTask top = (MRTask)cc;
+      if( top._topLocal && top._localParts != null && top._localParts.decrementAndGet() == 0 ) top.localDone();
+    }
+    // End of the local work, for the per-Node times
+    long mapdone = _profile == null || !_topLocal ? 0
+      : _left == null ? _profile._mapdone : Math.max(_left._profile._onCdone,_rite._profile._onCdone);
     // Reduce results into 'this' so they collapse going up the execution tree.
     // NULL out child-references so we don't accidentally keep large subtrees
     // alive since each one may be holding large partial results.
@@ -676,7 +1053,10 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     if(_profile!=null) _profile._reducedone = System.currentTimeMillis();
     // Only on the top local call, have more completion work
     if( _topLocal ) postLocal0();
-    if(_profile!=null) _profile._onCdone = System.currentTimeMillis();
+    if(_profile!=null) {
+      _profile._onCdone = System.currentTimeMillis();
+      if( _topLocal ) _profile.nodeDone(mapdone);
+    }
   }
 
 
@@ -702,8 +1082,15 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   private void postLocal0() {
     closeLocal();               // User's node-local cleanup
     if(_profile!=null) _profile._closeLocalDone = System.currentTimeMillis();
-    reduce3(_nleft);            // Reduce global results from neighbors.
-    reduce3(_nrite);
+    if( _nrpcs != null )        // Reduce global results from neighbors.
+      for( int i=0; i<_nrpcs.length; i++ ) reduce3(_nrpcs[i], _races == null ? null : _races[i]);
+    if( _nres != null ) {       // Pipelined: reduced already as they arrived
+      T mrt = _nres.result();
+      if( mrt != null ) {
+        if( _res == null ) _res = mrt;
+        else _res.reduce4(mrt);
+      }
+    }
     if(_profile!=null) _profile._remoteBlkDone = System.currentTimeMillis();
     _fs.blockForPending();      // Block any pending user tasks
     if(_profile!=null) _profile._localBlkDone = System.currentTimeMillis();
@@ -723,8 +1110,15 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   }
 
   // Block for RPCs to complete, then reduce global results into self results
-  private void reduce3( RPC<T> rpc ) {
+  private void reduce3( RPC<T> rpc, Race race ) {
     if( rpc == null ) return;
+    if( race != null && race._local ) { // Speculative run won, do not wait for the RPC
+      if( _nres == null && race._res != null ) {
+        if( _res == null ) _res = race._res;
+        else _res.reduce4(race._res);
+      }
+      return;
+    }
     T mrt = rpc.get();          // This is a blocking remote call
     // Note: because _fs is transient it is not set or cleared by the RPC.
     // Because the MRT object is a clone of 'self' it's likely to contain a ptr
@@ -732,6 +1126,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     // blocks.  Not much can be asserted there.
     if(_profile!=null)
       _profile.gather(mrt._profile, rpc.size_rez());
+    if( _nres != null ) return; // Pipelined: reduced as it arrived
     // Unlike reduce2, results are in mrt directly not mrt._res.
     if( mrt._nhi != -1L ) {     // Any results at all?
       if( _res == null ) _res = mrt;
@@ -771,8 +1166,11 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
 
     // Since blocking can throw (generally the same exception, again and again)
     // catch & ignore, keeping only the first one we already got.
-    RPC<T> nl = _nleft; if( nl != null ) try { nl.get(); } catch( Throwable ignore ) { } _nleft = null;
-    RPC<T> nr = _nrite; if( nr != null ) try { nr.get(); } catch( Throwable ignore ) { } _nrite = null;
+    RPC<T>[] rpcs = _nrpcs;
+    if( rpcs != null )
+      for( RPC<T> rpc : rpcs )
+        if( rpc != null ) try { rpc.get(); } catch( Throwable ignore ) { }
+    _nrpcs = null;
     return true;
   }
 
@@ -782,7 +1180,11 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     x._topGlobal = false;
     x.setCompleter(this); // Set completer, what used to be a final field
     x._topLocal = false;  // Not a top job
-    x._nleft = x._nrite = null;
+    x._nrpcs = null;
+    x._nres = null;
+    x._races = null;
+    x._specTemplate = null;
+    x._localParts = null;
     x. _left = x. _rite = null;
     x._fs = _fs;
     if( _profile!=null )  x._profile = new MRProfile(this);
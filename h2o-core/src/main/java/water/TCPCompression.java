@@ -0,0 +1,89 @@
+package water;
+
+import water.network.CompressedSocketChannel;
+import water.nbhm.NonBlockingHashMapLong;
+
+import java.nio.channels.ByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Optional compression of the large TCP messages between Nodes.
+ *
+ * Compression is negotiated per pair of Nodes: a Node with compression enabled
+ * advertises it in its {@link HeartBeat}, and a sender compresses a TCP message
+ * only if both itself and the receiving Node have it enabled, and the first
+ * page of the message holds at least the threshold bytes.  The message then
+ * goes over a {@link CompressedSocketChannel}; readers recognize compressed
+ * messages by their first byte.
+ *
+ * Bytes before and after compression and the time spent compressing and
+ * decompressing are kept per type of the carried task; see WaterMeterIo.
+ */
+public final class TCPCompression {
+  /** Set to true to compress large TCP messages to Nodes which also have it enabled */
+  static final String COMPRESSION_PROP = H2O.OptArgs.SYSTEM_PROP_PREFIX + "network.compression";
+  /** Minimal size of the first page (up to 64KB) of a message to be compressed */
+  static final String THRESHOLD_PROP = H2O.OptArgs.SYSTEM_PROP_PREFIX + "network.compressionThreshold";
+
+  static final boolean ENABLED = Boolean.getBoolean(COMPRESSION_PROP);
+  static final int THRESHOLD = Integer.getInteger(THRESHOLD_PROP, 16 * 1024);
+
+  private TCPCompression() {}
+
+  /** Wrap a fresh TCP channel to the given Node if the message is worth compressing */
+  static ByteChannel wrap(ByteChannel chan, H2ONode h2o, int firstPage) {
+    HeartBeat hb = h2o._heartbeat;
+    if( !ENABLED || firstPage < THRESHOLD || hb == null || !hb._tcp_compression ) return chan;
+    return new CompressedSocketChannel(chan);
+  }
+
+  /** Wire statistics of the compressed messages carrying one type of task */
+  public static final class Stats {
+    public final String _type;
+    public long _sent, _sentBytes, _sentWireBytes, _compressNs;
+    public long _recv, _recvBytes, _recvWireBytes, _decompressNs;
+    Stats(String type) { _type = type; }
+
+    synchronized void add(boolean read, CompressedSocketChannel chan) {
+      if( read ) {
+        _recv++;
+        _recvBytes += chan.rawBytes();
+        _recvWireBytes += chan.wireBytes();
+        _decompressNs += chan.codecNanos();
+      } else {
+        _sent++;
+        _sentBytes += chan.rawBytes();
+        _sentWireBytes += chan.wireBytes();
+        _compressNs += chan.codecNanos();
+      }
+    }
+
+    synchronized Stats copy() {
+      Stats s = new Stats(_type);
+      s._sent = _sent; s._sentBytes = _sentBytes; s._sentWireBytes = _sentWireBytes; s._compressNs = _compressNs;
+      s._recv = _recv; s._recvBytes = _recvBytes; s._recvWireBytes = _recvWireBytes; s._decompressNs = _decompressNs;
+      return s;
+    }
+  }
+
+  // Stats by TypeMap id of the task, 0 for messages not carrying a task
+  private static final NonBlockingHashMapLong<Stats> STATS = new NonBlockingHashMapLong<>();
+
+  /** Record a completed compressed message */
+  static void record(int type, boolean read, CompressedSocketChannel chan) {
+    Stats s = STATS.get(type);
+    if( s == null ) {
+      Stats s2 = STATS.putIfAbsent(type, s = new Stats(type == 0 ? "other" : TypeMap.className(type)));
+      if( s2 != null ) s = s2;
+    }
+    s.add(read, chan);
+  }
+
+  /** Snapshot of the statistics of this Node */
+  public static Stats[] stats() {
+    List<Stats> res = new ArrayList<>();
+    for( Stats s : STATS.values() ) res.add(s.copy());
+    return res.toArray(new Stats[res.size()]);
+  }
+}
@@ -81,7 +81,13 @@ public class TCPReceiverThread extends Thread {
         H2ONode h2o = H2ONode.intern(inetAddress,port);
         // Pass off the TCP connection to a separate reader thread
         switch( chanType ) {
-        case 1: new UDP_TCP_ReaderThread(h2o, wrappedSocket).start(); break;
+        case 1:
+          // Small messages: multiplexed by a selector thread unless the channel is SSL wrapped
+          if( wrappedSocket == sock && TCPSelectorThread.enabled(H2O.SELF.getSecurityManager()) )
+            TCPSelectorThread.next().registerInbound(h2o, sock);
+          else
+            new UDP_TCP_ReaderThread(h2o, wrappedSocket).start();
+          break;
         case 2: new TCPReaderThread(wrappedSocket,new AutoBuffer(wrappedSocket, inetAddress), inetAddress).start(); break;
         default: throw H2O.fail("unexpected channel type " + chanType + ", only know 1 - Small and 2 - Big");
         }
@@ -0,0 +1,380 @@
+package water;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import water.util.Log;
+
+/**
+ * Event-driven transport of the small (batched UDP) messages between Nodes.
+ *
+ * A few selector threads multiplex all the small-message TCP channels of
+ * this Node: the incoming ones (instead of a reader thread per accepted
+ * socket) and the outgoing ones (instead of a sender thread per remote Node).
+ * The wire format is unchanged - a 4 byte channel header followed by messages
+ * framed as MSG_SZ(2B) MSG BODY(MSG_SZ*B) EOM MARKER (1B - 0xef), where the
+ * body is the AutoBuffer of the message - so selector and thread based Nodes
+ * interoperate.
+ *
+ * Backpressure: an incoming channel whose messages pile up in the F/J queues
+ * (not yet handled) is not read until they drain; the TCP window then fills
+ * up and the sender stops writing to the channel until it becomes writable
+ * again, keeping the messages queued meanwhile.
+ *
+ * SSL wrapped channels are not selectable; with internal security enabled the
+ * thread based transport is used.  The big-message channels are not served
+ * here either, they keep a reader thread per connection.
+ *
+ * Off by default; enabled by -Dsys.ai.h2o.network.selectorTransport=true.
+ */
+class TCPSelectorThread extends Thread {
+  /** Number of selector threads */
+  static final String SELECTOR_THREADS_PROP = H2O.OptArgs.SYSTEM_PROP_PREFIX + "network.selectorThreads";
+  /** Set to true to multiplex the small-message channels by selector threads instead of a reader/sender thread per channel */
+  static final String SELECTOR_TRANSPORT_PROP = H2O.OptArgs.SYSTEM_PROP_PREFIX + "network.selectorTransport";
+  /** Max number of received, not yet handled messages per channel before the channel stops being read */
+  static final String MAX_PENDING_MESSAGES_PROP = H2O.OptArgs.SYSTEM_PROP_PREFIX + "network.maxPendingMessages";
+
+  private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty(SELECTOR_TRANSPORT_PROP, "false"));
+  private static final int MAX_PENDING = Integer.getInteger(MAX_PENDING_MESSAGES_PROP, 1024);
+
+  private static TCPSelectorThread[] THREADS;
+  private static final AtomicInteger NEXT = new AtomicInteger();
+
+  /** Can the channels of the given security setup be multiplexed by selectors? */
+  static boolean enabled(H2OSecurityManager security) { return ENABLED && !security.securityEnabled; }
+
+  /** Selector thread to serve a new channel, round-robin; the threads are started on first use. */
+  static TCPSelectorThread next() {
+    synchronized( TCPSelectorThread.class ) {
+      if( THREADS == null ) {
+        int n = Integer.getInteger(SELECTOR_THREADS_PROP, Math.max(1, Math.min(4, H2O.NUMCPUS / 8)));
+        TCPSelectorThread[] threads = new TCPSelectorThread[n];
+        for( int i = 0; i < n; i++ ) {
+          try {
+            threads[i] = new TCPSelectorThread(i);
+          } catch( IOException e ) {
+            throw Log.throwErr(e);
+          }
+          threads[i].start();
+        }
+        THREADS = threads;
+      }
+    }
+    return THREADS[(NEXT.getAndIncrement() & Integer.MAX_VALUE) % THREADS.length];
+  }
+
+  private final Selector _selector;
+  // Work handed over from other threads, run by the selector thread
+  private final ConcurrentLinkedQueue<Runnable> _tasks = new ConcurrentLinkedQueue<>();
+  private final List<Inbound> _paused = new ArrayList<>();
+  private final List<Outbound> _reconnects = new ArrayList<>();
+
+  private TCPSelectorThread(int idx) throws IOException {
+    super("TCP-Selector-" + idx);
+    setDaemon(true);
+    setPriority(MAX_PRIORITY - 1);
+    _selector = Selector.open();
+  }
+
+  private void submit(Runnable r) {
+    _tasks.add(r);
+    _selector.wakeup();
+  }
+
+  @Override public void run() {
+    while( true ) {
+      try {
+        long timeout = 0;     // Block until something happens...
+        if( !_paused.isEmpty() ) timeout = 10; // ...or poll the paused channels
+        long now = System.currentTimeMillis();
+        for( Outbound o : _reconnects ) {
+          long t = Math.max(1, o._reconnectAt - now);
+          timeout = timeout == 0 ? t : Math.min(timeout, t);
+        }
+        _selector.select(timeout);
+
+        Runnable r;
+        while( (r = _tasks.poll()) != null ) r.run();
+
+        Iterator<SelectionKey> it = _selector.selectedKeys().iterator();
+        while( it.hasNext() ) {
+          SelectionKey key = it.next();
+          it.remove();
+          Object att = key.attachment();
+          try {
+            if( !key.isValid() ) continue;
+            if( att instanceof Inbound ) {
+              ((Inbound) att).read();
+            } else {
+              Outbound o = (Outbound) att;
+              if( key.isConnectable() ) o.finishConnect();
+              else if( key.isWritable() ) o.flush();
+            }
+          } catch( IOException | CancelledKeyException e ) {
+            if( att instanceof Inbound ) ((Inbound) att).close(e);
+            else ((Outbound) att).failed(e);
+          }
+        }
+
+        // Resume reading the channels whose pending messages were handled
+        for( Iterator<Inbound> pit = _paused.iterator(); pit.hasNext(); ) {
+          Inbound in = pit.next();
+          if( in._pending.get() <= MAX_PENDING / 2 ) {
+            pit.remove();
+            in.resume();
+          }
+        }
+        // Reconnect the failed outgoing channels whose backoff elapsed
+        // (a failed reconnect adds the channel back, so flush after the scan)
+        now = System.currentTimeMillis();
+        List<Outbound> due = new ArrayList<>();
+        for( Iterator<Outbound> rit = _reconnects.iterator(); rit.hasNext(); ) {
+          Outbound o = rit.next();
+          if( o._reconnectAt <= now ) {
+            rit.remove();
+            due.add(o);
+          }
+        }
+        for( Outbound o : due ) o.flush();
+      } catch( ClosedSelectorException e ) {
+        break;
+      } catch( Throwable t ) {
+        Log.err("Error in the TCP selector thread: ", t);
+      }
+    }
+  }
+
+  // ---------------
+  /** Hands over an accepted small-message channel (after the channel header was read). */
+  void registerInbound( final H2ONode h2o, final SocketChannel chan ) {
+    submit(new Runnable() {
+      @Override public void run() {
+        try {
+          new Inbound(h2o, chan);
+        } catch( IOException e ) {
+          Log.err("Unable to register TCP channel from " + h2o, e);
+          try { chan.close(); } catch( IOException ignore ) { }
+        }
+      }
+    });
+  }
+
+  /** Incoming small-message channel. Reads the framed messages and hands them over to the F/J queues. */
+  private final class Inbound {
+    private final H2ONode _h2o;
+    private final SocketChannel _chan;
+    private final SelectionKey _key;
+    private ByteBuffer _bb;   // In fill mode, holds the bytes of an incomplete message
+    /** Messages of this channel in the F/J queues */
+    final AtomicInteger _pending = new AtomicInteger();
+
+    Inbound( H2ONode h2o, SocketChannel chan ) throws IOException {
+      _h2o = h2o;
+      _chan = chan;
+      _bb = AutoBuffer.BBP_BIG.make();
+      chan.configureBlocking(false);
+      _key = chan.register(_selector, SelectionKey.OP_READ, this);
+    }
+
+    void read() throws IOException {
+      int n = _chan.read(_bb);
+      if( n < 0 ) throw new EOFException();
+      _h2o._last_heard_from = System.currentTimeMillis();
+      _bb.flip();
+      while( _bb.remaining() >= 2 ) {
+        int sz = _bb.getChar(_bb.position()); // 2 bytes of next-message-size
+        if( _bb.remaining() < 2 + sz + 1 ) break; // Incomplete message
+        assert sz < AutoBuffer.BBP_SML._size : "Incoming message is too big, should've been sent by TCP-BIG, got " + sz + " bytes";
+        _bb.getChar();
+        byte[] ary = MemoryManager.malloc1(Math.max(16, sz));
+        _bb.get(ary, 0, sz);
+        int sentinel = 0xFF & _bb.get();
+        if( sentinel != 0xef )
+          throw new IOException("Missing expected sentinel (0xef) at the end of the message from " + _h2o + ", likely out of sync, size = " + sz);
+        UDPReceiverThread.basic_packet_handling(new AutoBuffer(_h2o, ary, 0, sz), _pending);
+      }
+      _bb.compact();
+      if( _pending.get() > MAX_PENDING ) { // Receiver is slow, stop reading
+        _key.interestOps(0);
+        _paused.add(this);
+      }
+    }
+
+    void resume() {
+      if( _key.isValid() ) _key.interestOps(SelectionKey.OP_READ);
+    }
+
+    void close( Exception e ) {
+      if( _bb == null ) return; // Already closed
+      // Closing an idle channel is normal, happens during shutdown
+      if( !(e instanceof IOException) || _bb.position() > 0 ) Log.err(e);
+      _key.cancel();
+      _paused.remove(this);
+      try { _chan.close(); } catch( IOException ignore ) { }
+      if( _bb != null ) AutoBuffer.BBP_BIG.free(_bb);
+      _bb = null;
+    }
+  }
+
+  // ---------------
+  /** Outgoing small-message channel to the given Node, served by a selector thread picked round-robin. */
+  static Outbound outbound( H2ONode h2o ) {
+    return next().new Outbound(h2o);
+  }
+
+  /**
+   * Outgoing small-message channel. Messages are queued by priority and
+   * batched into the output buffer by the selector thread, which writes them
+   * whenever the channel can take more bytes.  The channel is made lazily and
+   * remade after errors.
+   */
+  final class Outbound {
+    private final H2ONode _h2o;
+    private final PriorityBlockingQueue<ByteBuffer> _msgQ = new PriorityBlockingQueue<>(11, H2ONode.MSG_PRIORITY);
+    private final AtomicBoolean _scheduled = new AtomicBoolean();
+    private ByteBuffer _bb = AutoBuffer.BBP_BIG.make(); // Batch of messages; flipped while being written; null once closed
+    private boolean _flushing;  // _bb holds a batch being written
+    private ByteBuffer _header; // Channel header being written
+    private SocketChannel _chan;
+    private SelectionKey _key;
+    private boolean _connected;
+    private int _retries;
+    long _reconnectAt;
+    private volatile boolean _stopRequested;
+
+    private Outbound( H2ONode h2o ) { _h2o = h2o; }
+
+    /** Queue the message (with the priority already encoded in the position) and get it sent. */
+    void sendMessage( ByteBuffer bb ) {
+      _msgQ.put(bb);
+      if( _scheduled.compareAndSet(false, true) )
+        submit(new Runnable() { @Override public void run() { _scheduled.set(false); flush(); } });
+    }
+
+    void stop() {
+      _stopRequested = true;
+      submit(new Runnable() { @Override public void run() { flush(); } });
+    }
+
+    /** Write as many queued messages as the channel takes. Runs on the selector thread. */
+    void flush() {
+      if( _stopRequested ) { close(); return; }
+      if( _reconnectAt > System.currentTimeMillis() ) return; // Waiting to reconnect
+      try {
+        if( _chan == null ) { connect(); return; }
+        if( !_connected ) return; // Waiting for the connection
+        while( true ) {
+          if( _header != null ) {
+            _chan.write(_header);
+            if( _header.hasRemaining() ) break;
+            _header = null;
+          }
+          if( !_flushing && !fill() ) break; // Nothing more to send
+          _chan.write(_bb);
+          if( _bb.hasRemaining() ) break; // Channel is full, wait till it is writable
+          _bb.clear();
+          _flushing = false;
+        }
+        _retries = 0;
+        boolean pending = _header != null || _flushing;
+        _key.interestOps(pending ? SelectionKey.OP_WRITE : 0);
+      } catch( IOException | CancelledKeyException e ) {
+        failed(e);
+      }
+    }
+
+    // Batch queued messages into the output buffer, in priority order
+    private boolean fill() {
+      ByteBuffer bb;
+      while( (bb = _msgQ.peek()) != null ) {
+        assert !bb.isDirect() : "Direct BBs already got recycled";
+        assert bb.limit()+1+2 <= _bb.capacity() : "Small message larger than the output buffer";
+        if( _bb.remaining() < bb.limit()+1+2 ) break; // Batch is full
+        _msgQ.poll();
+        _bb.putChar((char) bb.limit());
+        _bb.put(bb.array(), 0, bb.limit());
+        _bb.put((byte) 0xef); // Sentinel byte
+      }
+      if( _bb.position() == 0 ) return false;
+      _bb.flip();
+      _flushing = true;
+      return true;
+    }
+
+    private void connect() throws IOException {
+      SocketChannel sock = SocketChannel.open();
+      _chan = sock;
+      sock.configureBlocking(false);
+      sock.socket().setReuseAddress(true);
+      sock.socket().setSendBufferSize(AutoBuffer.BBP_BIG._size);
+      sock.socket().setTcpNoDelay(true);
+      boolean connected = sock.connect(new InetSocketAddress(_h2o._key.getAddress(), _h2o._key.getPort()));
+      _key = sock.register(_selector, connected ? 0 : SelectionKey.OP_CONNECT, this);
+      if( connected ) connected();
+    }
+
+    void finishConnect() throws IOException {
+      if( _chan.finishConnect() ) connected();
+    }
+
+    private void connected() {
+      _connected = true;
+      _header = ByteBuffer.allocate(4).order(ByteOrder.nativeOrder());
+      _header.put((byte) 1).putChar((char) H2O.H2O_PORT).put((byte) 0xef).flip();
+      flush();
+    }
+
+    /** Close the channel, retry the current batch on a new channel after a backoff. */
+    void failed( Exception e ) {
+      // Log if not shutting down, and not middle-of-cloud-formation where
+      // other node is still booting up (expected common failure), or *never*
+      // comes up - such as when not all nodes mentioned in a flatfile will be
+      // booted.
+      if( _stopRequested ) { close(); return; } // Node left the cloud, do not reconnect
+      if( !H2O.getShutdownRequested() && (Paxos._cloudLocked || _retries > 300) ) {
+        Log.err("Got IO error when sending batch UDP bytes: ", e);
+        _retries = 150;       // Throttle the pace of error msgs
+      }
+      if( _flushing ) _bb.rewind(); // Position to zero; limit unchanged; resend the whole batch
+      closeChannel();
+      _retries++;
+      _reconnectAt = System.currentTimeMillis() + Math.min(5000, _retries << 1);
+      if( !_reconnects.contains(this) ) _reconnects.add(this);
+    }
+
+    private void closeChannel() {
+      if( _key != null ) _key.cancel();
+      if( _chan != null )
+        try { _chan.close(); } catch( IOException ignore ) { }
+      _key = null;
+      _chan = null;
+      _connected = false;
+      _header = null;
+    }
+
+    private void close() {
+      if( _bb == null ) return; // Already closed
+      closeChannel();
+      _reconnects.remove(this);
+      _msgQ.clear();
+      AutoBuffer.BBP_BIG.free(_bb);
+      _bb = null;
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package water;
+
+import water.nbhm.NonBlockingHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Get a batch of keys from their (common) home node, in one round-trip.
+ *
+ * The home answers the keys in order, until the answer grows past
+ * {@link #MAX_BYTES}; the client asks again for the keys left out.  While a
+ * batch is in flight its keys are registered as pending, and a {@link DKV#get}
+ * of any of them waits for the batch instead of fetching the key on its own.
+ */
+public class TaskGetKeys extends DTask<TaskGetKeys> {
+  /** Max size of the Values returned by one request, the rest is fetched by a follow-up request */
+  static final String MAX_BYTES_PROP = H2O.OptArgs.SYSTEM_PROP_PREFIX + "dkv.batchGetBytes";
+  /** Max number of keys asked for by one request */
+  static final String MAX_KEYS_PROP = H2O.OptArgs.SYSTEM_PROP_PREFIX + "dkv.batchGetKeys";
+  static final long MAX_BYTES = Long.getLong(MAX_BYTES_PROP, 32 << 20);
+  static final int MAX_KEYS = Integer.getInteger(MAX_KEYS_PROP, 1024);
+
+  Key[] _keys;               // Set by client/sender JVM, cleared by server JVM
+  Value[] _vals;             // Set by server JVM, read by client JVM; answers a prefix of the keys
+  transient Key[] _xkeys;    // Set by client, read by client
+  transient H2ONode _target; // Set by client, read by client
+  transient RPC<TaskGetKeys> _rpc; // Set by client, read by client
+  transient H2ONode _h2o;    // Set by server JVM, read by server JVM on ACKACK
+
+  // Keys being fetched by a batch
+  private static final NonBlockingHashMap<Key,RPC<TaskGetKeys>> PENDING = new NonBlockingHashMap<>();
+
+  /** The batch fetching the key, or null */
+  static RPC<TaskGetKeys> pending( Key key ) { return PENDING.get(key); }
+
+  /**
+   * Start fetching the keys, all homed on target, with as few requests as
+   * possible.  Keys already being fetched by another batch are skipped.
+   * @return the started requests
+   */
+  static List<RPC<TaskGetKeys>> start( H2ONode target, Key[] keys ) { return start(target, keys, null); }
+
+  // Start fetching the keys claimed by the given batch (or by none)
+  private static List<RPC<TaskGetKeys>> start( H2ONode target, Key[] keys, RPC<TaskGetKeys> old ) {
+    List<RPC<TaskGetKeys>> rpcs = new ArrayList<>();
+    for( int i = 0; i < keys.length; i += MAX_KEYS ) {
+      Key[] ks = Arrays.copyOfRange(keys, i, Math.min(keys.length, i + MAX_KEYS));
+      TaskGetKeys tgk = new TaskGetKeys(target);
+      RPC<TaskGetKeys> rpc = tgk._rpc = new RPC<>(target, tgk, 1.0f);
+      // Claim the keys nobody else is fetching
+      int n = 0;
+      for( Key k : ks )
+        if( PENDING.putIfMatchUnlocked(k, rpc, old) == old )
+          ks[n++] = k;
+      if( n == 0 ) continue;
+      tgk._keys = tgk._xkeys = n == ks.length ? ks : Arrays.copyOf(ks, n);
+      rpc.setTaskNum().call();  // Start the op
+      rpcs.add(rpc);
+    }
+    return rpcs;
+  }
+
+  private TaskGetKeys( H2ONode target ) { super(H2O.GET_KEY_PRIORITY); _target = target; }
+
+  // Top-level non-recursive invoke
+  @Override public void dinvoke( H2ONode sender ) {
+    _h2o = sender;
+    Key[] ks = _keys;
+    _keys = null;         // Not part of the return result
+    Value[] vals = new Value[ks.length];
+    long bytes = 0;
+    int n = 0;
+    while( n < ks.length && (n == 0 || bytes < MAX_BYTES) ) {
+      Key k = ks[n];
+      assert k.home();    // Gets are always from home (less we do replication)
+      // Shipping a result?  Track replicas so we can invalidate; see TaskGetKey.
+      Value val;
+      do  val = Value.STORE_get(k);
+      while( val != null && !val.setReplica(sender) );
+      if( val != null ) bytes += val._max;
+      vals[n++] = val;
+    }
+    _vals = n == vals.length ? vals : Arrays.copyOf(vals, n);
+    tryComplete();
+  }
+  @Override public void compute2() { throw H2O.fail(); }
+
+  // Received an ACK; executes on the node asking&receiving the Values
+  @Override public void onAck() {
+    for( int i = 0; i < _vals.length; i++ ) {
+      Value val = _vals[i];
+      Key key = _xkeys[i];
+      if( val != null ) {       // Set transient fields after deserializing
+        assert !key.home() && val._key == null;
+        val._key = key;
+      }
+      // Update the local store, caching the result; same as TaskGetKey
+      Value old = H2O.STORE.get(key);
+      if( old != null && !old.isEmpty() ) old=null;
+      Value res = H2O.putIfMatch(key,val,old);
+      if( res != old ) _vals[i] = res;
+    }
+    for( int i = 0; i < _vals.length; i++ ) PENDING.remove(_xkeys[i], _rpc); // Clear from pending keys
+    // Ask again for the keys left out of the answer; they stay pending meanwhile.
+    // Not from this (network) thread, the request may need a TCP socket.
+    if( _vals.length < _xkeys.length ) {
+      final Key[] rest = Arrays.copyOfRange(_xkeys, _vals.length, _xkeys.length);
+      final H2ONode target = _target;
+      final RPC<TaskGetKeys> old = _rpc;
+      H2O.submitTask(new H2O.H2OCountedCompleter(priority()) {
+        @Override public void compute2() {
+          start(target, rest, old);
+          // Keys nobody claimed meanwhile are not pending anymore
+          for( Key key : rest ) PENDING.remove(key, old);
+          tryComplete();
+        }
+      });
+    }
+  }
+
+  // Received an ACKACK; executes on the node sending the Values
+  @Override public void onAckAck() {
+    for( Value val : _vals )
+      if( val != null ) val.lowerActiveGetCount(_h2o);
+  }
+}
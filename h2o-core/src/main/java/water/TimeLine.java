@@ -34,7 +34,8 @@ public class TimeLine extends UDP {
   // - Milliseconds since JVM boot; 4 bytes
   // - IP4 of send/recv
   // - Sys.Nano, 8 bytes-3 bits
-  // - Nano low bit is 1 id packet was droped, next bit is 0 for send, 1 for recv, next bit is 0 for udp, 1 for tcp
+  // - Nano low bit is 1 id packet was droped, next bit is 0 for send, 1 for recv, next bit is 0 for udp, 1 for tcp,
+  //   next bit is 1 for a compressed tcp message
   // - 16 bytes of payload; 1st byte is a udp_type opcode, next 4 bytes are typically task#
   public static final int MAX_EVENTS=2048; // Power-of-2, please
   static final int WORDS_PER_EVENT=4;
@@ -72,14 +73,14 @@ public class TimeLine extends UDP {
   // receive and must be either 0 or 1.  "drop" is whether or not the UDP
   // packet is dropped as-if a network drop, and must be either 0 (kept) or 2
   // (dropped).
-  private static void record2( H2ONode h2o, long ns, boolean tcp, int sr, int drop, long b0, long b8 ) {
+  private static void record2( H2ONode h2o, long ns, boolean tcp, boolean zip, int sr, int drop, long b0, long b8 ) {
     final long ms = System.currentTimeMillis(); // Read first, in case we're slow storing values
     long deltams = ms-JVM_BOOT_MSEC;
     assert deltams < 0x0FFFFFFFFL; // No daily overflow
     final long[] tl = TIMELINE; // Read once, in case the whole array shifts out from under us
     final int idx = next_idx(tl); // Next free index
     tl[idx*WORDS_PER_EVENT+0+1] = (deltams)<<32 | (h2o.ip4()&0x0FFFFFFFFL);
-    tl[idx*WORDS_PER_EVENT+1+1] = (ns&~7)| (tcp?4:0)|sr|drop;
+    tl[idx*WORDS_PER_EVENT+1+1] = (ns&~15)| (zip?8:0)|(tcp?4:0)|sr|drop;
     // More complexities: record the *receiver* port in the timeline - but not
     // in the outgoing UDP packet!  The outgoing packet always has the sender's
     // port (that's us!) - which means the recorded timeline packet normally
@@ -99,7 +100,7 @@ public class TimeLine extends UDP {
       b._bb.limit(16);
       long lo = b.get8(0), hi = b.get8(8);
       final long ns = System.nanoTime();
-      record2(b._h2o, ns, tcp, sr, drop, lo, hi);
+      record2(b._h2o, ns, tcp, tcp && b.compressedTCP(), sr, drop, lo, hi);
       b._bb.limit(lim);
       b._bb.position(pos);
     } catch(Throwable t) {
@@ -3,6 +3,7 @@ package water;
 import java.nio.channels.DatagramChannel;
 import java.util.Date;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import water.util.Log;
 
@@ -73,6 +74,12 @@ public class UDPReceiverThread extends Thread {
   // Basic packet handling:
   //   - Timeline record it
   static public void basic_packet_handling( AutoBuffer ab ) throws java.io.IOException {
+    basic_packet_handling(ab, null);
+  }
+
+  // Same as above; messages handed over to the F/J queues are counted in the
+  // given counter until handled (used for backpressure by the TCP selectors).
+  static void basic_packet_handling( AutoBuffer ab, AtomicInteger pending ) throws java.io.IOException {
     // Randomly drop 1/10th of the packets, as-if broken network.  Dropped
     // packets are timeline recorded before dropping - and we still will
     // respond to timelines and suicide packets.
@@ -143,6 +150,6 @@ public class UDPReceiverThread extends Thread {
     // this is coming from a UDP packet the deser work is actually small.
 
 
-    H2O.submitTask(new FJPacket(ab,ctrl));
+    H2O.submitTask(new FJPacket(ab,ctrl,pending));
   }
 }
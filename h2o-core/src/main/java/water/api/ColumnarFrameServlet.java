@@ -0,0 +1,144 @@
+package water.api;
+
+import water.DKV;
+import water.JettyHTTPD;
+import water.Key;
+import water.Lockable;
+import water.Value;
+import water.fvec.ColumnarFrameCodec;
+import water.fvec.Frame;
+import water.fvec.Vec;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Download and upload of Frames in the binary columnar format of
+ * {@link ColumnarFrameCodec}, without formatting and parsing CSV text.
+ *
+ *   curl -o frame.h2oc "http://localhost:54321/3/DownloadDataset.columnar?frame_id=prostate.hex"
+ *   curl --data-binary @frame.h2oc -H "Content-Type: application/octet-stream" \
+ *        "http://localhost:54321/3/UploadFrame.columnar?destination_frame=copy.hex"
+ *
+ * The upload also takes a multipart/form-data body, as PostFile does, and
+ * returns { "destination_frame": "key_name", "rows": nnn, "columns": nnn }.
+ * It needs a Content-Length: the counts and lengths in the body are checked
+ * against it before anything is allocated for them.  The destination frame
+ * is write-locked while it is read, as a parse does.
+ *
+ * Downloads are GETs and uploads POSTs only; the other method of each path
+ * is answered with 405 Method Not Allowed.
+ */
+public class ColumnarFrameServlet extends HttpServlet {
+  private static final String DOWNLOAD_PATH = "/3/DownloadDataset.columnar";
+  private static final String UPLOAD_PATH = "/3/UploadFrame.columnar";
+
+  @Override
+  protected void doGet(HttpServletRequest request, HttpServletResponse response) {
+    String uri = JettyHTTPD.getDecodedUri(request);
+    try {
+      if (!DOWNLOAD_PATH.equals(request.getServletPath())) {
+        methodNotAllowed(response, "POST");
+        return;
+      }
+      String f_name = request.getParameter("frame_id");
+      if (f_name == null) {
+        throw new IllegalArgumentException("Cannot find value for parameter \'frame_id\'");
+      }
+      Value val = DKV.get(f_name);
+      if (val == null || !val.isFrame()) {
+        throw new IllegalArgumentException("Frame " + f_name + " not found");
+      }
+      Frame dataset = val.get();
+      response.setContentType("application/octet-stream");
+      // Clean up the file name, as DatasetServlet does
+      int x = f_name.length() - 1;
+      boolean dot = false;
+      for (; x >= 0; x--)
+        if (!Character.isLetterOrDigit(f_name.charAt(x)) && f_name.charAt(x) != '_')
+          if (f_name.charAt(x) == '.' && !dot) dot = true;
+          else break;
+      String suggested_fname = f_name.substring(x + 1).replace(".hex", ".h2oc");
+      if (!suggested_fname.endsWith(".h2oc"))
+        suggested_fname = suggested_fname + ".h2oc";
+      response.addHeader("Content-Disposition", "attachment; filename=" + suggested_fname);
+      JettyHTTPD.setResponseStatus(response, HttpServletResponse.SC_OK);
+      OutputStream os = response.getOutputStream();
+      ColumnarFrameCodec.write(dataset, os);
+    } catch (Exception e) {
+      JettyHTTPD.sendErrorResponse(response, e, uri);
+    } finally {
+      JettyHTTPD.logRequest("GET", request, response);
+    }
+  }
+
+  @Override
+  protected void doPost(HttpServletRequest request, HttpServletResponse response) {
+    String uri = JettyHTTPD.getDecodedUri(request);
+    try {
+      if (!UPLOAD_PATH.equals(request.getServletPath())) {
+        methodNotAllowed(response, "GET");
+        return;
+      }
+      String destination_frame = request.getParameter("destination_frame");
+      if (destination_frame == null) {
+        destination_frame = "upload" + Key.rand();
+      }
+      if (!JettyHTTPD.validKeyName(destination_frame)) {
+        JettyHTTPD.setResponseStatus(response, HttpServletResponse.SC_BAD_REQUEST);
+        response.getWriter().write("Invalid key name, contains illegal characters");
+        return;
+      }
+      // From the header, as getContentLength() is an int
+      long size = -1;
+      String length = request.getHeader("Content-Length");
+      if (length != null) {
+        try { size = Long.parseLong(length.trim()); } catch (NumberFormatException e) { /* required below */ }
+      }
+      if (size < 0) {
+        JettyHTTPD.setResponseStatus(response, HttpServletResponse.SC_LENGTH_REQUIRED);
+        response.getWriter().write("Content-Length required");
+        return;
+      }
+      String ct = request.getContentType();
+      InputStream is = ct != null && ct.startsWith("multipart/form-data")
+          ? JettyHTTPD.extractPartInputStream(request, response)
+          : request.getInputStream();
+      if (is == null) {
+        return;
+      }
+
+      Key<Frame> key = Key.make(destination_frame);
+      new Frame(key, new String[0], new Vec[0]).delete_and_lock(); // Write-lock before reading
+      Frame fr;
+      try {
+        Frame read = ColumnarFrameCodec.read(null, is, size);
+        fr = new Frame(key, read.names(), read.vecs()).unlock();
+      } catch (Exception e) {
+        Lockable.delete(key);
+        throw e;
+      }
+      String responsePayload = "{ " +
+          "\"destination_frame\": \"" + destination_frame + "\", " +
+          "\"rows\": " + fr.numRows() + ", " +
+          "\"columns\": " + fr.numCols() + " " +
+          "}\n";
+      response.setContentType("application/json");
+      response.getWriter().write(responsePayload);
+    } catch (Exception e) {
+      JettyHTTPD.sendErrorResponse(response, e, uri);
+    } finally {
+      JettyHTTPD.logRequest("POST", request, response);
+    }
+  }
+
+  private static void methodNotAllowed(HttpServletResponse response, String allowed) throws IOException {
+    JettyHTTPD.setResponseStatus(response, HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+    response.setHeader("Allow", allowed);
+    response.getWriter().write("Method not allowed, use " + allowed);
+  }
+}
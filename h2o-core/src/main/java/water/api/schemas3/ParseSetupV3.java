@@ -39,6 +39,10 @@ public class ParseSetupV3 extends RequestSchemaV3<ParseSetup, ParseSetupV3> {
   @API(help="NA strings for columns", direction=API.Direction.INOUT)
   public String[][] na_strings;
 
+  @API(help="Ranges of a numeric column, as \"column:min:max\" with an empty bound for none, that blocks of rows " +
+          "have to overlap to be parsed (Parquet row groups)", direction=API.Direction.INOUT)
+  public String[] row_group_filters;
+
   @API(help="Regex for names of columns to return", direction=API.Direction.INOUT)
   public String column_name_filter;
 
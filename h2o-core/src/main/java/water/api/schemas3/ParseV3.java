@@ -41,6 +41,10 @@ public class ParseV3 extends RequestSchemaV3<Iced, ParseV3> {
   @API(help="NA strings for columns")
   public String[][] na_strings;
 
+  @API(help="Ranges of a numeric column, as \"column:min:max\" with an empty bound for none, that blocks of rows " +
+          "have to overlap to be parsed (Parquet row groups)")
+  public String[] row_group_filters;
+
   @API(help="Size of individual parse tasks", direction=API.Direction.INPUT)
   public int chunk_size;
 
@@ -174,7 +174,7 @@ public class TimelineV3 extends RequestSchemaV3<Timeline,TimelineV3> {
             from = event.packH2O().toString();
             to = h2o.toString();
           }
-          outputEvents.add(new NetworkEvent(ms, ns, event.isSend(), event.isTCP() ? "TCP" : "UDP", msgType.toString(), from, to, UDP.printx16(event.dataLo(), event.dataHi())));
+          outputEvents.add(new NetworkEvent(ms, ns, event.isSend(), event.isTCP() ? (event.isCompressed() ? "TCP+LZ4" : "TCP") : "UDP", msgType.toString(), from, to, UDP.printx16(event.dataLo(), event.dataHi())));
         }
       }
     } // if timeline.snapshot
@@ -2,6 +2,7 @@ package water.fvec;
 
 import water.*;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * A NEW single distributed vector column.
@@ -117,6 +118,7 @@ public class AppendableVec extends Vec {
   @Override protected boolean readable() { return false; }
   @Override protected boolean writable() { return true ; }
   @Override public NewChunk chunkForChunkIdx(int cidx) { return new NewChunk(this,cidx); }
+  @Override public void remoteChunkKeys(int lo, int hi, List<Key> keys) { } // Nothing to read
   // None of these are supposed to be called while building the new vector
   @Override public Value chunkIdx( int cidx ) { throw H2O.fail(); }
   @Override public long length() { throw H2O.fail(); }
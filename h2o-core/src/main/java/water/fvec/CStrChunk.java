@@ -4,6 +4,7 @@ import water.*;
 import water.util.UnsafeUtils;
 import water.parser.BufferedString;
 
+import java.util.Arrays;
 import java.util.HashMap;
 
 public class CStrChunk extends Chunk {
@@ -269,6 +270,156 @@ public class CStrChunk extends Chunk {
     return nc;
   }
 
+  /**
+   * Replace the occurrences of a literal in every string of this chunk, working
+   * on the UTF-8 bytes without decoding them.  A match of UTF-8 bytes always
+   * starts and ends on character boundaries, so this is exact for any strings.
+   * Strings with nothing to replace are copied as they are.
+   *
+   * @param nc NewChunk to be filled with the replaced strings
+   * @param pattern UTF-8 bytes of the literal to replace, not empty
+   * @param replacement UTF-8 bytes to replace it with
+   * @param all replace all occurrences if true, only the first one otherwise
+   * @param lower lower-case the ASCII letters of the strings first; only for all-ASCII chunks
+   * @return Filled NewChunk
+   */
+  public NewChunk replace(NewChunk nc, byte[] pattern, byte[] replacement, boolean all, boolean lower) {
+    BufferedString bStr = new BufferedString();
+    byte[] low = lower ? new byte[64] : null;
+    byte[] out = new byte[64];
+    for (int i = 0; i < _len; i++) {
+      int off = UnsafeUtils.get4(_mem, (i << 2) + _OFF);
+      if (off == NA) { nc.addNA(); continue; }
+      byte[] src = _mem;
+      int from = _valstart + off, end = from;
+      while (_mem[end] != 0) end++;
+      if (lower) {
+        if (low.length < end - from) low = new byte[Math.max(end - from, low.length << 1)];
+        for (int j = from; j < end; j++) {
+          byte b = _mem[j];
+          low[j - from] = b > 0x40 && b < 0x5B ? (byte) (b + 0x20) : b;
+        }
+        src = low;
+        end -= from;
+        from = 0;
+      }
+      int at = find(src, from, end, pattern);
+      if (at == -1) { nc.addStr(bStr.set(src, from, end - from)); continue; }
+      int n = 0, pos = from;
+      do {
+        int need = n + (at - pos) + replacement.length + (end - at);
+        if (out.length < need) out = Arrays.copyOf(out, Math.max(need, out.length << 1));
+        System.arraycopy(src, pos, out, n, at - pos);
+        n += at - pos;
+        System.arraycopy(replacement, 0, out, n, replacement.length);
+        n += replacement.length;
+        pos = at + pattern.length;
+      } while (all && (at = find(src, pos, end, pattern)) != -1);
+      System.arraycopy(src, pos, out, n, end - pos);
+      n += end - pos;
+      nc.addStr(bStr.set(out, 0, n));
+    }
+    return nc;
+  }
+
+  /**
+   * Count the non-overlapping occurrences of literals in every string of this
+   * chunk, on the UTF-8 bytes.  Empty literals count nothing.
+   *
+   * @param nc NewChunk to be filled with the counts
+   * @param patterns UTF-8 bytes of the literals, the counts of which are added up
+   * @return Filled NewChunk
+   */
+  public NewChunk countMatches(NewChunk nc, byte[][] patterns) {
+    for (int i = 0; i < _len; i++) {
+      int off = UnsafeUtils.get4(_mem, (i << 2) + _OFF);
+      if (off == NA) { nc.addNA(); continue; }
+      int from = _valstart + off, end = from;
+      while (_mem[end] != 0) end++;
+      int cnt = 0;
+      for (byte[] p : patterns) {
+        if (p.length == 0) continue;
+        for (int at = find(_mem, from, end, p); at != -1; at = find(_mem, at + p.length, end, p)) cnt++;
+      }
+      nc.addNum(cnt, 0);
+    }
+    return nc;
+  }
+
+  /**
+   * Largest number of pieces a string of this chunk splits into around a
+   * literal, as counted by {@link #split}.
+   */
+  public int splitCount(byte[] separator) {
+    int max = 0;
+    int[] bounds = new int[32];
+    for (int i = 0; i < _len; i++) {
+      int off = UnsafeUtils.get4(_mem, (i << 2) + _OFF);
+      if (off == NA) continue;
+      int from = _valstart + off, end = from;
+      while (_mem[end] != 0) end++;
+      if (bounds.length < 2 * ((end - from) / separator.length + 1)) bounds = new int[2 * ((end - from) / separator.length + 1)];
+      max = Math.max(max, pieces(from, end, separator, bounds));
+    }
+    return max;
+  }
+
+  /**
+   * Split every string of this chunk around a literal, as String.split does
+   * for a regular expression matching only the literal: trailing empty pieces
+   * are dropped.  The pieces are copied straight from the UTF-8 bytes.
+   *
+   * @param ncs NewChunks to be filled with the pieces in order, and NAs past the last piece
+   * @param separator UTF-8 bytes of the literal, not empty
+   * @return Filled NewChunks
+   */
+  public NewChunk[] split(NewChunk[] ncs, byte[] separator) {
+    BufferedString bStr = new BufferedString();
+    int[] bounds = new int[32];
+    for (int i = 0; i < _len; i++) {
+      int off = UnsafeUtils.get4(_mem, (i << 2) + _OFF);
+      int n = 0;
+      if (off != NA) {
+        int from = _valstart + off, end = from;
+        while (_mem[end] != 0) end++;
+        if (bounds.length < 2 * ((end - from) / separator.length + 1)) bounds = new int[2 * ((end - from) / separator.length + 1)];
+        n = pieces(from, end, separator, bounds);
+        for (int p = 0; p < n; p++) ncs[p].addStr(bStr.set(_mem, bounds[2 * p], bounds[2 * p + 1] - bounds[2 * p]));
+      }
+      for (int p = n; p < ncs.length; p++) ncs[p].addNA();
+    }
+    return ncs;
+  }
+
+  // Bounds of the pieces of _mem[from,end) around the separator, trailing empty pieces dropped
+  private int pieces(int from, int end, byte[] separator, int[] bounds) {
+    int n = 0, pos = from;
+    for (int at = find(_mem, pos, end, separator); at != -1; at = find(_mem, pos, end, separator)) {
+      bounds[2 * n] = pos;
+      bounds[2 * n + 1] = at;
+      n++;
+      pos = at + separator.length;
+    }
+    if (n == 0) { bounds[0] = from; bounds[1] = end; return 1; }  // No match: the whole string
+    bounds[2 * n] = pos;
+    bounds[2 * n + 1] = end;
+    n++;
+    while (n > 0 && bounds[2 * n - 1] == bounds[2 * n - 2]) n--;
+    return n;
+  }
+
+  // Index of the first occurrence of p in s[from,end), or -1
+  private static int find(byte[] s, int from, int end, byte[] p) {
+    byte first = p[0];
+    for (int i = from, last = end - p.length; i <= last; i++) {
+      if (s[i] != first) continue;
+      int j = 1;
+      while (j < p.length && s[i + j] == p[j]) j++;
+      if (j == p.length) return i;
+    }
+    return -1;
+  }
+
   /**
    * Does c intersect w/ set?
    * @param c char to look for
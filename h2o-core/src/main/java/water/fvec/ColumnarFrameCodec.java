@@ -0,0 +1,413 @@
+package water.fvec;
+
+import water.DKV;
+import water.Futures;
+import water.Key;
+import water.parser.BufferedString;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary columnar (de)serialization of Frames, for moving them to and from
+ * clients without formatting and parsing text.
+ *
+ * The stream is little-endian.  All buffers are length-prefixed: an int32
+ * byte count, then the bytes.
+ * <pre>
+ *   header:  "H2OC", int32 version, int32 ncols, int64 nrows
+ *   column:  string name, byte type, int32 domain size (-1 if none), domain strings
+ *   batch:   int32 nrows, then per column:
+ *              byte 1 + validity bitmap buffer (bit set = not NA, LSB first), or byte 0 if no NAs
+ *              data buffer(s), by type:
+ *                'd' float64 (NaN for NA)     'l' int64 (0 for NA)   't' int64 ms since epoch
+ *                'c' int32 category codes     'u' 2 x int64 (lo, hi)
+ *                's' int32 offsets (nrows+1) into a second, UTF-8 buffer
+ *                'b' all NA: no NA flag, no buffers
+ *   end:     int32 -1
+ *   string:  int32 byte count, UTF-8 bytes
+ * </pre>
+ * Frames are written one batch per Chunk, straight from the Chunk data.
+ * Frames read back get one Chunk per batch.
+ */
+public final class ColumnarFrameCodec {
+  static final byte[] MAGIC = {'H','2','O','C'};
+  static final int VERSION = 1;
+  public static final byte NUM = 'd', INT = 'l', TIME = 't', CAT = 'c', UUID = 'u', STR = 's', BAD = 'b';
+
+  private ColumnarFrameCodec() {}
+
+  /** Wire type of a Vec */
+  static byte type( Vec v ) {
+    switch( v.get_type() ) {
+      case Vec.T_CAT:  return CAT;
+      case Vec.T_TIME: return TIME;
+      case Vec.T_UUID: return UUID;
+      case Vec.T_STR:  return STR;
+      case Vec.T_BAD:  return BAD;
+      default:         return v.isInt() ? INT : NUM;
+    }
+  }
+
+  /**
+   * Write the Frame, Chunk by Chunk.  The remote Chunks of the next batch are
+   * fetched while the current one is written.
+   * @return number of bytes written
+   */
+  public static long write( Frame fr, OutputStream os ) throws IOException {
+    Vec[] vecs = fr.vecs();
+    Out out = new Out(os);
+    out.bytes(MAGIC);
+    out.putInt(VERSION);
+    out.putInt(vecs.length);
+    out.putLong(fr.numRows());
+    byte[] types = new byte[vecs.length];
+    for( int i = 0; i < vecs.length; i++ ) {
+      types[i] = type(vecs[i]);
+      out.string(fr.name(i));
+      out.put(types[i]);
+      String[] dom = vecs[i].domain();
+      out.putInt(dom == null ? -1 : dom.length);
+      if( dom != null ) for( String s : dom ) out.string(s);
+    }
+    int nchunks = vecs.length == 0 ? 0 : fr.anyVec().nChunks();
+    if( nchunks > 0 ) prefetch(vecs, 0);
+    for( int cidx = 0; cidx < nchunks; cidx++ ) {
+      if( cidx + 1 < nchunks ) prefetch(vecs, cidx + 1);
+      int len = vecs[0].chunkForChunkIdx(cidx)._len;
+      out.putInt(len);
+      for( int i = 0; i < vecs.length; i++ )
+        writeColumn(out, vecs[i].chunkForChunkIdx(cidx), types[i], len);
+    }
+    out.putInt(-1);
+    out.flush();
+    return out._total;
+  }
+
+  // Start fetching the Chunks of a batch homed elsewhere
+  private static void prefetch( Vec[] vecs, int cidx ) {
+    List<Key> keys = new ArrayList<>();
+    for( Vec v : vecs ) v.remoteChunkKeys(cidx, cidx + 1, keys);
+    if( !keys.isEmpty() ) DKV.prefetchAll(keys.toArray(new Key[keys.size()]));
+  }
+
+  private static void writeColumn( Out out, Chunk c, byte type, int len ) throws IOException {
+    if( type == BAD ) return;   // All NA, nothing to send
+    // Validity bitmap, only if there are NAs
+    byte[] valid = null;
+    if( c.hasNA() )
+      for( int r = 0; r < len; r++ )
+        if( c.isNA(r) ) {
+          if( valid == null ) {
+            valid = new byte[(len + 7) >> 3];
+            for( int j = 0; j < len; j++ ) valid[j >> 3] |= 1 << (j & 7);
+          }
+          valid[r >> 3] &= ~(1 << (r & 7));
+        }
+    if( valid == null ) out.put((byte) 0);
+    else { out.put((byte) 1); out.putInt(valid.length); out.bytes(valid); }
+    switch( type ) {
+      case NUM: {
+        double[] ds = c.getDoubles(new double[len], 0, len);
+        out.putInt(len << 3);
+        out.doubles(ds, len);
+        break;
+      }
+      case INT: case TIME: {
+        long[] ls = new long[len];
+        for( int r = 0; r < len; r++ ) ls[r] = c.isNA(r) ? 0 : c.at8(r);
+        out.putInt(len << 3);
+        out.longs(ls, len);
+        break;
+      }
+      case CAT: {
+        int[] is = c.getIntegers(new int[len], 0, len, -1);
+        out.putInt(len << 2);
+        out.ints(is, len);
+        break;
+      }
+      case UUID: {
+        long[] ls = new long[len << 1];
+        for( int r = 0; r < len; r++ )
+          if( !c.isNA(r) ) { ls[r << 1] = c.at16l(r); ls[(r << 1) + 1] = c.at16h(r); }
+        out.putInt(len << 4);
+        out.longs(ls, len << 1);
+        break;
+      }
+      case STR: {
+        BufferedString bs = new BufferedString();
+        int[] offs = new int[len + 1];
+        for( int r = 0; r < len; r++ )
+          offs[r + 1] = offs[r] + (c.isNA(r) ? 0 : c.atStr(bs, r).length());
+        out.putInt((len + 1) << 2);
+        out.ints(offs, len + 1);
+        out.putInt(offs[len]);
+        for( int r = 0; r < len; r++ )
+          if( !c.isNA(r) ) {
+            c.atStr(bs, r);
+            out.bytes(bs.getBuffer(), bs.getOffset(), bs.length());
+          }
+        break;
+      }
+      default: throw new IllegalArgumentException("Unknown column type " + (char) type);
+    }
+  }
+
+  /**
+   * Read a Frame, one Chunk per batch, and put it into the DKV under the
+   * given key.  Nothing is left behind if the stream is malformed.
+   * @param size bound on the bytes in the stream, checked against every count
+   *             and length read from it; -1 for a trusted stream of unknown size
+   * @throws IllegalArgumentException if the stream is malformed
+   */
+  public static Frame read( Key<Frame> key, InputStream is, long size ) throws IOException {
+    In in = new In(is, size);
+    byte[] magic = in.bytes(MAGIC.length);
+    for( int i = 0; i < MAGIC.length; i++ )
+      if( magic[i] != MAGIC[i] ) throw new IllegalArgumentException("Not a columnar frame stream");
+    int version = in.getInt();
+    if( version != VERSION ) throw new IllegalArgumentException("Unsupported columnar frame version " + version);
+    int ncols = in.getInt();
+    long nrows = in.getLong();
+    in.count(ncols, 9, "columns");    // Name length, type and domain size
+    if( nrows < 0 ) throw new IllegalArgumentException("Negative number of rows " + nrows);
+    String[] names = new String[ncols];
+    byte[] types = new byte[ncols];
+    AppendableVec[] avs = new AppendableVec[ncols];
+    Key<Vec>[] keys = new Vec.VectorGroup().addVecs(ncols);
+    for( int i = 0; i < ncols; i++ ) {
+      names[i] = in.string();
+      types[i] = in.get();
+      int ndom = in.getInt();
+      String[] dom = null;
+      if( ndom >= 0 ) {
+        if( types[i] != CAT ) throw new IllegalArgumentException("Domain given for a non-categorical column " + names[i]);
+        in.count(ndom, 4, "domain strings");
+        dom = new String[ndom];
+        for( int j = 0; j < ndom; j++ ) dom[j] = in.string();
+      } else if( types[i] == CAT ) throw new IllegalArgumentException("No domain for categorical column " + names[i]);
+      avs[i] = new AppendableVec(keys[i], vecType(types[i], names[i]));
+      avs[i].setDomain(dom);
+    }
+    Futures fs = new Futures();
+    int cidx = 0;
+    long rows = 0;
+    try {
+      int len;
+      while( (len = in.getInt()) != -1 ) {
+        if( len < 0 ) throw new IllegalArgumentException("Negative batch size " + len);
+        if( len > nrows - rows ) throw new IllegalArgumentException("More than the " + nrows + " rows of the header");
+        for( int i = 0; i < ncols; i++ ) {
+          NewChunk nc = new NewChunk(avs[i], cidx);
+          readColumn(in, nc, types[i], len, avs[i].domain());
+          nc.close(cidx, fs);
+        }
+        cidx++;
+        rows += len;
+      }
+      if( rows != nrows ) throw new IllegalArgumentException("Expected " + nrows + " rows, got " + rows);
+    } catch( IOException | RuntimeException e ) {
+      fs.blockForPending();     // Remove the Chunks written so far
+      for( AppendableVec av : avs )
+        for( int c = 0; c < cidx + 1; c++ ) DKV.remove(Vec.chunkKey(av._key, c), fs);
+      fs.blockForPending();
+      throw e;
+    }
+    Vec[] vecs = ncols == 0 ? new Vec[0] : AppendableVec.closeAll(avs, fs);
+    Frame fr = new Frame(key, names, vecs);
+    if( key != null ) DKV.put(fr, fs);
+    fs.blockForPending();
+    return fr;
+  }
+
+  private static byte vecType( byte type, String name ) {
+    switch( type ) {
+      case NUM: case INT: return Vec.T_NUM;
+      case TIME: return Vec.T_TIME;
+      case CAT:  return Vec.T_CAT;
+      case UUID: return Vec.T_UUID;
+      case STR:  return Vec.T_STR;
+      case BAD:  return Vec.T_BAD;
+      default: throw new IllegalArgumentException("Unknown type " + (char) type + " of column " + name);
+    }
+  }
+
+  private static void readColumn( In in, NewChunk nc, byte type, int len, String[] dom ) throws IOException {
+    if( type == BAD ) {
+      nc.addNAs(len);
+      return;
+    }
+    byte[] valid = null;
+    byte hasNA = in.get();
+    if( hasNA == 1 ) valid = in.buffer((len + 7) >> 3, "validity bitmap").array();
+    else if( hasNA != 0 ) throw new IllegalArgumentException("Bad NA flag " + hasNA);
+    switch( type ) {
+      case NUM: {
+        ByteBuffer bb = in.buffer((long) len << 3, "float64 data");
+        for( int r = 0; r < len; r++ ) {
+          double d = bb.getDouble();
+          if( isNA(valid, r) ) nc.addNA(); else nc.addNum(d);
+        }
+        break;
+      }
+      case INT: case TIME: {
+        ByteBuffer bb = in.buffer((long) len << 3, "int64 data");
+        for( int r = 0; r < len; r++ ) {
+          long l = bb.getLong();
+          if( isNA(valid, r) ) nc.addNA(); else nc.addNum(l, 0);
+        }
+        break;
+      }
+      case CAT: {
+        ByteBuffer bb = in.buffer((long) len << 2, "category codes");
+        for( int r = 0; r < len; r++ ) {
+          int e = bb.getInt();
+          if( isNA(valid, r) ) nc.addNA();
+          else if( e < 0 || e >= dom.length ) throw new IllegalArgumentException("Category code " + e + " out of the domain of " + dom.length);
+          else nc.addCategorical(e);
+        }
+        break;
+      }
+      case UUID: {
+        ByteBuffer bb = in.buffer((long) len << 4, "uuid data");
+        for( int r = 0; r < len; r++ ) {
+          long lo = bb.getLong(), hi = bb.getLong();
+          if( isNA(valid, r) ) nc.addNA(); else nc.addUUID(lo, hi);
+        }
+        break;
+      }
+      case STR: {
+        ByteBuffer offs = in.buffer((len + 1L) << 2, "string offsets");
+        ByteBuffer data = in.buffer(-1, "string data");
+        BufferedString bs = new BufferedString();
+        int off = offs.getInt();
+        for( int r = 0; r < len; r++ ) {
+          int end = offs.getInt();
+          if( off < 0 || end < off || end > data.limit() ) throw new IllegalArgumentException("Bad string offsets " + off + ".." + end);
+          if( isNA(valid, r) ) nc.addNA();
+          else nc.addStr(bs.set(data.array(), off, end - off));
+          off = end;
+        }
+        break;
+      }
+      default: throw new IllegalArgumentException("Unknown column type " + (char) type);
+    }
+  }
+
+  private static boolean isNA( byte[] valid, int r ) { return valid != null && (valid[r >> 3] & (1 << (r & 7))) == 0; }
+
+  // Little-endian output, buffered
+  private static final class Out {
+    private final OutputStream _os;
+    private final ByteBuffer _bb = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+    long _total;
+    Out( OutputStream os ) { _os = os; }
+    private void room( int n ) throws IOException { if( _bb.remaining() < n ) flush(); }
+    void flush() throws IOException {
+      _os.write(_bb.array(), 0, _bb.position());
+      _total += _bb.position();
+      _bb.clear();
+      _os.flush();
+    }
+    void put( byte b ) throws IOException { room(1); _bb.put(b); }
+    void putInt( int i ) throws IOException { room(4); _bb.putInt(i); }
+    void putLong( long l ) throws IOException { room(8); _bb.putLong(l); }
+    void bytes( byte[] b ) throws IOException { bytes(b, 0, b.length); }
+    void bytes( byte[] b, int off, int len ) throws IOException {
+      while( len > 0 ) {
+        if( !_bb.hasRemaining() ) flush();
+        int n = Math.min(len, _bb.remaining());
+        _bb.put(b, off, n);
+        off += n; len -= n;
+      }
+    }
+    void string( String s ) throws IOException {
+      byte[] b = s == null ? new byte[0] : s.getBytes(StandardCharsets.UTF_8);
+      putInt(b.length);
+      bytes(b);
+    }
+    void doubles( double[] ds, int len ) throws IOException {
+      for( int off = 0; off < len; ) {
+        room(8);
+        int n = Math.min(len - off, _bb.remaining() >> 3);
+        _bb.asDoubleBuffer().put(ds, off, n);
+        _bb.position(_bb.position() + (n << 3));
+        off += n;
+      }
+    }
+    void longs( long[] ls, int len ) throws IOException {
+      for( int off = 0; off < len; ) {
+        room(8);
+        int n = Math.min(len - off, _bb.remaining() >> 3);
+        _bb.asLongBuffer().put(ls, off, n);
+        _bb.position(_bb.position() + (n << 3));
+        off += n;
+      }
+    }
+    void ints( int[] is, int len ) throws IOException {
+      for( int off = 0; off < len; ) {
+        room(4);
+        int n = Math.min(len - off, _bb.remaining() >> 2);
+        _bb.asIntBuffer().put(is, off, n);
+        _bb.position(_bb.position() + (n << 2));
+        off += n;
+      }
+    }
+  }
+
+  // Little-endian input, of at most _left more bytes
+  private static final class In {
+    private final InputStream _is;
+    private final ByteBuffer _num = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+    private long _left;
+    In( InputStream is, long size ) { _is = is; _left = size < 0 ? Long.MAX_VALUE : size; }
+    // A count of items of at least min bytes each, which must fit in the rest
+    void count( int n, int min, String what ) {
+      if( n < 0 || (long) n * min > _left )
+        throw new IllegalArgumentException("Bad number of " + what + ": " + n + ", with " + _left + " bytes left");
+    }
+    byte[] bytes( int n ) throws IOException {
+      if( n > _left ) throw new IllegalArgumentException("Length " + n + " past the end of the stream, with " + _left + " bytes left");
+      // Grown as the bytes come in, so a bogus length costs no more memory
+      // than the bytes actually there
+      byte[] b = new byte[Math.min(n, 1 << 16)];
+      int off = 0;
+      while( off < n ) {
+        if( off == b.length ) b = Arrays.copyOf(b, (int) Math.min(n, 2L * b.length));
+        int r = _is.read(b, off, b.length - off);
+        if( r < 0 ) throw new EOFException("Columnar frame stream truncated");
+        off += r;
+      }
+      _left -= n;
+      return b;
+    }
+    private ByteBuffer num( int n ) throws IOException {
+      _num.clear();
+      _num.put(bytes(n)).flip();
+      return _num;
+    }
+    byte get() throws IOException { return bytes(1)[0]; }
+    int getInt() throws IOException { return num(4).getInt(); }
+    long getLong() throws IOException { return num(8).getLong(); }
+    String string() throws IOException {
+      int n = getInt();
+      if( n < 0 ) throw new IllegalArgumentException("Negative string length " + n);
+      return new String(bytes(n), StandardCharsets.UTF_8);
+    }
+    // Length-prefixed buffer, of the expected length if not -1
+    ByteBuffer buffer( long expected, String what ) throws IOException {
+      int n = getInt();
+      if( n < 0 || (expected != -1 && n != expected) )
+        throw new IllegalArgumentException("Bad length of the " + what + ": " + n + (expected == -1 ? "" : ", expected " + expected));
+      return ByteBuffer.wrap(bytes(n)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+  }
+}
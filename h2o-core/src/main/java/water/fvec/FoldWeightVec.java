@@ -0,0 +1,102 @@
+package water.fvec;
+
+import water.DKV;
+import water.Key;
+
+/**
+ * A virtual cross-validation weight column: the observation weight of a row
+ * for one fold's training (or holdout) frame, computed on the fly from the
+ * fold assignment column and the original weights.
+ *
+ * <p>A row assigned to fold {@code f} (modulo the number of folds) gets its
+ * original weight in the holdout column of fold {@code f} and 0 in the
+ * training column, and vice versa for rows of other folds.  Without an
+ * original weight column every weight is 1.
+ *
+ * <p>Nothing is materialized: N-fold cross-validation keeps one fold
+ * assignment Vec instead of 2*N weight Vecs.  The fold assignment (and
+ * weights) Vec must outlive this Vec.
+ */
+public class FoldWeightVec extends WrappedVec {
+  /** Original observation weights, or null for all ones. */
+  final Key<Vec> _weightsKey;
+  final int _nfolds;
+  final int _fold;
+  final boolean _holdout;
+  private transient Vec _weights;
+
+  public FoldWeightVec(Key<Vec> key, int rowLayout, Key<Vec> foldKey, Key<Vec> weightsKey, int nfolds, int fold, boolean holdout) {
+    super(key, rowLayout, foldKey);
+    _weightsKey = weightsKey;
+    _nfolds = nfolds;
+    _fold = fold;
+    _holdout = holdout;
+    DKV.put(this);
+  }
+
+  /** Training (holdout == false) or holdout weights of the given fold. */
+  public FoldWeightVec(Vec fold, Vec weights, int nfolds, int f, boolean holdout) {
+    this(fold.group().addVec(), fold._rowLayout, fold._key, weights == null ? null : weights._key, nfolds, f, holdout);
+  }
+
+  private Vec weights() {
+    return _weights != null ? _weights : (_weights = _weightsKey.get());
+  }
+
+  @Override public Chunk chunkForChunkIdx(int cidx) {
+    Chunk fold = masterVec().chunkForChunkIdx(cidx);
+    Chunk weights = _weightsKey == null ? null : weights().chunkForChunkIdx(cidx);
+    return new FoldWeightChunk(this, fold, weights);
+  }
+
+  @Override public Vec doCopy() {
+    return new FoldWeightVec(group().addVec(), _rowLayout, _masterVecKey, _weightsKey, _nfolds, _fold, _holdout);
+  }
+
+  static class FoldWeightChunk extends Chunk {
+    final transient Chunk _fold;
+    final transient Chunk _weights;
+    final transient int _nfolds;
+    final transient int _f;
+    final transient boolean _holdout;
+
+    FoldWeightChunk(FoldWeightVec vec, Chunk fold, Chunk weights) {
+      _fold = fold;
+      _weights = weights;
+      _nfolds = vec._nfolds;
+      _f = vec._fold;
+      _holdout = vec._holdout;
+      set_len(fold._len);
+      _start = fold._start; _vec = vec; _cidx = fold._cidx;
+    }
+
+    private boolean inFold(int idx) {
+      return ((int) _fold.at8(idx) % _nfolds == _f) == _holdout;
+    }
+
+    @Override protected double atd_impl(int idx) {
+      if (!inFold(idx)) return 0;
+      return _weights == null ? 1 : _weights.atd(idx);
+    }
+    @Override protected long at8_impl(int idx) {
+      if (!inFold(idx)) return 0;
+      return _weights == null ? 1 : _weights.at8(idx);
+    }
+    @Override protected boolean isNA_impl(int idx) {
+      return _weights != null && inFold(idx) && _weights.isNA(idx);
+    }
+    @Override boolean set_impl(int idx, long l)   { return false; }
+    @Override boolean set_impl(int idx, double d) { return false; }
+    @Override boolean set_impl(int idx, float f)  { return false; }
+    @Override boolean setNA_impl(int idx)         { return false; }
+    @Override public boolean hasFloat() { return _weights != null && _weights.hasFloat(); }
+    @Override public NewChunk inflate_impl(NewChunk nc) {
+      nc.set_sparseLen(nc.set_len(0));
+      for( int i=0; i< _len; i++ )
+        if( isNA(i) ) nc.addNA();
+        else          nc.addNum(atd(i));
+      return nc;
+    }
+    @Override protected final void initFromBytes () { throw water.H2O.fail(); }
+  }
+}
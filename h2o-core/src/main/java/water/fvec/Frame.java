@@ -1401,6 +1401,17 @@ public class Frame extends Lockable<Frame> {
   }
 
   public static Job export(Frame fr, String path, String frameName, boolean overwrite, int nParts) {
+    return export(fr, path, frameName, overwrite, nParts, null);
+  }
+
+  /**
+   * Export the frame to a file (nParts == 1) or a directory of part files.
+   * @param format null or "csv" for CSV, otherwise name of an {@link water.util.ExportFormatProvider}, eg. "parquet"
+   */
+  public static Job export(Frame fr, String path, String frameName, boolean overwrite, int nParts, String format) {
+    if (format != null && format.equalsIgnoreCase("csv")) format = null;
+    if (format != null && water.util.ExportFormatProvider.getByName(format) == null)
+      throw new H2OIllegalArgumentException("format", "exportFrame", "Export format '" + format + "' is not available.");
     boolean forceSingle = nParts == 1;
     // Validate input
     if (forceSingle) {
@@ -1417,7 +1428,7 @@ public class Frame extends Lockable<Frame> {
       }
     }
     Job job =  new Job<>(fr._key, "water.fvec.Frame", "Export dataset");
-    FrameUtils.ExportTaskDriver t = new FrameUtils.ExportTaskDriver(fr, path, frameName, overwrite, job, nParts);
+    FrameUtils.ExportTaskDriver t = new FrameUtils.ExportTaskDriver(fr, path, frameName, overwrite, job, nParts, format);
     return job.start(t, fr.anyVec().nChunks());
   }
 
@@ -1578,4 +1589,9 @@ public class Frame extends Lockable<Frame> {
   /** Sort rows of a frame, using the set of columns as keys.
    *  @return Copy of frame, sorted */
   public Frame sort( int[] cols ) { return Merge.sort(this,cols); }
+
+  /** The first n rows of the frame sorted by the set of columns, without
+   *  sorting the whole frame; see {@link water.rapids.TopN}.
+   *  @return New frame of at most n rows, sorted */
+  public Frame topN( int[] cols, long n, boolean decreasing ) { return water.rapids.TopN.topN(this,cols,n,decreasing); }
 }
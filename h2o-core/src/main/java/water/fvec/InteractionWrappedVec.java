@@ -8,6 +8,7 @@ import water.util.IcedLong;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -276,6 +277,11 @@ public class InteractionWrappedVec extends WrappedVec {
     }
   }
 
+  @Override public void remoteChunkKeys(int lo, int hi, List<Key> keys) {
+    _masterVecKey1.get().remoteChunkKeys(lo, hi, keys);
+    _masterVecKey2.get().remoteChunkKeys(lo, hi, keys);
+  }
+
   @Override public Chunk chunkForChunkIdx(int cidx) {
     Chunk[] cs = new Chunk[2];
     cs[0] = (_masterVec1!=null?_masterVec1: (_masterVec1=_masterVecKey1.get())).chunkForChunkIdx(cidx);
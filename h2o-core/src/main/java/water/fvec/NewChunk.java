@@ -584,7 +584,10 @@ public class NewChunk extends Chunk {
       _ss = MemoryManager.arrayCopyOf(_ss,_ss.length << 1);
 
     // Copy bytes to _ss
-    for (byte b : bytes) _ss[_sslen++] = b;
+    for (byte b : bytes) {
+      _isAllASCII &= b >= 0;
+      _ss[_sslen++] = b;
+    }
     _ss[_sslen++] = (byte)0; // for trailing 0;
   }
 
@@ -599,8 +602,10 @@ public class NewChunk extends Chunk {
     while (_ss.length < (_sslen + strlen + 1)) {
       _ss = MemoryManager.arrayCopyOf(_ss,_ss.length << 1);
     }
-    for (int i = off; i < off+strlen; i++)
+    for (int i = off; i < off+strlen; i++) {
+      _isAllASCII &= b[i] >= 0;
       _ss[_sslen++] = b[i];
+    }
     _ss[_sslen++] = (byte)0; // for trailing 0;
   }
 
@@ -630,15 +635,14 @@ public class NewChunk extends Chunk {
     assert _sparseLen <= _len;
   }
 
-  // TODO: FIX isAllASCII test to actually inspect string contents
   public void addStr(Chunk c, long row) {
     if( c.isNA_abs(row) ) addNA();
-    else { addStr(c.atStr_abs(new BufferedString(), row)); _isAllASCII &= ((CStrChunk)c)._isAllASCII; }
+    else addStr(c.atStr_abs(new BufferedString(), row));
   }
 
   public void addStr(Chunk c, int row) {
     if( c.isNA(row) ) addNA();
-    else { addStr(c.atStr(new BufferedString(), row)); _isAllASCII &= ((CStrChunk)c)._isAllASCII; }
+    else addStr(c.atStr(new BufferedString(), row));
   }
 
   public void addUUID(UUID uuid) {
@@ -1060,8 +1064,10 @@ public class NewChunk extends Chunk {
     byte mode = type();
     if( mode==Vec.T_BAD ) // ALL NAs, nothing to do
       return new C0DChunk(Double.NaN, _len);
-    if( mode==Vec.T_STR )
+    if( mode==Vec.T_STR ) {
+      if( _id != null ) cancel_sparse(); // CStrChunk holds every row
       return new CStrChunk(_sslen, _ss, _sparseLen, _len, _is, _isAllASCII);
+    }
     boolean rerun=false;
     if(mode == Vec.T_CAT) {
       for(int i = 0; i< _sparseLen; i++ )
@@ -2,6 +2,9 @@ package water.fvec;
 
 import water.*;
 
+import java.util.BitSet;
+import java.util.List;
+
 /**
  *  A simple wrapper for looking at only a subset of rows
  */
@@ -17,7 +20,26 @@ public class SubsetVec extends WrappedVec {
     return _rows;
   }
 
+  // The chunks of the rows-Vec, and the chunks of the master Vec holding the
+  // rows they select.  Those are only known from the rows chunks at hand;
+  // the rows chunks still to be fetched are not read here.
+  @Override public void remoteChunkKeys(int lo, int hi, List<Key> keys) {
+    Vec rows = rows(), master = masterVec();
+    rows.remoteChunkKeys(lo, hi, keys);
+    BitSet cidxs = new BitSet(master.nChunks());
+    for( int cidx = lo; cidx < hi; cidx++ ) {
+      Key k = rows.chunkKey(cidx);
+      if( !k.home() && !H2O.containsKey(k) ) continue; // Not at hand
+      Chunk crows = rows.chunkForChunkIdx(cidx);
+      for( int i = 0; i < crows._len; i++ )
+        cidxs.set(master.elem2ChunkIdx(crows.at8(i)));
+    }
+    for( int cidx = cidxs.nextSetBit(0); cidx >= 0; cidx = cidxs.nextSetBit(cidx + 1) )
+      master.remoteChunkKeys(cidx, cidx + 1, keys);
+  }
+
   // A subset chunk
+
   @Override public Chunk chunkForChunkIdx(int cidx) {
     Chunk crows = rows().chunkForChunkIdx(cidx);
     return new SubsetChunk(crows,this,masterVec());
@@ -10,6 +10,8 @@ import water.rapids.ast.AstRoot;
 import water.rapids.Env;
 import water.rapids.ast.params.AstNum;
 
+import java.util.List;
+
 /**
  * This wrapper pushes a transform down into each chunk so that
  * transformations will happen on-the-fly. When wrapped and there
@@ -63,6 +65,11 @@ public class TransformWrappedVec extends WrappedVec {
 
 
 
+  @Override public void remoteChunkKeys(int lo, int hi, List<Key> keys) {
+    for( Key<Vec> k : _masterVecKeys )
+      k.get().remoteChunkKeys(lo, hi, keys);
+  }
+
   @Override public Chunk chunkForChunkIdx(int cidx) {
     Chunk[] cs = new Chunk[_masterVecKeys.length];
     if( _masterVecs==null )
@@ -6,6 +6,7 @@ import water.parser.BufferedString;
 import water.util.*;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 import java.util.UUID;
 
@@ -835,6 +836,16 @@ public class Vec extends Keyed<Vec> {
     return _rollupStatsKey;
   }
 
+  /** Add the Keys of the chunks in [lo,hi) homed on other Nodes, so they can
+   *  be fetched with one request per Node (see {@link DKV#prefetchAll}).
+   *  Vecs computing their chunks add the chunks of the Vecs they read. */
+  public void remoteChunkKeys( int lo, int hi, List<Key> keys ) {
+    for( int cidx = lo; cidx < hi; cidx++ ) {
+      Key k = chunkKey(cidx);
+      if( !k.home() ) keys.add(k);
+    }
+  }
+
   /** Get a Chunk's Value by index.  Basically the index-to-key map, plus the
    *  {@code DKV.get()}.  Warning: this pulls the data locally; using this call
    *  on every Chunk index on the same node will probably trigger an OOM!  */
@@ -2,6 +2,8 @@ package water.fvec;
 
 import water.*;
 
+import java.util.List;
+
 /**
  * A simple wrapper over another Vec.  Transforms either data values or rows.
  */
@@ -24,6 +26,8 @@ abstract class WrappedVec extends Vec {
     return _masterVec != null ? _masterVec : (_masterVec = _masterVecKey.get());
   }
 
+  @Override public void remoteChunkKeys(int lo, int hi, List<Key> keys) { masterVec().remoteChunkKeys(lo, hi, keys); }
+
   /** Map from chunk-index to Chunk.  These wrappers are making custom Chunks */
   public abstract Chunk chunkForChunkIdx(int cidx);
 }
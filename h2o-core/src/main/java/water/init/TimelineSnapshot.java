@@ -131,6 +131,7 @@ public final class TimelineSnapshot implements
     public final long dataHi() { return TimeLine.l8(_val, _eventIdx); }
     public final long ns() { return TimeLine.ns(_val, _eventIdx); }
     public final boolean isTCP(){return (ns() & 4) != 0;}
+    public final boolean isCompressed(){return (ns() & 8) != 0;}
     public final long ms() { return TimeLine.ms(_val, _eventIdx) + recoH2O()._heartbeat.jvmBootTimeMsec(); }
     public H2ONode packH2O() { return _packh2o; } // H2O in packet
     public H2ONode recoH2O() { return _cloud.members()[_nodeId]; } // H2O recording packet
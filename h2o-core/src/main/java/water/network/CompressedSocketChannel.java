@@ -0,0 +1,169 @@
+package water.network;
+
+import water.util.LZ4;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.util.Arrays;
+
+/**
+ * Wrapper of a socket channel carrying one LZ4 compressed message.
+ *
+ * The written message starts with the {@link #MAGIC} byte, followed by a
+ * frame per write call: raw length (4B), payload length (4B) and the payload,
+ * which is the LZ4 block of the written bytes or, if they do not compress,
+ * the bytes themselves (payload length == raw length).  The frames are
+ * collected and go to the socket in writes of at least a page, or on
+ * {@link #flush()} at the end of the message: many small writes would be held
+ * back by the TCP stack waiting for acks.  The reading side wraps the channel
+ * after having seen the MAGIC byte and reads the frames back one by one, never
+ * reading past the last frame of the message.
+ *
+ * Bytes before and after compression, and the time spent (de)compressing, are
+ * counted for the statistics.
+ */
+public class CompressedSocketChannel implements ByteChannel {
+
+  /** First byte of a compressed message; never a valid UDP type */
+  public static final int MAGIC = 0xC7;
+  private static final int FRAME_HEADER = 8;
+  private static final int FLUSH_SIZE = 64 * 1024;
+
+  private final ByteChannel _chan;
+  private boolean _magicSent;
+  // Bytes read from the socket before it was known the message is compressed
+  private final ByteBuffer _prefetch;
+
+  // Write side: the written bytes, and the compressed frames not yet sent
+  private byte[] _raw;
+  private byte[] _out;
+  private int _outLen;
+  private int[] _table;
+  // Read side: the decompressed frame, handed out from _decPos
+  private byte[] _in;
+  private byte[] _dec;
+  private int _decPos, _decLen;
+  private final ByteBuffer _header = ByteBuffer.allocate(FRAME_HEADER);
+
+  private long _rawBytes, _wireBytes, _codecNs;
+
+  /** Wrap a channel for writing a compressed message */
+  public CompressedSocketChannel(ByteChannel chan) {
+    _chan = chan;
+    _prefetch = null;
+  }
+
+  /** Wrap a channel for reading a compressed message; prefetch holds the bytes already read following the MAGIC byte */
+  public CompressedSocketChannel(ByteChannel chan, ByteBuffer prefetch) {
+    _chan = chan;
+    _magicSent = true;
+    _prefetch = ByteBuffer.allocate(prefetch.remaining());
+    _prefetch.put(prefetch).flip();
+    _wireBytes = 1 + _prefetch.capacity();
+  }
+
+  public ByteChannel channel() { return _chan; }
+
+  /** Uncompressed bytes written or read so far */
+  public long rawBytes() { return _rawBytes; }
+  /** Bytes which went over the wire */
+  public long wireBytes() { return _wireBytes; }
+  /** Nanoseconds spent compressing or decompressing */
+  public long codecNanos() { return _codecNs; }
+
+  /** Strips the compression wrapper, if any */
+  public static ByteChannel unwrap(ByteChannel chan) {
+    return chan instanceof CompressedSocketChannel ? ((CompressedSocketChannel) chan)._chan : chan;
+  }
+
+  @Override public int write(ByteBuffer src) throws IOException {
+    int len = src.remaining();
+    if( len == 0 ) return 0;
+    if( _raw == null || _raw.length < len ) {
+      _raw = new byte[len];
+      _table = LZ4.newTable();
+    }
+    int need = FLUSH_SIZE + 1 + FRAME_HEADER + LZ4.maxCompressedLength(len);
+    if( _out == null || _out.length < need ) _out = Arrays.copyOf(_out == null ? new byte[0] : _out, need);
+    src.get(_raw, 0, len);
+    int start = _outLen;
+    if( !_magicSent ) { _out[_outLen++] = (byte) MAGIC; _magicSent = true; }
+    int off = _outLen + FRAME_HEADER;
+    long ns = System.nanoTime();
+    int clen = LZ4.compress(_raw, 0, len, _out, off, _table);
+    _codecNs += System.nanoTime() - ns;
+    if( clen >= len ) {        // Incompressible, send as-is
+      System.arraycopy(_raw, 0, _out, off, len);
+      clen = len;
+    }
+    ByteBuffer.wrap(_out).putInt(_outLen, len).putInt(_outLen + 4, clen);
+    _outLen = off + clen;
+    _rawBytes += len;
+    _wireBytes += _outLen - start;
+    if( _outLen >= FLUSH_SIZE ) flush();
+    return len;
+  }
+
+  /** Send the pending compressed frames */
+  public void flush() throws IOException {
+    ByteBuffer bb = ByteBuffer.wrap(_out, 0, _outLen);
+    while( bb.hasRemaining() ) _chan.write(bb);
+    _outLen = 0;
+  }
+
+  @Override public int read(ByteBuffer dst) throws IOException {
+    if( _decPos == _decLen ) readFrame();
+    int n = Math.min(dst.remaining(), _decLen - _decPos);
+    dst.put(_dec, _decPos, n);
+    _decPos += n;
+    return n;
+  }
+
+  private void readFrame() throws IOException {
+    _header.clear();
+    readFully(_header);
+    int len = _header.getInt(0), clen = _header.getInt(4);
+    if( len <= 0 || clen <= 0 || clen > LZ4.maxCompressedLength(len) )
+      throw new IOException("Corrupted compressed frame, length " + len + ", compressed " + clen);
+    if( _dec == null || _dec.length < len ) _dec = new byte[len];
+    if( clen == len ) {
+      readFully(ByteBuffer.wrap(_dec, 0, len));
+    } else {
+      if( _in == null || _in.length < clen ) _in = new byte[clen];
+      readFully(ByteBuffer.wrap(_in, 0, clen));
+      long ns = System.nanoTime();
+      int n;
+      try {
+        n = LZ4.decompress(_in, 0, clen, _dec, 0);
+      } catch( IllegalArgumentException e ) {
+        throw new IOException(e);
+      }
+      _codecNs += System.nanoTime() - ns;
+      if( n != len ) throw new IOException("Corrupted compressed frame, expected " + len + " bytes, got " + n);
+    }
+    _decPos = 0;
+    _decLen = len;
+    _rawBytes += len;
+  }
+
+  private void readFully(ByteBuffer bb) throws IOException {
+    if( _prefetch != null && _prefetch.hasRemaining() ) {
+      int n = Math.min(bb.remaining(), _prefetch.remaining());
+      int lim = _prefetch.limit();
+      _prefetch.limit(_prefetch.position() + n);
+      bb.put(_prefetch);
+      _prefetch.limit(lim);
+    }
+    while( bb.hasRemaining() ) {
+      int n = _chan.read(bb);
+      if( n < 0 ) throw new EOFException("Compressed message truncated");
+      _wireBytes += n;
+    }
+  }
+
+  @Override public boolean isOpen() { return _chan.isOpen(); }
+
+  @Override public void close() throws IOException { _chan.close(); }
+}
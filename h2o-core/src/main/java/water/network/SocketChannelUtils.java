@@ -6,11 +6,16 @@ import java.nio.channels.SocketChannel;
 public class SocketChannelUtils {
 
     public static boolean isSocketChannel(ByteChannel channel) {
+        if(channel instanceof CompressedSocketChannel) {
+            return isSocketChannel(((CompressedSocketChannel) channel).channel());
+        }
         return channel instanceof SocketChannel || channel instanceof SSLSocketChannel;
     }
 
     public static SocketChannel underlyingSocketChannel(ByteChannel channel) {
-        if(channel instanceof SSLSocketChannel) {
+        if(channel instanceof CompressedSocketChannel) {
+            return underlyingSocketChannel(((CompressedSocketChannel) channel).channel());
+        } else if(channel instanceof SSLSocketChannel) {
             return ((SSLSocketChannel) channel).channel();
         } else if(channel instanceof SocketChannel) {
             return (SocketChannel) channel;
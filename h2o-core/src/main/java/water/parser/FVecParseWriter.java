@@ -137,6 +137,26 @@ public class FVecParseWriter extends Iced implements StreamParseWriter {
     }
   }
 
+  /**
+   * Returns the id of a level of a categorical column, registering the level
+   * if it is new.  For parsers that map a whole dictionary of values at once
+   * and then write the ids with {@link #addNumCol(int, long, int)}.
+   */
+  public int addCategoricalLevel(int colIdx, BufferedString str) {
+    if (_categoricals[colIdx].isMapFull())
+      throw new ParseDataset.H2OParseException("Exceeded categorical limit on column #"+(colIdx+1)+" (using 1-based indexing).  Consider reparsing this column as a string.");
+    return _categoricals[colIdx].addKey(str);
+  }
+
+  /**
+   * Accounts for lines written column by column, i.e. each column was given
+   * {@code n} values without calling {@link #newLine()}.
+   */
+  public void addLines(int n) {
+    _nLines += n;
+    _col = -1;
+  }
+
   /** Adds double value to the column. */
   @Override public void addNumCol(int colIdx, double value) {
     if (Double.isNaN(value)) {
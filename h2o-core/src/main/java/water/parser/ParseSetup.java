@@ -41,6 +41,7 @@ public class ParseSetup extends Iced {
   String[][] _domains;        // Domains for each column (null if numeric)
   String[][] _na_strings;       // Strings for NA in a given column
   String[][] _data;           // First few rows of parsed/tokenized data
+  String[] _row_group_filters; // Ranges "column:min:max" of the blocks of rows to parse, for parsers that can skip blocks (Parquet)
 
   String [] _fileNames = new String[]{"unknown"};
 
@@ -55,6 +56,7 @@ public class ParseSetup extends Iced {
          ps._separator, ps._single_quotes, ps._check_header, ps._number_columns,
          ps._column_names, ps._column_types, ps._domains, ps._na_strings, ps._data,
          new ParseWriter.ParseErr[0], ps._chunk_size);
+    _row_group_filters = ps._row_group_filters;
   }
 
 
@@ -99,6 +101,7 @@ public class ParseSetup extends Iced {
          null,
          new ParseWriter.ParseErr[0],
          ps.chunk_size);
+    _row_group_filters = ps.row_group_filters;
   }
 
   /**
@@ -138,6 +141,7 @@ public class ParseSetup extends Iced {
 
   public String[] getColumnNames() { return _column_names; }
   public String[][] getData() { return _data; }
+  public String[] getRowGroupFilters() { return _row_group_filters; }
 
   public String[] getColumnTypeStrings() {
     String[] types = new String[_column_types.length];
@@ -273,6 +277,7 @@ public class ParseSetup extends Iced {
       t._gblSetup._chunk_size = FileVec.calcOptimalChunkSize(t._totalParseSize, t._gblSetup._number_columns, t._maxLineLength,
               Runtime.getRuntime().availableProcessors(), H2O.getCloudSize(), false /*use new heuristic*/, true);
     }
+    t._gblSetup._row_group_filters = userSetup._row_group_filters;
 
     return t._gblSetup;
   }
@@ -688,6 +693,11 @@ public class ParseSetup extends Iced {
     return this;
   }
 
+  public ParseSetup setRowGroupFilters(String[] row_group_filters) {
+    this._row_group_filters = row_group_filters;
+    return this;
+  }
+
   public ParseSetup setColumnNames(String[] column_names) {
     this._column_names = column_names;
     return this;
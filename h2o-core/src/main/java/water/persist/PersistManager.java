@@ -441,6 +441,10 @@ public class PersistManager {
   }
 
   public OutputStream create(String path, boolean overwrite) {
+    // Native S3 support uploads in parallel parts
+    if (path.toLowerCase().startsWith(Schemes.S3 + ":") && I[Value.S3] != null) {
+      return I[Value.S3].create(path, overwrite);
+    }
     if (isHdfsPath(path)) {
       validateHdfsConfigured();
       return I[Value.HDFS].create(path, overwrite);
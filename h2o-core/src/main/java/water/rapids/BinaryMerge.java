@@ -45,15 +45,17 @@ class BinaryMerge extends DTask<BinaryMerge> {
     // binarysearch within it.
     private final int _chunkNode[]; // Chunk homenode index
     final int _msb;
+    final int _owners[]; // node sorting each MSB of the frame
     private final int _shift;
     private final long _base[]; // the col.min() of each column in the key
     private final int _fieldSizes[]; // the widths of each column in the key
     private final int _keySize; // the total width in bytes of the key, sum of field sizes
 
-    FFSB( Frame frame, int msb, int shift, int fieldSizes[], long base[] ) { 
+    FFSB( Frame frame, int msb, int shift, int fieldSizes[], long base[], int owners[] ) {
       assert -1<=msb && msb<=255; // left ranges from 0 to 255, right from -1 to 255
       _frame = frame;
       _msb = msb;
+      _owners = owners;
       _shift = shift;
       _fieldSizes = fieldSizes;
       _keySize = ArrayUtils.sum(fieldSizes);
@@ -104,12 +106,12 @@ class BinaryMerge extends DTask<BinaryMerge> {
     _riteKO = new KeyOrder(rightSortedOXHeader);
 
     // get left batches
-    _leftKO.initKeyOrder(_leftSB._msb,/*left=*/true);
+    _leftKO.initKeyOrder(_leftSB._owners, _leftSB._msb,/*left=*/true);
     final long leftN = leftSortedOXHeader._numRows;
     assert leftN >= 1;
 
     // get right batches
-    _riteKO.initKeyOrder(_riteSB._msb, /*left=*/false);
+    _riteKO.initKeyOrder(_riteSB._owners, _riteSB._msb, /*left=*/false);
     final long rightN = rightSortedOXHeader._numRows;
     
     _timings[0] += (System.nanoTime() - t0) / 1e9;
@@ -207,9 +209,9 @@ class BinaryMerge extends DTask<BinaryMerge> {
       _perNodeNumRowsToFetch = new long[H2O.CLOUD.size()];
     }
 
-    void initKeyOrder( int msb, boolean isLeft ) {
+    void initKeyOrder( int owners[], int msb, boolean isLeft ) {
       for( int b=0; b<_key.length; b++ ) {
-        Value v = DKV.get(SplitByMSBLocal.getSortedOXbatchKey(isLeft, msb, b));
+        Value v = DKV.get(SplitByMSBLocal.getSortedOXbatchKey(isLeft, owners, msb, b));
         SplitByMSBLocal.OXbatch ox = v.get(); //mem version (obtained from remote) of the Values gets turned into POJO version
         v.freeMem(); //only keep the POJO version of the Value
         _key  [b] = ox._x;
@@ -682,7 +684,7 @@ class BinaryMerge extends DTask<BinaryMerge> {
     for (int col=0; col<numColsInResult; col++) {
       for (int b = 0; b < nbatch; b++) {
         Chunk ck = new NewChunk(frameLikeChunks[col][b]).compress();
-        DKV.put(getKeyForMSBComboPerCol(_leftSB._msb, _riteSB._msb, col, b), ck, fs, true);
+        DKV.put(getKeyForMSBComboPerCol(_leftSB._owners, _leftSB._msb, _riteSB._owners, _riteSB._msb, col, b), ck, fs, true);
         frameLikeChunks[col][b]=null; //free mem as early as possible (it's now in the store)
       }
     }
@@ -690,12 +692,18 @@ class BinaryMerge extends DTask<BinaryMerge> {
   }
 
 
-  static Key getKeyForMSBComboPerCol(/*Frame leftFrame, Frame rightFrame,*/ int leftMSB, int rightMSB, int col /*final table*/, int batch) {
+  // The node merging a left and a right MSB: the one of the right MSB, or of
+  // the left MSB when no right MSB is looked at
+  static H2ONode mergeNode(int leftOwners[], int leftMSB, int riteOwners[], int rightMSB) {
+    return rightMSB==-1 ? SplitByMSBLocal.ownerOfMSB(leftOwners, leftMSB) : SplitByMSBLocal.ownerOfMSB(riteOwners, rightMSB);
+  }
+
+  static Key getKeyForMSBComboPerCol(/*Frame leftFrame, Frame rightFrame,*/ int leftOwners[], int leftMSB, int riteOwners[], int rightMSB, int col /*final table*/, int batch) {
     return Key.make("__binary_merge__Chunk_for_col" + col + "_batch" + batch
                     // + rightFrame._key.toString() + "_joined_with" + leftFrame._key.toString()
                     + "_leftSB._msb" + leftMSB + "_riteSB._msb" + rightMSB,
-            (byte) 1, Key.HIDDEN_USER_KEY, false, SplitByMSBLocal.ownerOfMSB(rightMSB==-1 ? leftMSB : rightMSB)
-    ); //TODO home locally
+            (byte) 1, Key.HIDDEN_USER_KEY, false, mergeNode(leftOwners, leftMSB, riteOwners, rightMSB)
+    );
   }
 
   static class GetRawRemoteRows extends DTask<GetRawRemoteRows> {
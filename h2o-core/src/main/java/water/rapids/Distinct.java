@@ -0,0 +1,261 @@
+package water.rapids;
+
+import water.AutoBuffer;
+import water.DKV;
+import water.Futures;
+import water.H2O;
+import water.Iced;
+import water.Key;
+import water.MRTask;
+import water.fvec.Chunk;
+import water.fvec.Vec;
+import water.parser.BufferedString;
+import water.util.IcedLongHashSet;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Distinct values of a column, and sets of values to probe rows against.
+ *
+ * Numbers are kept as the bits of their doubles in primitive hash sets, and
+ * strings in hash sets of their UTF-8 bytes, which rows probe without
+ * decoding.
+ *
+ * The values are merged by hash partition rather than by the MRTask
+ * reduction: every Node splits the values of its Chunks by hash into one part
+ * per Node and sends each part to its Node, which merges the parts it gets.
+ * The merged parts are disjoint, and the caller gathers them.  Every value
+ * crosses the network at most twice, where the reduction ships the merged
+ * sets of a whole subtree at every level of the tree.  Each Node holds the
+ * distinct values of its own Chunks and its share of the merged ones; the
+ * caller holds them all, as it returns them.
+ */
+public final class Distinct {
+  private Distinct() {}
+
+  /** Bits of a double as a set key: all NaNs alike, and -0.0 as 0.0 */
+  public static long key(double d) {
+    return Double.isNaN(d) ? Double.doubleToLongBits(Double.NaN) : Double.doubleToRawLongBits(d + 0.0);
+  }
+
+  /**
+   * Distinct numbers of a numeric, time or categorical column (its codes),
+   * sorted, with NaN last if there are NAs.
+   */
+  public static double[] values(Vec vec) {
+    if (vec.isString() || vec.isUUID())
+      throw new IllegalArgumentException("Expected a numeric column, got " + vec.get_type_str());
+    long[] ks = valueSet(vec).keys();
+    double[] ds = new double[ks.length];
+    for (int i = 0; i < ks.length; i++) ds[i] = Double.longBitsToDouble(ks[i]);
+    Arrays.sort(ds);            // NaN sorts last
+    return ds;
+  }
+
+  /** Set of the numbers of a column, as {@link #key} bits, NAs included */
+  public static IcedLongHashSet valueSet(Vec vec) {
+    String name = name();
+    try {
+      new NumCollect(name).doAll(vec);
+      Part[] parts = merge(name);
+      int size = 0;
+      for (Part p : parts) size += p == null ? 0 : p.size();
+      IcedLongHashSet set = new IcedLongHashSet(size);
+      for (Part p : parts)
+        if (p != null) set.addAll(((NumPart) p)._set);
+      return set;
+    } finally {
+      new Remove(name).doAllNodes();
+    }
+  }
+
+  /** Distinct strings of a string column, sorted, with null last if there are NAs */
+  public static String[] strings(Vec vec) {
+    if (!vec.isString())
+      throw new IllegalArgumentException("Expected a string column, got " + vec.get_type_str());
+    String name = name();
+    try {
+      boolean na = new StrCollect(name).doAll(vec)._na;
+      Part[] parts = merge(name);
+      int size = 0;
+      for (Part p : parts) size += p == null ? 0 : p.size();
+      String[] strs = new String[size + (na ? 1 : 0)];
+      int i = 0;
+      for (Part p : parts)
+        if (p != null)
+          for (String s : ((StrPart) p)._set) strs[i++] = s;
+      Arrays.sort(strs, 0, size);
+      return strs;
+    } finally {
+      new Remove(name).doAllNodes();
+    }
+  }
+
+  /** Set of strings that a BufferedString of a row can be looked up in */
+  public static HashSet<BufferedString> stringSet(String[] strs) {
+    HashSet<BufferedString> set = new HashSet<>(2 * strs.length);
+    for (String s : strs)
+      if (s != null) set.add(new BufferedString(s));
+    return set;
+  }
+
+  // ------------------------------------------------------------------------
+  // Merge by hash partition
+
+  private static String name() { return "__distinct" + Key.rand() + "_"; }
+
+  // The part of the values of Node src that goes to Node dst, homed on dst
+  private static Key partKey(String name, int src, int dst) {
+    return Key.make(name + src + "_" + dst, (byte) 1, Key.HIDDEN_USER_KEY, false, H2O.CLOUD._memary[dst]);
+  }
+
+  // The merged parts of Node n, homed on n
+  private static Key mergedKey(String name, int n) {
+    return Key.make(name + n, (byte) 1, Key.HIDDEN_USER_KEY, false, H2O.CLOUD._memary[n]);
+  }
+
+  // Node a value goes to, by its hash
+  private static int owner(int hash, int nodes) {
+    hash ^= hash >>> 16;
+    return (hash & Integer.MAX_VALUE) % nodes;
+  }
+
+  // Merge the parts on the Nodes they were sent to; the merged parts of every
+  // Node, null for Nodes that got none
+  private static Part[] merge(String name) {
+    new Merge(name).doAllNodes();
+    Part[] parts = new Part[H2O.CLOUD.size()];
+    for (int n = 0; n < parts.length; n++) parts[n] = DKV.getGet(mergedKey(name, n));
+    return parts;
+  }
+
+  // Values of one part of the hash space
+  private static abstract class Part extends Iced<Part> {
+    abstract int size();
+    abstract void addAll(Part p); // Of the same kind
+  }
+
+  private static final class NumPart extends Part {
+    IcedLongHashSet _set = new IcedLongHashSet();
+    @Override int size() { return _set.size(); }
+    @Override void addAll(Part p) { _set.addAll(((NumPart) p)._set); }
+  }
+
+  private static final class StrPart extends Part {
+    transient HashSet<String> _set = new HashSet<>();
+    @Override int size() { return _set.size(); }
+    @Override void addAll(Part p) { _set.addAll(((StrPart) p)._set); }
+
+    public final AutoBuffer write_impl(AutoBuffer ab) {
+      return ab.putAStr(_set.toArray(new String[_set.size()]));
+    }
+
+    public final StrPart read_impl(AutoBuffer ab) {
+      String[] strs = ab.getAStr();
+      _set = new HashSet<>(Arrays.asList(strs));
+      return this;
+    }
+  }
+
+  // Numbers of the Chunks of each Node, split into one part per Node, which
+  // the Chunks add to and which are sent on when the Node is done
+  private static class NumCollect extends MRTask<NumCollect> {
+    final String _name;
+    transient NumPart[] _parts;
+    NumCollect(String name) { _name = name; }
+
+    @Override protected void setupLocal() {
+      _parts = new NumPart[H2O.CLOUD.size()];
+      for (int n = 0; n < _parts.length; n++) _parts[n] = new NumPart();
+    }
+
+    @Override public void map(Chunk c) {
+      IcedLongHashSet[] sets = new IcedLongHashSet[_parts.length];
+      for (int r = 0; r < c._len; r++) {
+        long k = key(c.atd(r));
+        int n = owner((int) (k ^ (k >>> 32)), sets.length);
+        if (sets[n] == null) sets[n] = new IcedLongHashSet();
+        sets[n].add(k);
+      }
+      for (int n = 0; n < sets.length; n++)
+        if (sets[n] != null)
+          synchronized (_parts[n]) { _parts[n]._set.addAll(sets[n]); }
+    }
+
+    @Override protected void closeLocal() {
+      int self = H2O.SELF.index();
+      for (int n = 0; n < _parts.length; n++)
+        if (_parts[n].size() > 0) DKV.put(partKey(_name, self, n), _parts[n], _fs);
+      _parts = null;
+    }
+  }
+
+  // Strings of the Chunks of each Node, as NumCollect
+  private static class StrCollect extends MRTask<StrCollect> {
+    final String _name;
+    transient StrPart[] _parts;
+    boolean _na;
+    StrCollect(String name) { _name = name; }
+
+    @Override protected void setupLocal() {
+      _parts = new StrPart[H2O.CLOUD.size()];
+      for (int n = 0; n < _parts.length; n++) _parts[n] = new StrPart();
+    }
+
+    @Override public void map(Chunk c) {
+      HashSet<BufferedString> set = new HashSet<>();
+      BufferedString tmpStr = new BufferedString();
+      for (int r = 0; r < c._len; r++) {
+        if (c.isNA(r)) { _na = true; continue; }
+        c.atStr(tmpStr, r);
+        if (!set.contains(tmpStr)) set.add(new BufferedString(tmpStr.toString()));
+      }
+      for (BufferedString bs : set) {
+        String s = bs.toString();
+        StrPart p = _parts[owner(s.hashCode(), _parts.length)];
+        synchronized (p) { p._set.add(s); }
+      }
+    }
+
+    @Override public void reduce(StrCollect t) { _na |= t._na; }
+
+    @Override protected void closeLocal() {
+      int self = H2O.SELF.index();
+      for (int n = 0; n < _parts.length; n++)
+        if (_parts[n].size() > 0) DKV.put(partKey(_name, self, n), _parts[n], _fs);
+      _parts = null;
+    }
+  }
+
+  // Merge the parts sent to this Node, the smaller into the larger
+  private static class Merge extends MRTask<Merge> {
+    final String _name;
+    Merge(String name) { _name = name; }
+
+    @Override protected void setupLocal() {
+      int self = H2O.SELF.index();
+      Part merged = null;
+      for (int src = 0; src < H2O.CLOUD.size(); src++) {
+        Part p = DKV.getGet(partKey(_name, src, self));
+        if (p == null) continue;
+        if (merged == null) { merged = p; continue; }
+        if (merged.size() < p.size()) { Part t = merged; merged = p; p = t; }
+        merged.addAll(p);
+      }
+      if (merged != null) DKV.put(mergedKey(_name, self), merged, _fs);
+    }
+  }
+
+  // Remove the parts homed on this Node
+  private static class Remove extends MRTask<Remove> {
+    final String _name;
+    Remove(String name) { _name = name; }
+
+    @Override protected void setupLocal() {
+      int self = H2O.SELF.index();
+      for (int src = 0; src < H2O.CLOUD.size(); src++) DKV.remove(partKey(_name, src, self), _fs);
+      DKV.remove(mergedKey(_name, self), _fs);
+    }
+  }
+}
@@ -181,6 +181,7 @@ public class Env extends Iced {
     // Time Series
     init(new AstDiffLag1());
     init(new AstIsax());
+    init(new AstRolling());
 
     // Advanced Math
     init(new AstCorrelation());
@@ -196,6 +197,7 @@ public class Env extends Iced {
     init(new AstSort());
     init(new AstStratifiedKFold());
     init(new AstStratifiedSplit());
+    init(new AstTopN());
     init(new AstTable());
     init(new AstUnique());
     init(new AstVariance());
@@ -221,6 +223,8 @@ public class Env extends Iced {
     init(new AstIsFactor());
     init(new AstIsNa());
     init(new AstIsNumeric());
+    init(new AstLag());
+    init(new AstLead());
     init(new AstLevels());
     init(new AstMerge());
     init(new AstNaOmit());
@@ -231,6 +235,7 @@ public class Env extends Iced {
     init(new AstRBind());
     init(new AstReLevel());
     init(new AstRename());
+    init(new AstRowNumber());
     init(new AstRowSlice());
     init(new AstScale());
     init(new AstSetDomain());
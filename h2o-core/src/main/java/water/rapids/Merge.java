@@ -14,6 +14,12 @@ public class Merge {
   // This is a fully distributed and parallel sort.
   // It is not currently an in-place sort, so the data is doubled and a sorted copy is returned.
   public static Frame sort( final Frame fr, int[] cols ) {
+    return sort(fr, cols, SingleThreadRadixOrder.PARALLEL_ROWS, SplitByMSBLocal.MAX_IN_FLIGHT_BYTES);
+  }
+
+  // Sort with the given rows of the MSB buckets sorted by several threads,
+  // and bytes of batches in flight from each node
+  static Frame sort( final Frame fr, int[] cols, int parallelRows, long maxInFlightBytes ) {
     if( cols.length==0 )        // Empty key list
       return fr;                // Return original frame
     for( int col : cols )
@@ -29,11 +35,16 @@ public class Merge {
         for( int j=0; j<domain.length; j++ ) id_maps[i][j] = j;
       }
     }
-    return Merge.merge(fr, new Frame(new Vec[0]), cols, new int[0], true/*allLeft*/, id_maps);
+    return Merge.merge(fr, new Frame(new Vec[0]), cols, new int[0], true/*allLeft*/, id_maps, parallelRows, maxInFlightBytes);
   }
 
   // single-threaded driver logic.  Merge left and right frames based on common columns.
   public static Frame merge(final Frame leftFrame, final Frame riteFrame, final int leftCols[], final int riteCols[], boolean allLeft, int[][] id_maps) {
+    return merge(leftFrame, riteFrame, leftCols, riteCols, allLeft, id_maps, SingleThreadRadixOrder.PARALLEL_ROWS, SplitByMSBLocal.MAX_IN_FLIGHT_BYTES);
+  }
+
+  static Frame merge(final Frame leftFrame, final Frame riteFrame, final int leftCols[], final int riteCols[], boolean allLeft, int[][] id_maps,
+                     int parallelRows, long maxInFlightBytes) {
     final boolean hasRite = riteCols.length > 0;
 
     // map missing levels to -1 (rather than increasing slots after the end)
@@ -52,8 +63,8 @@ public class Merge {
     // Running 3 consecutive times on an idle cluster showed that running left
     // and right in parallel was a little slower (97s) than one by one (89s).
     // TODO: retest in future
-    RadixOrder leftIndex = createIndex(true ,leftFrame,leftCols,id_maps);
-    RadixOrder riteIndex = createIndex(false,riteFrame,riteCols,id_maps);
+    RadixOrder leftIndex = createIndex(true ,leftFrame,leftCols,id_maps,parallelRows,maxInFlightBytes);
+    RadixOrder riteIndex = createIndex(false,riteFrame,riteCols,id_maps,parallelRows,maxInFlightBytes);
     // TODO: start merging before all indexes had been created. Use callback?
 
     System.out.print("Making BinaryMerge RPC calls ... ");
@@ -64,6 +75,8 @@ public class Merge {
     final long leftBase = leftIndex._base[0];
     final int riteShift = hasRite ? riteIndex._shift[0] : -1;
     final long riteBase = hasRite ? riteIndex._base [0] : leftBase;
+    final int leftOwners[] = leftIndex._owners;
+    final int riteOwners[] = riteIndex._owners;
 
     long leftMSBfrom = (riteBase - leftBase) >> leftShift;  // which leftMSB does the overlap start
 
@@ -79,11 +92,11 @@ public class Merge {
       // The overlapping one with the right base is dealt with inside
       // BinaryMerge (if _allLeft)
       if (allLeft) for (int leftMSB=0; leftMSB<leftMSBfrom; leftMSB++) {
-          BinaryMerge bm = new BinaryMerge(new BinaryMerge.FFSB(leftFrame,   leftMSB    ,leftShift,leftIndex._bytesUsed,leftIndex._base),
-                                           new BinaryMerge.FFSB(riteFrame,/*rightMSB*/-1,riteShift,riteIndex._bytesUsed,riteIndex._base),
+          BinaryMerge bm = new BinaryMerge(new BinaryMerge.FFSB(leftFrame,   leftMSB    ,leftShift,leftIndex._bytesUsed,leftIndex._base,leftOwners),
+                                           new BinaryMerge.FFSB(riteFrame,/*rightMSB*/-1,riteShift,riteIndex._bytesUsed,riteIndex._base,riteOwners),
                                            true);
           bmList.add(bm);
-          fs.add(new RPC<>(SplitByMSBLocal.ownerOfMSB(leftMSB), bm).call());
+          fs.add(new RPC<>(BinaryMerge.mergeNode(leftOwners, leftMSB, riteOwners, -1), bm).call());
         }
     } else {
       // completely ignore right MSBs below the left base
@@ -105,11 +118,11 @@ public class Merge {
       }
       // run the merge for the whole lefts that start after the last right
       if (allLeft) for (int leftMSB=(int)leftMSBto+1; leftMSB<=255; leftMSB++) {
-          BinaryMerge bm = new BinaryMerge(new BinaryMerge.FFSB(leftFrame,   leftMSB    ,leftShift,leftIndex._bytesUsed,leftIndex._base),
-                                           new BinaryMerge.FFSB(riteFrame,/*rightMSB*/-1,riteShift,riteIndex._bytesUsed,riteIndex._base),
+          BinaryMerge bm = new BinaryMerge(new BinaryMerge.FFSB(leftFrame,   leftMSB    ,leftShift,leftIndex._bytesUsed,leftIndex._base,leftOwners),
+                                           new BinaryMerge.FFSB(riteFrame,/*rightMSB*/-1,riteShift,riteIndex._bytesUsed,riteIndex._base,riteOwners),
                                            true);
           bmList.add(bm);
-          fs.add(new RPC<>(SplitByMSBLocal.ownerOfMSB(leftMSB), bm).call());
+          fs.add(new RPC<>(BinaryMerge.mergeNode(leftOwners, leftMSB, riteOwners, -1), bm).call());
       }
     } else {
       // completely ignore right MSBs after the right peak
@@ -138,15 +151,15 @@ public class Merge {
       assert rightMSBto >= rightMSBfrom;
 
       for (int rightMSB=rightMSBfrom; rightMSB<=rightMSBto; rightMSB++) {
-        BinaryMerge bm = new BinaryMerge(new BinaryMerge.FFSB(leftFrame, leftMSB,leftShift,leftIndex._bytesUsed,leftIndex._base),
-                                         new BinaryMerge.FFSB(riteFrame,rightMSB,riteShift,riteIndex._bytesUsed,riteIndex._base),
+        BinaryMerge bm = new BinaryMerge(new BinaryMerge.FFSB(leftFrame, leftMSB,leftShift,leftIndex._bytesUsed,leftIndex._base,leftOwners),
+                                         new BinaryMerge.FFSB(riteFrame,rightMSB,riteShift,riteIndex._bytesUsed,riteIndex._base,riteOwners),
                                          allLeft);
         bmList.add(bm);
         // TODO: choose the bigger side to execute on (where that side of index
         // already is) to minimize transfer.  within BinaryMerge it will
         // recalculate the extents in terms of keys and bsearch for them within
         // the (then local) both sides
-        H2ONode node = SplitByMSBLocal.ownerOfMSB(rightMSB);
+        H2ONode node = BinaryMerge.mergeNode(leftOwners, leftMSB, riteOwners, rightMSB);
         fs.add(new RPC<>(node, bm).call());
       }
     }
@@ -169,7 +182,7 @@ public class Merge {
         DKV.remove(k);
         if (oxheader != null) {
           for (int b=0; b<oxheader._nBatch; ++b) {
-            k = SplitByMSBLocal.getSortedOXbatchKey(isLeft!=0, msb, b);
+            k = SplitByMSBLocal.getSortedOXbatchKey(isLeft!=0, isLeft!=0 ? leftOwners : riteOwners, msb, b);
             DKV.remove(k);
           }
         }
@@ -244,7 +257,7 @@ public class Merge {
     System.out.print("Finally stitch together by overwriting dummies ...");
     t0 = System.nanoTime();
     Frame fr = new Frame(names, vecs);
-    ChunkStitcher ff = new ChunkStitcher(chunkSizes, chunkLeftMSB, chunkRightMSB, chunkBatch);
+    ChunkStitcher ff = new ChunkStitcher(chunkSizes, chunkLeftMSB, chunkRightMSB, chunkBatch, leftOwners, riteOwners);
     ff.doAll(fr);
     System.out.println("took: " + (System.nanoTime() - t0) / 1e9);
 
@@ -252,10 +265,10 @@ public class Merge {
     return fr;
   }
 
-  private static RadixOrder createIndex(boolean isLeft, Frame fr, int[] cols, int[][] id_maps) {
+  private static RadixOrder createIndex(boolean isLeft, Frame fr, int[] cols, int[][] id_maps, int parallelRows, long maxInFlightBytes) {
     System.out.println("\nCreating "+(isLeft ? "left" : "right")+" index ...");
     long t0 = System.nanoTime();
-    RadixOrder idxTask = new RadixOrder(fr, isLeft, cols, id_maps);
+    RadixOrder idxTask = new RadixOrder(fr, isLeft, cols, id_maps, parallelRows, maxInFlightBytes);
     H2O.submitTask(idxTask);    // each of those launches an MRTask
     idxTask.join(); 
     System.out.println("***\n*** Creating "+(isLeft ? "left" : "right")+" index took: " + (System.nanoTime() - t0) / 1e9 + "\n***\n");
@@ -267,15 +280,21 @@ public class Merge {
     final int  _chunkLeftMSB[];
     final int  _chunkRightMSB[];
     final int  _chunkBatch[];
+    final int  _leftOwners[];
+    final int  _riteOwners[];
     ChunkStitcher(long[] chunkSizes,
                   int[]  chunkLeftMSB,
                   int[]  chunkRightMSB,
-                  int[]  chunkBatch
+                  int[]  chunkBatch,
+                  int[]  leftOwners,
+                  int[]  riteOwners
     ) {
       _chunkSizes   = chunkSizes;
       _chunkLeftMSB = chunkLeftMSB;
       _chunkRightMSB= chunkRightMSB;
       _chunkBatch   = chunkBatch;
+      _leftOwners   = leftOwners;
+      _riteOwners   = riteOwners;
     }
     @Override
     public void map(Chunk[] cs) {
@@ -284,7 +303,7 @@ public class Merge {
       for (int i=0;i<cs.length;++i) {
         Key destKey = cs[i].vec().chunkKey(chkIdx);
         assert(cs[i].len() == _chunkSizes[chkIdx]);
-        Key k = BinaryMerge.getKeyForMSBComboPerCol(_chunkLeftMSB[chkIdx], _chunkRightMSB[chkIdx], i, _chunkBatch[chkIdx]);
+        Key k = BinaryMerge.getKeyForMSBComboPerCol(_leftOwners, _chunkLeftMSB[chkIdx], _riteOwners, _chunkRightMSB[chkIdx], i, _chunkBatch[chkIdx]);
         Chunk ck = DKV.getGet(k);
         DKV.put(destKey, ck, fs, /*don't cache*/true);
         DKV.remove(k);
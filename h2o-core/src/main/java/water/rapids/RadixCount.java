@@ -2,6 +2,7 @@ package water.rapids;
 
 import water.*;
 import water.fvec.Chunk;
+import water.util.ArrayUtils;
 
 class RadixCount extends MRTask<RadixCount> {
   static class Long2DArray extends Iced {
@@ -9,6 +10,7 @@ class RadixCount extends MRTask<RadixCount> {
     long _val[][];
   }
   private Long2DArray _counts;
+  long _MSBhist[];  // global MSB counts, reduced
   private final int _shift;
   private final int _col;
   private final long _base;
@@ -78,6 +80,13 @@ class RadixCount extends MRTask<RadixCount> {
         }
       }
     }
+    if (_MSBhist == null) _MSBhist = new long[256];
+    ArrayUtils.add(_MSBhist, tmp);
+  }
+
+  @Override public void reduce(RadixCount rc) {
+    if (_MSBhist == null) _MSBhist = rc._MSBhist;
+    else if (rc._MSBhist != null) ArrayUtils.add(_MSBhist, rc._MSBhist);
   }
 
   @Override protected void closeLocal() {
@@ -15,8 +15,11 @@ class RadixOrder extends H2O.H2OCountedCompleter<RadixOrder> {
   final int _shift[];
   final int _bytesUsed[];
   final long _base[];
+  int _owners[];  // node sorting each MSB, by the MSB counts once known
+  private final int _parallelRows;
+  private final long _maxInFlightBytes;
 
-  RadixOrder(Frame DF, boolean isLeft, int whichCols[], int id_maps[][]) {
+  RadixOrder(Frame DF, boolean isLeft, int whichCols[], int id_maps[][], int parallelRows, long maxInFlightBytes) {
     _DF = DF;
     _isLeft = isLeft;
     _whichCols = whichCols;
@@ -24,6 +27,9 @@ class RadixOrder extends H2O.H2OCountedCompleter<RadixOrder> {
     _shift = new int[_whichCols.length];   // currently only _shift[0] is used
     _bytesUsed = new int[_whichCols.length];
     _base = new long[_whichCols.length];
+    _owners = SplitByMSBLocal.ownersOfMSBs(new long[256], H2O.CLOUD.size());
+    _parallelRows = parallelRows;
+    _maxInFlightBytes = maxInFlightBytes;
   }
 
   @Override
@@ -40,8 +46,10 @@ class RadixOrder extends H2O.H2OCountedCompleter<RadixOrder> {
     // keys.  To save % and / in deep iteration; e.g. in insert().
     System.out.println("Time to use rollup stats to determine biggestBit: " + ((t1=System.nanoTime()) - t0) / 1e9); t0=t1;
 
-    if( _whichCols.length > 0 )
-      new RadixCount(_isLeft, _base[0], _shift[0], _whichCols[0], _isLeft ? _id_maps : null ).doAll(_DF.vec(_whichCols[0]));
+    if( _whichCols.length > 0 ) {
+      long MSBhist[] = new RadixCount(_isLeft, _base[0], _shift[0], _whichCols[0], _isLeft ? _id_maps : null ).doAll(_DF.vec(_whichCols[0]))._MSBhist;
+      if (MSBhist != null) _owners = SplitByMSBLocal.ownersOfMSBs(MSBhist, H2O.CLOUD.size());
+    }
     System.out.println("Time of MSB count MRTask left local on each node (no reduce): " + ((t1=System.nanoTime()) - t0) / 1e9); t0=t1;
 
     // NOT TO DO:  we do need the full allocation of x[] and o[].  We need o[] anyway.  x[] will be compressed and dense.
@@ -55,7 +63,7 @@ class RadixOrder extends H2O.H2OCountedCompleter<RadixOrder> {
     // TODO: fix closeLocal() blocking issue and revert to simpler usage of closeLocal()
     Key linkTwoMRTask = Key.make();
     if( _whichCols.length > 0 )
-      new SplitByMSBLocal(_isLeft, _base, _shift[0], keySize, batchSize, _bytesUsed, _whichCols, linkTwoMRTask, _id_maps).doAll(_DF.vecs(_whichCols)); // postLocal needs DKV.put()
+      new SplitByMSBLocal(_isLeft, _base, _shift[0], keySize, batchSize, _bytesUsed, _whichCols, linkTwoMRTask, _id_maps, _owners, _maxInFlightBytes).doAll(_DF.vecs(_whichCols)); // postLocal needs DKV.put()
     System.out.println("SplitByMSBLocal MRTask (all local per node, no network) took : " + ((t1=System.nanoTime()) - t0) / 1e9); t0=t1;
 
     if( _whichCols.length > 0 )
@@ -66,7 +74,7 @@ class RadixOrder extends H2O.H2OCountedCompleter<RadixOrder> {
     RPC[] radixOrders = new RPC[256];
     System.out.print("Sending SingleThreadRadixOrder async RPC calls ... ");
     for (int i = 0; i < 256; i++)
-      radixOrders[i] = new RPC<>(SplitByMSBLocal.ownerOfMSB(i), new SingleThreadRadixOrder(_DF, _isLeft, batchSize, keySize, /*nGroup,*/ i)).call();
+      radixOrders[i] = new RPC<>(SplitByMSBLocal.ownerOfMSB(_owners, i), new SingleThreadRadixOrder(_DF, _isLeft, batchSize, keySize, /*nGroup,*/ i, _owners, _parallelRows)).call();
     System.out.println("took : " + ((t1=System.nanoTime()) - t0) / 1e9); t0=t1;
 
     System.out.print("Waiting for RPC SingleThreadRadixOrder to finish ... ");
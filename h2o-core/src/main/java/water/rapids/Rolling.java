@@ -0,0 +1,300 @@
+package water.rapids;
+
+import water.MRTask;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+import water.util.ArrayUtils;
+
+import java.util.Arrays;
+
+/**
+ * Trailing-window aggregates of the columns of a Frame sorted by time.
+ *
+ * The window of a row holds either the last n rows up to and including it,
+ * or the rows whose time is within a span before it: in (t - span, t].
+ * Windows stop at the boundaries of the optional group columns, whose groups
+ * must be contiguous, e.g. by sorting on the group columns and then the time.
+ * NA values are left out of the aggregates; rows of NA time are in no window
+ * and get an NA.
+ *
+ * Every Chunk is computed on its own, after fetching from the preceding
+ * Chunks the halo of rows the windows of its first rows reach back to.  Each
+ * row is added to and removed from the window once: sums are kept running,
+ * and minima and maxima in monotonic deques, so the cost does not grow with
+ * the window.  Quantiles keep the window sorted, at a cost of a shift of the
+ * window per row.
+ */
+public final class Rolling {
+  public static final String[] FUNS = {"sum", "mean", "min", "max", "count", "sd", "quantile"};
+  static final int SUM = 0, MEAN = 1, MIN = 2, MAX = 3, COUNT = 4, SD = 5, QUANTILE = 6;
+
+  private Rolling() {}
+
+  /**
+   * @param cols columns to aggregate
+   * @param fun one of {@link #FUNS}
+   * @param window number of rows, or time span if there is a time column
+   * @param time time column, or -1 for windows of rows
+   * @param by group columns, possibly none
+   * @param prob probability of the quantile
+   * @return new Frame of one aggregate column per column
+   */
+  public static Frame rolling(Frame fr, int[] cols, String fun, double window, int time, int[] by, double prob) {
+    int f = ArrayUtils.find(FUNS, fun);
+    if (f == -1) throw new IllegalArgumentException("Unknown window function " + fun + ", expected one of " + Arrays.toString(FUNS));
+    if (cols.length == 0) throw new IllegalArgumentException("No columns to aggregate");
+    if (!(window > 0)) throw new IllegalArgumentException("Window must be positive, got " + window);
+    if (time == -1 && window != (int) window)
+      throw new IllegalArgumentException("Window of rows must be an integer, got " + window);
+    if (f == QUANTILE && !(prob >= 0 && prob <= 1))
+      throw new IllegalArgumentException("Probability must be between 0 and 1, got " + prob);
+    Vec[] vecs = new Vec[cols.length + (time == -1 ? 0 : 1) + by.length];
+    String[] names = new String[cols.length];
+    int i = 0;
+    for (int col : cols) {
+      Vec v = vec(fr, col);
+      if (!v.isNumeric() && !v.isTime())
+        throw new IllegalArgumentException("Column " + fr.name(col) + " is not numeric");
+      names[i] = fr.name(col) + "_rolling_" + fun;
+      vecs[i++] = v;
+    }
+    if (time != -1) {
+      Vec v = vec(fr, time);
+      if (!v.isNumeric() && !v.isTime())
+        throw new IllegalArgumentException("Time column " + fr.name(time) + " is not numeric");
+      vecs[i++] = v;
+    }
+    for (int col : by) {
+      Vec v = vec(fr, col);
+      if (v.isString() || v.isUUID())
+        throw new IllegalArgumentException("Cannot group by string or UUID column " + fr.name(col));
+      vecs[i++] = v;
+    }
+    // Checked in a pass of its own, as a failing task with outputs leaves their Chunks behind
+    if (time != -1 && new Unsorted(cols.length).doAll(new Frame(vecs))._unsorted)
+      throw new IllegalArgumentException("Frame is not sorted by time within groups");
+    return new Window(f, cols.length, time != -1, window, prob)
+        .doAll(cols.length, Vec.T_NUM, new Frame(vecs)).outputFrame(names, null);
+  }
+
+  private static Vec vec(Frame fr, int col) {
+    if (col < 0 || col >= fr.numCols())
+      throw new IllegalArgumentException("Column " + col + " is out of range of " + fr.numCols());
+    return fr.vec(col);
+  }
+
+  // Whether a time is before the one of the row above it in the same group,
+  // with no NA time in between
+  private static class Unsorted extends MRTask<Unsorted> {
+    final int _time;
+    boolean _unsorted;
+    Unsorted(int time) { _time = time; }
+
+    @Override public void map(Chunk[] cs) {
+      int len = cs[0]._len;
+      if (len == 0) return;
+      // The last row of the preceding chunk, if any, is the row above the first
+      int k = cs[0].cidx() - 1;
+      while (k >= 0 && _fr.anyVec().chunkForChunkIdx(k)._len == 0) k--;
+      double[] prev = null;
+      if (k >= 0) {
+        prev = new double[cs.length];
+        Vec[] vecs = _fr.vecs();
+        for (int c = _time; c < cs.length; c++) {
+          Chunk p = vecs[c].chunkForChunkIdx(k);
+          prev[c] = p.atd(p._len - 1);
+        }
+      }
+      double[] row = new double[cs.length];
+      for (int r = 0; r < len; r++) {
+        for (int c = _time; c < cs.length; c++) row[c] = cs[c].atd(r);
+        if (prev != null && !Double.isNaN(prev[_time]) && row[_time] < prev[_time] && sameGroup(prev, row)) {
+          _unsorted = true;
+          return;
+        }
+        double[] t = prev == null ? new double[cs.length] : prev;
+        prev = row;
+        row = t;
+      }
+    }
+
+    @Override public void reduce(Unsorted t) { _unsorted |= t._unsorted; }
+
+    private boolean sameGroup(double[] a, double[] b) {
+      for (int c = _time + 1; c < a.length; c++)
+        if (Double.compare(a[c] + 0.0, b[c] + 0.0) != 0) return false;
+      return true;
+    }
+  }
+
+  private static class Window extends MRTask<Window> {
+    final int _fun;
+    final int _ncols;
+    final boolean _timed;
+    final double _window;
+    final double _prob;
+
+    Window(int fun, int ncols, boolean timed, double window, double prob) {
+      _fun = fun; _ncols = ncols; _timed = timed; _window = window; _prob = prob;
+    }
+
+    @Override public void map(Chunk[] cs, NewChunk[] ncs) {
+      int len = cs[0]._len;
+      if (len == 0) return;
+      // Halo rows of the preceding chunks, last first, then this chunk
+      double[][] halo = halo(cs);
+      int h = halo[0].length, n = h + len;
+      double[][] data = new double[cs.length][n];
+      for (int c = 0; c < cs.length; c++) {
+        for (int i = 0; i < h; i++) data[c][h - 1 - i] = halo[c][i];
+        for (int r = 0; r < len; r++) data[c][h + r] = cs[c].atd(r);
+      }
+      double[] time = _timed ? data[_ncols] : null;
+      int g0 = _ncols + (_timed ? 1 : 0);
+      Agg[] aggs = new Agg[_ncols];
+      for (int c = 0; c < _ncols; c++) aggs[c] = new Agg(data[c], n);
+      int lo = 0;
+      for (int i = 0; i < n; i++) {
+        if (i > 0 && !sameGroup(data, g0, i - 1, i)) {
+          lo = i;
+          for (Agg a : aggs) a.clear();
+        }
+        if (_timed) {
+          if (Double.isNaN(time[i])) {   // In no window; NA times sort first in their group
+            lo = i + 1;
+            for (Agg a : aggs) a.clear();
+            if (i >= h) for (NewChunk nc : ncs) nc.addNA();
+            continue;
+          }
+          while (time[lo] <= time[i] - _window) { for (Agg a : aggs) a.remove(lo); lo++; }
+        } else if (i - lo >= _window) { for (Agg a : aggs) a.remove(lo); lo++; }
+        for (Agg a : aggs) a.add(i);
+        if (i >= h) for (int c = 0; c < _ncols; c++) ncs[c].addNum(aggs[c].value());
+      }
+    }
+
+    private boolean sameGroup(double[][] data, int g0, int a, int b) {
+      for (int c = g0; c < data.length; c++)
+        if (Double.compare(data[c][a] + 0.0, data[c][b] + 0.0) != 0) return false;
+      return true;
+    }
+
+    // Rows of the preceding chunks in the windows of the first rows of this chunk, last first
+    private double[][] halo(Chunk[] cs) {
+      int g0 = _ncols + (_timed ? 1 : 0);
+      double[] first = new double[cs.length];
+      for (int c = 0; c < cs.length; c++) first[c] = cs[c].atd(0);
+      double[][] halo = new double[cs.length][16];
+      int h = 0;
+      Vec[] vecs = _fr.vecs();
+      int max = _timed ? Integer.MAX_VALUE : (int) _window - 1;
+      double from = _timed ? first[_ncols] - _window : 0;  // Times after this are in the window
+      if (_timed && Double.isNaN(from)) return new double[cs.length][0];
+      for (int k = cs[0].cidx() - 1; k >= 0 && h < max; k--) {
+        Chunk[] prev = new Chunk[cs.length];
+        for (int c = 0; c < cs.length; c++) prev[c] = vecs[c].chunkForChunkIdx(k);
+        for (int r = prev[0]._len - 1; r >= 0 && h < max; r--) {
+          for (int c = g0; c < cs.length; c++)
+            if (Double.compare(prev[c].atd(r) + 0.0, first[c] + 0.0) != 0) return trim(halo, h);
+          if (_timed) {
+            double t = prev[_ncols].atd(r);
+            if (Double.isNaN(t) || t <= from) return trim(halo, h);
+          }
+          if (h == halo[0].length)
+            for (int c = 0; c < cs.length; c++) halo[c] = Arrays.copyOf(halo[c], h * 2);
+          for (int c = 0; c < cs.length; c++) halo[c][h] = prev[c].atd(r);
+          h++;
+        }
+      }
+      return trim(halo, h);
+    }
+
+    private static double[][] trim(double[][] halo, int h) {
+      for (int c = 0; c < halo.length; c++) halo[c] = Arrays.copyOf(halo[c], h);
+      return halo;
+    }
+
+    // Aggregate of a sliding window of one column
+    private class Agg {
+      final double[] _x;
+      double _shift = Double.NaN; // Sums are of x - shift, for accuracy
+      double _sum, _sumsq;
+      int _cnt;
+      final int[] _dq;            // Deque of indices of the window, values monotonic
+      int _head, _tail;
+      double[] _sorted;           // Window values, sorted
+      int _nsorted;
+
+      Agg(double[] x, int n) {
+        _x = x;
+        _dq = _fun == MIN || _fun == MAX ? new int[n] : null;
+        _sorted = _fun == QUANTILE ? new double[16] : null;
+      }
+
+      void clear() {
+        _shift = Double.NaN;
+        _sum = _sumsq = 0;
+        _cnt = _head = _tail = _nsorted = 0;
+      }
+
+      void add(int i) {
+        double x = _x[i];
+        if (Double.isNaN(x)) return;
+        if (_cnt++ == 0) _shift = x;
+        double d = x - _shift;
+        _sum += d;
+        _sumsq += d * d;
+        if (_dq != null) {
+          // Drop the values the new one makes irrelevant
+          while (_tail > _head && (_fun == MIN ? _x[_dq[_tail - 1]] >= x : _x[_dq[_tail - 1]] <= x)) _tail--;
+          _dq[_tail++] = i;       // Indices only grow, so the deque never wraps
+        }
+        if (_sorted != null) {
+          if (_nsorted == _sorted.length) _sorted = Arrays.copyOf(_sorted, _nsorted * 2);
+          int at = Arrays.binarySearch(_sorted, 0, _nsorted, x);
+          if (at < 0) at = -at - 1;
+          System.arraycopy(_sorted, at, _sorted, at + 1, _nsorted - at);
+          _sorted[at] = x;
+          _nsorted++;
+        }
+      }
+
+      void remove(int i) {
+        double x = _x[i];
+        if (Double.isNaN(x)) return;
+        if (--_cnt == 0) _sum = _sumsq = 0;  // No rounding left over
+        else {
+          double d = x - _shift;
+          _sum -= d;
+          _sumsq -= d * d;
+        }
+        if (_dq != null && _tail > _head && _dq[_head] == i) _head++;
+        if (_sorted != null) {
+          int at = Arrays.binarySearch(_sorted, 0, _nsorted, x);
+          System.arraycopy(_sorted, at + 1, _sorted, at, _nsorted - at - 1);
+          _nsorted--;
+        }
+      }
+
+      double value() {
+        switch (_fun) {
+          case COUNT: return _cnt;
+          case SUM: return _cnt == 0 ? 0 : _sum + _cnt * _shift;
+          case MEAN: return _cnt == 0 ? Double.NaN : _shift + _sum / _cnt;
+          case SD:
+            if (_cnt < 2) return Double.NaN;
+            return Math.sqrt(Math.max(0, (_sumsq - _sum * _sum / _cnt) / (_cnt - 1)));
+          case MIN:
+          case MAX: return _tail == _head ? Double.NaN : _x[_dq[_head]];
+          default:
+            if (_nsorted == 0) return Double.NaN;
+            double p = (_nsorted - 1) * _prob;
+            int lo = (int) p;
+            return lo + 1 < _nsorted ? _sorted[lo] + (p - lo) * (_sorted[lo + 1] - _sorted[lo]) : _sorted[lo];
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,230 @@
+package water.rapids;
+
+import water.DKV;
+import water.Futures;
+import water.H2O;
+import water.Iced;
+import water.Key;
+import water.MRTask;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+import water.util.ArrayUtils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Distributed scan (prefix fold) down the columns of a Frame, optionally
+ * restarting at every value of a group column.
+ *
+ * A scan keeps a fixed-width state of doubles per column and group: it starts
+ * at an identity, folds in the values one row at a time, and outputs a value
+ * from the state at every row.  Two states combine associatively, the earlier
+ * rows first.  Cumulative sums and friends keep a single number; row numbers
+ * count; lag and lead keep the last n values.
+ *
+ * One pass computes the final state of every Chunk and group, and this Node
+ * combines them in order into the state at the start of every Chunk.  Every
+ * Node is sent the start states of its own Chunks only, and a second pass
+ * scans every Chunk from its start state straight into the output chunks, so
+ * no output is written twice.
+ *
+ * The states of all Chunks are held on this Node, so the width of the state
+ * is limited to MAX_WIDTH doubles.
+ */
+public abstract class Scan extends Iced<Scan> {
+  protected final boolean _exclusive;   // Output the state before folding in the row
+  protected final boolean _reverse;     // Scan up the columns, from the last row
+
+  /** Most doubles of state per column and group */
+  public static final int MAX_WIDTH = 1 << 14;
+
+  protected Scan(boolean exclusive, boolean reverse) { _exclusive = exclusive; _reverse = reverse; }
+
+  /** Number of doubles of state */
+  protected abstract int width();
+  /** Set the state at s[off] to the identity */
+  protected abstract void init(double[] s, int off);
+  /** Fold the next value into the state at s[off] */
+  protected abstract void add(double[] s, int off, double x);
+  /** Fold the state at r[roff], of the rows after those of l[loff], into l[loff] */
+  protected abstract void combine(double[] l, int loff, double[] r, int roff);
+  /** Output of the state at s[off] */
+  protected abstract double value(double[] s, int off);
+  /** Whether the output columns have the types and domains of the input columns, or are numeric */
+  protected boolean keepsTypes() { return false; }
+
+  /**
+   * Scan every column of the frame.
+   * @param group restart the scan at every value of this Vec, compatible with
+   *              the frame; or null to scan the whole columns
+   * @return new Frame of the scanned columns
+   */
+  public Frame doScan(Frame fr, Vec group) {
+    for (Vec v : fr.vecs())
+      if (v.isString() || v.isUUID())
+        throw new IllegalArgumentException("Cannot scan string or UUID columns");
+    if (group != null && (group.isString() || group.isUUID()))
+      throw new IllegalArgumentException("Cannot group by a string or UUID column");
+    int ncols = fr.numCols(), w = width();
+    if (w > MAX_WIDTH)
+      throw new IllegalArgumentException("Scan state of " + w + " values is too wide, at most " + MAX_WIDTH + " are supported");
+    Vec[] vecs = group == null ? fr.vecs() : ArrayUtils.append(fr.vecs(), group);
+    int nchks = vecs[0].nChunks();
+    Totals t = new Totals(this, ncols, group != null, nchks).doAll(vecs);
+    // Start state of every chunk and group, folding the chunks in scan order
+    double[][] starts = new double[nchks][];
+    HashMap<Double, double[]> running = new HashMap<>();
+    for (int k = 0; k < nchks; k++) {
+      int cidx = _reverse ? nchks - 1 - k : k;
+      double[] keys = t._keys[cidx], states = t._states[cidx];
+      int ng = keys.length;
+      double[] start = starts[cidx] = new double[ncols * ng * w];
+      for (int g = 0; g < ng; g++) {
+        double[] run = running.get(keys[g]);
+        if (run == null) {
+          running.put(keys[g], run = new double[ncols * w]);
+          for (int c = 0; c < ncols; c++) init(run, c * w);
+        }
+        for (int c = 0; c < ncols; c++) {
+          int off = (c * ng + g) * w;
+          System.arraycopy(run, c * w, start, off, w);
+          combine(run, c * w, states, off);
+        }
+      }
+    }
+    byte[] types = new byte[ncols];
+    String[][] domains = null;
+    if (keepsTypes()) {
+      types = fr.types();
+      domains = fr.domains();
+    } else Arrays.fill(types, Vec.T_NUM);
+    // Every Node gets the group values and start states of its own chunks
+    Key[] startKeys = new Key[H2O.CLOUD.size()];
+    Starts[] nodeStarts = new Starts[startKeys.length];
+    String name = "__scan_starts" + Key.rand() + "_node";
+    for (int n = 0; n < startKeys.length; n++) {
+      startKeys[n] = Key.make(name + n, (byte) 1, Key.HIDDEN_USER_KEY, false, H2O.CLOUD._memary[n]);
+      nodeStarts[n] = new Starts(nchks);
+    }
+    for (int cidx = 0; cidx < nchks; cidx++) {
+      Starts ss = nodeStarts[vecs[0].chunkKey(cidx).home_node().index()];
+      ss._keys[cidx] = t._keys[cidx];
+      ss._starts[cidx] = starts[cidx];
+    }
+    Futures fs = new Futures();
+    for (int n = 0; n < startKeys.length; n++) DKV.put(startKeys[n], nodeStarts[n], fs);
+    fs.blockForPending();
+    try {
+      return new Apply(this, ncols, startKeys).doAll(types, vecs).outputFrame(fr.names(), domains);
+    } finally {
+      for (Key k : startKeys) DKV.remove(k, fs);
+      fs.blockForPending();
+    }
+  }
+
+  // Group values and start states of the chunks of one Node; null for the others
+  private static class Starts extends Iced<Starts> {
+    final double[][] _keys;     // [cidx], as in Totals
+    final double[][] _starts;   // [cidx], as the states of Totals
+    Starts(int nchks) { _keys = new double[nchks][]; _starts = new double[nchks][]; }
+  }
+
+  // Distinct group values of a chunk, sorted
+  private static double[] keys(Chunk grp) {
+    double[] ks = new double[grp._len];
+    for (int r = 0; r < ks.length; r++) ks[r] = grp.atd(r) + 0.0; // No -0.0
+    Arrays.sort(ks);
+    int n = 0;
+    for (int r = 0; r < ks.length; r++)
+      if (n == 0 || Double.compare(ks[n - 1], ks[r]) != 0) ks[n++] = ks[r];
+    return Arrays.copyOf(ks, n);
+  }
+
+  // Group of every row of a chunk
+  private static int[] slots(Chunk grp, double[] keys) {
+    int[] slots = new int[grp._len];
+    for (int r = 0; r < slots.length; r++) slots[r] = Arrays.binarySearch(keys, grp.atd(r) + 0.0);
+    return slots;
+  }
+
+  // Scan the rows of a chunk in scan order, from and into the states; output into out if not null
+  private void scanChunk(Chunk[] cs, int ncols, int[] slots, int ng, double[] states, double[][] out) {
+    int len = cs[0]._len, w = width();
+    for (int c = 0; c < ncols; c++) {
+      Chunk chk = cs[c];
+      for (int i = 0; i < len; i++) {
+        int r = _reverse ? len - 1 - i : i;
+        int off = (c * ng + (slots == null ? 0 : slots[r])) * w;
+        if (out != null && _exclusive) out[c][r] = value(states, off);
+        add(states, off, chk.atd(r));
+        if (out != null && !_exclusive) out[c][r] = value(states, off);
+      }
+    }
+  }
+
+  // Final state of every chunk and group
+  private static class Totals extends MRTask<Totals> {
+    final Scan _scan;
+    final int _ncols;
+    final boolean _grouped;
+    final int _nchks;
+    double[][] _keys;           // [cidx], group values; one group of 0 if not grouped
+    double[][] _states;         // [cidx][(col*ngroups + group)*width + i]
+
+    Totals(Scan scan, int ncols, boolean grouped, int nchks) {
+      _scan = scan; _ncols = ncols; _grouped = grouped; _nchks = nchks;
+    }
+
+    @Override public void setupLocal() {
+      _keys = new double[_nchks][];
+      _states = new double[_nchks][];
+    }
+
+    @Override public void map(Chunk[] cs) {
+      double[] keys = _grouped ? keys(cs[_ncols]) : new double[1];
+      int ng = keys.length, w = _scan.width();
+      double[] states = new double[_ncols * ng * w];
+      for (int i = 0; i < _ncols * ng; i++) _scan.init(states, i * w);
+      _scan.scanChunk(cs, _ncols, _grouped ? slots(cs[_ncols], keys) : null, ng, states, null);
+      int cidx = cs[0].cidx();
+      _keys[cidx] = keys;
+      _states[cidx] = states;
+    }
+
+    @Override public void reduce(Totals t) {
+      if (_keys == t._keys) return;
+      for (int i = 0; i < _nchks; i++)
+        if (t._keys[i] != null) {
+          _keys[i] = t._keys[i];
+          _states[i] = t._states[i];
+        }
+    }
+  }
+
+  // Scan every chunk from its start states into the output chunks
+  private static class Apply extends MRTask<Apply> {
+    final Scan _scan;
+    final int _ncols;
+    final Key[] _startKeys;     // [node], the Starts of the chunks of every Node
+    transient Starts _ss;
+
+    Apply(Scan scan, int ncols, Key[] startKeys) {
+      _scan = scan; _ncols = ncols; _startKeys = startKeys;
+    }
+
+    @Override public void setupLocal() { _ss = DKV.getGet(_startKeys[H2O.SELF.index()]); }
+
+    @Override public void map(Chunk[] cs, NewChunk[] ncs) {
+      int cidx = cs[0].cidx(), len = cs[0]._len;
+      double[] keys = _ss._keys[cidx];
+      boolean grouped = cs.length > _ncols;
+      double[][] out = new double[_ncols][len];
+      _scan.scanChunk(cs, _ncols, grouped ? slots(cs[_ncols], keys) : null, keys.length, _ss._starts[cidx].clone(), out);
+      for (int c = 0; c < _ncols; c++)
+        for (int r = 0; r < len; r++) ncs[c].addNum(out[c][r]);
+    }
+  }
+}
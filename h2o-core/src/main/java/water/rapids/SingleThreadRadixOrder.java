@@ -12,15 +12,18 @@ package water.rapids;
 // efficiency in MoveByFirstByte().  10 bits (1024 threads) would be 4MB which
 // still < L2
 
-// Since o[] and x[] are arrays here (not Vecs) it's harder to see how to
-// parallelize inside this function. Therefore avoid that issue by using more
-// threads in calling split.
+// A single MSB may still hold most of the rows, e.g. when many keys are
+// equal, so buckets of more than _parallelRows rows are sorted by several
+// threads of this node; see run().
 
+import jsr166y.ForkJoinTask;
+import jsr166y.RecursiveAction;
 import water.*;
 import water.fvec.Frame;
 import water.fvec.Vec;
 import water.util.ArrayUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 
 class SingleThreadRadixOrder extends DTask<SingleThreadRadixOrder> {
@@ -28,34 +31,36 @@ class SingleThreadRadixOrder extends DTask<SingleThreadRadixOrder> {
   private final int _MSBvalue;  // only needed to be able to return the number of groups back to the caller RadixOrder
   private final int _keySize, _batchSize;
   private final boolean _isLeft;
+  private final int _owners[];  // node sorting each MSB
+  private final int _parallelRows;
 
-  private transient long _o[/*batch*/][];
-  private transient byte _x[/*batch*/][];
+  transient long _o[/*batch*/][];
+  transient byte _x[/*batch*/][];
   private transient long _otmp[][];
   private transient byte _xtmp[][];
 
-  // TEMPs
-  private transient long counts[][];
-  private transient byte keytmp[];
-  //public long _groupSizes[][];
+  // Default of the rows of the buckets that are counted, moved and split
+  // further by several threads.  Under it, one thread sorts the bucket
+  // recursively.
+  static final int PARALLEL_ROWS = 1 << 20;
 
 
   // outputs ...
   // o and x are changed in-place always
   // iff _groupsToo==true then the following are allocated and returned
 
-  SingleThreadRadixOrder(Frame fr, boolean isLeft, int batchSize, int keySize, /*long nGroup[],*/ int MSBvalue) {
+  SingleThreadRadixOrder(Frame fr, boolean isLeft, int batchSize, int keySize, /*long nGroup[],*/ int MSBvalue, int[] owners, int parallelRows) {
     _fr = fr;
     _isLeft = isLeft;
     _batchSize = batchSize;
     _keySize = keySize;
     _MSBvalue = MSBvalue;
+    _owners = owners;
+    _parallelRows = parallelRows;
   }
 
   @Override
   public void compute2() {
-    keytmp = new byte[_keySize];
-    counts = new long[_keySize][256];
     Key k;
 
     SplitByMSBLocal.MSBNodeHeader[] MSBnodeHeader = new SplitByMSBLocal.MSBNodeHeader[H2O.CLOUD.size()];
@@ -63,7 +68,7 @@ class SingleThreadRadixOrder extends DTask<SingleThreadRadixOrder> {
     for (int n=0; n<H2O.CLOUD.size(); n++) {
       // Log.info("Getting MSB " + MSBvalue + " Node Header from node " + n + "/" + H2O.CLOUD.size() + " for Frame " + _fr._key);
       // Log.info("Getting");
-      k = SplitByMSBLocal.getMSBNodeHeaderKey(_isLeft, _MSBvalue, n);
+      k = SplitByMSBLocal.getMSBNodeHeaderKey(_isLeft, _owners, _MSBvalue, n);
       MSBnodeHeader[n] = DKV.getGet(k);
       if (MSBnodeHeader[n]==null) continue;
       DKV.remove(k);
@@ -92,11 +97,15 @@ class SingleThreadRadixOrder extends DTask<SingleThreadRadixOrder> {
 
     SplitByMSBLocal.OXbatch ox[/*node*/] = new SplitByMSBLocal.OXbatch[H2O.CLOUD.size()];
     int oxBatchNum[/*node*/] = new int[H2O.CLOUD.size()];  // which batch of OX are we on from that node?  Initialized to 0.
-    for (int node=0; node<H2O.CLOUD.size(); node++) {  //TO DO: why is this serial?  Relying on
-      k = SplitByMSBLocal.getNodeOXbatchKey(_isLeft, _MSBvalue, node, /*batch=*/0);
+    // Get the first batch for each node for this MSB, all at once
+    Key[] firstKeys = new Key[H2O.CLOUD.size()];
+    for (int node=0; node<firstKeys.length; node++)
+      firstKeys[node] = SplitByMSBLocal.getNodeOXbatchKey(_isLeft, _owners, _MSBvalue, node, /*batch=*/0);
+    Value[] firsts = DKV.getAll(firstKeys);
+    for (int node=0; node<firstKeys.length; node++) {
       // assert k.home();   // TODO: PUBDEV-3074
-      ox[node] = DKV.getGet(k);   // get the first batch for each node for this MSB
-      DKV.remove(k);
+      if (firsts[node] != null) ox[node] = firsts[node].get();
+      DKV.remove(firstKeys[node]);
     }
     int oxOffset[] = new int[H2O.CLOUD.size()];
     int oxChunkIdx[] = new int[H2O.CLOUD.size()];  // that node has n chunks and which of those are we currently on?
@@ -134,7 +143,7 @@ class SingleThreadRadixOrder extends DTask<SingleThreadRadixOrder> {
         targetOffset += thisCopy; targetBatchRemaining -= thisCopy;
         if (sourceBatchRemaining == 0) {
           // fetch the next batch :
-          k = SplitByMSBLocal.getNodeOXbatchKey(_isLeft, _MSBvalue, fromNode, ++oxBatchNum[fromNode]);
+          k = SplitByMSBLocal.getNodeOXbatchKey(_isLeft, _owners, _MSBvalue, fromNode, ++oxBatchNum[fromNode]);
           assert k.home();
           ox[fromNode] = DKV.getGet(k);
           DKV.remove(k);
@@ -157,26 +166,20 @@ class SingleThreadRadixOrder extends DTask<SingleThreadRadixOrder> {
     }
 
     // We now have _o and _x collated from all the contributing nodes, in the correct original order.
-    // TODO save this allocation and reuse per thread?  Or will heap just take care of it. Time this allocation and copy as step 1 anyway.
+    // Scratch space of the same batches; every range of rows being sorted
+    // uses the same range of the scratch space, so ranges sort independently
     _xtmp = new byte[_x.length][];
     _otmp = new long[_o.length][];
     assert _x.length == _o.length;  // i.e. aligned batch size between x and o (think 20 bytes keys and 8 bytes of long in o)
-    // Seems like no deep clone available in Java. Maybe System.arraycopy but
-    // maybe that needs target to be allocated first
-    for (int i=0; i<_x.length; i++) {    
-      _xtmp[i] = Arrays.copyOf(_x[i], _x[i].length);
-      _otmp[i] = Arrays.copyOf(_o[i], _o[i].length);
+    for (int i=0; i<_x.length; i++) {
+      _xtmp[i] = new byte[_x[i].length];
+      _otmp[i] = new long[_o[i].length];
     }
-    // TO DO: a way to share this working memory between threads.
-    //        Just create enough for the 4 threads active at any one time.  Not 256 allocations and releases.
-    //        We need o[] and x[] in full for the result. But this way we don't need full size xtmp[] and otmp[] at any single time.
-    //        Currently Java will allocate and free these xtmp and otmp and maybe it does good enough job reusing heap that we don't need to explicitly optimize this reuse.
-    //        Perhaps iterating this task through the largest bins first will help java reuse heap.
     assert(_o != null);
     assert(numRows > 0);
 
     // The main work. Radix sort this batch ...
-    run(0, numRows, _keySize-1);  // if keySize is 6 bytes, first byte is byte 5
+    run(0, numRows, _keySize-1, new Scratch());  // if keySize is 6 bytes, first byte is byte 5
 
     // don't need to clear these now using private transient
     // _counts = null;
@@ -190,7 +193,7 @@ class SingleThreadRadixOrder extends DTask<SingleThreadRadixOrder> {
     assert _o.length == _x.length;
     for (b=0; b<_o.length; b++) {
       SplitByMSBLocal.OXbatch tmp = new SplitByMSBLocal.OXbatch(_o[b], _x[b]);
-      Value v = new Value(SplitByMSBLocal.getSortedOXbatchKey(_isLeft, _MSBvalue, b), tmp);
+      Value v = new Value(SplitByMSBLocal.getSortedOXbatchKey(_isLeft, _owners, _MSBvalue, b), tmp);
       DKV.put(v._key, v, fs, true);  // the OXbatchKey's on this node will be reused for the new keys
       v.freeMem();
     }
@@ -220,10 +223,16 @@ class SingleThreadRadixOrder extends DTask<SingleThreadRadixOrder> {
     return ((x[xi] & 0xFF) - (y[yi] & 0xFF)); // 0xFF for getting back from -1 to 255
   }
 
+  // Working memory of one sorting thread
+  private final class Scratch {
+    final long[][] _counts = new long[_keySize][256];  // Histogram per key byte, kept zeroed between uses
+    final byte[] _key = new byte[_keySize];
+  }
+
   // orders both x and o by reference in-place.  Fast for small vectors, low
   // overhead.  don't be tempted to binsearch backwards here because have to
   // shift anyway
-  public void insert(long start, /*only for small len so len can be type int*/int len) {
+  public void insert(long start, /*only for small len so len can be type int*/int len, byte keytmp[]) {
     int batch0 = (int) (start / _batchSize);
     int batch1 = (int) ((start+len-1) / _batchSize);
     long origstart = start;   // just for when straddle batch boundaries
@@ -237,11 +246,11 @@ class SingleThreadRadixOrder extends DTask<SingleThreadRadixOrder> {
       // copy two halves to contiguous temp memory, do the below, then split it back to the two halves afterwards.
       // Straddles batches very rarely (at most once per batch) so no speed impact at all.
       _xbatch = new byte[len * _keySize];
-      System.arraycopy(_xbatch, 0, _x[batch0], (int)((start % _batchSize)*_keySize), len0*_keySize);
-      System.arraycopy(_xbatch, len0*_keySize, _x[batch1], 0, (len-len0)*_keySize);
+      System.arraycopy(_x[batch0], (int)((start % _batchSize)*_keySize), _xbatch, 0, len0*_keySize);
+      System.arraycopy(_x[batch1], 0, _xbatch, len0*_keySize, (len-len0)*_keySize);
       _obatch = new long[len];
-      System.arraycopy(_obatch, 0, _o[batch0], (int)(start % _batchSize), len0);
-      System.arraycopy(_obatch, len0, _o[batch1], 0, len-len0);
+      System.arraycopy(_o[batch0], (int)(start % _batchSize), _obatch, 0, len0);
+      System.arraycopy(_o[batch1], 0, _obatch, len0, len-len0);
       start = 0;
     } else {
       _xbatch = _x[batch0];  // taking this outside the loop does indeed make quite a big different (hotspot isn't catching this, then)
@@ -265,126 +274,171 @@ class SingleThreadRadixOrder extends DTask<SingleThreadRadixOrder> {
     }
     if (batch1 != batch0) {
       // Put the sorted data back into original two places straddling the boundary
-      System.arraycopy(_x[batch0], (int)(origstart % _batchSize) *_keySize, _xbatch, 0, len0*_keySize);
-      System.arraycopy(_x[batch1], 0, _xbatch, len0*_keySize, (len-len0)*_keySize);
-      System.arraycopy(_o[batch0], (int)(origstart % _batchSize), _obatch, 0, len0);
-      System.arraycopy(_o[batch1], 0, _obatch, len0, len-len0);
+      System.arraycopy(_xbatch, 0, _x[batch0], (int)(origstart % _batchSize) *_keySize, len0*_keySize);
+      System.arraycopy(_xbatch, len0*_keySize, _x[batch1], 0, (len-len0)*_keySize);
+      System.arraycopy(_obatch, 0, _o[batch0], (int)(origstart % _batchSize), len0);
+      System.arraycopy(_obatch, len0, _o[batch1], 0, len-len0);
     }
   }
 
-  public void run(final long start, final long len, final int Byte) {
+  // Stable radix sort of rows [start, start+len) on key bytes Byte down to 0,
+  // the more significant bytes being equal.  Buckets of _parallelRows or more
+  // are counted and moved by several threads, in pieces, and their
+  // sub-buckets sorted in parallel.  A bucket of mostly one key thus keeps
+  // all threads busy at every byte, however skewed the keys are.
+  public void run(final long start, final long len, final int Byte, final Scratch scratch) {
     if (len < 200) { // N_SMALL=200 is guess based on limited testing. Needs calibrate().
       // Was 50 based on sum(1:50)=1275 worst -vs- 256 cummulate + 256 memset +
       // allowance since reverse order is unlikely.
-      insert(start, (int)len);   // when nalast==0, iinsert will be called only from within iradix.
+      insert(start, (int)len, scratch._key);   // when nalast==0, iinsert will be called only from within iradix.
       // TO DO: inside insert it doesn't need to compare the bytes so far as
       // they're known equal, so pass Byte (NB: not Byte-1) through to insert()
-
-      // TO DO: Maybe transposing keys to be a set of _keySize byte columns
-      // might in fact be quicker - no harm trying. What about long and varying
-      // length string keys?
       return;
     }
-    final int batch0 = (int) (start / _batchSize);
-    final int batch1 = (int) ((start+len-1) / _batchSize);
-    // could well span more than one boundary when very large number of rows.
-    final long thisHist[] = counts[Byte];
-    // thisHist reused and carefully set back to 0 below so we don't need to clear it now
-    int idx = (int)(start%_batchSize)*_keySize + _keySize-Byte-1;
-    int bin=-1;  // the last bin incremented. Just to see if there is only one bin with a count.
-    int thisLen = (int)Math.min(len, _batchSize - start%_batchSize);
-    final int nbatch = batch1-batch0+1;  // number of batches this span of len covers.  Usually 1.  Minimum 1.
-    for (int b=0; b<nbatch; b++) {
-      // taking this outside the loop below does indeed make quite a big different (hotspot isn't catching this, then)
-      byte _xbatch[] = _x[batch0+b];
-      for (int i = 0; i < thisLen; i++) {
-        bin = 0xff & _xbatch[idx];
-        thisHist[bin]++;
-        idx += _keySize;
-        // maybe TO DO: shorten key by 1 byte on each iteration, so we only
-        // need to thisx && 0xFF.  No, because we need for construction of
-        // final table key columns.
+    // Pieces of the bucket, each counted and moved by one thread
+    final int npieces = len >= _parallelRows ? (int) Math.max(2, Math.min(H2O.ARGS.nthreads, len / 200)) : 1;
+    final long[][] hists = new long[npieces][];
+    if (npieces == 1) {
+      hists[0] = scratch._counts[Byte];  // zeroed, and zeroed again below for reuse
+      count(start, len, Byte, hists[0]);
+    } else {
+      ArrayList<RecursiveAction> counts = new ArrayList<>(npieces);
+      for (int p = 0; p < npieces; p++) {
+        final int fp = p;
+        hists[p] = new long[256];
+        counts.add(new RecursiveAction() {
+          @Override protected void compute() {
+            long from = pieceStart(start, len, npieces, fp);
+            count(from, pieceStart(start, len, npieces, fp + 1) - from, Byte, hists[fp]);
+          }
+        });
+      }
+      ForkJoinTask.invokeAll(counts);
+    }
+    // Start of every byte value in the bucket; each piece moves its rows of a
+    // value after those of the earlier pieces, so the sort is stable
+    final long[] bounds = new long[257];
+    for (int c = 0; c < 256; c++) {
+      long n = 0;
+      for (long[] h : hists) {
+        long tmp = h[c];
+        h[c] = bounds[c] + n;
+        n += tmp;
+      }
+      bounds[c + 1] = bounds[c] + n;
+      if (n == len) {
+        // one bin has count len and the rest zero => next byte quick
+        Arrays.fill(hists[0], 0);  // important, clear for reuse
+        if (Byte != 0)
+          run(start, len, Byte-1, scratch);
+        return;
+      }
+    }
+    if (npieces == 1) {
+      move(start, len, Byte, start, hists[0]);
+      Arrays.fill(hists[0], 0);  // important, clear for reuse
+      copyBack(start, len);
+    } else {
+      ArrayList<RecursiveAction> moves = new ArrayList<>(npieces);
+      for (int p = 0; p < npieces; p++) {
+        final int fp = p;
+        moves.add(new RecursiveAction() {
+          @Override protected void compute() {
+            long from = pieceStart(start, len, npieces, fp);
+            move(from, pieceStart(start, len, npieces, fp + 1) - from, Byte, start, hists[fp]);
+          }
+        });
       }
-      idx = _keySize-Byte-1;
-      thisLen = (b==nbatch-2/*next iteration will be last batch*/ ? (int)((start+len)%_batchSize) : _batchSize);
-      // thisLen will be set to _batchSize for the middle batches when nbatch>=3
+      ForkJoinTask.invokeAll(moves);
+      moves.clear();
+      for (int p = 0; p < npieces; p++) {
+        final int fp = p;
+        moves.add(new RecursiveAction() {
+          @Override protected void compute() {
+            long from = pieceStart(start, len, npieces, fp);
+            copyBack(from, pieceStart(start, len, npieces, fp + 1) - from);
+          }
+        });
+      }
+      ForkJoinTask.invokeAll(moves);
     }
-    if (thisHist[bin] == len) {
-      // one bin has count len and the rest zero => next byte quick
-      thisHist[bin] = 0;  // important, clear for reuse
-      if (Byte != 0)
-        run(start, len, Byte-1);
+    if (Byte == 0) return;
+    if (npieces == 1) {
+      for (int c = 0; c < 256; c++) {
+        long n = bounds[c + 1] - bounds[c];
+        if (n > 1) run(start + bounds[c], n, Byte-1, scratch);
+      }
       return;
     }
-    long rollSum = 0;
-    for (int c = 0; c < 256; c++) {
-      final long tmp = thisHist[c];
-      // important to skip zeros for logic below to undo cumulate.  Worth the
-      // branch to save a deeply iterative memset back to zero
-      if (tmp == 0) continue;  
-      thisHist[c] = rollSum;
-      rollSum += tmp;
+    // Sub-buckets in parallel: big ones alone, small ones in runs of about
+    // _parallelRows, each with their own working memory
+    ArrayList<RecursiveAction> subs = new ArrayList<>();
+    for (int c = 0; c < 256; ) {
+      final int from = c;
+      do c++; while (c < 256 && bounds[c + 1] - bounds[from] < _parallelRows);
+      final int to = c;
+      subs.add(new RecursiveAction() {
+        @Override protected void compute() {
+          Scratch mine = new Scratch();
+          for (int b = from; b < to; b++) {
+            long n = bounds[b + 1] - bounds[b];
+            if (n > 1) run(start + bounds[b], n, Byte-1, mine);
+          }
+        }
+      });
     }
+    ForkJoinTask.invokeAll(subs);
+  }
 
-    // Sigh. Now deal with batches here as well because Java doesn't have 64bit indexing.
-    int oidx = (int)(start%_batchSize);
-    int xidx = oidx*_keySize + _keySize-Byte-1;
-    thisLen = (int)Math.min(len, _batchSize - start%_batchSize);
-    for (int b=0; b<nbatch; b++) {
-      // taking these outside the loop below does indeed make quite a big
-      // different (hotspot isn't catching this, then)
-      final long _obatch[] = _o[batch0+b];
-      final byte _xbatch[] = _x[batch0+b];
-      for (int i = 0; i < thisLen; i++) {
-        long target = thisHist[0xff & _xbatch[xidx]]++;
-        // now always write to the beginning of _otmp and _xtmp just to reuse the first hot pages
-        _otmp[(int)(target/_batchSize)][(int)(target%_batchSize)] = _obatch[oidx+i];   // this must be kept in 8 bytes longs
-        System.arraycopy(_xbatch, (oidx+i)*_keySize, _xtmp[(int)(target/_batchSize)], (int)(target%_batchSize)*_keySize, _keySize );
-        xidx += _keySize;
-        // Maybe TO DO: this can be variable byte width and smaller widths as
-        // descend through bytes (TO DO: reverse byte order so always doing &0xFF)
-      }
-      xidx = _keySize-Byte-1;
-      oidx = 0;
-      thisLen = (b==nbatch-2/*next iteration will be last batch*/ ? (int)((start+len)%_batchSize) : _batchSize);
+  private static long pieceStart(long start, long len, int npieces, int p) {
+    return start + len * p / npieces;
+  }
+
+  // Histogram of key byte Byte of rows [from, from+n)
+  private void count(long from, long n, int Byte, long[] hist) {
+    final int byteOff = _keySize-Byte-1;
+    while (n > 0) {
+      final byte[] xbatch = _x[(int) (from / _batchSize)];  // taking this outside the loop does indeed make quite a big different
+      final int off = (int) (from % _batchSize);
+      final int m = (int) Math.min(n, _batchSize - off);
+      for (int i = 0, idx = off*_keySize + byteOff; i < m; i++, idx += _keySize)
+        hist[0xff & xbatch[idx]]++;
+      from += m;
+      n -= m;
     }
+  }
 
-    // now copy _otmp and _xtmp back over _o and _x from the start position, allowing for boundaries
-    // _o, _x, _otmp and _xtmp all have the same _batchsize
-    runCopy(start,len,_keySize,_batchSize,_otmp,_xtmp,_o,_x);
-
-    long itmp = 0;
-    for (int i=0; i<256; i++) {
-      if (thisHist[i]==0) continue;
-      final long thisgrpn = thisHist[i] - itmp;
-      if( !(thisgrpn == 1 || Byte == 0) )
-        run(start+itmp, thisgrpn, Byte-1);
-      itmp = thisHist[i];
-      thisHist[i] = 0;  // important, to save clearing counts on next iteration
+  // Move rows [from, from+n) to the scratch space, each to base plus the next
+  // offset of its byte value
+  private void move(long from, long n, int Byte, long base, long[] offsets) {
+    final int byteOff = _keySize-Byte-1;
+    while (n > 0) {
+      final long obatch[] = _o[(int) (from / _batchSize)];
+      final byte xbatch[] = _x[(int) (from / _batchSize)];
+      final int off = (int) (from % _batchSize);
+      final int m = (int) Math.min(n, _batchSize - off);
+      for (int i = off; i < off + m; i++) {
+        long target = base + offsets[0xff & xbatch[i*_keySize + byteOff]]++;
+        int tb = (int) (target / _batchSize), to = (int) (target % _batchSize);
+        _otmp[tb][to] = obatch[i];   // this must be kept in 8 bytes longs
+        System.arraycopy(xbatch, i*_keySize, _xtmp[tb], to*_keySize, _keySize);
+      }
+      from += m;
+      n -= m;
     }
   }
 
   // Hot loop, pulled out from the main run code
-  private static void runCopy(final long start, final long len, final int keySize, final int batchSize, final long otmp[][], final byte xtmp[][], final long o[][], final byte x[][]) {
-    // now copy _otmp and _xtmp back over _o and _x from the start position, allowing for boundaries
-    // _o, _x, _otmp and _xtmp all have the same _batchsize
-    // Would be really nice if Java had 64bit indexing to save programmer time.
-    long numRowsToCopy = len;
-    int sourceBatch = 0, sourceOffset = 0;
-    int targetBatch = (int)(start / batchSize), targetOffset = (int)(start % batchSize);
-    int targetBatchRemaining = batchSize - targetOffset;  // 'remaining' means of the the full batch, not of the numRowsToCopy
-    int sourceBatchRemaining = batchSize - sourceOffset;  // at most batchSize remaining.  No need to actually put the number of rows left in here
-    while (numRowsToCopy > 0) {   // TO DO: put this into class as well, to ArrayCopy into batched
-      final int thisCopy = (int)Math.min(numRowsToCopy, Math.min(sourceBatchRemaining, targetBatchRemaining));
-      System.arraycopy(otmp[sourceBatch], sourceOffset,         o[targetBatch], targetOffset,         thisCopy);
-      System.arraycopy(xtmp[sourceBatch], sourceOffset*keySize, x[targetBatch], targetOffset*keySize, thisCopy*keySize);
-      numRowsToCopy -= thisCopy;
-      sourceOffset += thisCopy; sourceBatchRemaining -= thisCopy;
-      targetOffset += thisCopy; targetBatchRemaining -= thisCopy;
-      if (sourceBatchRemaining == 0) { sourceBatch++; sourceOffset = 0; sourceBatchRemaining = batchSize; }
-      if (targetBatchRemaining == 0) { targetBatch++; targetOffset = 0; targetBatchRemaining = batchSize; }
-      // 'source' and 'target' deliberately the same length variable names and long lines deliberately used so we
-      // can easy match them up vertically to ensure they are the same
+  // now copy rows [from, from+n) of _otmp and _xtmp back over _o and _x,
+  // allowing for batch boundaries; all have the same _batchsize
+  private void copyBack(long from, long n) {
+    while (n > 0) {
+      final int b = (int) (from / _batchSize), off = (int) (from % _batchSize);
+      final int m = (int) Math.min(n, _batchSize - off);
+      System.arraycopy(_otmp[b], off,          _o[b], off,          m);
+      System.arraycopy(_xtmp[b], off*_keySize, _x[b], off*_keySize, m*_keySize);
+      from += m;
+      n -= m;
     }
   }
 
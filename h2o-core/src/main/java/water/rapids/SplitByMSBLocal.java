@@ -7,6 +7,7 @@ import water.util.Log;
 import water.util.PrettyPrint;
 
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Hashtable;
 
 class SplitByMSBLocal extends MRTask<SplitByMSBLocal> {
@@ -16,6 +17,8 @@ class SplitByMSBLocal extends MRTask<SplitByMSBLocal> {
   private final int  _col[];
   private final Key _linkTwoMRTask;
   private final int _id_maps[][];
+  private final int _owners[];  // node sorting each MSB, see ownersOfMSBs()
+  private final long _maxInFlightBytes;
 
   private transient long _counts[][];
   private transient long _o[][][];  // transient ok because there is no reduce here between nodes, and important to save shipping back to caller.
@@ -23,7 +26,9 @@ class SplitByMSBLocal extends MRTask<SplitByMSBLocal> {
   private long _numRowsOnThisNode;
 
   static Hashtable<Key,SplitByMSBLocal> MOVESHASH = new Hashtable<>();
-  SplitByMSBLocal(boolean isLeft, long base[], int shift, int keySize, int batchSize, int bytesUsed[], int[] col, Key linkTwoMRTask, int[][] id_maps) {
+  // Default of the most bytes of o and x batches being sent from a node at any one time
+  static final long MAX_IN_FLIGHT_BYTES = Long.getLong(H2O.OptArgs.SYSTEM_PROP_PREFIX + "sort.maxInFlightBytes", 1L << 30);
+  SplitByMSBLocal(boolean isLeft, long base[], int shift, int keySize, int batchSize, int bytesUsed[], int[] col, Key linkTwoMRTask, int[][] id_maps, int[] owners, long maxInFlightBytes) {
     _isLeft = isLeft;
     // we only currently use the shift (in bits) for the first column for the
     // MSB (which we don't know from bytesUsed[0]). Otherwise we use the
@@ -33,6 +38,8 @@ class SplitByMSBLocal extends MRTask<SplitByMSBLocal> {
     _keySize = keySize;
     _linkTwoMRTask = linkTwoMRTask;
     _id_maps = id_maps;
+    _owners = owners;
+    _maxInFlightBytes = maxInFlightBytes;
   }
 
   @Override protected void setupLocal() {
@@ -160,22 +167,46 @@ class SplitByMSBLocal extends MRTask<SplitByMSBLocal> {
     }
   }
 
-  static H2ONode ownerOfMSB(int MSBvalue) {
-    // TO DO: this isn't properly working for efficiency. This value should pick the value of where it is, somehow.
-    //        Why not getSortedOXHeader(MSBvalue).home_node() ?
-    //int blocksize = (int) Math.ceil(256. / H2O.CLOUD.size());
-    //H2ONode node = H2O.CLOUD._memary[MSBvalue / blocksize];
-    return H2O.CLOUD._memary[MSBvalue % H2O.CLOUD.size()];   // spread it around more.
+  static H2ONode ownerOfMSB(int[] owners, int MSBvalue) {
+    return H2O.CLOUD._memary[owners[MSBvalue]];
   }
 
-  static Key getNodeOXbatchKey(boolean isLeft, int MSBvalue, int node, int batch) {
+  // Nodes sorting each MSB, by the global MSB counts: the biggest MSBs first,
+  // each to the node with the fewest rows so far, so that skewed keys (most
+  // rows in few MSBs) still spread over the nodes.  An MSB is not split over
+  // nodes; the threads of its node share a big one, see
+  // SingleThreadRadixOrder.run().  Empty MSBs go round-robin.  The left and
+  // right frames of a merge each have their own owners.
+  static int[] ownersOfMSBs(final long[] MSBhist, int nodes) {
+    int[] owners = new int[256];
+    Integer[] bySize = new Integer[256];
+    for (int msb = 0; msb < 256; msb++) {
+      owners[msb] = msb % nodes;
+      bySize[msb] = msb;
+    }
+    Arrays.sort(bySize, new Comparator<Integer>() {
+      @Override public int compare(Integer a, Integer b) { return Long.compare(MSBhist[b], MSBhist[a]); }
+    });  // stable, so ties keep MSB order
+    long[] load = new long[nodes];
+    for (int msb : bySize) {
+      if (MSBhist[msb] == 0) break;
+      int least = 0;
+      for (int n = 1; n < nodes; n++)
+        if (load[n] < load[least]) least = n;
+      owners[msb] = least;
+      load[least] += MSBhist[msb];
+    }
+    return owners;
+  }
+
+  static Key getNodeOXbatchKey(boolean isLeft, int[] owners, int MSBvalue, int node, int batch) {
     return Key.make("__radix_order__NodeOXbatch_MSB" + MSBvalue + "_node" + node + "_batch" + batch + (isLeft ? "_LEFT" : "_RIGHT"),
-            (byte) 1, Key.HIDDEN_USER_KEY, false, SplitByMSBLocal.ownerOfMSB(MSBvalue));
+            (byte) 1, Key.HIDDEN_USER_KEY, false, SplitByMSBLocal.ownerOfMSB(owners, MSBvalue));
   }
 
-  static Key getSortedOXbatchKey(boolean isLeft, int MSBvalue, int batch) {
+  static Key getSortedOXbatchKey(boolean isLeft, int[] owners, int MSBvalue, int batch) {
     return Key.make("__radix_order__SortedOXbatch_MSB" + MSBvalue + "_batch" + batch + (isLeft ? "_LEFT" : "_RIGHT"),
-            (byte) 1, Key.HIDDEN_USER_KEY, false, SplitByMSBLocal.ownerOfMSB(MSBvalue));
+            (byte) 1, Key.HIDDEN_USER_KEY, false, SplitByMSBLocal.ownerOfMSB(owners, MSBvalue));
   }
 
 
@@ -185,9 +216,9 @@ class SplitByMSBLocal extends MRTask<SplitByMSBLocal> {
     final byte[/*batchSize or lastSize*/] _x;
   }
 
-  static Key getMSBNodeHeaderKey(boolean isLeft, int MSBvalue, int node) {
+  static Key getMSBNodeHeaderKey(boolean isLeft, int[] owners, int MSBvalue, int node) {
     return Key.make("__radix_order__OXNodeHeader_MSB" + MSBvalue + "_node" + node + (isLeft ? "_LEFT" : "_RIGHT"),
-            (byte) 1, Key.HIDDEN_USER_KEY, false, SplitByMSBLocal.ownerOfMSB(MSBvalue));
+            (byte) 1, Key.HIDDEN_USER_KEY, false, SplitByMSBLocal.ownerOfMSB(owners, MSBvalue));
   }
 
   static class MSBNodeHeader extends Iced {
@@ -229,13 +260,28 @@ class SplitByMSBLocal extends MRTask<SplitByMSBLocal> {
     System.out.println(" ]) ...");
 
     long t0 = System.nanoTime();
+    // All MSBs are sent at once, a batch per task, but only up to
+    // _maxInFlightBytes of batches at a time: the serialized batches are
+    // copies of the data, which would otherwise double it on this node.
     Futures myfs = new Futures(); // Private Futures instead of _fs, so can block early and get timing results
-    for (int msb =0; msb <_o.length /*256*/; ++msb) {   // TODO this can be done in parallel, surely
+    long inFlight = 0;
+    for (int msb =0; msb <_o.length /*256*/; ++msb) {
       // "I found my A's (msb=0) and now I'll send them to the node doing all the A's"
       // "I'll send you a long vector of _o and _x (batched if very long) along with where the boundaries are."
       // "You don't need to know the chunk numbers of these boundaries, because you know the node of each chunk from your local Vec header"
       if(_o[msb] == null) continue;
-      myfs.add(H2O.submitTask(new SendOne(msb,myfs)));
+      // Need dontCache==true, so data does not remain both locally and on remote.
+      DKV.put(getMSBNodeHeaderKey(_isLeft, _owners, msb, H2O.SELF.index()), nodeHeader(msb), myfs, true);
+      for (int b = 0; b < _o[msb].length; b++) {
+        long bytes = _o[msb][b].length * 8L + _x[msb][b].length;
+        if (inFlight > 0 && inFlight + bytes > _maxInFlightBytes) {
+          myfs.blockForPending();
+          myfs = new Futures();
+          inFlight = 0;
+        }
+        myfs.add(H2O.submitTask(new SendBatch(msb, b, myfs)));
+        inFlight += bytes;
+      }
     }
     myfs.blockForPending();
     double timeTaken = (System.nanoTime() - t0) / 1e9;
@@ -245,45 +291,45 @@ class SplitByMSBLocal extends MRTask<SplitByMSBLocal> {
                        String.format("%.3f", bytes / timeTaken / (1024*1024*1024)) + " GByte/sec  [10Gbit = 1.25GByte/sec]");
   }
 
-  class SendOne extends H2O.H2OCountedCompleter<SendOne> {
+  // Counts of the rows of this MSB from each chunk on this node, in chunk order
+  private MSBNodeHeader nodeHeader(int msb) {
+    int numChunks = 0;  // how many of the chunks are on this node
+    for( long[] cnts : _counts )
+      if (cnts != null)  // the map() allocated the 256 vector in the spine slots for this node's chunks
+        // even if cnts[msb]==0 (no msb for this chunk) we'll store
+        // that because needed by line marked LINE_ANCHOR_1 below.
+        numChunks++;
+    // make dense.  And by construction (i.e. cumulative counts) these chunks
+    // contributed in order
+    int msbNodeChunkCounts[] = new int[numChunks];
+    int j=0;
+    long lastCount = 0; // _counts are cumulative at this stage so need to diff
+    for( long[] cnts : _counts ) {
+      if (cnts != null) {
+        if (cnts[msb] == 0) {  // robust in case we skipped zeros when accumulating
+          msbNodeChunkCounts[j] = 0;
+        } else {
+          // _counts is long so it can be accumulated in-place iirc.
+          // TODO: check
+          msbNodeChunkCounts[j] = (int)(cnts[msb] - lastCount);
+          lastCount = cnts[msb];
+        }
+        j++;
+      }
+    }
+    return new MSBNodeHeader(msbNodeChunkCounts);
+  }
+
+  class SendBatch extends H2O.H2OCountedCompleter<SendBatch> {
     // Nothing on remote node here, just a local parallel loop
-    private final int _msb;
+    private final int _msb, _batch;
     private final Futures _myfs;
-    SendOne(int msb, Futures myfs) { _msb = msb; _myfs = myfs; }
+    SendBatch(int msb, int batch, Futures myfs) { _msb = msb; _batch = batch; _myfs = myfs; }
 
     @Override public void compute2() {
-      int numChunks = 0;  // how many of the chunks are on this node
-      for( long[] cnts : _counts )
-        if (cnts != null)  // the map() allocated the 256 vector in the spine slots for this node's chunks
-          // even if cnts[_msb]==0 (no _msb for this chunk) we'll store
-          // that because needed by line marked LINE_ANCHOR_1 below.
-          numChunks++;
-      // make dense.  And by construction (i.e. cumulative counts) these chunks
-      // contributed in order
-      int msbNodeChunkCounts[] = new int[numChunks];
-      int j=0;
-      long lastCount = 0; // _counts are cumulative at this stage so need to diff
-      for( long[] cnts : _counts ) {
-        if (cnts != null) {
-          if (cnts[_msb] == 0) {  // robust in case we skipped zeros when accumulating
-            msbNodeChunkCounts[j] = 0;
-          } else {
-            // _counts is long so it can be accumulated in-place iirc.
-            // TODO: check
-            msbNodeChunkCounts[j] = (int)(cnts[_msb] - lastCount);
-            lastCount = cnts[_msb];
-          }
-          j++;
-        }
-      }
-      MSBNodeHeader msbh = new MSBNodeHeader(msbNodeChunkCounts);
-      // Need dontCache==true, so data does not remain both locally and on remote.
+      OXbatch ox = new OXbatch(_o[_msb][_batch], _x[_msb][_batch]);   // this does not copy in Java, just references
       // Use private Futures so can block independent of MRTask Futures.
-      DKV.put(getMSBNodeHeaderKey(_isLeft, _msb, H2O.SELF.index()), msbh, _myfs, true);
-      for (int b=0;b<_o[_msb].length; b++) {
-        OXbatch ox = new OXbatch(_o[_msb][b], _x[_msb][b]);   // this does not copy in Java, just references
-        DKV.put(getNodeOXbatchKey(_isLeft, _msb, H2O.SELF.index(), b), ox, _myfs, true);
-      }
+      DKV.put(getNodeOXbatchKey(_isLeft, _owners, _msb, H2O.SELF.index(), _batch), ox, _myfs, true);
       tryComplete();
     }
   }
@@ -0,0 +1,261 @@
+package water.rapids;
+
+import water.Futures;
+import water.Key;
+import water.MRTask;
+import water.fvec.*;
+import water.parser.BufferedString;
+import water.util.ArrayUtils;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The first N rows of a Frame in sorted order, without sorting the Frame.
+ *
+ * One pass over the key columns keeps the best N rows of every Chunk in a
+ * bounded heap.  The per-Chunk results are merged pairwise by the MRTask
+ * reduction, within each Node and then across Nodes, so at most N keys per
+ * Node cross the network.  A second pass gathers the N selected rows, which
+ * are laid out in order in a new Frame.
+ *
+ * Rows are ordered as {@link Merge#sort} orders them: ascending by the key
+ * columns in turn, with NAs first.  In decreasing order the keys are reversed
+ * and NAs come last.  Rows with equal keys stay in row order either way.
+ */
+public final class TopN {
+  static final int ROWS_PER_CHUNK = 1 << 19;
+
+  private TopN() {}
+
+  /**
+   * @param cols key columns
+   * @param n number of rows to return; fewer if the frame is shorter
+   * @param decreasing largest keys first if true, smallest (and NAs) first otherwise
+   * @return new Frame with the first n rows of the frame in sorted order
+   */
+  public static Frame topN(Frame fr, int[] cols, long n, boolean decreasing) {
+    if (cols.length == 0) throw new IllegalArgumentException("No columns to sort by");
+    for (int col : cols) {
+      if (col < 0 || col >= fr.numCols())
+        throw new IllegalArgumentException("Column " + col + " is out of range of " + fr.numCols());
+      Vec vec = fr.vec(col);
+      if (vec.isString() || vec.isUUID())
+        throw new IllegalArgumentException("Cannot sort by column " + fr.name(col) + " of type " + vec.get_type_str());
+    }
+    if (n <= 0) throw new IllegalArgumentException("Number of rows must be positive, got " + n);
+    if (n > Integer.MAX_VALUE) throw new IllegalArgumentException("Too many rows requested: " + n);
+    Frame keys = new Frame();
+    for (int col : cols) keys.add(fr.name(col), fr.vec(col));
+    Select sel = new Select((int) Math.min(n, fr.numRows()), decreasing).doAll(keys);
+    long[] rows = sel._rows == null ? new long[0] : sel._rows;
+    // Gather the rows in row order, remembering their rank
+    final long[] ranked = rows;
+    Integer[] idx = new Integer[rows.length];
+    for (int i = 0; i < idx.length; i++) idx[i] = i;
+    Arrays.sort(idx, new Comparator<Integer>() {
+      @Override public int compare(Integer a, Integer b) { return Long.compare(ranked[a], ranked[b]); }
+    });
+    long[] sorted = new long[idx.length];
+    int[] rank = new int[idx.length];
+    for (int i = 0; i < idx.length; i++) {
+      sorted[i] = ranked[idx[i]];
+      rank[i] = idx[i];
+    }
+    Gather g = new Gather(sorted, rank).doAll(fr);
+    return g.frame(fr, rows.length);
+  }
+
+  // NAs sort first
+  private static int cmp(double a, double b) {
+    if (Double.isNaN(a)) return Double.isNaN(b) ? 0 : -1;
+    if (Double.isNaN(b)) return 1;
+    return a < b ? -1 : (a > b ? 1 : 0);
+  }
+
+  // --------------------------------------------------------------------------
+  // Best N keys per Chunk, then merged; kept best first
+  private static class Select extends MRTask<Select> {
+    final int _n;
+    final boolean _decreasing;
+    double[][] _keys;           // [key column][i]
+    long[] _rows;
+
+    Select(int n, boolean decreasing) { _n = n; _decreasing = decreasing; }
+
+    // Negative if entry i of (ka,ra) goes before entry j of (kb,rb)
+    int order(double[][] ka, long[] ra, int i, double[][] kb, long[] rb, int j) {
+      for (int c = 0; c < ka.length; c++) {
+        int x = cmp(ka[c][i], kb[c][j]);
+        if (x != 0) return _decreasing ? -x : x;
+      }
+      return Long.compare(ra[i], rb[j]);
+    }
+
+    @Override public void map(Chunk[] cs) {
+      int len = cs[0]._len;
+      int cap = Math.min(_n, len);
+      if (cap == 0) return;
+      // Heap of slots, the worst kept row at the root; slot cap holds the candidate
+      double[][] keys = new double[cs.length][cap + 1];
+      long[] rows = new long[cap + 1];
+      int[] heap = new int[cap];
+      int size = 0;
+      long start = cs[0].start();
+      for (int r = 0; r < len; r++) {
+        for (int c = 0; c < cs.length; c++) keys[c][cap] = cs[c].atd(r);
+        rows[cap] = start + r;
+        if (size < cap) {
+          int slot = size;
+          for (int c = 0; c < cs.length; c++) keys[c][slot] = keys[c][cap];
+          rows[slot] = rows[cap];
+          heap[size] = slot;
+          siftUp(keys, rows, heap, size++);
+        } else if (order(keys, rows, cap, keys, rows, heap[0]) < 0) {
+          int slot = heap[0];       // Replace the worst
+          for (int c = 0; c < cs.length; c++) keys[c][slot] = keys[c][cap];
+          rows[slot] = rows[cap];
+          siftDown(keys, rows, heap, size);
+        }
+      }
+      // Pop the worst first, filling from the back
+      _keys = new double[cs.length][size];
+      _rows = new long[size];
+      while (size > 0) {
+        int slot = heap[0];
+        size--;
+        for (int c = 0; c < cs.length; c++) _keys[c][size] = keys[c][slot];
+        _rows[size] = rows[slot];
+        heap[0] = heap[size];
+        siftDown(keys, rows, heap, size);
+      }
+    }
+
+    private void siftUp(double[][] keys, long[] rows, int[] heap, int i) {
+      while (i > 0) {
+        int p = (i - 1) >> 1;
+        if (order(keys, rows, heap[i], keys, rows, heap[p]) <= 0) break;
+        int t = heap[i]; heap[i] = heap[p]; heap[p] = t;
+        i = p;
+      }
+    }
+
+    private void siftDown(double[][] keys, long[] rows, int[] heap, int size) {
+      int i = 0;
+      while (true) {
+        int l = 2 * i + 1, r = l + 1, worst = i;
+        if (l < size && order(keys, rows, heap[l], keys, rows, heap[worst]) > 0) worst = l;
+        if (r < size && order(keys, rows, heap[r], keys, rows, heap[worst]) > 0) worst = r;
+        if (worst == i) return;
+        int t = heap[i]; heap[i] = heap[worst]; heap[worst] = t;
+        i = worst;
+      }
+    }
+
+    @Override public void reduce(Select o) {
+      if (o._rows == null) return;
+      if (_rows == null) { _keys = o._keys; _rows = o._rows; return; }
+      int na = _rows.length, nb = o._rows.length, n = Math.min(_n, na + nb);
+      double[][] keys = new double[_keys.length][n];
+      long[] rows = new long[n];
+      for (int k = 0, i = 0, j = 0; k < n; k++) {
+        boolean mine = j == nb || (i < na && order(_keys, _rows, i, o._keys, o._rows, j) < 0);
+        double[][] src = mine ? _keys : o._keys;
+        int x = mine ? i++ : j++;
+        for (int c = 0; c < keys.length; c++) keys[c][k] = src[c][x];
+        rows[k] = mine ? _rows[x] : o._rows[x];
+      }
+      _keys = keys;
+      _rows = rows;
+    }
+  }
+
+  // --------------------------------------------------------------------------
+  // The values of the selected rows, with their rank
+  private static class Gather extends MRTask<Gather> {
+    final long[] _sorted;       // Selected rows, ascending
+    final int[] _rank;          // Rank of each selected row
+    int[] _ranks;
+    double[][] _nums;           // [column][i], for numeric, categorical and time columns
+    String[][] _strs;           // [column][i], for string columns
+    long[][] _uuids;            // [column][2i and 2i+1], for UUID columns
+
+    Gather(long[] sorted, int[] rank) { _sorted = sorted; _rank = rank; }
+
+    @Override public void map(Chunk[] cs) {
+      long start = cs[0].start(), end = start + cs[0]._len;
+      int lo = Arrays.binarySearch(_sorted, start);
+      if (lo < 0) lo = -lo - 1;
+      int hi = lo;
+      while (hi < _sorted.length && _sorted[hi] < end) hi++;
+      int k = hi - lo;
+      if (k == 0) return;
+      _ranks = Arrays.copyOfRange(_rank, lo, hi);
+      _nums = new double[cs.length][];
+      _strs = new String[cs.length][];
+      _uuids = new long[cs.length][];
+      BufferedString bs = new BufferedString();
+      for (int c = 0; c < cs.length; c++) {
+        Chunk chk = cs[c];
+        Vec vec = chk.vec();
+        if (vec.isString()) _strs[c] = new String[k];
+        else if (vec.isUUID()) _uuids[c] = new long[2 * k];
+        else _nums[c] = new double[k];
+        for (int i = 0; i < k; i++) {
+          int r = (int) (_sorted[lo + i] - start);
+          if (vec.isString()) _strs[c][i] = chk.isNA(r) ? null : chk.atStr(bs, r).toString();
+          else if (vec.isUUID()) {
+            if (chk.isNA(r)) _uuids[c][2 * i] = Long.MIN_VALUE; // The NA of C16Chunk
+            else { _uuids[c][2 * i] = chk.at16l(r); _uuids[c][2 * i + 1] = chk.at16h(r); }
+          } else _nums[c][i] = chk.atd(r);
+        }
+      }
+    }
+
+    @Override public void reduce(Gather o) {
+      if (o._ranks == null) return;
+      if (_ranks == null) { _ranks = o._ranks; _nums = o._nums; _strs = o._strs; _uuids = o._uuids; return; }
+      _ranks = ArrayUtils.append(_ranks, o._ranks);
+      for (int c = 0; c < _nums.length; c++) {
+        if (_nums[c] != null) _nums[c] = ArrayUtils.append(_nums[c], o._nums[c]);
+        if (_strs[c] != null) _strs[c] = ArrayUtils.append(_strs[c], o._strs[c]);
+        if (_uuids[c] != null) _uuids[c] = ArrayUtils.append(_uuids[c], o._uuids[c]);
+      }
+    }
+
+    // New Frame of the gathered rows, in rank order
+    Frame frame(Frame fr, int n) {
+      int[] at = new int[n];     // Index of the row of each rank
+      for (int i = 0; _ranks != null && i < _ranks.length; i++) at[_ranks[i]] = i;
+      Vec[] vecs = fr.vecs();
+      Key<Vec>[] keys = new Vec.VectorGroup().addVecs(vecs.length);
+      AppendableVec[] avs = new AppendableVec[vecs.length];
+      for (int c = 0; c < vecs.length; c++) {
+        avs[c] = new AppendableVec(keys[c], vecs[c].get_type());
+        avs[c].setDomain(vecs[c].domain());
+      }
+      Futures fs = new Futures();
+      int nchunks = Math.max(1, (n + ROWS_PER_CHUNK - 1) / ROWS_PER_CHUNK);
+      for (int cidx = 0; cidx < nchunks; cidx++) {
+        int from = cidx * ROWS_PER_CHUNK, to = Math.min(n, from + ROWS_PER_CHUNK);
+        for (int c = 0; c < vecs.length; c++) {
+          NewChunk nc = new NewChunk(avs[c], cidx);
+          for (int k = from; k < to; k++) {
+            int i = at[k];
+            if (_strs[c] != null) nc.addStr(_strs[c][i]);
+            else if (_uuids[c] != null) {
+              long lo = _uuids[c][2 * i], hi = _uuids[c][2 * i + 1];
+              if (C16Chunk.isNA(lo, hi)) nc.addNA();
+              else nc.addUUID(lo, hi);
+            }
+            else nc.addNum(_nums[c][i]);
+          }
+          nc.close(cidx, fs);
+        }
+      }
+      vecs = AppendableVec.closeAll(avs, fs);
+      fs.blockForPending();
+      return new Frame(fr.names().clone(), vecs);
+    }
+  }
+}
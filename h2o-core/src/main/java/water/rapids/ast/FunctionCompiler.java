@@ -0,0 +1,503 @@
+package water.rapids.ast;
+
+import javassist.*;
+import water.H2O;
+import water.Iced;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+import water.rapids.Env;
+import water.rapids.Val;
+import water.rapids.ast.params.AstId;
+import water.rapids.ast.prims.math.AstUniOp;
+import water.rapids.ast.prims.mungers.AstColPySlice;
+import water.rapids.ast.prims.mungers.AstColSlice;
+import water.rapids.ast.prims.operators.AstBinOp;
+import water.rapids.ast.prims.operators.AstIfElse;
+import water.rapids.ast.prims.reducers.AstMean;
+import water.rapids.ast.prims.reducers.AstNaRollupOp;
+import water.rapids.ast.prims.reducers.AstRollupOp;
+import water.rapids.vals.ValRow;
+import water.util.Log;
+
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compiles the numeric functions applied by AstApply into JVM bytecode.
+ *
+ * A function of a row (or of a column) built from arithmetic and comparison
+ * operators, math functions, ifelse, row reductions (sum, max, min, prod,
+ * mean) and constant column slices is translated into Java source evaluating
+ * it over blocks of rows held in primitive arrays, and compiled with
+ * Javassist.  The shape of every subexpression (a scalar, or a row of known
+ * length) is known at compile time, so rows are flattened into scalar locals
+ * and nothing is allocated per row.  Primitives are called through their
+ * {@code op} methods, so the results are exactly the interpreter's.
+ *
+ * Anything else - other primitives, nested functions, Frame or string values,
+ * shapes known only at run time - makes compilation return null, and the
+ * caller interprets the function.  The source is generated on the Node running
+ * the apply and shipped with the task; every Node compiles it once and caches
+ * the class, keeping the MAX_CLASSES most recently used ones.
+ */
+public final class FunctionCompiler {
+  /** Set to false to always interpret the functions applied by AstApply */
+  static final String COMPILE_PROP = H2O.OptArgs.SYSTEM_PROP_PREFIX + "rapids.compileApply";
+  public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty(COMPILE_PROP, "true"));
+  /** Rows evaluated per call of the generated code */
+  static final int BLOCK = 1024;
+
+  /** Base of the generated classes */
+  public static abstract class Kernel {
+    /** Bind the primitives called by the code */
+    public abstract void init(AstPrimitive[] prims);
+    /** Evaluate rows [0,len) of the input columns into the output columns */
+    public abstract void apply(double[][] in, int len, double[][] out);
+  }
+
+  /** A compiled function: the generated source and the primitives it calls */
+  public static final class Compiled extends Iced<Compiled> {
+    final String[] _fields;
+    final String _init, _apply;
+    final AstPrimitive[] _prims;
+    final int[] _cols;          // Input columns read by the code
+    final int _nout;
+    private transient Kernel _kernel;
+
+    Compiled(String[] fields, String init, String apply, AstPrimitive[] prims, int[] cols, int nout) {
+      _fields = fields; _init = init; _apply = apply; _prims = prims; _cols = cols; _nout = nout;
+    }
+
+    public int nout() { return _nout; }
+
+    Kernel kernel() {
+      if (_kernel == null) _kernel = load(this);
+      return _kernel;
+    }
+
+    /** Evaluate the function over the rows of the chunks, appending the results to the new chunks */
+    public void map(Chunk[] chks, NewChunk[] ncs) {
+      assert ncs.length == _nout;
+      Kernel k = kernel();
+      int len = chks[0]._len;
+      int blk = Math.min(len, BLOCK);
+      double[][] in = new double[chks.length][];
+      for (int c : _cols) in[c] = new double[blk];
+      double[][] out = new double[_nout][blk];
+      for (int from = 0; from < len; from += BLOCK) {
+        int to = Math.min(len, from + BLOCK);
+        for (int c : _cols) chks[c].getDoubles(in[c], from, to);
+        k.apply(in, to - from, out);
+        for (int i = 0; i < _nout; i++)
+          for (int r = 0; r < to - from; r++)
+            ncs[i].addNum(out[i][r]);
+      }
+    }
+  }
+
+  // --------------------------------------------------------------------------
+  /**
+   * Compile a function applied to every row of the frame.  The interpreted
+   * results of a sample of rows are compared against the compiled code's.
+   * @param names column names
+   * @param rows sample of rows
+   * @param res interpreted results of the sample rows
+   * @return the compiled function, or null if it has to be interpreted
+   */
+  public static Compiled compileRow(Env env, AstPrimitive fun, String[] names, double[][] rows, double[][] res) {
+    if (!ENABLED) return null;
+    String[] es = new String[names.length];
+    for (int i = 0; i < es.length; i++) es[i] = "c" + i + "[r]";
+    Compiled code = new FunctionCompiler(env, true, names.length).compile(fun, new Expr(es, names));
+    if (code == null) return null;
+    double[][] in = new double[names.length][rows.length];
+    for (int r = 0; r < rows.length; r++)
+      for (int i = 0; i < in.length; i++) in[i][r] = rows[r][i];
+    double[][] out = new double[code._nout][rows.length];
+    try {
+      code.kernel().apply(in, rows.length, out);
+    } catch (RuntimeException e) {
+      Log.warn("Failed to compile apply function " + fun + ", interpreting it: " + e);
+      return null;
+    }
+    for (int r = 0; r < rows.length; r++) {
+      if (res[r].length != out.length) return null;
+      for (int i = 0; i < out.length; i++)
+        if (Double.doubleToLongBits(out[i][r]) != Double.doubleToLongBits(res[r][i])) {
+          Log.warn("Compiled apply function " + fun + " differs from the interpreter, interpreting it");
+          return null;
+        }
+    }
+    return code;
+  }
+
+  /**
+   * Compile a function applied to every column of the frame, evaluated row by
+   * row.  Only element-wise functions of numeric columns are compiled.
+   * @return the compiled function, or null if it has to be interpreted
+   */
+  public static Compiled compileCol(Env env, AstPrimitive fun, Frame fr) {
+    if (!ENABLED || fr.numCols() == 0) return null;
+    for (Vec v : fr.vecs())
+      if (!v.isNumeric()) return null;
+    Compiled code = new FunctionCompiler(env, false, 1).compile(fun, new Expr(new String[]{"c0[r]"}, null));
+    if (code == null || code._nout != 1) return null;
+    try {
+      code.kernel();
+    } catch (RuntimeException e) {
+      Log.warn("Failed to compile apply function " + fun + ", interpreting it: " + e);
+      return null;
+    }
+    return code;
+  }
+
+  // --------------------------------------------------------------------------
+  // The value of a subexpression: a scalar, or a row of (scalar) Java expressions
+  private static final class Expr {
+    final String[] _es;
+    final String[] _names;      // Names of the row elements, may be null
+    final boolean _row;
+    final Double _const;        // Value of a constant scalar, or null
+
+    Expr(String[] es, String[] names) { _es = es; _names = names; _row = true; _const = null; }
+    Expr(String e, Double con) { _es = new String[]{e}; _names = null; _row = false; _const = con; }
+
+    int len() { return _es.length; }
+    // Element i, widening scalars
+    String at(int i) { return _row ? _es[i] : _es[0]; }
+  }
+
+  // Thrown while compiling constructs left to the interpreter
+  private static final class Unsupported extends RuntimeException {
+    Unsupported(String msg) { super(msg, null, false, false); }
+  }
+
+  private static final AstId ARG = new AstId(" arg");  // The argument of a primitive applied directly
+
+  private final Env _env;
+  private final boolean _rowwise;
+  private final int _nin;
+  private String _param;
+  private Expr _arg;
+  private final StringBuilder _code = new StringBuilder();
+  private final List<AstPrimitive> _prims = new ArrayList<>();
+  private final List<String> _fields = new ArrayList<>();
+  private int _ntmp;
+
+  private FunctionCompiler(Env env, boolean rowwise, int nin) {
+    _env = env;
+    _rowwise = rowwise;
+    _nin = nin;
+  }
+
+  private Compiled compile(AstPrimitive fun, Expr arg) {
+    AstFunction scope = _env._scope;
+    Expr res;
+    try {
+      _arg = arg;
+      if (fun instanceof AstFunction) {
+        AstFunction f = (AstFunction) fun;
+        if (f._ids.length != 2) throw new Unsupported("expected a function of one argument");
+        _param = f._ids[1];
+        _env._scope = f._parent;  // Free variables are looked up where the function was defined
+        res = expr(f._body);
+      } else {
+        _param = ARG.str();
+        res = call(fun, new AstRoot[]{fun, ARG});
+      }
+      if (!res._row) throw new Unsupported("the result is not a row");
+      if (!_rowwise && res._es[0].equals(arg._es[0])) throw new Unsupported("the result is the argument");
+    } catch (Unsupported e) {
+      Log.debug("Interpreting apply function ", fun, ": ", e.getMessage());
+      return null;
+    } finally {
+      _env._scope = scope;
+    }
+    // The generated method
+    List<Integer> cols = new ArrayList<>();
+    StringBuilder sb = new StringBuilder("public void apply(double[][] in, int len, double[][] out) {\n");
+    for (int i = 0; i < _nin; i++)
+      if (_code.indexOf("c" + i + "[r]") >= 0 || contains(res, "c" + i + "[r]")) {
+        sb.append("double[] c").append(i).append(" = in[").append(i).append("];\n");
+        cols.add(i);
+      }
+    for (int i = 0; i < res.len(); i++)
+      sb.append("double[] o").append(i).append(" = out[").append(i).append("];\n");
+    sb.append("for (int r = 0; r < len; r++) {\n").append(_code);
+    for (int i = 0; i < res.len(); i++)
+      sb.append("o").append(i).append("[r] = ").append(res._es[i]).append(";\n");
+    sb.append("}\n}");
+    StringBuilder init = new StringBuilder("public void init(water.rapids.ast.AstPrimitive[] ps) {\n");
+    for (int i = 0; i < _prims.size(); i++)
+      init.append("p").append(i).append(" = (").append(type(_prims.get(i))).append(") ps[").append(i).append("];\n");
+    init.append("}");
+    int[] cs = new int[cols.size()];
+    for (int i = 0; i < cs.length; i++) cs[i] = cols.get(i);
+    return new Compiled(_fields.toArray(new String[_fields.size()]), init.toString(), sb.toString(),
+        _prims.toArray(new AstPrimitive[_prims.size()]), cs, res.len());
+  }
+
+  private static boolean contains(Expr e, String s) {
+    for (String x : e._es) if (x.contains(s)) return true;
+    return false;
+  }
+
+  // Compile an expression
+  private Expr expr(AstRoot ast) {
+    if (ast instanceof AstId) {
+      String id = ast.str();
+      if (id.equals(_param)) return _arg;
+      Val v;
+      try {
+        v = _env.lookup(id);
+      } catch (IllegalArgumentException e) {
+        throw new Unsupported(e.getMessage());
+      }
+      return constant(v, id);
+    }
+    if (ast instanceof AstParameter) return constant(ast.exec(_env), ast.str());
+    if (ast instanceof AstExec) {
+      AstRoot[] asts = ((AstExec) ast)._asts;
+      if (!(asts[0] instanceof AstId) || asts[0].str().equals(_param))
+        throw new Unsupported("call of " + asts[0]);
+      Val f = asts[0].exec(_env);
+      if (!f.isFun() || f.getFun() instanceof AstFunction) throw new Unsupported("call of " + asts[0]);
+      return call(f.getFun(), asts);
+    }
+    throw new Unsupported(ast.str());
+  }
+
+  private Expr constant(Val v, String what) {
+    if (v.isNum()) return new Expr(literal(v.getNum()), v.getNum());
+    if (v.isRow()) {
+      double[] ds = v.getRow();
+      String[] es = new String[ds.length];
+      for (int i = 0; i < ds.length; i++) es[i] = literal(ds[i]);
+      return new Expr(es, ((ValRow) v).getNames());
+    }
+    throw new Unsupported(what + " is not a number");
+  }
+
+  private static String literal(double d) {
+    if (Double.isNaN(d)) return "Double.NaN";
+    if (Double.isInfinite(d)) return d > 0 ? "Double.POSITIVE_INFINITY" : "Double.NEGATIVE_INFINITY";
+    return "(" + Double.toString(d) + ")";
+  }
+
+  // Compile a call of a primitive
+  private Expr call(AstPrimitive prim, AstRoot[] asts) {
+    int nargs = prim.nargs();
+    if (nargs != -1 && nargs != asts.length) throw new Unsupported("wrong number of arguments of " + prim.str());
+    if (prim instanceof AstBinOp && inherits(prim, AstBinOp.class)) return binop(prim, asts);
+    if (prim instanceof AstUniOp && inherits(prim, AstUniOp.class)) return uniop(prim, asts);
+    if (prim.getClass() == AstIfElse.class) return ifelse(asts);
+    if (_rowwise) {            // Row-only operations; on a column they reduce or slice the Frame
+      if (prim instanceof AstRollupOp && !(prim instanceof AstNaRollupOp) && inherits(prim, AstRollupOp.class))
+        return rollup(prim, asts);
+      if (prim.getClass() == AstMean.class) return mean(asts);
+      if (prim.getClass() == AstColSlice.class || prim.getClass() == AstColPySlice.class) return slice(prim, asts);
+    }
+    throw new Unsupported("primitive " + prim.str());
+  }
+
+  // True if the primitive uses the apply (and prim_apply) of the given base class
+  private static boolean inherits(AstPrimitive prim, Class<?> base) {
+    try {
+      Class<?> c = prim.getClass();
+      if (c.getMethod("apply", Env.class, Env.StackHelp.class, AstRoot[].class).getDeclaringClass() != base) return false;
+      return base != AstBinOp.class || c.getMethod("prim_apply", Val.class, Val.class).getDeclaringClass() == base;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  // Row op row, row op scalar and scalar op row; see AstBinOp.prim_apply
+  private Expr binop(AstPrimitive prim, AstRoot[] asts) {
+    Expr l = expr(asts[1]), r = expr(asts[2]);
+    String p = field(prim);
+    if (!l._row && !r._row) return scalar(p + ".op(" + l.at(0) + ", " + r.at(0) + ")");
+    int n = l._row ? l.len() : r.len();
+    if (l._row && r._row && r.len() < n) throw new Unsupported("rows of different lengths");
+    String[] es = new String[n];
+    for (int i = 0; i < n; i++) es[i] = tmp(p + ".op(" + l.at(i) + ", " + r.at(i) + ")");
+    return new Expr(es, r._row ? r._names : l._names);
+  }
+
+  private Expr uniop(AstPrimitive prim, AstRoot[] asts) {
+    Expr a = expr(asts[1]);
+    String p = field(prim);
+    if (!a._row) return scalar(p + ".op(" + a.at(0) + ")");
+    if (_rowwise && a._names == null) throw new Unsupported("unnamed row");  // AstUniOp copies the names
+    String[] es = new String[a.len()];
+    for (int i = 0; i < es.length; i++) es[i] = tmp(p + ".op(" + a.at(i) + ")");
+    return new Expr(es, a._names);
+  }
+
+  // See AstIfElse: a NaN test gives NaN, a scalar test picks one side
+  private Expr ifelse(AstRoot[] asts) {
+    Expr t = expr(asts[1]), y = expr(asts[2]), n = expr(asts[3]);
+    if (!t._row) {
+      if (y._row || n._row) throw new Unsupported("the shape of ifelse depends on the test");
+      return scalar(pick(t.at(0), y.at(0), n.at(0)));
+    }
+    if (_rowwise) {           // See AstIfElse.row_ifelse
+      if (!y._row && !n._row) throw new Unsupported("ifelse of a row between scalars");
+      if (y.len() < t.len() || n.len() < t.len()) throw new Unsupported("ifelse of rows of different lengths");
+    }
+    String[] es = new String[t.len()];
+    String[] names = new String[t.len()];
+    for (int i = 0; i < es.length; i++) {
+      es[i] = tmp(pick(t.at(i), y.at(i), n.at(i)));
+      names[i] = "C" + (i + 1);
+    }
+    return new Expr(es, names);
+  }
+
+  private static String pick(String t, String y, String n) {
+    return "Double.isNaN(" + t + ") ? Double.NaN : (" + t + " == 0 ? " + n + " : " + y + ")";
+  }
+
+  // Reduction of a row; see AstRollupOp
+  private Expr rollup(AstPrimitive prim, AstRoot[] asts) {
+    if (asts.length < 2) throw new Unsupported("nothing to reduce");
+    Expr a = expr(asts[1]);
+    if (!a._row || a.len() == 0) throw new Unsupported("reduction of a scalar or an empty row");
+    String p = field(prim);
+    String acc = tmp(a.at(0));
+    for (int i = 1; i < a.len(); i++)
+      _code.append(acc).append(" = ").append(p).append(".op(").append(acc).append(", ").append(a.at(i)).append(");\n");
+    return new Expr(new String[]{acc}, null);
+  }
+
+  // Mean of a row, with a constant na_rm; see AstMean
+  private Expr mean(AstRoot[] asts) {
+    if (asts.length < 3) throw new Unsupported("mean without na_rm");
+    Expr a = expr(asts[1]), narm = expr(asts[2]);
+    if (!a._row) throw new Unsupported("mean of a scalar");
+    if (narm._const == null) throw new Unsupported("na_rm is not a constant");
+    String sum = tmp("0");
+    if (narm._const == 1) {
+      String cnt = "k" + _ntmp++;
+      _code.append("int ").append(cnt).append(" = 0;\n");
+      for (int i = 0; i < a.len(); i++)
+        _code.append("if (!Double.isNaN(").append(a.at(i)).append(")) { ")
+            .append(sum).append(" = ").append(sum).append(" + ").append(a.at(i)).append("; ")
+            .append(cnt).append(" = ").append(cnt).append(" + 1; }\n");
+      return new Expr(new String[]{tmp(sum + " / " + cnt)}, null);
+    }
+    for (int i = 0; i < a.len(); i++)
+      _code.append(sum).append(" = ").append(sum).append(" + ").append(a.at(i)).append(";\n");
+    return new Expr(new String[]{tmp(sum + " / " + a.len())}, null);
+  }
+
+  // Column slice of a row by a constant list: run the slice on a row of indices
+  private Expr slice(AstPrimitive prim, AstRoot[] asts) {
+    if (asts.length != 3 || !(asts[2] instanceof AstParameter) || asts[2] instanceof AstId)
+      throw new Unsupported("slice by a non-constant");
+    Expr a = expr(asts[1]);
+    if (!a._row) throw new Unsupported("slice of a scalar");
+    double[] idx = new double[a.len()];
+    for (int i = 0; i < idx.length; i++) idx[i] = i;
+    Val v;
+    try (Env.StackHelp stk = _env.stk()) {
+      v = prim.apply(_env, stk, new AstRoot[]{prim, new AstRow(idx, a._names), asts[2]});
+    } catch (RuntimeException e) {
+      throw new Unsupported("slice " + asts[2] + ": " + e);
+    }
+    if (!(v instanceof ValRow)) throw new Unsupported("slice of a row is not a row");
+    double[] ds = v.getRow();
+    String[] es = new String[ds.length];
+    for (int i = 0; i < es.length; i++) es[i] = a._es[(int) ds[i]];
+    return new Expr(es, ((ValRow) v).getNames());
+  }
+
+  private Expr scalar(String e) { return new Expr(tmp(e), null); }
+
+  // A local holding the value of the expression
+  private String tmp(String e) {
+    String t = "t" + _ntmp++;
+    _code.append("double ").append(t).append(" = ").append(e).append(";\n");
+    return t;
+  }
+
+  // The field holding the primitive
+  private String field(AstPrimitive prim) {
+    int i = _prims.indexOf(prim);
+    if (i == -1) {
+      i = _prims.size();
+      _prims.add(prim);
+      _fields.add(type(prim) + " p" + i + ";");
+    }
+    return "p" + i;
+  }
+
+  // Type of the field of a primitive: its class if accessible, else the base class
+  private static String type(AstPrimitive prim) {
+    Class<?> c = prim.getClass();
+    while (!Modifier.isPublic(c.getModifiers()) || c.getEnclosingClass() != null || c.isAnonymousClass())
+      c = c.getSuperclass();
+    return c.getName();
+  }
+
+  // --------------------------------------------------------------------------
+  /** Most generated classes cached per Node */
+  static final int MAX_CLASSES = 256;
+  // Generated classes by their source, in access order; the least recently
+  // used are dropped, and unloaded as every class has a loader of its own
+  private static final Map<String, Class<?>> CLASSES = new LinkedHashMap<String, Class<?>>(16, 0.75f, true) {
+    @Override protected boolean removeEldestEntry(Map.Entry<String, Class<?>> e) { return size() > MAX_CLASSES; }
+  };
+  private static final AtomicInteger NEXT = new AtomicInteger();
+  private static ClassPool _pool;
+
+  static Kernel load(Compiled code) {
+    StringBuilder sb = new StringBuilder();
+    for (String f : code._fields) sb.append(f).append('\n');
+    String src = sb.append(code._init).append('\n').append(code._apply).toString();
+    try {
+      Class<?> clz;
+      synchronized (FunctionCompiler.class) { // Javassist pools are not thread-safe
+        clz = CLASSES.get(src);
+        if (clz == null) CLASSES.put(src, clz = define(code));
+      }
+      Kernel k = (Kernel) clz.newInstance();
+      k.init(code._prims);
+      return k;
+    } catch (CannotCompileException | NotFoundException | IOException | InstantiationException | IllegalAccessException e) {
+      throw new RuntimeException("Failed to compile " + src, e);
+    }
+  }
+
+  static int cachedClasses() {
+    synchronized (FunctionCompiler.class) { return CLASSES.size(); }
+  }
+
+  // Loader of a single generated class
+  private static final class GenLoader extends ClassLoader {
+    GenLoader() { super(FunctionCompiler.class.getClassLoader()); }
+    Class<?> define(String name, byte[] b) { return defineClass(name, b, 0, b.length); }
+  }
+
+  private static Class<?> define(Compiled code) throws CannotCompileException, NotFoundException, IOException {
+    if (_pool == null) {
+      _pool = new ClassPool(true);
+      _pool.insertClassPath(new ClassClassPath(FunctionCompiler.class));
+    }
+    CtClass cc = _pool.makeClass(FunctionCompiler.class.getName() + "$Gen" + NEXT.incrementAndGet(),
+        _pool.get(Kernel.class.getName()));
+    for (String f : code._fields) cc.addField(CtField.make(f, cc));
+    cc.addConstructor(CtNewConstructor.defaultConstructor(cc));
+    cc.addMethod(CtNewMethod.make(code._init, cc));
+    cc.addMethod(CtNewMethod.make(code._apply, cc));
+    byte[] b = cc.toBytecode();
+    cc.detach();
+    return new GenLoader().define(cc.getName(), b);
+  }
+}
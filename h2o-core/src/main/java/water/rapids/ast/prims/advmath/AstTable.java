@@ -1,12 +1,11 @@
 package water.rapids.ast.prims.advmath;
 
-import water.AutoBuffer;
+import water.Iced;
 import water.MRTask;
 import water.fvec.Chunk;
 import water.fvec.Frame;
 import water.fvec.NewChunk;
 import water.fvec.Vec;
-import water.nbhm.NonBlockingHashMapLong;
 import water.rapids.Env;
 import water.rapids.Val;
 import water.rapids.vals.ValFrame;
@@ -15,14 +14,13 @@ import water.rapids.ast.AstRoot;
 import water.util.ArrayUtils;
 
 import java.util.Arrays;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Comparator;
 
 /**
- * Variance between columns of a frame
- * TODO: Define "table" in terms of "groupby"
- * TODO: keep dense format for two-column comparison (like in previous version of Rapids)
- * (table X Y) ==>
- * (groupby (cbind X Y) [X Y] nrow TRUE)
+ * Contingency table of the columns of a frame
+ * (table X dense) or (table X Y dense), X and Y of any number of columns.
+ * Two columns give a matrix of counts unless dense; otherwise the result has a
+ * row per distinct combination of values, with its "Counts".
  */
 public class AstTable extends AstPrimitive {
   @Override
@@ -51,18 +49,23 @@ public class AstTable extends AstPrimitive {
     ValFrame res = fast_table(vec1, ncols, fr1._names[0]);
     if (res != null) return res;
 
-    if (!(asts.length == 3 || asts.length == 4) || ncols > 2)
-      throw new IllegalArgumentException("table expects one or two columns");
+    if (!(asts.length == 3 || asts.length == 4) || ncols == 0)
+      throw new IllegalArgumentException("table expects one or more columns");
 
-    Vec vec2 = fr1.numCols() == 2 ? fr1.vec(1) : fr2 != null ? fr2.vec(0) : null;
-    int sz = fr1._names.length + (fr2 != null ? fr2._names.length : 0);
-    String[] colnames = new String[sz];
+    String[] colnames = new String[ncols];
+    Vec[] vecs = new Vec[ncols];
     int i = 0;
-    for (String name : fr1._names) colnames[i++] = name;
-    if (fr2 != null) for (String name : fr2._names) colnames[i++] = name;
-
-
-    return slow_table(vec1, vec2, colnames, dense);
+    for (int c = 0; c < fr1.numCols(); c++, i++) { colnames[i] = fr1._names[c]; vecs[i] = fr1.vec(c); }
+    if (fr2 != null)
+      for (int c = 0; c < fr2.numCols(); c++, i++) { colnames[i] = fr2._names[c]; vecs[i] = fr2.vec(c); }
+
+    Frame counts = table(colnames, vecs, null);
+    if (ncols != 2 || dense) return new ValFrame(counts);
+    try {
+      return new ValFrame(wide(counts, colnames[0], vecs[1]));
+    } finally {
+      counts.delete();
+    }
   }
 
   // -------------------------------------------------------------------------
@@ -123,237 +126,248 @@ public class AstTable extends AstPrimitive {
   }
 
   // -------------------------------------------------------------------------
-  // Count unique combos in 1 or 2 columns, where the values are not integers,
-  // or cover a very large span.
-  private ValFrame slow_table(Vec v1, Vec v2, String[] colnames, boolean dense) {
-
-
-    // For simplicity, repeat v1 if v2 is missing; this will end up filling in
-    // only the diagonal of a 2-D array (in what is otherwise a 1-D array).
-    // This should be nearly the same cost as a 1-D array, since everything is
-    // sparsely filled in.
-
-    // If this is the 1-column case (all counts on the diagonals), just build a
-    // 1-d result.
-    if (v2 == null) {
-
-
-      // Slow-pass group counting, very sparse hashtables.  Note that Vec v2 is
-      // used as the left-most arg, or OUTER dimension - which will be columns in
-      // the final result.
-      AstTable.SlowCnt sc = new AstTable.SlowCnt().doAll(v1, v1);
-
-      // Get the column headers as sorted doubles
-      double dcols[] = collectDomain(sc._col0s);
-
-      Frame res = new Frame();
-      Vec rowlabel = Vec.makeVec(dcols, Vec.VectorGroup.VG_LEN1.addVec());
-      rowlabel.setDomain(v1.domain());
-      res.add(colnames[0], rowlabel);
-      long cnts[] = new long[dcols.length];
-      for (int col = 0; col < dcols.length; col++) {
-        long lkey = Double.doubleToRawLongBits(dcols[col]);
-        NonBlockingHashMapLong<AtomicLong> colx = sc._col0s.get(lkey);
-        AtomicLong al = colx.get(lkey);
-        cnts[col] = al.get();
+  /**
+   * Contingency table of any number of numeric or categorical columns, in one
+   * pass.  Every row is keyed by its values: integer columns of small enough
+   * spans are packed together into a single long, other columns take a long
+   * each, and the keys are counted in primitive hash tables, one per Chunk,
+   * merged by the reduction.  Rows with an NA are not counted.
+   *
+   * @param weights optional weight of every row, summed instead of counting
+   * @return Frame of the distinct combinations of values, sorted, and their "Counts"
+   */
+  public static Frame table(String[] names, Vec[] vecs, Vec weights) {
+    int ncols = vecs.length;
+    long[] mins = new long[ncols];
+    boolean[] ints = new boolean[ncols];
+    int bits = 0;
+    for (int c = 0; c < ncols; c++) {
+      Vec v = vecs[c];
+      if (v.isString() || v.isUUID())
+        throw new IllegalArgumentException("table expects numeric or categorical columns, " + names[c] + " is " + v.get_type_str());
+      ints[c] = v.isCategorical() || v.isInt();
+      if (ints[c] && v.naCnt() < v.length()) {
+        mins[c] = (long) v.min();
+        bits += 64 - Long.numberOfLeadingZeros((long) v.max() - mins[c]);
+      } else bits = 65;
+    }
+    int[] shifts = null;          // Packed key: the first column in the highest bits
+    if (bits <= 63) {
+      shifts = new int[ncols];
+      for (int c = ncols - 1, sh = 0; c >= 0; c--) {
+        shifts[c] = sh;
+        sh += 64 - Long.numberOfLeadingZeros((long) vecs[c].max() - mins[c]);
       }
-      Vec vec = Vec.makeVec(cnts, null, Vec.VectorGroup.VG_LEN1.addVec());
-      res.add("Counts", vec);
-      return new ValFrame(res);
     }
-
-    // 2-d table result.
-    Frame res = new Frame();
-    if (!dense) {
-
-      // Slow-pass group counting, very sparse hashtables.  Note that Vec v2 is
-      // used as the left-most arg, or OUTER dimension - which will be columns in
-      // the final result.
-      AstTable.SlowCnt sc = new AstTable.SlowCnt().doAll(v2, v1);
-
-      // Get the column headers as sorted doubles
-      double dcols[] = collectDomain(sc._col0s);
-
-      // Need the row headers as sorted doubles also, but these are scattered
-      // throughout the nested tables.  Fold 'em into 1 table.
-      NonBlockingHashMapLong<AtomicLong> rows = new NonBlockingHashMapLong<>();
-      for (NonBlockingHashMapLong.IteratorLong i = iter(sc._col0s); i.hasNext(); )
-        rows.putAll(sc._col0s.get(i.nextLong()));
-      double drows[] = collectDomain(rows);
-
-      // Now walk the columns one by one, building a Vec per column, building a
-      // Frame result.  Rowlabel for first column.
-
-      Vec rowlabel = Vec.makeVec(drows, Vec.VectorGroup.VG_LEN1.addVec());
-      rowlabel.setDomain(v1.domain());
-      res.add(colnames[0], rowlabel);
-      long cnts[] = new long[drows.length];
-      for (int col = 0; col < dcols.length; col++) {
-        NonBlockingHashMapLong<AtomicLong> colx = sc._col0s.get(Double.doubleToRawLongBits(dcols[col]));
-        for (int row = 0; row < drows.length; row++) {
-          AtomicLong al = colx.get(Double.doubleToRawLongBits(drows[row]));
-          cnts[row] = al == null ? 0 : al.get();
+    Vec[] in = weights == null ? vecs : ArrayUtils.append(vecs, weights);
+    Counts cnts = new HashCnt(shifts, mins, ints, weights != null).doAll(in)._cnts;
+    int n = cnts == null ? 0 : cnts._size;
+    int k = shifts == null ? ncols : 1;
+    // Sorted keys
+    long[] keys = cnts == null ? new long[0] : cnts.keys();
+    double[][] vals = new double[ncols][n];
+    double[] ws = new double[n];
+    if (shifts != null) {
+      Arrays.sort(keys);
+      for (int i = 0; i < n; i++) {
+        ws[i] = cnts.get(keys, i);
+        for (int c = 0; c < ncols; c++) {
+          long mask = (1L << (64 - Long.numberOfLeadingZeros((long) vecs[c].max() - mins[c]))) - 1;
+          vals[c][i] = ((keys[i] >>> shifts[c]) & mask) + mins[c];
         }
-        Vec vec = Vec.makeVec(cnts, null, Vec.VectorGroup.VG_LEN1.addVec());
-        res.add(v2.isCategorical() ? v2.domain()[col] : Double.toString(dcols[col]), vec);
       }
     } else {
-
-      AstTable.SlowCnt sc = new AstTable.SlowCnt().doAll(v1, v2);
-
-      double dcols[] = collectDomain(sc._col0s);
-
-      NonBlockingHashMapLong<AtomicLong> rows = new NonBlockingHashMapLong<>();
-      for (NonBlockingHashMapLong.IteratorLong i = iter(sc._col0s); i.hasNext(); )
-        rows.putAll(sc._col0s.get(i.nextLong()));
-      double drows[] = collectDomain(rows);
-
-      int x = 0;
-      int sz = 0;
-      for (NonBlockingHashMapLong.IteratorLong i = iter(sc._col0s); i.hasNext(); ) {
-        sz += sc._col0s.get(i.nextLong()).size();
-      }
-      long cnts[] = new long[sz];
-      double[] left_categ = new double[sz];
-      double[] right_categ = new double[sz];
-
-      for (double dcol : dcols) {
-        NonBlockingHashMapLong<AtomicLong> colx = sc._col0s.get(Double.doubleToRawLongBits(dcol));
-        for (double drow : drows) {
-          AtomicLong al = colx.get(Double.doubleToRawLongBits(drow));
-          if (al != null) {
-            left_categ[x] = dcol;
-            right_categ[x] = drow;
-            cnts[x] = al.get();
-            x++;
+      final double[][] raw = new double[ncols][n];
+      for (int i = 0; i < n; i++)
+        for (int c = 0; c < ncols; c++)
+          raw[c][i] = ints[c] ? keys[i * k + c] : Double.longBitsToDouble(keys[i * k + c]);
+      Integer[] idx = new Integer[n];
+      for (int i = 0; i < n; i++) idx[i] = i;
+      Arrays.sort(idx, new Comparator<Integer>() {
+        @Override public int compare(Integer a, Integer b) {
+          for (double[] col : raw) {
+            int x = Double.compare(col[a], col[b]);
+            if (x != 0) return x;
           }
+          return 0;
         }
+      });
+      for (int i = 0; i < n; i++) {
+        ws[i] = cnts.get(keys, idx[i]);
+        for (int c = 0; c < ncols; c++) vals[c][i] = raw[c][idx[i]];
       }
-
-      Vec vec = Vec.makeVec(left_categ, Vec.VectorGroup.VG_LEN1.addVec());
-      if (v1.isCategorical()) vec.setDomain(v1.domain());
-      res.add(colnames[0], vec);
-      vec = Vec.makeVec(right_categ, Vec.VectorGroup.VG_LEN1.addVec());
-      if (v2.isCategorical()) vec.setDomain(v2.domain());
-      res.add(colnames[1], vec);
-      vec = Vec.makeVec(cnts, null, Vec.VectorGroup.VG_LEN1.addVec());
-      res.add("Counts", vec);
     }
-    return new ValFrame(res);
-  }
-
-  // Collect the unique longs from this NBHML, convert to doubles and return
-  // them as a sorted double[].
-  private static double[] collectDomain(NonBlockingHashMapLong ls) {
-    int sz = ls.size();         // Uniques
-    double ds[] = new double[sz];
-    int x = 0;
-    for (NonBlockingHashMapLong.IteratorLong i = iter(ls); i.hasNext(); )
-      ds[x++] = Double.longBitsToDouble(i.nextLong());
-    Arrays.sort(ds);
-    return ds;
+    Frame res = new Frame();
+    for (int c = 0; c < ncols; c++) {
+      Vec vec = Vec.makeVec(vals[c], Vec.VectorGroup.VG_LEN1.addVec());
+      if (vecs[c].isCategorical()) vec.setDomain(vecs[c].domain());
+      res.add(names[c], vec);
+    }
+    if (weights != null) res.add("Counts", Vec.makeVec(ws, Vec.VectorGroup.VG_LEN1.addVec()));
+    else {
+      long[] ls = new long[n];
+      for (int i = 0; i < n; i++) ls[i] = (long) ws[i];
+      res.add("Counts", Vec.makeVec(ls, null, Vec.VectorGroup.VG_LEN1.addVec()));
+    }
+    return res;
   }
 
-
-  private static NonBlockingHashMapLong.IteratorLong iter(NonBlockingHashMapLong nbhml) {
-    return (NonBlockingHashMapLong.IteratorLong) nbhml.keySet().iterator();
+  // Two-way table with a row per value of the first column, and a column of
+  // counts per value of the second
+  private static Frame wide(Frame counts, String colname, Vec v2) {
+    int n = (int) counts.numRows();
+    double[] d1 = new double[n], d2 = new double[n];
+    long[] cs = new long[n];
+    for (int i = 0; i < n; i++) {
+      d1[i] = counts.vec(0).at(i);
+      d2[i] = counts.vec(1).at(i);
+      cs[i] = counts.vec(2).at8(i);
+    }
+    double[] dcols = d2.clone();
+    Arrays.sort(dcols);
+    int ncol = 0;
+    for (int i = 0; i < n; i++)
+      if (ncol == 0 || dcols[ncol - 1] != dcols[i]) dcols[ncol++] = dcols[i];
+    dcols = Arrays.copyOf(dcols, ncol);
+    int nrow = 0;               // Distinct values of the sorted first column
+    double[] drows = new double[n];
+    int[] rowOf = new int[n];
+    for (int i = 0; i < n; i++) {
+      if (nrow == 0 || drows[nrow - 1] != d1[i]) drows[nrow++] = d1[i];
+      rowOf[i] = nrow - 1;
+    }
+    drows = Arrays.copyOf(drows, nrow);
+    long[][] cnts = new long[ncol][nrow];
+    for (int i = 0; i < n; i++) cnts[Arrays.binarySearch(dcols, d2[i])][rowOf[i]] = cs[i];
+    Frame res = new Frame();
+    Vec rowlabel = Vec.makeVec(drows, Vec.VectorGroup.VG_LEN1.addVec());
+    rowlabel.setDomain(counts.vec(0).domain());
+    res.add(colname, rowlabel);
+    for (int col = 0; col < ncol; col++) {
+      Vec vec = Vec.makeVec(cnts[col], null, Vec.VectorGroup.VG_LEN1.addVec());
+      res.add(v2.isCategorical() ? v2.domain()[(int) dcols[col]] : Double.toString(dcols[col]), vec);
+    }
+    return res;
   }
 
-  // Implementation is a double-dimension NBHML.  Each dimension key is the raw
-  // long bits of the double column.  Bottoms out in an AtomicLong.
-  private static class SlowCnt extends MRTask<AstTable.SlowCnt> {
-    transient NonBlockingHashMapLong<NonBlockingHashMapLong<AtomicLong>> _col0s;
+  // Counts of the keys of the rows of every chunk, merged
+  private static class HashCnt extends MRTask<HashCnt> {
+    final int[] _shifts;        // Per column, if the key is packed in one long
+    final long[] _mins;
+    final boolean[] _ints;
+    final boolean _weighted;
+    Counts _cnts;
 
-    @Override
-    public void setupLocal() {
-      _col0s = new NonBlockingHashMapLong<>();
+    HashCnt(int[] shifts, long[] mins, boolean[] ints, boolean weighted) {
+      _shifts = shifts; _mins = mins; _ints = ints; _weighted = weighted;
     }
 
     @Override
-    public void map(Chunk c0, Chunk c1) {
-      for (int i = 0; i < c0._len; i++) {
-
-        double d0 = c0.atd(i);
-        if (Double.isNaN(d0)) continue;
-        long l0 = Double.doubleToRawLongBits(d0);
-
-        double d1 = c1.atd(i);
-        if (Double.isNaN(d1)) continue;
-        long l1 = Double.doubleToRawLongBits(d1);
-
-        // Atomically fetch/create nested NBHM
-        NonBlockingHashMapLong<AtomicLong> col1s = _col0s.get(l0);
-        if (col1s == null) {   // Speed filter pre-filled entries
-          col1s = new NonBlockingHashMapLong<>();
-          NonBlockingHashMapLong<AtomicLong> old = _col0s.putIfAbsent(l0, col1s);
-          if (old != null) col1s = old; // Lost race, use old value
+    public void map(Chunk[] cs) {
+      int ncols = _ints.length;
+      long[] key = new long[_shifts == null ? ncols : 1];
+      Counts cnts = new Counts(key.length);
+      rows:
+      for (int r = 0; r < cs[0]._len; r++) {
+        for (int c = 0; c < ncols; c++) if (cs[c].isNA(r)) continue rows;
+        double w = 1;
+        if (_weighted) {
+          w = cs[ncols].atd(r);
+          if (Double.isNaN(w)) continue;
         }
-
-        // Atomically fetch/create nested AtomicLong
-        AtomicLong cnt = col1s.get(l1);
-        if (cnt == null) {   // Speed filter pre-filled entries
-          cnt = new AtomicLong();
-          AtomicLong old = col1s.putIfAbsent(l1, cnt);
-          if (old != null) cnt = old; // Lost race, use old value
+        if (_shifts != null) {
+          long p = 0;
+          for (int c = 0; c < ncols; c++) p |= (cs[c].at8(r) - _mins[c]) << _shifts[c];
+          key[0] = p;
+        } else {
+          for (int c = 0; c < ncols; c++)
+            key[c] = _ints[c] ? cs[c].at8(r) : Double.doubleToRawLongBits(cs[c].atd(r) + 0.0); // No -0.0
         }
-
-        // Atomically bump counter
-        cnt.incrementAndGet();
+        cnts.add(key, 0, w);
       }
+      _cnts = cnts;
     }
 
     @Override
-    public void reduce(AstTable.SlowCnt sc) {
-      if (_col0s == sc._col0s) return;
-      throw water.H2O.unimpl();
+    public void reduce(HashCnt t) {
+      if (_cnts == null || (t._cnts != null && t._cnts._size > _cnts._size)) {
+        Counts x = _cnts; _cnts = t._cnts; t._cnts = x;
+      }
+      if (t._cnts != null) _cnts.addAll(t._cnts);
     }
+  }
 
-    public final AutoBuffer write_impl(AutoBuffer ab) {
-      if (_col0s == null) return ab.put8(0);
-      ab.put8(_col0s.size());
-      for (long col0 : _col0s.keySetLong()) {
-        ab.put8(col0);
-        NonBlockingHashMapLong<AtomicLong> col1s = _col0s.get(col0);
-        ab.put8(col1s.size());
-        for (long col1 : col1s.keySetLong()) {
-          ab.put8(col1);
-          ab.put8(col1s.get(col1).get());
-        }
-      }
-      return ab;
+  // Open-addressing hash table from keys of k longs to summed weights
+  private static final class Counts extends Iced<Counts> {
+    final int _k;
+    int _size;
+    long[] _keys;               // [slot * k + i]
+    double[] _ws;
+    boolean[] _used;
+
+    Counts(int k) {
+      _k = k;
+      _keys = new long[16 * k];
+      _ws = new double[16];
+      _used = new boolean[16];
     }
 
-    public final AstTable.SlowCnt read_impl(AutoBuffer ab) {
-      long len0 = ab.get8();
-      if (len0 == 0) return this;
-      _col0s = new NonBlockingHashMapLong<>();
-      for (long i = 0; i < len0; i++) {
-        NonBlockingHashMapLong<AtomicLong> col1s = new NonBlockingHashMapLong<>();
-        _col0s.put(ab.get8(), col1s);
-        long len1 = ab.get8();
-        for (long j = 0; j < len1; j++)
-          col1s.put(ab.get8(), new AtomicLong(ab.get8()));
+    private int slot(long[] key, int off) {
+      long h = 0;
+      for (int i = 0; i < _k; i++) h = (h + key[off + i]) * 0x9E3779B97F4A7C15L;
+      int mask = _ws.length - 1;
+      int s = (int) (h ^ (h >>> 32)) & mask;
+      while (_used[s]) {
+        boolean eq = true;
+        for (int i = 0; i < _k && eq; i++) eq = _keys[s * _k + i] == key[off + i];
+        if (eq) return s;
+        s = (s + 1) & mask;
       }
-      return this;
+      return s;
     }
 
-    @Override
-    public String toString() {
-      StringBuilder sb = new StringBuilder();
-      for (NonBlockingHashMapLong.IteratorLong i = iter(_col0s); i.hasNext(); ) {
-        long l = i.nextLong();
-        double d = Double.longBitsToDouble(l);
-        sb.append(d).append(": {");
-        NonBlockingHashMapLong<AtomicLong> col1s = _col0s.get(l);
-        for (NonBlockingHashMapLong.IteratorLong j = iter(col1s); j.hasNext(); ) {
-          long l2 = j.nextLong();
-          double d2 = Double.longBitsToDouble(l2);
-          AtomicLong al = col1s.get(l2);
-          sb.append(d2).append(": ").append(al.get()).append(", ");
+    void add(long[] key, int off, double w) {
+      int s = slot(key, off);
+      if (!_used[s]) {
+        if (2 * (_size + 1) > _ws.length) {
+          grow();
+          s = slot(key, off);
         }
-        sb.append("}\n");
+        _used[s] = true;
+        System.arraycopy(key, off, _keys, s * _k, _k);
+        _size++;
       }
-      return sb.toString();
+      _ws[s] += w;
+    }
+
+    void addAll(Counts c) {
+      for (int s = 0; s < c._ws.length; s++)
+        if (c._used[s]) add(c._keys, s * _k, c._ws[s]);
+    }
+
+    double get(long[] keys, int i) {
+      int s = slot(keys, i * _k);
+      return _used[s] ? _ws[s] : 0;
+    }
+
+    // All the keys, k longs each
+    long[] keys() {
+      long[] ks = new long[_size * _k];
+      for (int s = 0, i = 0; s < _ws.length; s++)
+        if (_used[s]) System.arraycopy(_keys, s * _k, ks, _k * i++, _k);
+      return ks;
+    }
+
+    private void grow() {
+      long[] keys = _keys;
+      double[] ws = _ws;
+      boolean[] used = _used;
+      _keys = new long[keys.length * 2];
+      _ws = new double[ws.length * 2];
+      _used = new boolean[used.length * 2];
+      _size = 0;
+      for (int s = 0; s < ws.length; s++)
+        if (used[s]) add(keys, s * _k, ws[s]);
     }
   }
 }
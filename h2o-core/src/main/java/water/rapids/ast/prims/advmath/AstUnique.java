@@ -1,17 +1,17 @@
 package water.rapids.ast.prims.advmath;
 
 import water.DKV;
-import water.MRTask;
-import water.fvec.Chunk;
+import water.Futures;
+import water.Key;
+import water.fvec.AppendableVec;
 import water.fvec.Frame;
+import water.fvec.NewChunk;
 import water.fvec.Vec;
+import water.rapids.Distinct;
 import water.rapids.Env;
-import water.rapids.Val;
-import water.rapids.ast.prims.mungers.AstGroup;
 import water.rapids.vals.ValFrame;
 import water.rapids.ast.AstPrimitive;
 import water.rapids.ast.AstRoot;
-import water.util.IcedHashMap;
 
 public class AstUnique extends AstPrimitive {
   @Override
@@ -35,53 +35,25 @@ public class AstUnique extends AstPrimitive {
     Vec v;
     if (fr.numCols() != 1)
       throw new IllegalArgumentException("Unique applies to a single column only.");
-    if (fr.anyVec().isCategorical()) {
-      v = Vec.makeSeq(0, (long) fr.anyVec().domain().length, true);
-      v.setDomain(fr.anyVec().domain());
+    Vec vec = fr.anyVec();
+    if (vec.isCategorical()) {
+      v = Vec.makeSeq(0, (long) vec.domain().length, true);
+      v.setDomain(vec.domain());
       DKV.put(v);
+    } else if (vec.isString()) {
+      String[] uniq = Distinct.strings(vec);
+      Key<Vec> key = Vec.VectorGroup.VG_LEN1.addVec();
+      AppendableVec av = new AppendableVec(key, Vec.T_STR);
+      NewChunk nc = new NewChunk(av, 0);
+      for (String s : uniq) nc.addStr(s);
+      Futures fs = new Futures();
+      nc.close(0, fs);
+      v = av.layout_and_close(fs);
+      fs.blockForPending();
     } else {
-      UniqTask t = new UniqTask().doAll(fr);
-      int nUniq = t._uniq.size();
-      final AstGroup.G[] uniq = t._uniq.keySet().toArray(new AstGroup.G[nUniq]);
-      v = Vec.makeZero(nUniq);
-      new MRTask() {
-        @Override
-        public void map(Chunk c) {
-          int start = (int) c.start();
-          for (int i = 0; i < c._len; ++i) c.set(i, uniq[i + start]._gs[0]);
-        }
-      }.doAll(v);
+      // Sorted, NA last
+      v = Vec.makeVec(Distinct.values(vec), Vec.VectorGroup.VG_LEN1.addVec());
     }
     return new ValFrame(new Frame(v));
   }
-
-  private static class UniqTask extends MRTask<UniqTask> {
-    IcedHashMap<AstGroup.G, String> _uniq;
-
-    @Override
-    public void map(Chunk[] c) {
-      _uniq = new IcedHashMap<>();
-      AstGroup.G g = new AstGroup.G(1, null);
-      for (int i = 0; i < c[0]._len; ++i) {
-        g.fill(i, c, new int[]{0});
-        String s_old = _uniq.putIfAbsent(g, "");
-        if (s_old == null) g = new AstGroup.G(1, null);
-      }
-    }
-
-    @Override
-    public void reduce(UniqTask t) {
-      if (_uniq != t._uniq) {
-        IcedHashMap<AstGroup.G, String> l = _uniq;
-        IcedHashMap<AstGroup.G, String> r = t._uniq;
-        if (l.size() < r.size()) {
-          l = r;
-          r = _uniq;
-        }  // larger on the left
-        for (AstGroup.G rg : r.keySet()) l.putIfAbsent(rg, "");  // loop over smaller set
-        _uniq = l;
-        t._uniq = null;
-      }
-    }
-  }
 }
@@ -3,6 +3,8 @@ package water.rapids.ast.prims.matrix;
 import hex.DMatrix;
 import water.fvec.Frame;
 import water.rapids.Env;
+import water.rapids.Val;
+import water.rapids.ast.AstExec;
 import water.rapids.vals.ValFrame;
 import water.rapids.ast.AstPrimitive;
 import water.rapids.ast.AstRoot;
@@ -28,6 +30,18 @@ public class AstMMult extends AstPrimitive {
 
   @Override
   public ValFrame apply(Env env, Env.StackHelp stk, AstRoot asts[]) {
+    // (x (t X1) X2) is X1'X2, computed as one reduction without transposing X1
+    if (asts[1] instanceof AstExec) {
+      AstRoot[] tasts = ((AstExec) asts[1])._asts;
+      if (tasts.length == 2) {
+        Val f = tasts[0].exec(env);
+        if (f.isFun() && f.getFun() instanceof AstTranspose) {
+          Frame X1 = stk.track(tasts[1].exec(env)).getFrame();
+          Frame X2 = stk.track(asts[2].exec(env)).getFrame();
+          return new ValFrame(DMatrix.tmmul(X1, X2));
+        }
+      }
+    }
     Frame X1 = stk.track(asts[1].exec(env)).getFrame();
     Frame X2 = stk.track(asts[2].exec(env)).getFrame();
     return new ValFrame(DMatrix.mmul(X1, X2));
@@ -13,6 +13,9 @@ import water.rapids.vals.ValFrame;
  * Typically, column-by-column, produces a 1-row frame as a result
  */
 public class AstApply extends AstPrimitive {
+  // Rows interpreted up front, to check the compiled row function against
+  private static final int SAMPLE_ROWS = 16;
+
   @Override
   public String[] args() {
     return new String[]{"ary", "margin", "fun"};
@@ -54,6 +57,18 @@ public class AstApply extends AstPrimitive {
     // the 1 argument.  All columns are independent, and this loop should be
     // parallized over each column.
     Vec vecs[] = fr.vecs();
+    // Element-wise numeric functions run compiled, in one pass over all columns
+    final FunctionCompiler.Compiled code = FunctionCompiler.compileCol(env, fun, fr);
+    if (code != null) {
+      Frame res = new MRTask() {
+        @Override
+        public void map(Chunk chks[], NewChunk[] nc) {
+          for (int col = 0; col < chks.length; col++)
+            code.map(new Chunk[]{chks[col]}, new NewChunk[]{nc[col]});
+        }
+      }.doAll(vecs.length, Vec.T_NUM, fr).outputFrame(fr._names, null);
+      return new ValFrame(res);
+    }
     Val vals[] = new Val[vecs.length];
     AstRoot[] asts = new AstRoot[]{fun, null};
     for (int i = 0; i < vecs.length; i++) {
@@ -109,11 +124,33 @@ public class AstApply extends AstPrimitive {
 
     final AstFunction scope = env._scope;  // Current execution scope; needed to lookup variables
 
-    // do a single row of the frame to determine the size of the output.
-    double[] ds = new double[fr.numCols()];
-    for (int col = 0; col < fr.numCols(); ++col)
-      ds[col] = fr.vec(col).at(0);
-    int noutputs = fun.apply(env, env.stk(), new AstRoot[]{fun, new AstRow(ds, fr.names())}).getRow().length;
+    // do a single row of the frame to determine the size of the output, and a
+    // few more spread over the frame to check the compiled function against.
+    long nrows = fr.numRows();
+    int nsample = (int) Math.max(1, Math.min(nrows, SAMPLE_ROWS));
+    double[][] rows = new double[nsample][fr.numCols()];
+    double[][] sampleRes = new double[nsample][];
+    for (int s = 0; s < nsample; s++) {
+      long row = nsample == 1 ? 0 : s * (nrows - 1) / (nsample - 1);
+      for (int col = 0; col < fr.numCols(); ++col)
+        rows[s][col] = fr.vec(col).at(row);
+      try (Env.StackHelp stk = env.stk()) {
+        sampleRes[s] = fun.apply(env, stk, new AstRoot[]{fun, new AstRow(rows[s], fr.names())}).getRow();
+      }
+    }
+    int noutputs = sampleRes[0].length;
+
+    // Numeric functions run compiled, with no per-row Vals
+    final FunctionCompiler.Compiled code = FunctionCompiler.compileRow(env, fun, names, rows, sampleRes);
+    if (code != null) {
+      Frame res = new MRTask() {
+        @Override
+        public void map(Chunk chks[], NewChunk[] nc) {
+          code.map(chks, nc);
+        }
+      }.doAll(noutputs, Vec.T_NUM, fr).outputFrame();
+      return new ValFrame(res);
+    }
 
     Frame res = new MRTask() {
       @Override
@@ -61,6 +61,7 @@ public class AstDdply extends AstPrimitive {
         for (int i : ordCols) {
           if (Double.isNaN(g1._gs[i]) && !Double.isNaN(g2._gs[i])) return -1;
           if (!Double.isNaN(g1._gs[i]) && Double.isNaN(g2._gs[i])) return 1;
+          if (Double.isNaN(g1._gs[i])) continue; // Both NaN
           if (g1._gs[i] != g2._gs[i]) return g1._gs[i] < g2._gs[i] ? -1 : 1;
         }
         return 0;
@@ -0,0 +1,98 @@
+package water.rapids.ast.prims.mungers;
+
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.rapids.Env;
+import water.rapids.Scan;
+import water.rapids.ast.AstParameter;
+import water.rapids.ast.AstPrimitive;
+import water.rapids.ast.AstRoot;
+import water.rapids.vals.ValFrame;
+
+/**
+ * The values n rows before, within the same value of the optional group
+ * column; NA for the first n rows of every group.  The group column itself is
+ * not shifted.
+ */
+public class AstLag extends AstPrimitive {
+  @Override
+  public String[] args() {
+    return new String[]{"ary", "n", "by"};
+  }
+
+  @Override
+  public int nargs() {
+    return 1 + 3;
+  } // (lag ary n [by])
+
+  @Override
+  public String str() {
+    return "lag";
+  }
+
+  /** Whether to shift up the columns, taking the values n rows after */
+  protected boolean lead() {
+    return false;
+  }
+
+  @Override
+  public ValFrame apply(Env env, Env.StackHelp stk, AstRoot asts[]) {
+    Frame fr = stk.track(asts[1].exec(env)).getFrame();
+    double n = asts[2].exec(env).getNum();
+    if (n < 1 || n != Math.floor(n))
+      throw new IllegalArgumentException("Number of rows to shift must be a positive integer, got " + n);
+    int[] by = ((AstParameter) asts[3]).columns(fr.names());
+    Vec group = groupVec(fr, by);
+    Frame data = new Frame(fr);
+    if (by.length == 1) data.remove(by[0]);
+    // Shifting by the whole frame or more gives all NAs; keep the state narrow
+    n = Math.min(n, Math.max(1, fr.numRows()));
+    if (n >= Scan.MAX_WIDTH)
+      throw new IllegalArgumentException("Can shift by less than " + Scan.MAX_WIDTH + " rows, got " + (long) n);
+    return new ValFrame(new Shift((int) n, lead()).doScan(data, group));
+  }
+
+  // The group Vec of a list of at most one column; null for none
+  static Vec groupVec(Frame fr, int[] by) {
+    if (by.length > 1) throw new IllegalArgumentException("Can group by only one column, got " + by.length);
+    if (by.length == 1 && (by[0] < 0 || by[0] >= fr.numCols()))
+      throw new IllegalArgumentException("Column " + by[0] + " is out of range of " + fr.numCols());
+    return by.length == 0 ? null : fr.vec(by[0]);
+  }
+
+  /** Exclusive scan keeping the last n values and their count, capped at n */
+  private static class Shift extends Scan {
+    final int _n;
+
+    Shift(int n, boolean reverse) {
+      super(true, reverse);
+      _n = n;
+    }
+
+    @Override protected int width() { return _n + 1; }
+
+    @Override protected boolean keepsTypes() { return true; }
+
+    @Override protected void init(double[] s, int off) {
+      for (int i = 0; i < _n; i++) s[off + i] = Double.NaN;
+      s[off + _n] = 0;
+    }
+
+    @Override protected void add(double[] s, int off, double x) {
+      System.arraycopy(s, off + 1, s, off, _n - 1);
+      s[off + _n - 1] = x;
+      s[off + _n] = Math.min(_n, s[off + _n] + 1);
+    }
+
+    @Override protected void combine(double[] l, int loff, double[] r, int roff) {
+      int rc = (int) r[roff + _n];
+      System.arraycopy(l, loff + rc, l, loff, _n - rc);
+      System.arraycopy(r, roff + _n - rc, l, loff + _n - rc, rc);
+      l[loff + _n] = Math.min(_n, l[loff + _n] + rc);
+    }
+
+    @Override protected double value(double[] s, int off) {
+      return s[off + _n] < _n ? Double.NaN : s[off];
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package water.rapids.ast.prims.mungers;
+
+/**
+ * The values n rows after, within the same value of the optional group
+ * column; NA for the last n rows of every group.
+ */
+public class AstLead extends AstLag {
+  @Override
+  public String str() {
+    return "lead";
+  }
+
+  @Override
+  protected boolean lead() {
+    return true;
+  }
+}
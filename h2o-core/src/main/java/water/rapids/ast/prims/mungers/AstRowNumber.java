@@ -0,0 +1,53 @@
+package water.rapids.ast.prims.mungers;
+
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.rapids.Env;
+import water.rapids.Scan;
+import water.rapids.ast.AstParameter;
+import water.rapids.ast.AstPrimitive;
+import water.rapids.ast.AstRoot;
+import water.rapids.vals.ValFrame;
+
+/**
+ * Row numbers from 1, restarting at every value of the optional group column
+ */
+public class AstRowNumber extends AstPrimitive {
+  @Override
+  public String[] args() {
+    return new String[]{"ary", "by"};
+  }
+
+  @Override
+  public int nargs() {
+    return 1 + 2;
+  } // (row_number ary [by])
+
+  @Override
+  public String str() {
+    return "row_number";
+  }
+
+  @Override
+  public ValFrame apply(Env env, Env.StackHelp stk, AstRoot asts[]) {
+    Frame fr = stk.track(asts[1].exec(env)).getFrame();
+    Vec group = AstLag.groupVec(fr, ((AstParameter) asts[2]).columns(fr.names()));
+    // Count the rows of any numeric column
+    Vec any = group != null ? group : fr.anyVec();
+    if (any.isString() || any.isUUID()) any = any.makeZero();
+    try {
+      return new ValFrame(new Count().doScan(new Frame(new String[]{"row_number"}, new Vec[]{any}), group));
+    } finally {
+      if (any != group && any != fr.anyVec()) any.remove();
+    }
+  }
+
+  private static class Count extends Scan {
+    Count() { super(false, false); }
+    @Override protected int width() { return 1; }
+    @Override protected void init(double[] s, int off) { s[off] = 0; }
+    @Override protected void add(double[] s, int off, double x) { s[off]++; }
+    @Override protected void combine(double[] l, int loff, double[] r, int roff) { l[loff] += r[roff]; }
+    @Override protected double value(double[] s, int off) { return s[off]; }
+  }
+}
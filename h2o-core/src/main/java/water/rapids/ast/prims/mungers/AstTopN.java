@@ -0,0 +1,26 @@
+package water.rapids.ast.prims.mungers;
+
+import water.fvec.Frame;
+import water.rapids.Env;
+import water.rapids.TopN;
+import water.rapids.ast.AstParameter;
+import water.rapids.ast.AstPrimitive;
+import water.rapids.ast.AstRoot;
+import water.rapids.vals.ValFrame;
+
+
+/** The first n rows of the frame sorted by the given columns, without sorting the whole frame
+ */
+public class AstTopN extends AstPrimitive {
+  @Override public String[] args() { return new String[]{"ary","cols","n","decreasing"}; }
+  @Override public String str(){ return "topn";}
+  @Override public int nargs() { return 1+4; } // (topn ary [cols] n decreasing)
+
+  @Override public ValFrame apply(Env env, Env.StackHelp stk, AstRoot asts[]) {
+    Frame fr = stk.track(asts[1].exec(env)).getFrame();
+    int[] cols = ((AstParameter)asts[2]).columns(fr.names());
+    long n = (long)asts[3].exec(env).getNum();
+    boolean decreasing = asts[4].exec(env).getNum() == 1;
+    return new ValFrame(TopN.topN(fr,cols,n,decreasing));
+  }
+}
@@ -5,7 +5,10 @@ import water.fvec.Chunk;
 import water.fvec.Frame;
 import water.fvec.NewChunk;
 import water.fvec.Vec;
+import water.parser.BufferedString;
+import water.rapids.Distinct;
 import water.rapids.Env;
+import water.rapids.Val;
 import water.rapids.vals.ValFrame;
 import water.rapids.ast.AstPrimitive;
 import water.rapids.ast.AstRoot;
@@ -13,11 +16,21 @@ import water.rapids.ast.params.AstNum;
 import water.rapids.ast.params.AstNumList;
 import water.rapids.ast.params.AstStr;
 import water.rapids.ast.params.AstStrList;
+import water.util.IcedLongHashSet;
 import water.util.MathUtils;
 
 import java.util.Arrays;
+import java.util.HashSet;
 
 /**
+ * Whether the values of a column are in a table of values: 1 where they are,
+ * and nomatch elsewhere.
+ * <p/>
+ * The table is a list of numbers or strings, or a column, of which the
+ * distinct values are taken.  Categorical columns look the table up once per
+ * level; string columns probe a hash set of the table's UTF-8 bytes, and
+ * numeric columns a primitive hash set of the bits of its doubles, built once
+ * and sent to every node with the task.  Numbers match within one ulp.
  */
 public class AstMatch extends AstPrimitive {
   @Override
@@ -38,41 +51,115 @@ public class AstMatch extends AstPrimitive {
   @Override
   public ValFrame apply(Env env, Env.StackHelp stk, AstRoot asts[]) {
     Frame fr = stk.track(asts[1].exec(env)).getFrame();
-    if (fr.numCols() != 1 || !fr.anyVec().isCategorical())
-      throw new IllegalArgumentException("can only match on a single categorical column.");
-
-    String[] strsTable2 = null;
-    double[] dblsTable2 = null;
-    if (asts[2] instanceof AstNumList) dblsTable2 = ((AstNumList) asts[2]).sort().expand();
-    else if (asts[2] instanceof AstNum) dblsTable2 = new double[]{asts[2].exec(env).getNum()};
-    else if (asts[2] instanceof AstStrList) {
-      strsTable2 = ((AstStrList) asts[2])._strs;
-      Arrays.sort(strsTable2);
-    } else if (asts[2] instanceof AstStr) strsTable2 = new String[]{asts[2].exec(env).getStr()};
-    else throw new IllegalArgumentException("Expected numbers/strings. Got: " + asts[2].getClass());
+    if (fr.numCols() != 1)
+      throw new IllegalArgumentException("can only match on a single column.");
+    Vec vec = fr.anyVec();
+    if (!(vec.isCategorical() || vec.isString() || vec.isNumeric() || vec.isTime()))
+      throw new IllegalArgumentException("can only match on a categorical, string, numeric or time column.");
+
+    String[] strsTable = null;
+    double[] dblsTable = null;
+    if (asts[2] instanceof AstNumList) dblsTable = ((AstNumList) asts[2]).expand();
+    else if (asts[2] instanceof AstNum) dblsTable = new double[]{asts[2].exec(env).getNum()};
+    else if (asts[2] instanceof AstStrList) strsTable = ((AstStrList) asts[2])._strs;
+    else if (asts[2] instanceof AstStr) strsTable = new String[]{asts[2].exec(env).getStr()};
+    else {
+      Val table = stk.track(asts[2].exec(env));
+      if (!table.isFrame() || table.getFrame().numCols() != 1)
+        throw new IllegalArgumentException("Expected numbers/strings or a single column. Got: " + asts[2].getClass());
+      Vec tv = table.getFrame().anyVec();
+      // The distinct values of the table column, computed where it lives
+      if (tv.isString()) strsTable = Distinct.strings(tv);
+      else if (tv.isCategorical()) strsTable = levels(tv);
+      else dblsTable = Distinct.values(tv);
+    }
 
     final double nomatch = asts[3].exec(env).getNum();
 
-    final String[] strsTable = strsTable2;
-    final double[] dblsTable = dblsTable2;
-
-    Frame rez = new MRTask() {
-      @Override
-      public void map(Chunk c, NewChunk n) {
-        String[] domain = c.vec().domain();
-        double x;
-        int rows = c._len;
-        for (int r = 0; r < rows; ++r) {
-          x = c.isNA(r) ? nomatch : (strsTable == null ? in(dblsTable, c.atd(r), nomatch) : in(strsTable, domain[(int) c.at8(r)], nomatch));
-          n.addNum(x);
-        }
+    Frame rez;
+    if (vec.isCategorical()) {
+      // Match the domain once, then look every row up by its level
+      String[] domain = vec.domain();
+      double[] levels = new double[domain.length];
+      if (strsTable != null) {
+        HashSet<String> set = new HashSet<>(Arrays.asList(strsTable));
+        for (int i = 0; i < domain.length; i++) levels[i] = set.contains(domain[i]) ? 1 : nomatch;
+      } else {
+        Arrays.sort(dblsTable);
+        for (int i = 0; i < domain.length; i++) levels[i] = in(dblsTable, i, nomatch);
       }
-    }.doAll(new byte[]{Vec.T_NUM}, fr.anyVec()).outputFrame();
+      rez = new MatchLevels(levels, nomatch).doAll(new byte[]{Vec.T_NUM}, vec).outputFrame();
+    } else if (vec.isString()) {
+      if (strsTable == null)
+        throw new IllegalArgumentException("can only match a string column against strings.");
+      rez = new MatchStrings(strsTable, nomatch).doAll(new byte[]{Vec.T_NUM}, vec).outputFrame();
+    } else {
+      if (dblsTable == null)
+        throw new IllegalArgumentException("can only match a numeric column against numbers.");
+      IcedLongHashSet set = new IcedLongHashSet(dblsTable.length);
+      for (double d : dblsTable)
+        if (!Double.isNaN(d)) set.add(Distinct.key(d));
+      rez = new MatchNumbers(set, nomatch).doAll(new byte[]{Vec.T_NUM}, vec).outputFrame();
+    }
     return new ValFrame(rez);
   }
 
-  private static double in(String[] matches, String s, double nomatch) {
-    return Arrays.binarySearch(matches, s) >= 0 ? 1 : nomatch;
+  // Levels of a categorical column present in it
+  private static String[] levels(Vec vec) {
+    double[] codes = Distinct.values(vec);
+    String[] strs = new String[codes.length];
+    int n = 0;
+    for (double c : codes)
+      if (!Double.isNaN(c)) strs[n++] = vec.domain()[(int) c];
+    return Arrays.copyOf(strs, n);
+  }
+
+  private static class MatchLevels extends MRTask<MatchLevels> {
+    final double[] _levels;   // Result of every level
+    final double _nomatch;
+
+    MatchLevels(double[] levels, double nomatch) { _levels = levels; _nomatch = nomatch; }
+
+    @Override public void map(Chunk c, NewChunk n) {
+      for (int r = 0; r < c._len; ++r)
+        n.addNum(c.isNA(r) ? _nomatch : _levels[(int) c.at8(r)]);
+    }
+  }
+
+  private static class MatchStrings extends MRTask<MatchStrings> {
+    final String[] _table;
+    final double _nomatch;
+    transient HashSet<BufferedString> _set;
+
+    MatchStrings(String[] table, double nomatch) { _table = table; _nomatch = nomatch; }
+
+    @Override protected void setupLocal() { _set = Distinct.stringSet(_table); }
+
+    @Override public void map(Chunk c, NewChunk n) {
+      BufferedString tmpStr = new BufferedString();
+      for (int r = 0; r < c._len; ++r)
+        n.addNum(!c.isNA(r) && _set.contains(c.atStr(tmpStr, r)) ? 1 : _nomatch);
+    }
+  }
+
+  private static class MatchNumbers extends MRTask<MatchNumbers> {
+    final IcedLongHashSet _set;   // Keys of the table, shipped to every node once
+    final double _nomatch;
+
+    MatchNumbers(IcedLongHashSet set, double nomatch) { _set = set; _nomatch = nomatch; }
+
+    @Override public void map(Chunk c, NewChunk n) {
+      for (int r = 0; r < c._len; ++r) {
+        double d = c.atd(r);
+        n.addNum(!Double.isNaN(d) && in(d) ? 1 : _nomatch);
+      }
+    }
+
+    // Equal within one ulp, as the neighbouring doubles
+    private boolean in(double d) {
+      long k = Distinct.key(d);
+      return _set.contains(k) || _set.contains(k - 1) || _set.contains(k + 1);
+    }
   }
 
   private static double in(double[] matches, double d, double nomatch) {
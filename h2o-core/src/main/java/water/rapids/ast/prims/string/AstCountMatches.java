@@ -3,7 +3,6 @@ package water.rapids.ast.prims.string;
 import org.apache.commons.lang.StringUtils;
 import water.MRTask;
 import water.fvec.*;
-import water.parser.BufferedString;
 import water.rapids.Env;
 import water.rapids.vals.ValFrame;
 import water.rapids.ast.AstPrimitive;
@@ -86,27 +85,7 @@ public class AstCountMatches extends AstPrimitive {
     return res;
   }
 
-  private Vec countMatchesStringCol(Vec vec, String[] pat) {
-    final String[] pattern = pat;
-    return new MRTask() {
-      @Override
-      public void map(Chunk chk, NewChunk newChk) {
-        if (chk instanceof C0DChunk) // all NAs
-          for (int i = 0; i < chk.len(); i++)
-            newChk.addNA();
-        else {
-          BufferedString tmpStr = new BufferedString();
-          for (int i = 0; i < chk._len; ++i) {
-            if (chk.isNA(i)) newChk.addNA();
-            else {
-              int cnt = 0;
-              for (String aPattern : pattern)
-                cnt += StringUtils.countMatches(chk.atStr(tmpStr, i).toString(), aPattern);
-              newChk.addNum(cnt, 0);
-            }
-          }
-        }
-      }
-    }.doAll(Vec.T_NUM, new Frame(vec)).outputFrame().anyVec();
+  private Vec countMatchesStringCol(Vec vec, String[] pattern) {
+    return StringKernels.countMatches(vec, pattern);
   }
 }
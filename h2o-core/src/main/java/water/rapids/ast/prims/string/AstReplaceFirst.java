@@ -1,8 +1,7 @@
 package water.rapids.ast.prims.string;
 
-import water.MRTask;
-import water.fvec.*;
-import water.parser.BufferedString;
+import water.fvec.Frame;
+import water.fvec.Vec;
 import water.rapids.Env;
 import water.rapids.Val;
 import water.rapids.vals.ValFrame;
@@ -10,6 +9,8 @@ import water.rapids.ast.AstPrimitive;
 import water.rapids.ast.AstRoot;
 
 import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Accepts a frame with a single string column, a regex pattern string, a replacement substring,
@@ -66,41 +67,14 @@ public class AstReplaceFirst extends AstPrimitive {
 
   private Vec replaceFirstCategoricalCol(Vec vec, String pattern, String replacement, boolean ignoreCase) {
     String[] doms = vec.domain().clone();
+    Matcher m = Pattern.compile(pattern).matcher("");
     for (int i = 0; i < doms.length; ++i)
-      doms[i] = ignoreCase
-          ? doms[i].toLowerCase(Locale.ENGLISH).replaceFirst(pattern, replacement)
-          : doms[i].replaceFirst(pattern, replacement);
+      doms[i] = m.reset(ignoreCase ? doms[i].toLowerCase(Locale.ENGLISH) : doms[i]).replaceFirst(replacement);
 
-    return vec.makeCopy(doms);
+    return StringKernels.withDomain(vec, doms);
   }
 
-  private Vec replaceFirstStringCol(Vec vec, String pat, String rep, boolean ic) {
-    final String pattern = pat;
-    final String replacement = rep;
-    final boolean ignoreCase = ic;
-    return new MRTask() {
-      @Override
-      public void map(Chunk chk, NewChunk newChk) {
-        if (chk instanceof C0DChunk) // all NAs
-          for (int i = 0; i < chk.len(); i++)
-            newChk.addNA();
-        else {
-//        if (((CStrChunk)chk)._isAllASCII) { // fast-path operations
-//          ((CStrChunk) chk).asciiReplaceFirst(newChk);
-//        } else { //UTF requires Java string methods for accuracy
-          BufferedString tmpStr = new BufferedString();
-          for (int i = 0; i < chk._len; i++) {
-            if (chk.isNA(i))
-              newChk.addNA();
-            else {
-              if (ignoreCase)
-                newChk.addStr(chk.atStr(tmpStr, i).toString().toLowerCase(Locale.ENGLISH).replaceFirst(pattern, replacement));
-              else
-                newChk.addStr(chk.atStr(tmpStr, i).toString().replaceFirst(pattern, replacement));
-            }
-          }
-        }
-      }
-    }.doAll(new byte[]{Vec.T_STR}, vec).outputFrame().anyVec();
+  private Vec replaceFirstStringCol(Vec vec, String pattern, String replacement, boolean ignoreCase) {
+    return StringKernels.replace(vec, pattern, replacement, ignoreCase, false);
   }
 }
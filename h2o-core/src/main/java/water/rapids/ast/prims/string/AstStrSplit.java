@@ -2,7 +2,6 @@ package water.rapids.ast.prims.string;
 
 import water.MRTask;
 import water.fvec.*;
-import water.parser.BufferedString;
 import water.rapids.Env;
 import water.rapids.Val;
 import water.rapids.vals.ValFrame;
@@ -11,6 +10,7 @@ import water.rapids.ast.AstRoot;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 
 /**
@@ -63,25 +63,30 @@ public class AstStrSplit extends AstPrimitive {
     final String[] old_domains = vec.domain();
     final String[][] new_domains = newDomains(old_domains, splitRegEx);
 
-    final String regex = splitRegEx;
+    // Level of every new column for every old level, -1 past its last piece
+    final int[][] levels = new int[old_domains.length][new_domains.length];
+    ArrayList<HashMap<String, Integer>> index = new ArrayList<>(new_domains.length);
+    for (String[] dom : new_domains) {
+      HashMap<String, Integer> idx = new HashMap<>();
+      for (int i = 0; i < dom.length; i++) idx.put(dom[i], i);
+      index.add(idx);
+    }
+    for (int lvl = 0; lvl < old_domains.length; lvl++) {
+      Arrays.fill(levels[lvl], -1);
+      String[] ss = old_domains[lvl].split(splitRegEx);
+      for (int col = 0; col < ss.length; col++) levels[lvl][col] = index.get(col).get(ss[col]);
+    }
+
     return new MRTask() {
       @Override
       public void map(Chunk[] cs, NewChunk[] ncs) {
         Chunk c = cs[0];
         for (int i = 0; i < c._len; ++i) {
-          int cnt = 0;
-          if (!c.isNA(i)) {
-            int idx = (int) c.at8(i);
-            String s = old_domains[idx];
-            String[] ss = s.split(regex);
-            for (String s1 : ss) {
-              int n_idx = Arrays.asList(new_domains[cnt]).indexOf(s1);
-              if (n_idx == -1) ncs[cnt++].addNA();
-              else ncs[cnt++].addNum(n_idx);
-            }
+          int[] lvls = c.isNA(i) ? null : levels[(int) c.at8(i)];
+          for (int cnt = 0; cnt < ncs.length; cnt++) {
+            if (lvls == null || lvls[cnt] == -1) ncs[cnt].addNA();
+            else ncs[cnt].addNum(lvls[cnt]);
           }
-          if (cnt < ncs.length)
-            for (; cnt < ncs.length; ++cnt) ncs[cnt].addNA();
         }
       }
     }.doAll(new_domains.length, Vec.T_CAT, new Frame(vec)).outputFrame(null, null, new_domains).vecs();
@@ -123,60 +128,6 @@ public class AstStrSplit extends AstPrimitive {
   }
 
   private Vec[] strSplitStringCol(Vec vec, final String splitRegEx) {
-    final int newColCnt = (new AstStrSplit.CountSplits(splitRegEx)).doAll(vec)._maxSplits;
-    return new MRTask() {
-      @Override
-      public void map(Chunk[] cs, NewChunk[] ncs) {
-        Chunk chk = cs[0];
-        if (chk instanceof C0DChunk) // all NAs
-          for (int row = 0; row < chk.len(); row++)
-            for (int col = 0; col < ncs.length; col++)
-              ncs[col].addNA();
-        else {
-          BufferedString tmpStr = new BufferedString();
-          for (int row = 0; row < chk._len; ++row) {
-            int col = 0;
-            if (!chk.isNA(row)) {
-              String[] ss = chk.atStr(tmpStr, row).toString().split(splitRegEx);
-              for (String s : ss) // distribute strings among new cols
-                ncs[col++].addStr(s);
-            }
-            if (col < ncs.length) // fill remaining cols w/ NA
-              for (; col < ncs.length; col++) ncs[col].addNA();
-          }
-        }
-      }
-    }.doAll(newColCnt, Vec.T_STR, new Frame(vec)).outputFrame().vecs();
-  }
-
-  /**
-   * Run through column to figure out the maximum split that
-   * any string in the column will need.
-   */
-  private static class CountSplits extends MRTask<AstStrSplit.CountSplits> {
-    // IN
-    private final String _regex;
-    // OUT
-    int _maxSplits = 0;
-
-    CountSplits(String regex) {
-      _regex = regex;
-    }
-
-    @Override
-    public void map(Chunk chk) {
-      BufferedString tmpStr = new BufferedString();
-      for (int row = 0; row < chk._len; row++) {
-        if (!chk.isNA(row)) {
-          int split = chk.atStr(tmpStr, row).toString().split(_regex).length;
-          if (split > _maxSplits) _maxSplits = split;
-        }
-      }
-    }
-
-    @Override
-    public void reduce(AstStrSplit.CountSplits that) {
-      if (this._maxSplits < that._maxSplits) this._maxSplits = that._maxSplits;
-    }
+    return StringKernels.split(vec, splitRegEx);
   }
 }
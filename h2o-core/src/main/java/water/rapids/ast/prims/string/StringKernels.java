@@ -0,0 +1,220 @@
+package water.rapids.ast.prims.string;
+
+import water.MRTask;
+import water.fvec.*;
+import water.parser.BufferedString;
+import water.util.VecUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Per-chunk string kernels shared by the string prims.
+ *
+ * Literal patterns run on the UTF-8 bytes of the {@link CStrChunk} without
+ * decoding them.  Other patterns are compiled once per chunk, and matched with
+ * one reused Matcher; the strings of all-ASCII chunks are matched in place,
+ * through a CharSequence view of their bytes.
+ */
+final class StringKernels {
+  private StringKernels() {}
+
+  private static final String REGEX_META = "\\^$.|?*+()[]{}";
+
+  /** Whether the regular expression matches only itself */
+  static boolean isLiteral(String regex) {
+    if (regex.isEmpty()) return false;
+    for (int i = 0; i < regex.length(); i++)
+      if (REGEX_META.indexOf(regex.charAt(i)) != -1) return false;
+    return true;
+  }
+
+  static byte[] utf8(String s) { return s.getBytes(StandardCharsets.UTF_8); }
+
+  /**
+   * Copy of a categorical Vec with a new domain, merging the levels that have
+   * become equal.
+   */
+  static Vec withDomain(Vec vec, String[] dom) {
+    HashMap<String, ArrayList<Integer>> levels = new HashMap<>();
+    for (int i = 0; i < dom.length; i++) {
+      ArrayList<Integer> olds = levels.get(dom[i]);
+      if (olds == null) levels.put(dom[i], olds = new ArrayList<>());
+      olds.add(i);
+    }
+    if (levels.size() < dom.length)
+      return VecUtils.DomainDedupe.domainDeduper(vec, levels);
+    return vec.makeCopy(dom);
+  }
+
+  /** Read-only CharSequence over ASCII bytes */
+  static final class AsciiSeq implements CharSequence {
+    private byte[] _buf;
+    private int _off, _len;
+
+    AsciiSeq set(byte[] buf, int off, int len) { _buf = buf; _off = off; _len = len; return this; }
+
+    @Override public int length() { return _len; }
+    @Override public char charAt(int i) { return (char) _buf[_off + i]; }
+    @Override public CharSequence subSequence(int start, int end) { return new AsciiSeq().set(_buf, _off + start, end - start); }
+    @Override public String toString() { return new String(_buf, _off, _len, StandardCharsets.US_ASCII); }
+  }
+
+  /**
+   * Replace the first or all matches of a regular expression in every string,
+   * as String.replaceFirst or String.replaceAll, optionally lower-casing the
+   * strings first.
+   */
+  static Vec replace(Vec vec, String pattern, String replacement, boolean ignoreCase, boolean all) {
+    return new Replace(pattern, replacement, ignoreCase, all).doAll(new byte[]{Vec.T_STR}, vec).outputFrame().anyVec();
+  }
+
+  private static class Replace extends MRTask<Replace> {
+    final String _pattern, _replacement;
+    final boolean _ignoreCase, _all;
+    final boolean _literal;     // Pattern and replacement both stand for themselves
+
+    Replace(String pattern, String replacement, boolean ignoreCase, boolean all) {
+      _pattern = pattern; _replacement = replacement; _ignoreCase = ignoreCase; _all = all;
+      _literal = isLiteral(pattern) && replacement.indexOf('$') == -1 && replacement.indexOf('\\') == -1;
+    }
+
+    @Override public void map(Chunk chk, NewChunk newChk) {
+      if (chk instanceof C0DChunk) { // all NAs
+        for (int i = 0; i < chk.len(); i++) newChk.addNA();
+        return;
+      }
+      CStrChunk cs = (CStrChunk) chk;
+      boolean ascii = cs._isAllASCII;
+      if (_literal && (ascii || !_ignoreCase)) {
+        cs.replace(newChk, utf8(_pattern), utf8(_replacement), _all, _ignoreCase);
+        return;
+      }
+      Matcher m = Pattern.compile(_pattern).matcher("");
+      BufferedString tmpStr = new BufferedString();
+      AsciiSeq seq = new AsciiSeq();
+      StringBuffer sb = new StringBuffer();
+      byte[] low = new byte[64];
+      for (int i = 0; i < chk._len; i++) {
+        if (chk.isNA(i)) { newChk.addNA(); continue; }
+        chk.atStr(tmpStr, i);
+        CharSequence str;
+        if (ascii) {
+          if (_ignoreCase) {
+            int len = tmpStr.length();
+            if (low.length < len) low = new byte[Math.max(len, low.length << 1)];
+            byte[] buf = tmpStr.getBuffer();
+            for (int j = 0, off = tmpStr.getOffset(); j < len; j++) {
+              byte b = buf[off + j];
+              low[j] = b > 0x40 && b < 0x5B ? (byte) (b + 0x20) : b;
+            }
+            tmpStr.set(low, 0, len);
+          }
+          str = seq.set(tmpStr.getBuffer(), tmpStr.getOffset(), tmpStr.length());
+        } else
+          str = _ignoreCase ? tmpStr.toString().toLowerCase(Locale.ENGLISH) : tmpStr.toString();
+        m.reset(str);
+        if (!m.find()) { // Nothing to replace, copy as is
+          if (ascii) newChk.addStr(tmpStr);
+          else newChk.addStr(str.toString());
+          continue;
+        }
+        sb.setLength(0);
+        do m.appendReplacement(sb, _replacement); while (_all && m.find());
+        m.appendTail(sb);
+        newChk.addStr(sb.toString());
+      }
+    }
+  }
+
+  /**
+   * Count the non-overlapping occurrences of the literals in every string,
+   * added up.
+   */
+  static Vec countMatches(Vec vec, String[] patterns) {
+    final byte[][] pats = new byte[patterns.length][];
+    for (int i = 0; i < pats.length; i++) pats[i] = utf8(patterns[i]);
+    return new MRTask() {
+      @Override
+      public void map(Chunk chk, NewChunk newChk) {
+        if (chk instanceof C0DChunk) // all NAs
+          for (int i = 0; i < chk.len(); i++)
+            newChk.addNA();
+        else
+          ((CStrChunk) chk).countMatches(newChk, pats);
+      }
+    }.doAll(Vec.T_NUM, new Frame(vec)).outputFrame().anyVec();
+  }
+
+  /**
+   * Pieces of every string split around a regular expression, as String.split,
+   * one column per piece.
+   */
+  static Vec[] split(Vec vec, String regex) {
+    int ncols = new SplitCount(regex).doAll(vec)._max;
+    return new Split(regex).doAll(ncols, Vec.T_STR, new Frame(vec)).outputFrame().vecs();
+  }
+
+  // Pieces of a string of a chunk split by a compiled regular expression
+  private static String[] split(Pattern p, CStrChunk chk, int row, BufferedString tmpStr, AsciiSeq seq) {
+    chk.atStr(tmpStr, row);
+    return p.split(chk._isAllASCII ? seq.set(tmpStr.getBuffer(), tmpStr.getOffset(), tmpStr.length()) : tmpStr.toString());
+  }
+
+  private static class SplitCount extends MRTask<SplitCount> {
+    final String _regex;
+    int _max;
+
+    SplitCount(String regex) { _regex = regex; }
+
+    @Override public void map(Chunk chk) {
+      if (chk instanceof C0DChunk) return;
+      CStrChunk cs = (CStrChunk) chk;
+      if (isLiteral(_regex)) {
+        _max = cs.splitCount(utf8(_regex));
+        return;
+      }
+      Pattern p = Pattern.compile(_regex);
+      BufferedString tmpStr = new BufferedString();
+      AsciiSeq seq = new AsciiSeq();
+      for (int row = 0; row < chk._len; row++)
+        if (!chk.isNA(row)) _max = Math.max(_max, split(p, cs, row, tmpStr, seq).length);
+    }
+
+    @Override public void reduce(SplitCount that) { _max = Math.max(_max, that._max); }
+  }
+
+  private static class Split extends MRTask<Split> {
+    final String _regex;
+
+    Split(String regex) { _regex = regex; }
+
+    @Override public void map(Chunk[] cs, NewChunk[] ncs) {
+      Chunk chk = cs[0];
+      if (chk instanceof C0DChunk) { // all NAs
+        for (int row = 0; row < chk.len(); row++)
+          for (NewChunk nc : ncs) nc.addNA();
+        return;
+      }
+      CStrChunk cstr = (CStrChunk) chk;
+      if (isLiteral(_regex)) {
+        cstr.split(ncs, utf8(_regex));
+        return;
+      }
+      Pattern p = Pattern.compile(_regex);
+      BufferedString tmpStr = new BufferedString();
+      AsciiSeq seq = new AsciiSeq();
+      for (int row = 0; row < chk._len; row++) {
+        int col = 0;
+        if (!chk.isNA(row))
+          for (String s : split(p, cstr, row, tmpStr, seq)) // distribute strings among new cols
+            ncs[col++].addStr(s);
+        for (; col < ncs.length; col++) ncs[col].addNA(); // fill remaining cols w/ NA
+      }
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package water.rapids.ast.prims.timeseries;
+
+import water.fvec.Frame;
+import water.rapids.Env;
+import water.rapids.Rolling;
+import water.rapids.ast.AstParameter;
+import water.rapids.ast.AstPrimitive;
+import water.rapids.ast.AstRoot;
+import water.rapids.vals.ValFrame;
+
+/**
+ * Trailing-window aggregates of columns of a frame sorted by time; see {@link Rolling}.
+ * The window is a number of rows if no time column is given, and a time span otherwise.
+ */
+public class AstRolling extends AstPrimitive {
+  @Override
+  public String[] args() {
+    return new String[]{"ary", "cols", "fun", "window", "time", "by", "prob"};
+  }
+
+  @Override
+  public int nargs() {
+    return 1 + 7;
+  } // (rolling ary [cols] fun window [time] [by] prob)
+
+  @Override
+  public String str() {
+    return "rolling";
+  }
+
+  @Override
+  public ValFrame apply(Env env, Env.StackHelp stk, AstRoot asts[]) {
+    Frame fr = stk.track(asts[1].exec(env)).getFrame();
+    int[] cols = ((AstParameter) asts[2]).columns(fr.names());
+    String fun = asts[3].exec(env).getStr();
+    double window = asts[4].exec(env).getNum();
+    int[] time = ((AstParameter) asts[5]).columns(fr.names());
+    if (time.length > 1)
+      throw new IllegalArgumentException("Expected at most one time column. Got: " + time.length + " columns.");
+    int[] by = ((AstParameter) asts[6]).columns(fr.names());
+    double prob = asts[7].exec(env).getNum();
+    return new ValFrame(Rolling.rolling(fr, cols, fun, window, time.length == 0 ? -1 : time[0], by, prob));
+  }
+}
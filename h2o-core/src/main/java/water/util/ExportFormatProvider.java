@@ -0,0 +1,42 @@
+package water.util;
+
+import water.Job;
+import water.fvec.Frame;
+
+import java.io.IOException;
+import java.util.ServiceLoader;
+
+/**
+ * Optional file format for exporting Frames (other than the built-in CSV).
+ *
+ * Implementations are registered via {@link ServiceLoader} (META-INF/services/water.util.ExportFormatProvider),
+ * typically by the extension that also provides the parser of the format, so that exported files can be
+ * imported back.
+ */
+public abstract class ExportFormatProvider {
+
+  /** Name of the format as used by the export API, eg. "parquet". */
+  public abstract String name();
+
+  /**
+   * Write the chunks [firstChunk, firstChunk + nChunks) of the frame into a single file.
+   * Implementations should report each written chunk to the job and stop if the job was asked to stop.
+   *
+   * @return number of bytes written
+   */
+  public abstract long exportPart(Frame fr, int firstChunk, int nChunks, String path, boolean overwrite, Job j) throws IOException;
+
+  /** Based on JavaDoc of SPI: "Instances of this class are not safe for use by multiple concurrent threads." */
+  private static final ServiceLoader<ExportFormatProvider> LOADER = ServiceLoader.load(ExportFormatProvider.class);
+
+  /** Provider of the named format, or null if there is none (the format is case-insensitive). */
+  public static ExportFormatProvider getByName(String name) {
+    synchronized (LOADER) {
+      for (ExportFormatProvider p : LOADER)
+        if (p.name().equalsIgnoreCase(name))
+          return p;
+    }
+    return null;
+  }
+
+}
@@ -291,15 +291,21 @@ public class FrameUtils {
     final String _frameName;
     final boolean _overwrite;
     final Job _j;
+    final String _format; // null for CSV, otherwise name of an ExportFormatProvider
     int _nParts;
 
     public ExportTaskDriver(Frame frame, String path, String frameName, boolean overwrite, Job j, int nParts) {
+      this(frame, path, frameName, overwrite, j, nParts, null);
+    }
+
+    public ExportTaskDriver(Frame frame, String path, String frameName, boolean overwrite, Job j, int nParts, String format) {
       _frame = frame;
       _path = path;
       _frameName = frameName;
       _overwrite = overwrite;
       _j = j;
       _nParts = nParts;
+      _format = format;
     }
 
     @Override
@@ -308,8 +314,12 @@ public class FrameUtils {
       if (_nParts == 1) {
         // Single file export, the file should be created by the node that was asked to export the data
         // (this is for non-distributed filesystems, we want the file to go to the local filesystem of the node)
-        Frame.CSVStream is = new Frame.CSVStream(_frame, true, false);
-        exportCSVStream(is, _path, 0);
+        if (_format != null) {
+          exportPart(_frame, _path, 0, _frame.anyVec().nChunks());
+        } else {
+          Frame.CSVStream is = new Frame.CSVStream(_frame, true, false);
+          exportCSVStream(is, _path, 0);
+        }
         tryComplete();
       } else {
         // Multi-part export
@@ -334,16 +344,23 @@ public class FrameUtils {
     }
 
     private int calculateNParts() {
-      EstimateSizeTask estSize = new EstimateSizeTask().dfork(_frame).getResult();
-      Log.debug("Estimator result: ", estSize);
+      long size;
+      if (_format != null) {
+        // columnar formats are typed and compressed, about the size of the frame in memory
+        size = _frame.byteSize();
+      } else {
+        EstimateSizeTask estSize = new EstimateSizeTask().dfork(_frame).getResult();
+        Log.debug("Estimator result: ", estSize);
+        size = estSize._size;
+      }
       // the goal is to not to create too small part files (and too many files), ideal part file size is one HDFS block
-      int nParts = Math.max((int) (estSize._size / DEFAULT_TARGET_PART_SIZE), H2O.CLOUD.size() + 1);
+      int nParts = Math.max((int) (size / DEFAULT_TARGET_PART_SIZE), H2O.CLOUD.size() + 1);
       if (nParts > AUTO_PARTS_MAX) {
         Log.debug("Recommended number of part files (" + nParts + ") exceeds maximum limit " + AUTO_PARTS_MAX + ". " +
                 "Number of part files is limited to avoid slow downs when importing back to H2O."); // @tomk
         nParts = AUTO_PARTS_MAX;
       }
-      Log.info("For file of estimated size " + estSize + "B determined number of parts: " + _nParts);
+      Log.info("For file of estimated size " + size + "B determined number of parts: " + nParts);
       return nParts;
     }
 
@@ -425,6 +442,18 @@ public class FrameUtils {
       }
     }
 
+    private void exportPart(Frame fr, String path, int firstChkIdx, int nChunks) {
+      ExportFormatProvider provider = ExportFormatProvider.getByName(_format);
+      if (provider == null)
+        throw new IllegalArgumentException("Export format '" + _format + "' is not available.");
+      try {
+        long written = provider.exportPart(fr, firstChkIdx, Math.min(nChunks, fr.anyVec().nChunks() - firstChkIdx), path, _overwrite, _j);
+        Log.info("Written " + written + " bytes of key '" + _frameName + "' to " + path + " (" + _format + ").");
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
     class PartExportTask extends MRTask<PartExportTask> {
       final String[] _colNames;
       final int _length;
@@ -443,8 +472,12 @@ public class FrameUtils {
         }
         int partIdx = anyChunk.cidx() / _length;
         String partPath = _path + "/part-m-" + String.valueOf(100000 + partIdx).substring(1);
-        Frame.CSVStream is = new Frame.CSVStream(cs, _colNames, _length, false);
-        exportCSVStream(is, partPath, anyChunk.cidx());
+        if (_format != null) {
+          exportPart(_fr, partPath, anyChunk.cidx(), _length);
+        } else {
+          Frame.CSVStream is = new Frame.CSVStream(cs, _colNames, _length, false);
+          exportCSVStream(is, partPath, anyChunk.cidx());
+        }
       }
 
       @Override
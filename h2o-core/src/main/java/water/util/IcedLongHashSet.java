@@ -0,0 +1,95 @@
+package water.util;
+
+import water.AutoBuffer;
+import water.Iced;
+
+/** Set of longs - Iced, meaning cheaply serialized over the wire.
+ *
+ *  <p>Open addressing with linear probing over a single long[], half full at
+ *  most; the key 0 marks a free slot and is kept aside.  Only the keys are
+ *  serialized, so a set costs 8 bytes per key on the wire, and is rebuilt on
+ *  arrival.
+ */
+public class IcedLongHashSet extends Iced<IcedLongHashSet> {
+  private transient long[] _keys;
+  private transient int _size;       // Keys in _keys, 0 not included
+  private transient boolean _zero;   // Whether 0 is in the set
+
+  public IcedLongHashSet() { this(16); }
+  public IcedLongHashSet(int expected) {
+    int cap = 16;
+    while (cap < 2L * expected && cap < (1 << 30)) cap <<= 1;
+    _keys = new long[cap];
+  }
+
+  public int size() { return _size + (_zero ? 1 : 0); }
+
+  private static int hash(long k) {
+    long h = k * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  /** @return true if the key was not in the set already */
+  public boolean add(long k) {
+    if (k == 0) {
+      boolean added = !_zero;
+      _zero = true;
+      return added;
+    }
+    int mask = _keys.length - 1;
+    int s = hash(k) & mask;
+    for (long x; (x = _keys[s]) != 0; s = (s + 1) & mask)
+      if (x == k) return false;
+    _keys[s] = k;
+    if (2 * ++_size > _keys.length) grow();
+    return true;
+  }
+
+  public boolean contains(long k) {
+    if (k == 0) return _zero;
+    int mask = _keys.length - 1;
+    for (int s = hash(k) & mask; ; s = (s + 1) & mask) {
+      long x = _keys[s];
+      if (x == k) return true;
+      if (x == 0) return false;
+    }
+  }
+
+  /** Add all keys of the other set */
+  public void addAll(IcedLongHashSet set) {
+    if (set._zero) _zero = true;
+    for (long k : set._keys)
+      if (k != 0) add(k);
+  }
+
+  /** @return the keys, in no particular order */
+  public long[] keys() {
+    long[] ks = new long[size()];
+    int i = 0;
+    if (_zero) ks[i++] = 0;
+    for (long k : _keys)
+      if (k != 0) ks[i++] = k;
+    return ks;
+  }
+
+  private void grow() {
+    long[] keys = _keys;
+    _keys = new long[keys.length << 1];
+    _size = 0;
+    for (long k : keys)
+      if (k != 0) add(k);
+  }
+
+  public final AutoBuffer write_impl(AutoBuffer ab) {
+    return ab.putA8(keys());
+  }
+
+  public final IcedLongHashSet read_impl(AutoBuffer ab) {
+    long[] ks = ab.getA8();
+    int cap = 16;
+    while (cap < 2L * ks.length) cap <<= 1;
+    _keys = new long[cap];
+    for (long k : ks) add(k);
+    return this;
+  }
+}
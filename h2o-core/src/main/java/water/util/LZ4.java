@@ -0,0 +1,149 @@
+package water.util;
+
+import java.util.Arrays;
+
+/**
+ * Compressor and decompressor of the LZ4 block format.
+ *
+ * A fast, byte oriented LZ77 codec: the compressed block is a sequence of
+ * (literals, match) pairs, each starting with a token byte holding the
+ * literal length (high 4 bits) and the match length - 4 (low 4 bits); a length
+ * of 15 continues in the following bytes (255 meaning "more follows").  The
+ * literals follow, then the 2 byte little-endian match offset.  The last
+ * sequence has literals only.  The compressor uses a single probe hash table
+ * and is meant for speed, not ratio.
+ */
+public final class LZ4 {
+  private static final int MIN_MATCH = 4;
+  private static final int LAST_LITERALS = 5;     // The last 5 bytes are always literals
+  private static final int MF_LIMIT = 12;         // No match starts in the last 12 bytes
+  private static final int MAX_OFFSET = 65535;
+  private static final int HASH_LOG = 12;
+  private static final int SKIP_TRIGGER = 6;      // Step faster over incompressible data
+
+  private LZ4() {}
+
+  /** Hash table of the compressor, can be reused by subsequent calls in the same thread */
+  public static int[] newTable() { return new int[1 << HASH_LOG]; }
+
+  /** Worst case size of the compressed block of len bytes */
+  public static int maxCompressedLength(int len) { return len + len / 255 + 16; }
+
+  private static int readInt(byte[] b, int i) {
+    return (b[i] & 0xFF) | (b[i+1] & 0xFF) << 8 | (b[i+2] & 0xFF) << 16 | (b[i+3] & 0xFF) << 24;
+  }
+
+  private static int hash(int seq) { return (seq * -1640531535) >>> (32 - HASH_LOG); }
+
+  /**
+   * Compresses src[srcOff, srcOff+len) into dst starting at dstOff; dst must
+   * have room for {@link #maxCompressedLength(int)} bytes.
+   * @return the size of the compressed block
+   */
+  public static int compress(byte[] src, int srcOff, int len, byte[] dst, int dstOff, int[] table) {
+    final int srcEnd = srcOff + len;
+    int anchor = srcOff;
+    int op = dstOff;
+    if( len >= MF_LIMIT + 1 ) {
+      final int mflimit = srcEnd - MF_LIMIT;
+      final int matchLimit = srcEnd - LAST_LITERALS;
+      Arrays.fill(table, -1);
+      table[hash(readInt(src, srcOff))] = srcOff;
+      int ip = srcOff + 1;
+      while( ip < mflimit ) {
+        int seq = readInt(src, ip);
+        int h = hash(seq);
+        int ref = table[h];
+        table[h] = ip;
+        if( ref < 0 || ip - ref > MAX_OFFSET || readInt(src, ref) != seq ) {
+          ip += 1 + ((ip - anchor) >>> SKIP_TRIGGER);
+          continue;
+        }
+        // Extend the match backwards over the pending literals, then forwards
+        while( ip > anchor && ref > srcOff && src[ip-1] == src[ref-1] ) { ip--; ref--; }
+        int mlen = MIN_MATCH;
+        while( ip + mlen < matchLimit && src[ip+mlen] == src[ref+mlen] ) mlen++;
+        op = writeSequence(src, anchor, ip - anchor, dst, op, ip - ref, mlen - MIN_MATCH);
+        ip += mlen;
+        anchor = ip;
+        if( ip < mflimit ) table[hash(readInt(src, ip - 2))] = ip - 2;
+      }
+    }
+    // Trailing literals
+    int lits = srcEnd - anchor;
+    op = writeLength(dst, op, lits, 0);
+    System.arraycopy(src, anchor, dst, op, lits);
+    return op + lits - dstOff;
+  }
+
+  private static int writeSequence(byte[] src, int anchor, int lits, byte[] dst, int op, int offset, int mlen) {
+    int token = op;
+    op = writeLength(dst, op, lits, 0);
+    System.arraycopy(src, anchor, dst, op, lits);
+    op += lits;
+    dst[op++] = (byte) offset;
+    dst[op++] = (byte) (offset >>> 8);
+    if( mlen >= 15 ) {
+      dst[token] |= 15;
+      op = writeRest(dst, op, mlen - 15);
+    } else dst[token] |= mlen;
+    return op;
+  }
+
+  // Token with the literal length in the high nibble, plus the extra length bytes
+  private static int writeLength(byte[] dst, int op, int lits, int low) {
+    if( lits >= 15 ) {
+      dst[op++] = (byte) (15 << 4 | low);
+      return writeRest(dst, op, lits - 15);
+    }
+    dst[op++] = (byte) (lits << 4 | low);
+    return op;
+  }
+
+  private static int writeRest(byte[] dst, int op, int l) {
+    while( l >= 255 ) { dst[op++] = (byte) 255; l -= 255; }
+    dst[op++] = (byte) l;
+    return op;
+  }
+
+  /**
+   * Decompresses the block src[srcOff, srcOff+len) into dst starting at dstOff.
+   * @return the number of decompressed bytes
+   * @throws IllegalArgumentException if the block is malformed or does not fit into dst
+   */
+  public static int decompress(byte[] src, int srcOff, int len, byte[] dst, int dstOff) {
+    final int srcEnd = srcOff + len;
+    int ip = srcOff;
+    int op = dstOff;
+    try {
+      while( true ) {
+        int token = src[ip++] & 0xFF;
+        int lits = token >>> 4;
+        if( lits == 15 ) {
+          int b;
+          do { b = src[ip++] & 0xFF; lits += b; } while( b == 255 );
+        }
+        System.arraycopy(src, ip, dst, op, lits);
+        ip += lits;
+        op += lits;
+        if( ip >= srcEnd ) break; // Last sequence has no match
+        int offset = (src[ip++] & 0xFF) | (src[ip++] & 0xFF) << 8;
+        int mlen = token & 15;
+        if( mlen == 15 ) {
+          int b;
+          do { b = src[ip++] & 0xFF; mlen += b; } while( b == 255 );
+        }
+        mlen += MIN_MATCH;
+        int ref = op - offset;
+        if( offset == 0 || ref < dstOff ) throw new IllegalArgumentException("Malformed LZ4 block, offset " + offset + " at " + (op - dstOff));
+        if( offset >= mlen ) System.arraycopy(dst, ref, dst, op, mlen);
+        else for( int i = 0; i < mlen; i++ ) dst[op + i] = dst[ref + i]; // Overlapping copy repeats the pattern
+        op += mlen;
+      }
+    } catch( ArrayIndexOutOfBoundsException e ) {
+      throw new IllegalArgumentException("Malformed LZ4 block or output too small", e);
+    }
+    if( ip != srcEnd ) throw new IllegalArgumentException("Malformed LZ4 block, " + (srcEnd - ip) + " trailing bytes");
+    return op - dstOff;
+  }
+}
@@ -437,13 +437,19 @@ public class VecUtils {
    */
 
   public static class DomainDedupe extends MRTask<DomainDedupe> {
-    private final HashMap<Integer, Integer> _oldToNewDomainIndex;
-    public DomainDedupe(HashMap<Integer, Integer> oldToNewDomainIndex) {_oldToNewDomainIndex = oldToNewDomainIndex; }
+    private final int[] _oldToNewDomainIndex;
+    public DomainDedupe(HashMap<Integer, Integer> oldToNewDomainIndex) {
+      int n = 0;
+      for (int old : oldToNewDomainIndex.keySet()) n = Math.max(n, old + 1);
+      _oldToNewDomainIndex = new int[n];
+      for (Map.Entry<Integer, Integer> e : oldToNewDomainIndex.entrySet())
+        _oldToNewDomainIndex[e.getKey()] = e.getValue();
+    }
     @Override public void map(Chunk c, NewChunk nc) {
       for( int row=0; row < c._len; row++) {
         if ( !c.isNA(row) ) {
           int oldDomain = (int) c.at8(row);
-          nc.addNum(_oldToNewDomainIndex.get(oldDomain));
+          nc.addNum(_oldToNewDomainIndex[oldDomain]);
         } else {
           nc.addNA();
         }
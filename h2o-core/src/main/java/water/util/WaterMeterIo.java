@@ -5,6 +5,9 @@ import water.api.API;
 import water.api.schemas3.SchemaV3;
 import water.persist.PersistManager;
 
+import java.util.Map;
+import java.util.TreeMap;
+
 public class WaterMeterIo extends Iced {
 
   public static class IoStatsEntry extends SchemaV3<Iced, IoStatsEntry> {
@@ -27,11 +30,52 @@ public class WaterMeterIo extends Iced {
     public long load_bytes;
   }
 
+  public static class WireStatsEntry extends SchemaV3<Iced, WireStatsEntry> {
+    @API(help="Type of the task carried by the compressed TCP messages", direction = API.Direction.OUTPUT)
+    public String msg_type;
+
+    @API(help="Number of compressed messages sent", direction = API.Direction.OUTPUT)
+    public long sent_count;
+
+    @API(help="Cumulative sent bytes, before compression", direction = API.Direction.OUTPUT)
+    public long sent_bytes;
+
+    @API(help="Cumulative sent bytes, after compression", direction = API.Direction.OUTPUT)
+    public long sent_wire_bytes;
+
+    @API(help="Cumulative time spent compressing, in milliseconds", direction = API.Direction.OUTPUT)
+    public double compress_ms;
+
+    @API(help="Number of compressed messages received", direction = API.Direction.OUTPUT)
+    public long recv_count;
+
+    @API(help="Cumulative received bytes, after decompression", direction = API.Direction.OUTPUT)
+    public long recv_bytes;
+
+    @API(help="Cumulative received bytes, before decompression", direction = API.Direction.OUTPUT)
+    public long recv_wire_bytes;
+
+    @API(help="Cumulative time spent decompressing, in milliseconds", direction = API.Direction.OUTPUT)
+    public double decompress_ms;
+
+    void add(WireStatsEntry e) {
+      sent_count += e.sent_count;
+      sent_bytes += e.sent_bytes;
+      sent_wire_bytes += e.sent_wire_bytes;
+      compress_ms += e.compress_ms;
+      recv_count += e.recv_count;
+      recv_bytes += e.recv_bytes;
+      recv_wire_bytes += e.recv_wire_bytes;
+      decompress_ms += e.decompress_ms;
+    }
+  }
+
   // Input
   public int nodeidx;
 
   // Output
   public IoStatsEntry persist_stats[];
+  public WireStatsEntry wire_stats[];
 
   public void doIt(boolean aggregateAllNodes) {
     if (! aggregateAllNodes) {
@@ -39,6 +83,7 @@ public class WaterMeterIo extends Iced {
       return;
     }
 
+    Map<String, WireStatsEntry> wire = new TreeMap<>();
     for (int i = 0; i < H2O.CLOUD.size(); i++) {
       WaterMeterIo io = new WaterMeterIo();
       io.doIt(i);
@@ -57,7 +102,17 @@ public class WaterMeterIo extends Iced {
         persist_stats[j].load_count += io.persist_stats[j].load_count;
         persist_stats[j].load_bytes += io.persist_stats[j].load_bytes;
       }
+
+      for (WireStatsEntry e : io.wire_stats) {
+        WireStatsEntry dest_e = wire.get(e.msg_type);
+        if (dest_e == null) {
+          wire.put(e.msg_type, dest_e = new WireStatsEntry());
+          dest_e.msg_type = e.msg_type;
+        }
+        dest_e.add(e);
+      }
     }
+    wire_stats = wire.values().toArray(new WireStatsEntry[wire.size()]);
   }
 
   private void doIt(int idx) {
@@ -68,10 +123,12 @@ public class WaterMeterIo extends Iced {
     new RPC<>(node, t).call().get();
     Log.trace("IO GetTask completed to node " + idx);
     persist_stats = t._persist_stats;
+    wire_stats = t._wire_stats;
   }
 
   private static class GetTask extends DTask<GetTask> {
     private IoStatsEntry _persist_stats[];
+    private WireStatsEntry _wire_stats[];
 
     public GetTask() { super(H2O.MIN_HI_PRIORITY); _persist_stats = null; }
 
@@ -118,6 +175,21 @@ public class WaterMeterIo extends Iced {
         assert(src_e.load_bytes.get() == 0);
       }
 
+      TCPCompression.Stats w[] = TCPCompression.stats();
+      _wire_stats = new WireStatsEntry[w.length];
+      for (int i = 0; i < w.length; i++) {
+        WireStatsEntry dest_e = _wire_stats[i] = new WireStatsEntry();
+        dest_e.msg_type = w[i]._type;
+        dest_e.sent_count = w[i]._sent;
+        dest_e.sent_bytes = w[i]._sentBytes;
+        dest_e.sent_wire_bytes = w[i]._sentWireBytes;
+        dest_e.compress_ms = w[i]._compressNs / 1e6;
+        dest_e.recv_count = w[i]._recv;
+        dest_e.recv_bytes = w[i]._recvBytes;
+        dest_e.recv_wire_bytes = w[i]._recvWireBytes;
+        dest_e.decompress_ms = w[i]._decompressNs / 1e6;
+      }
+
       tryComplete();
     }
   }
@@ -0,0 +1,88 @@
+package hex;
+
+import org.junit.BeforeClass;
+import org.junit.Ignore;
+import org.junit.Test;
+import water.Key;
+import water.MRTask;
+import water.TestUtil;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+import water.util.Log;
+import water.util.RandomUtils;
+
+import java.util.Random;
+
+/**
+ * Timings of the matrix multiplications of DMatrix: blocked against a column
+ * at a time, on dense and sparse tall-skinny frames, and x'y as one reduction
+ * against transposing x first.
+ */
+public class DMatrixBench extends TestUtil {
+  @BeforeClass public static void setup() { stall_till_cloudsize(1); }
+
+  // rows by cols, with the given fraction of nonzeros
+  private static Frame random(long rows, int cols, final double density) {
+    Vec v = Vec.makeCon(0, rows);
+    Frame fr = new MRTask() {
+      @Override public void map(Chunk[] cs, NewChunk[] ncs) {
+        Chunk c = cs[0];
+        Random rnd = RandomUtils.getRNG(c.start());
+        for (NewChunk nc : ncs)
+          for (int r = 0; r < c._len; r++)
+            if (rnd.nextDouble() < density) nc.addNum(rnd.nextGaussian());
+            else nc.addNum(0);
+      }
+    }.doAll(cols, Vec.T_NUM, new Frame(v)).outputFrame(Key.<Frame>make(), null, null);
+    v.remove();
+    return fr;
+  }
+
+  // Time of the second of two runs, after warming up
+  private static long time(Frame x, Frame y, int limit) {
+    long t = 0;
+    for (int i = 0; i < 2; i++) {
+      long t0 = System.currentTimeMillis();
+      Frame z = DMatrix.mmul(x, y, limit);
+      t = System.currentTimeMillis() - t0;
+      z.delete();
+    }
+    return t;
+  }
+
+  @Ignore @Test public void benchTallSkinny() {
+    for (double density : new double[]{1, 0.05}) {
+      Frame x = random(1000000, 100, density), y = random(100, 100, 1);
+      try {
+        long blocked = time(x, y, DMatrix.BROADCAST_LIMIT);
+        long columns = time(x, y, 99);  // Below a column of y: a column at a time
+        Log.info("mmul 1M x 100 (density " + density + ") by 100 x 100: blocked " + blocked + "ms, column at a time " + columns + "ms");
+      } finally {
+        x.delete();
+        y.delete();
+      }
+    }
+  }
+
+  @Ignore @Test public void benchTransposed() {
+    Frame x = random(200000, 50, 1), y = random(200000, 20, 1);
+    try {
+      long t0 = System.currentTimeMillis();
+      Frame z = DMatrix.tmmul(x, y);
+      long reduction = System.currentTimeMillis() - t0;
+      z.delete();
+      t0 = System.currentTimeMillis();
+      Frame xt = DMatrix.transpose(x);
+      z = DMatrix.mmul(xt, y);
+      long transposed = System.currentTimeMillis() - t0;
+      z.delete();
+      xt.delete();
+      Log.info("x'y of 200K x 50 and 200K x 20: reduction " + reduction + "ms, transpose and mmul " + transposed + "ms");
+    } finally {
+      x.delete();
+      y.delete();
+    }
+  }
+}
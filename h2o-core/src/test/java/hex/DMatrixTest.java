@@ -0,0 +1,122 @@
+package hex;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.DKV;
+import water.Key;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+import water.rapids.Rapids;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DMatrixTest extends TestUtil {
+  @BeforeClass public static void setup() { stall_till_cloudsize(1); }
+
+  // n by p, every other column mostly zeros (sparse chunks), with a few NAs
+  private static double[][] matrix(Random rnd, int n, int p, boolean nas) {
+    double[][] m = new double[n][p];
+    for (int i = 0; i < n; i++)
+      for (int j = 0; j < p; j++)
+        m[i][j] = j % 2 == 1 && rnd.nextInt(20) != 0 ? 0 : nas && rnd.nextInt(500) == 0 ? Double.NaN : rnd.nextGaussian();
+    return m;
+  }
+
+  private static Frame frame(String key, double[][] m, long... layout) {
+    TestFrameBuilder b = new TestFrameBuilder().withName(key);
+    String[] names = new String[m[0].length];
+    byte[] types = new byte[names.length];
+    for (int j = 0; j < names.length; j++) {
+      names[j] = "C" + (j + 1);
+      types[j] = Vec.T_NUM;
+      double[] col = new double[m.length];
+      for (int i = 0; i < m.length; i++) col[i] = m[i][j];
+      b.withDataForCol(j, col);
+    }
+    b.withColNames(names).withVecTypes(types);
+    if (layout.length > 0) b.withChunkLayout(layout);
+    return b.build();
+  }
+
+  private static void assertMatrix(double[][] exp, Frame res) {
+    assertEquals(exp.length, res.numRows());
+    assertEquals(exp[0].length, res.numCols());
+    for (int i = 0; i < exp.length; i++)
+      for (int j = 0; j < exp[0].length; j++)
+        assertEquals("row " + i + " col " + j, exp[i][j], res.vec(j).at(i), 1e-9);
+  }
+
+  // a'b if transposed, else ab; an NA times a zero is an NA
+  private static double[][] multiply(double[][] a, double[][] b, boolean transposed) {
+    int n = transposed ? a[0].length : a.length, k = b.length, m = b[0].length;
+    double[][] c = new double[n][m];
+    for (int i = 0; i < n; i++)
+      for (int j = 0; j < m; j++)
+        for (int l = 0; l < k; l++)
+          c[i][j] += (transposed ? a[l][i] : a[i][l]) * b[l][j];
+    return c;
+  }
+
+  @Test public void testMmul() {
+    for (boolean nas : new boolean[]{false, true}) {
+      Random rnd = new Random(0xd3a);
+      double[][] x = matrix(rnd, 1000, 12, nas), y = matrix(rnd, 12, 7, nas);
+      if (nas) {
+        y[1][2] = Double.NaN;   // Times the mostly zero (sparse) column 1 of x
+        x[5][3] = Double.NaN;   // Times a zero of y
+        y[3][4] = 0;
+      }
+      // One pass, passes of 3 columns, and a column at a time
+      checkMmul(x, y, DMatrix.BROADCAST_LIMIT, 12 * 3, 11);
+    }
+  }
+
+  private static void checkMmul(double[][] x, double[][] y, int... limits) {
+    double[][] exp = multiply(x, y, false);
+    Frame fx = frame("mmulX", x, 300, 0, 500, 200), fy = frame("mmulY", y);
+    try {
+      for (int lim : limits) {
+        Frame z = DMatrix.mmul(fx, fy, lim);
+        try {
+          assertMatrix(exp, z);
+          assertEquals("C7", z.name(6));
+        } finally {
+          z.delete();
+        }
+      }
+    } finally {
+      fx.delete();
+      fy.delete();
+    }
+  }
+
+  @Test public void testTmmul() {
+    Random rnd = new Random(0x7a1);
+    double[][] x = matrix(rnd, 1000, 9, true), y = matrix(rnd, 1000, 4, true);
+    Frame fx = frame("tmmulX", x, 300, 0, 500, 200), fy = frame("tmmulY", y, 600, 400), z = null;
+    try {
+      z = DMatrix.tmmul(fx, fy);
+      assertMatrix(multiply(x, y, true), z);
+      z.delete();
+      z = Rapids.exec("(x (t tmmulX) tmmulX)").getFrame();
+      assertMatrix(multiply(x, x, true), z);
+    } finally {
+      if (z != null) z.delete();
+      fx.delete();
+      fy.delete();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class) public void testDimensions() {
+    Frame f = frame("dimX", new double[][]{{1, 2}, {3, 4}, {5, 6}});
+    try {
+      DMatrix.mmul(f, f);
+    } finally {
+      f.delete();
+    }
+  }
+}
@@ -95,6 +95,41 @@ public class DKVTest extends TestUtil {
     }
   }
 
+  private static class TestGetAll extends MRTask<TestGetAll> {
+    final Key[] _keys;
+    TestGetAll(Key[] keys) { _keys = keys; }
+
+    @Override public void setupLocal() {
+      Value[] vals = DKV.getAll(_keys);
+      for (int i = 0; i < _keys.length; ++i) {
+        if (i % 7 == 0) {
+          Assert.assertNull("Key " + _keys[i] + " was never put", vals[i]);
+        } else {
+          Assert.assertEquals(i, ((IcedInt) vals[i].get())._val);
+          Assert.assertSame("Fetched value should be cached", vals[i], DKV.get(_keys[i]));
+        }
+      }
+    }
+  }
+
+  /**
+   * Batched get of keys homed all over the cloud, some of them missing; every node fetches all of them.
+   */
+  @Test
+  public void testGetAll() {
+    final Key[] keys = new Key[1000];
+    try {
+      for (int i = 0; i < keys.length; ++i) {
+        keys[i] = Key.make((byte) 1, Key.HIDDEN_USER_KEY, true, H2O.CLOUD._memary[i % H2O.CLOUD.size()]);
+        if (i % 7 != 0) DKV.put(keys[i], new IcedInt(i));
+      }
+      new TestGetAll(keys).doAllNodes();
+    } finally {
+      for (Key k : keys)
+        if (k != null) DKV.remove(k);
+    }
+  }
+
   class Bytes extends Iced<Bytes> {
     public byte[] _b;
     Bytes(byte[] b) { _b = b; }
@@ -3,6 +3,7 @@ package water;
 import org.junit.*;
 import water.fvec.Vec;
 import water.fvec.Chunk;
+import water.util.IcedInt;
 import water.util.PrettyPrint;
 
 public class MRTaskTest extends TestUtil {
@@ -47,6 +48,83 @@ public class MRTaskTest extends TestUtil {
 
     zeros.remove();
   }
+  // Any reduction topology gives the same result, in the same order
+  @Test
+  public void testReduceTopology() {
+    Vec vec = Vec.makeCon(1.0,10000,3,true);
+    try {
+      String expected = new ChunkOrder().doAll(vec)._order;
+      for( int fanIn : new int[]{2,3,H2O.CLOUD.size()} )
+        for( boolean pipelined : new boolean[]{false,true} ) {
+          ChunkOrder co = new ChunkOrder().reduceTopology(fanIn,pipelined).profile().doAll(vec);
+          Assert.assertEquals("fanIn="+fanIn+", pipelined="+pipelined, expected, co._order);
+          Assert.assertEquals(vec.length(), co._sum, 0);
+          String prof = co.profString();
+          Assert.assertTrue(prof, prof.contains("Nodes, slowest first"));
+          Assert.assertEquals(prof, H2O.CLOUD.size(), prof.split(" total ").length-1);
+        }
+    } finally {
+      vec.remove();
+    }
+  }
+  // Order-sensitive reduction: chunk indices in the order of reduction
+  private static class ChunkOrder extends MRTask<ChunkOrder> {
+    String _order;
+    double _sum;
+    @Override public void map(Chunk c) {
+      _order = c.cidx() + ",";
+      for( int i=0; i<c._len; i++ ) _sum += c.atd(i);
+    }
+    @Override public void reduce(ChunkOrder co) { _order += co._order; _sum += co._sum; }
+  }
+
+  // One Node made slow: the speculative task does not wait for it, and still
+  // gives the right result.  The tree of the reduction starts at self, so the
+  // Node before self is a leaf of it for any fan-in, and the Node handing it
+  // work speculates on it alone.
+  @Test
+  public void testSpeculation() {
+    Vec vec = Vec.makeCon(1.0,10000,5,true);
+    try {
+      int slow = (H2O.SELF.index()+H2O.CLOUD.size()-1) % H2O.CLOUD.size(); // Not self
+      for( int fanIn : new int[]{2,H2O.CLOUD.size()} ) {
+        Key gate = Key.make();
+        DKV.put(gate, new IcedInt(1));
+        try {
+          double expected = new SlowSum(-1,gate).doAll(vec)._sum;
+          long start = System.currentTimeMillis();
+          SlowSum ss = new SlowSum(slow,gate).reduceTopology(fanIn,false).speculative().doAll(vec);
+          long ms = System.currentTimeMillis() - start;
+          Assert.assertEquals(expected, ss._sum, 0);
+          Assert.assertEquals(vec.length(), ss._rows);
+          Assert.assertTrue("fanIn="+fanIn+", waited for the slow Node: " + ms + "ms", ms < SlowSum.MAX_SLOW_MS/2);
+        } finally {
+          DKV.remove(gate);     // Let the slow Node go
+        }
+      }
+    } finally {
+      vec.remove();
+    }
+  }
+  // Sums the rows; on the slow Node, the maps hang as long as the gate Key exists
+  private static class SlowSum extends MRTask<SlowSum> {
+    static final long MAX_SLOW_MS = 60000;
+    final int _slow;
+    final Key _gate;
+    double _sum;
+    long _rows;
+    SlowSum(int slow, Key gate) { _slow = slow; _gate = gate; }
+    @Override public void map(Chunk c) {
+      long start = System.currentTimeMillis();
+      if( H2O.SELF.index() == _slow )
+        while( DKV.get(_gate) != null && System.currentTimeMillis() - start < MAX_SLOW_MS )
+          try { Thread.sleep(10); } catch( InterruptedException ignore ) { }
+      for( int i=0; i<c._len; i++ ) _sum += c.atd(i);
+      _rows += c._len;
+    }
+    @Override public void reduce(SlowSum ss) { _sum += ss._sum; _rows += ss._rows; }
+  }
+
   private static MRTask manyMaps(Vec vec) {
     return new MRTask() { 
       @Override public void map(Chunk cs[]) { }
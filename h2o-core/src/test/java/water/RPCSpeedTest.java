@@ -0,0 +1,92 @@
+package water;
+
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Throughput and latency of RPCs between the Nodes of a local multi-JVM cloud.
+ *
+ * Start the helper Nodes first, eg. for a 2 Node cloud:
+ * <pre>
+ *   java -cp ... water.H2O -name rpcbench -ip 127.0.0.1 -port 54323 -flatfile flatfile.txt
+ *   java -cp ... -Drpcbench.cloudsize=2 org.junit.runner.JUnitCore water.RPCSpeedTest
+ * </pre>
+ * (the driver takes the same -name/-flatfile arguments via -Drpcbench.args).
+ * Compare the transports by running with -Dsys.ai.h2o.network.selectorTransport=true on all Nodes,
+ * and the TCP compression by running with -Dsys.ai.h2o.network.compression=true on all Nodes.
+ */
+@Ignore("Speed/perf test, not intended as a pre-push junit test")
+public class RPCSpeedTest extends TestUtil {
+
+  static final int NCLOUD = Integer.getInteger("rpcbench.cloudsize", 2);
+  static final int NCALLS = Integer.getInteger("rpcbench.calls", 20000);
+  static final int NINFLIGHT = 256;
+
+  @BeforeClass static public void setup() {
+    String args = System.getProperty("rpcbench.args");
+    stall_till_cloudsize(args == null ? new String[0] : args.split(" "), NCLOUD);
+  }
+
+  /** Echoes its payload back. Small payloads travel over the batched small-message channel, big over TCP. */
+  private static class Echo extends DTask<Echo> {
+    double[] _payload;
+    Echo(int size) {
+      // Histogram-like payload: few distinct values
+      _payload = new double[size / 8];
+      for( int i = 0; i < _payload.length; i++ ) _payload[i] = (i * 31 % 17) / 4.0;
+    }
+    @Override public void compute2() { tryComplete(); }
+  }
+
+  @AfterClass static public void printWireStats() {
+    for( TCPCompression.Stats s : TCPCompression.stats() )
+      System.out.println(String.format("RPC compression %s: sent %d msgs %d -> %d bytes in %.1fms, received %d msgs %d <- %d bytes in %.1fms",
+              s._type, s._sent, s._sentBytes, s._sentWireBytes, s._compressNs / 1e6, s._recv, s._recvBytes, s._recvWireBytes, s._decompressNs / 1e6));
+  }
+
+  @Test public void testSmallRPCs() { bench(64); }
+
+  @Test public void testBigRPCs() { bench(64 * 1024); }
+
+  private void bench(int payload) {
+    List<H2ONode> remotes = new ArrayList<>();
+    for( H2ONode n : H2O.CLOUD.members() )
+      if( n != H2O.SELF ) remotes.add(n);
+    Assert.assertTrue("Needs a multi-node cloud", !remotes.isEmpty());
+    int calls = payload > 1024 ? NCALLS / 10 : NCALLS;
+
+    // Warmup
+    double[] expected = new Echo(payload)._payload;
+    for( int i = 0; i < 1000; i++ )
+      Assert.assertArrayEquals(expected, new RPC<>(remotes.get(i % remotes.size()), new Echo(payload)).call().get()._payload, 0);
+
+    // Latency: one call at a time
+    long[] lat = new long[calls];
+    long start = System.nanoTime();
+    for( int i = 0; i < calls; i++ ) {
+      long t = System.nanoTime();
+      new RPC<>(remotes.get(i % remotes.size()), new Echo(payload)).call().get();
+      lat[i] = System.nanoTime() - t;
+    }
+    long serial = System.nanoTime() - start;
+    Arrays.sort(lat);
+
+    // Throughput: many calls in flight
+    RPC[] rpcs = new RPC[NINFLIGHT];
+    start = System.nanoTime();
+    for( int i = 0; i < calls; i++ ) {
+      int j = i % NINFLIGHT;
+      if( rpcs[j] != null ) rpcs[j].get();
+      rpcs[j] = new RPC<>(remotes.get(i % remotes.size()), new Echo(payload)).call();
+    }
+    for( RPC rpc : rpcs ) if( rpc != null ) rpc.get();
+    long parallel = System.nanoTime() - start;
+
+    System.out.println(String.format("RPC payload=%dB nodes=%d calls=%d: latency p50=%.1fus p99=%.1fus mean=%.1fus; throughput %.0f calls/s (%d in flight)",
+            payload, NCLOUD, calls, lat[calls / 2] / 1e3, lat[(int) (calls * 0.99)] / 1e3, serial / 1e3 / calls,
+            calls / (parallel / 1e9), NINFLIGHT));
+  }
+}
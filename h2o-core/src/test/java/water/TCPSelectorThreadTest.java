@@ -0,0 +1,78 @@
+package water;
+
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Small-message traffic between the Nodes of a multi-JVM cloud.
+ *
+ * testMultiNode.sh runs the driver with -Dsys.ai.h2o.network.selectorTransport=true
+ * and the helpers without, so the calls below travel over selector served
+ * channels on one end and thread served channels on the other.
+ */
+public class TCPSelectorThreadTest extends TestUtil {
+  @BeforeClass public static void setup() { stall_till_cloudsize(1); }
+
+  /** Answers a function of its argument and of the Node it ran on. */
+  private static class Square extends DTask<Square> {
+    int _x;
+    long _res;
+    Square(int x) { _x = x; }
+    @Override public void compute2() {
+      _res = (long) _x * _x + H2O.SELF.index();
+      tryComplete();
+    }
+  }
+
+  private static List<H2ONode> remotes() {
+    List<H2ONode> remotes = new ArrayList<>();
+    for( H2ONode n : H2O.CLOUD.members() )
+      if( n != H2O.SELF ) remotes.add(n);
+    return remotes;
+  }
+
+  // Fire the calls with many of them in flight (more than the per channel
+  // limit of unhandled messages, to get the receivers paused and resumed)
+  // and check every answer.
+  private static int callAll( List<H2ONode> targets, int ncalls, int ninflight ) {
+    RPC<Square>[] rpcs = new RPC[ncalls];
+    for( int i = 0; i < ncalls; i++ ) {
+      if( i >= ninflight ) rpcs[i - ninflight].get();
+      rpcs[i] = new RPC<>(targets.get(i % targets.size()), new Square(i)).call();
+    }
+    for( int i = 0; i < ncalls; i++ ) {
+      H2ONode target = targets.get(i % targets.size());
+      assertEquals("call " + i + " to " + target, (long) i * i + target.index(), rpcs[i].get()._res);
+    }
+    return ncalls;
+  }
+
+  @Test public void testDriverToNodes() {
+    List<H2ONode> remotes = remotes();
+    Assume.assumeTrue("Needs a multi-node cloud", !remotes.isEmpty());
+    if( TCPSelectorThread.enabled(H2O.SELF.getSecurityManager()) )
+      for( H2ONode n : remotes )
+        assertNotNull("Channel to " + n + " is not served by a selector", n._outbound);
+    callAll(remotes, 5000, 2048);
+  }
+
+  @Test public void testAllToAll() {
+    Assume.assumeTrue("Needs a multi-node cloud", H2O.CLOUD.size() > 1);
+    // Every Node calls every other Node
+    AllToAll task = new AllToAll().doAllNodes();
+    int n = H2O.CLOUD.size();
+    assertEquals(n * 1000, task._calls);
+  }
+
+  private static class AllToAll extends MRTask<AllToAll> {
+    int _calls;
+    @Override protected void setupLocal() { _calls = callAll(remotes(), 1000, 512); }
+    @Override public void reduce( AllToAll t ) { _calls += t._calls; }
+  }
+}
@@ -0,0 +1,144 @@
+package water.api;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.DKV;
+import water.H2O;
+import water.Job;
+import water.Key;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the columnar download and upload of a Frame over HTTP.
+ */
+public class ColumnarFrameServletTest extends TestUtil {
+  @BeforeClass public static void setup() {
+    stall_till_cloudsize(1);
+    H2O.finalizeRegistration();
+  }
+
+  private static HttpURLConnection open(String path) throws IOException {
+    return (HttpURLConnection) new URL(H2O.getURL("http") + path).openConnection();
+  }
+
+  private static byte[] readAll(InputStream is) throws IOException {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try {
+      byte[] buf = new byte[1 << 16];
+      for (int n; (n = is.read(buf)) >= 0; ) bos.write(buf, 0, n);
+    } finally {
+      is.close();
+    }
+    return bos.toByteArray();
+  }
+
+  private static byte[] download(String frameId) throws IOException {
+    HttpURLConnection conn = open("/3/DownloadDataset.columnar?frame_id=" + frameId);
+    assertEquals(200, conn.getResponseCode());
+    assertEquals("application/octet-stream", conn.getContentType());
+    return readAll(conn.getInputStream());
+  }
+
+  private static HttpURLConnection upload(String frameId, byte[] bytes, boolean chunked) throws IOException {
+    HttpURLConnection conn = open("/3/UploadFrame.columnar?destination_frame=" + frameId);
+    conn.setDoOutput(true);
+    conn.setRequestMethod("POST");
+    conn.setRequestProperty("Content-Type", "application/octet-stream");
+    if (chunked) conn.setChunkedStreamingMode(1 << 10);
+    else conn.setFixedLengthStreamingMode(bytes.length);
+    OutputStream os = conn.getOutputStream();
+    os.write(bytes);
+    os.close();
+    return conn;
+  }
+
+  @Test public void testRoundTrip() throws IOException {
+    Frame fr = null, copy = null;
+    try {
+      fr = new TestFrameBuilder()
+          .withName("columnarServlet.hex")
+          .withColNames("num", "cat", "str")
+          .withVecTypes(Vec.T_NUM, Vec.T_CAT, Vec.T_STR)
+          .withDataForCol(0, ard(1.5, Double.NaN, -3, 4e10))
+          .withDataForCol(1, ar("b", "c", "a", "b"))
+          .withDataForCol(2, ar("x", "yé", null, ""))
+          .withChunkLayout(3, 1)
+          .build();
+      byte[] bytes = download("columnarServlet.hex");
+
+      HttpURLConnection conn = upload("columnarServletCopy.hex", bytes, false);
+      assertEquals(200, conn.getResponseCode());
+      String json = new String(readAll(conn.getInputStream()), "UTF-8");
+      assertTrue(json, json.contains("\"rows\": 4"));
+      copy = DKV.getGet("columnarServletCopy.hex");
+      assertNotNull(copy);
+      assertArrayEquals(fr.names(), copy.names());
+      assertArrayEquals(fr.domains(), copy.domains());
+      assertArrayEquals(fr.types(), copy.types());
+
+      // The copy downloads to the same bytes
+      assertArrayEquals(bytes, download("columnarServletCopy.hex"));
+    } finally {
+      if (fr != null) fr.delete();
+      if (copy != null) copy.delete();
+    }
+  }
+
+  @Test public void testLengthRequired() throws IOException {
+    HttpURLConnection conn = upload("columnarServletChunked.hex", new byte[]{'H', '2', 'O', 'C'}, true);
+    assertEquals(HttpURLConnection.HTTP_LENGTH_REQUIRED, conn.getResponseCode());
+    assertNull(DKV.get("columnarServletChunked.hex"));
+  }
+
+  @Test public void testMethodNotAllowed() throws IOException {
+    HttpURLConnection conn = open("/3/UploadFrame.columnar?destination_frame=columnarServletGet.hex");
+    assertEquals(HttpURLConnection.HTTP_BAD_METHOD, conn.getResponseCode());
+    assertEquals("POST", conn.getHeaderField("Allow"));
+    assertNull(DKV.get("columnarServletGet.hex"));
+
+    conn = open("/3/DownloadDataset.columnar?frame_id=columnarServletPost.hex");
+    conn.setDoOutput(true);
+    conn.setRequestMethod("POST");
+    conn.setFixedLengthStreamingMode(0);
+    conn.getOutputStream().close();
+    assertEquals(HttpURLConnection.HTTP_BAD_METHOD, conn.getResponseCode());
+    assertEquals("GET", conn.getHeaderField("Allow"));
+  }
+
+  @Test public void testLockedDestination() throws IOException {
+    Frame fr = null;
+    Key<Job> job = Key.make();
+    try {
+      fr = new TestFrameBuilder()
+          .withName("columnarServletLocked.hex")
+          .withColNames("num")
+          .withVecTypes(Vec.T_NUM)
+          .withDataForCol(0, ard(1, 2, 3))
+          .build();
+      byte[] bytes = download("columnarServletLocked.hex");
+      fr.write_lock(job);       // As by a running parse or model build
+
+      HttpURLConnection conn = upload("columnarServletLocked.hex", bytes, false);
+      assertEquals(HttpURLConnection.HTTP_BAD_REQUEST, conn.getResponseCode());
+      Frame locked = DKV.getGet("columnarServletLocked.hex");
+      assertEquals(fr.vec(0)._key, locked.vec(0)._key);
+    } finally {
+      if (fr != null) {
+        fr.unlock(job);
+        fr.delete();
+      }
+    }
+  }
+}
@@ -0,0 +1,144 @@
+package water.fvec;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.DKV;
+import water.Futures;
+import water.Key;
+import water.TestUtil;
+import water.parser.BufferedString;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ColumnarFrameCodecTest extends TestUtil {
+  @BeforeClass
+  public static void setup() { stall_till_cloudsize(1); }
+
+  // Columns of all wire types, with NAs, in chunks of 3, 0, 5 and 2 rows
+  private static Frame makeFrame() {
+    byte[] types = {Vec.T_NUM, Vec.T_NUM, Vec.T_TIME, Vec.T_CAT, Vec.T_STR, Vec.T_UUID, Vec.T_BAD};
+    Key<Vec>[] keys = new Vec.VectorGroup().addVecs(types.length);
+    AppendableVec[] avs = new AppendableVec[types.length];
+    for (int i = 0; i < types.length; i++) avs[i] = new AppendableVec(keys[i], types[i]);
+    avs[3].setDomain(new String[]{"a", "b", "c"});
+    Futures fs = new Futures();
+    int row = 0;
+    int[] layout = {3, 0, 5, 2};
+    for (int cidx = 0; cidx < layout.length; cidx++) {
+      NewChunk[] ncs = new NewChunk[types.length];
+      for (int i = 0; i < types.length; i++) ncs[i] = new NewChunk(avs[i], cidx);
+      for (int r = 0; r < layout[cidx]; r++, row++) {
+        boolean na = row % 4 == 1;
+        if (na) for (NewChunk nc : ncs) nc.addNA();
+        else {
+          ncs[0].addNum(row * 1.25 - 3);
+          ncs[1].addNum(row * 1000000007L, 0);
+          ncs[2].addNum(1500000000000L + row * 86400000L, 0);
+          ncs[3].addCategorical(row % 3);
+          ncs[4].addStr(row % 3 == 0 ? "" : "sé" + row);
+          ncs[5].addUUID(row, -row);
+          ncs[6].addNA();
+        }
+      }
+      for (NewChunk nc : ncs) nc.close(cidx, fs);
+    }
+    Vec[] vecs = AppendableVec.closeAll(avs, fs);
+    fs.blockForPending();
+    Frame fr = new Frame(Key.<Frame>make(), new String[]{"num", "int", "time", "cat", "str", "uuid", "bad"}, vecs);
+    DKV.put(fr);
+    return fr;
+  }
+
+  private static byte[] encode(Frame fr) throws Exception {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    assertEquals(ColumnarFrameCodec.write(fr, bos), bos.size());
+    return bos.toByteArray();
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    Frame fr = null, res = null;
+    try {
+      fr = makeFrame();
+      byte[] bytes = encode(fr);
+      res = ColumnarFrameCodec.read(Key.<Frame>make(), new ByteArrayInputStream(bytes), bytes.length);
+      assertNotNull(DKV.get(res._key));
+      assertArrayEquals(fr.names(), res.names());
+      assertEquals(fr.numRows(), res.numRows());
+      assertEquals(fr.anyVec().nChunks(), res.anyVec().nChunks());
+      assertArrayEquals(fr.vec("cat").domain(), res.vec("cat").domain());
+      assertEquals(Vec.T_BAD, res.vec("bad").get_type());
+      for (int i = 0; i < fr.numCols(); i++) {
+        Vec v = fr.vec(i), w = res.vec(i);
+        assertEquals(fr.name(i), v.get_type(), w.get_type());
+        BufferedString a = new BufferedString(), b = new BufferedString();
+        for (long r = 0; r < fr.numRows(); r++) {
+          assertEquals(fr.name(i) + ", row " + r, v.isNA(r), w.isNA(r));
+          if (v.isNA(r)) continue;
+          switch (v.get_type()) {
+            case Vec.T_STR:
+              assertEquals(v.atStr(a, r).toString(), w.atStr(b, r).toString());
+              break;
+            case Vec.T_UUID:
+              assertEquals(v.at16l(r), w.at16l(r));
+              assertEquals(v.at16h(r), w.at16h(r));
+              break;
+            default:
+              assertEquals(v.at(r), w.at(r), 0);
+              assertEquals(v.isInt(), w.isInt());
+          }
+        }
+      }
+      // Re-encoding gives the same bytes
+      assertArrayEquals(bytes, encode(res));
+    } finally {
+      if (fr != null) fr.delete();
+      if (res != null) res.delete();
+    }
+  }
+
+  @Test
+  public void testMalformed() throws Exception {
+    Frame fr = null;
+    try {
+      fr = makeFrame();
+      byte[] bytes = encode(fr);
+      // Truncated, with a bad category code, with a length past the end, and
+      // with more columns than bytes
+      byte[][] bad = {Arrays.copyOf(bytes, bytes.length - 20), bytes.clone(), bytes.clone(), bytes.clone()};
+      // Codes of the first chunk: 0, NA, 2
+      int code = indexOf(bad[1], new byte[]{12, 0, 0, 0, 0, 0, 0, 0, -1, -1, -1, -1, 2, 0, 0, 0});
+      assertTrue(code > 0);
+      bad[1][code + 12] = 7;
+      // String data of the first chunk: "", "sé2"
+      int str = indexOf(bad[2], new byte[]{4, 0, 0, 0, 's', (byte) 0xc3, (byte) 0xa9, '2'});
+      assertTrue(str > 0);
+      bad[2][str + 3] = 0x7f;
+      bad[3][11] = 0x7f;                                // ncols
+      for (byte[] b : bad) {
+        Key<Frame> key = Key.make();
+        try {
+          ColumnarFrameCodec.read(key, new ByteArrayInputStream(b), b.length);
+          fail("Expected a failure");
+        } catch (java.io.EOFException | IllegalArgumentException expected) {
+        }
+        assertNull(DKV.get(key));
+      }
+    } finally {
+      if (fr != null) fr.delete();
+    }
+  }
+
+  private static int indexOf(byte[] a, byte[] pat) {
+    outer:
+    for (int i = 0; i + pat.length <= a.length; i++) {
+      for (int j = 0; j < pat.length; j++) if (a[i + j] != pat[j]) continue outer;
+      return i;
+    }
+    return -1;
+  }
+}
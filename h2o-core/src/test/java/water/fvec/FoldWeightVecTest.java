@@ -0,0 +1,39 @@
+package water.fvec;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.TestUtil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FoldWeightVecTest extends TestUtil {
+  @BeforeClass static public void setup() {  stall_till_cloudsize(1); }
+
+  @Test public void testFoldWeights() {
+    Vec fold = null, weights = null;
+    try {
+      fold = ivec(0, 1, 2, 0, 1, 2, 3);
+      weights = dvec(1, 2, Double.NaN, 4, 5, 6, 7);
+      for (int f = 0; f < 3; f++) {
+        Vec train = new FoldWeightVec(fold, weights, 3, f, false);
+        Vec holdout = new FoldWeightVec(fold, weights, 3, f, true);
+        Vec ones = new FoldWeightVec(fold, null, 3, f, true);
+        for (int row = 0; row < fold.length(); row++) {
+          boolean in = fold.at8(row) % 3 == f;
+          double w = weights.at(row);
+          assertEquals(in ? 0 : w, train.at(row), 0);
+          assertEquals(in ? w : 0, holdout.at(row), 0);
+          assertEquals(in ? 1 : 0, ones.at(row), 0);
+        }
+        assertTrue(!train.isConst() && !ones.isConst());
+        train.remove();
+        holdout.remove();
+        ones.remove();
+      }
+    } finally {
+      if (fold != null) fold.remove();
+      if (weights != null) weights.remove();
+    }
+  }
+}
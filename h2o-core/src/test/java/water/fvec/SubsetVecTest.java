@@ -0,0 +1,71 @@
+package water.fvec;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.DKV;
+import water.H2O;
+import water.Key;
+import water.TestUtil;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the rows and the remote chunks of a Vec of a subset of the rows of another.
+ */
+public class SubsetVecTest extends TestUtil {
+  @BeforeClass public static void setup() { stall_till_cloudsize(1); }
+
+  @Test public void testSubset() {
+    int n = 1000;
+    double[] vals = new double[n], rownums = new double[n / 2];
+    for (int r = 0; r < n; r++) vals[r] = 10 * r;
+    for (int r = 0; r < rownums.length; r++) rownums[r] = n - 1 - 2 * r; // Every other row, backwards
+    Frame master = new TestFrameBuilder()
+        .withName("subsetMaster")
+        .withColNames("x")
+        .withVecTypes(Vec.T_NUM)
+        .withDataForCol(0, vals)
+        .withChunkLayout(100, 100, 100, 100, 100, 100, 100, 100, 100, 100)
+        .build();
+    Frame rows = new TestFrameBuilder()
+        .withName("subsetRows")
+        .withColNames("r")
+        .withVecTypes(Vec.T_NUM)
+        .withDataForCol(0, rownums)
+        .withChunkLayout(50, 150, 50, 250)
+        .build();
+    Vec rv = rows.vec(0), mv = master.vec(0);
+    SubsetVec sv = new SubsetVec(rv.group().addVec(), rv._rowLayout, mv._key, rv._key);
+    DKV.put(sv);
+    try {
+      // The remote chunks of the rows, and of the master for the rows at hand
+      HashSet<Key> exp = new HashSet<>();
+      for (int cidx = 0; cidx < rv.nChunks(); cidx++) {
+        Key k = rv.chunkKey(cidx);
+        if (!k.home()) exp.add(k);
+        if (k.home() || H2O.containsKey(k)) {
+          Chunk c = rv.chunkForChunkIdx(cidx);
+          for (int i = 0; i < c._len; i++) {
+            Key mk = mv.chunkKey(mv.elem2ChunkIdx(c.at8(i)));
+            if (!mk.home()) exp.add(mk);
+          }
+        }
+      }
+      List<Key> keys = new ArrayList<>();
+      sv.remoteChunkKeys(0, rv.nChunks(), keys);
+      assertEquals(exp.size(), keys.size());    // No duplicates
+      assertEquals(exp, new HashSet<>(keys));
+
+      for (int r = 0; r < rownums.length; r++)
+        assertEquals(vals[(int) rownums[r]], sv.at(r), 0);
+    } finally {
+      DKV.remove(sv._key);
+      master.delete();
+      rows.delete();
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package water.network;
+
+import org.junit.Test;
+import water.util.LZ4;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CompressedSocketChannelTest {
+
+    private static byte[] page(int len, int kind, Random r) {
+        byte[] b = new byte[len];
+        switch (kind) {
+            case 0: r.nextBytes(b); break;                             // Incompressible
+            case 1: break;                                             // Zeros
+            case 2: ByteBuffer bb = ByteBuffer.wrap(b);                // Doubles with a few distinct values
+                while (bb.remaining() >= 8) bb.putDouble(r.nextInt(10) / 4.0);
+                break;
+            default: for (int i = 0; i < len; i++) b[i] = (byte) "abcabcd".charAt(i % 7); // Short repeats
+        }
+        return b;
+    }
+
+    @Test
+    public void testLZ4RoundTrip() {
+        Random r = new Random(42);
+        int[] table = LZ4.newTable();
+        for (int len : new int[]{0, 1, 5, 12, 13, 17, 100, 4096, 65536, 100000}) {
+            for (int kind = 0; kind < 4; kind++) {
+                byte[] src = page(len, kind, r);
+                byte[] comp = new byte[LZ4.maxCompressedLength(len)];
+                int clen = LZ4.compress(src, 0, len, comp, 0, table);
+                byte[] dec = new byte[len];
+                assertEquals(len, LZ4.decompress(comp, 0, clen, dec, 0));
+                assertArrayEquals("len=" + len + ", kind=" + kind, src, dec);
+                if (len >= 4096 && kind > 0)
+                    assertTrue("Expected compression, len=" + len + " kind=" + kind + " got " + clen, clen < len / 2);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLZ4MalformedBlock() {
+        byte[] comp = {(byte) 0x10, 'a', (byte) 0x05, 0x00}; // Match offset beyond the output start
+        LZ4.decompress(comp, 0, comp.length, new byte[64], 0);
+    }
+
+    @Test
+    public void testMessageRoundTrip() throws Exception {
+        Random r = new Random(0xfeed);
+        byte[][] pages = new byte[8][];
+        for (int i = 0; i < pages.length; i++)
+            pages[i] = page(i == pages.length - 1 ? 1000 : 64 * 1024, i % 4, r);
+
+        ByteArrayOutputStream wire = new ByteArrayOutputStream();
+        WritableByteChannel out = Channels.newChannel(wire);
+        CompressedSocketChannel w = new CompressedSocketChannel(new ChannelPair(null, out));
+        long raw = 0;
+        for (byte[] p : pages) {
+            assertEquals(p.length, w.write(ByteBuffer.wrap(p)));
+            raw += p.length;
+        }
+        w.flush();
+        byte[] bytes = wire.toByteArray();
+        assertEquals(raw, w.rawBytes());
+        assertEquals(bytes.length, w.wireBytes());
+        assertTrue("Expected compression: " + bytes.length + " of " + raw, bytes.length < raw * 3 / 4);
+        assertEquals(CompressedSocketChannel.MAGIC, bytes[0] & 0xFF);
+
+        // Reader sees the magic byte and some following bytes in its first read, and the rest from the socket
+        byte[] trailing = {1, 2, 3}; // Must not be consumed, belongs to the next message
+        ByteArrayInputStream is = new ByteArrayInputStream(Arrays.copyOfRange(concat(bytes, trailing), 100, bytes.length + trailing.length));
+        ReadableByteChannel in = Channels.newChannel(is);
+        ByteBuffer first = ByteBuffer.wrap(bytes, 1, 99);
+        CompressedSocketChannel rd = new CompressedSocketChannel(new ChannelPair(in, null), first);
+        ByteBuffer dst = ByteBuffer.allocate(10000);
+        ByteArrayOutputStream got = new ByteArrayOutputStream();
+        while (got.size() < raw) {
+            dst.clear();
+            int n = rd.read(dst);
+            assertTrue(n > 0);
+            got.write(dst.array(), 0, n);
+        }
+        byte[] all = got.toByteArray();
+        int off = 0;
+        for (byte[] p : pages) {
+            assertArrayEquals(p, Arrays.copyOfRange(all, off, off + p.length));
+            off += p.length;
+        }
+        assertEquals(raw, rd.rawBytes());
+        assertEquals(bytes.length, rd.wireBytes());
+        assertEquals(trailing.length, is.available());
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] res = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, res, a.length, b.length);
+        return res;
+    }
+
+    private static class ChannelPair implements java.nio.channels.ByteChannel {
+        final ReadableByteChannel _in;
+        final WritableByteChannel _out;
+        ChannelPair(ReadableByteChannel in, WritableByteChannel out) { _in = in; _out = out; }
+        @Override public int read(ByteBuffer dst) throws java.io.IOException { return _in.read(dst); }
+        @Override public int write(ByteBuffer src) throws java.io.IOException { return _out.write(src); }
+        @Override public boolean isOpen() { return true; }
+        @Override public void close() {}
+    }
+}
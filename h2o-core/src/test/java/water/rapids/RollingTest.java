@@ -0,0 +1,124 @@
+package water.rapids;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test rolling aggregates against the windows computed row by row.
+ */
+public class RollingTest extends TestUtil {
+  private static Frame fr;
+
+  @BeforeClass public static void setup() {
+    stall_till_cloudsize(1);
+    Random rnd = new Random(0x9011);
+    int n = 600;
+    double[] x = new double[n], t = new double[n];
+    String[] g = new String[n];
+    int grp = 0;
+    double time = 0;
+    for (int r = 0; r < n; r++) {
+      if (rnd.nextInt(60) == 0) { grp++; time = 0; }  // Contiguous groups, sorted by time
+      g[r] = "g" + grp;
+      time += rnd.nextInt(3);                          // Ties in time
+      t[r] = time < 2 && rnd.nextBoolean() ? Double.NaN : time;
+      if (Double.isNaN(t[r])) time = 0;                // NA times first in the group
+      x[r] = rnd.nextInt(10) == 0 ? Double.NaN : 1e6 + rnd.nextInt(100);
+    }
+    fr = new TestFrameBuilder()
+        .withName("rollTest")
+        .withColNames("x", "t", "g")
+        .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_CAT)
+        .withDataForCol(0, x)
+        .withDataForCol(1, t)
+        .withDataForCol(2, g)
+        .withChunkLayout(7, 0, 13, 80, 100, 400)
+        .build();
+  }
+
+  @AfterClass public static void teardown() {
+    if (fr != null) fr.delete();
+  }
+
+  @Test public void testRows() {
+    for (String fun : Rolling.FUNS)
+      for (int w : new int[]{1, 5, 30, 1000})
+        for (String by : new String[]{"[]", "[2]"})
+          check(fun, w, "[]", by, 0.3);
+  }
+
+  @Test public void testTime() {
+    for (String fun : Rolling.FUNS)
+      for (int w : new int[]{1, 4, 50})
+        check(fun, w, "[1]", "[2]", 0.75);  // Time restarts with every group
+  }
+
+  @Test public void testUnsorted() {
+    try {
+      Rolling.rolling(fr, new int[]{0}, "sum", 3, 1, new int[0], 0);
+      fail("Expected a failure");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("not sorted"));
+    }
+  }
+
+  private static void check(String fun, int w, String time, String by, double prob) {
+    String expr = "(rolling rollTest [0] '" + fun + "' " + w + " " + time + " " + by + " " + prob + ")";
+    Frame res = Rapids.exec(expr).getFrame();
+    try {
+      assertArrayEquals(new String[]{"x_rolling_" + fun}, res.names());
+      boolean timed = time.equals("[1]"), grouped = by.equals("[2]");
+      for (int r = 0; r < fr.numRows(); r++) {
+        double tr = fr.vec(1).at(r), exp;
+        if (timed && Double.isNaN(tr)) exp = Double.NaN;
+        else {
+          ArrayList<Double> win = new ArrayList<>();
+          for (int s = r; s >= 0; s--) {
+            if (grouped && fr.vec(2).at(s) != fr.vec(2).at(r)) break;
+            if (timed ? !(fr.vec(1).at(s) > tr - w) : r - s >= w) break;
+            if (!Double.isNaN(fr.vec(0).at(s))) win.add(fr.vec(0).at(s));
+          }
+          exp = aggregate(fun, win, prob);
+        }
+        assertEquals(expr + " row " + r, exp, res.vec(0).at(r), 1e-6);
+      }
+    } finally {
+      res.delete();
+    }
+  }
+
+  private static double aggregate(String fun, ArrayList<Double> win, double prob) {
+    int n = win.size();
+    double sum = 0;
+    for (double d : win) sum += d;
+    switch (fun) {
+      case "sum": return sum;
+      case "mean": return n == 0 ? Double.NaN : sum / n;
+      case "count": return n;
+      case "min": return n == 0 ? Double.NaN : Collections.min(win);
+      case "max": return n == 0 ? Double.NaN : Collections.max(win);
+      case "sd":
+        if (n < 2) return Double.NaN;
+        double ss = 0;
+        for (double d : win) ss += (d - sum / n) * (d - sum / n);
+        return Math.sqrt(ss / (n - 1));
+      default:
+        if (n == 0) return Double.NaN;
+        Collections.sort(win);
+        double p = (n - 1) * prob;
+        int lo = (int) p;
+        return lo + 1 < n ? win.get(lo) + (p - lo) * (win.get(lo + 1) - win.get(lo)) : win.get(lo);
+    }
+  }
+}
@@ -0,0 +1,138 @@
+package water.rapids;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the scans of cumulative functions, row numbers, lag and lead against
+ * the same computed row by row.
+ */
+public class ScanTest extends TestUtil {
+  private static Frame fr;
+
+  @BeforeClass public static void setup() {
+    stall_till_cloudsize(1);
+    Random rnd = new Random(0x5ca);
+    int n = 1200;
+    double[] a = new double[n], b = new double[n];
+    String[] g = new String[n];
+    for (int r = 0; r < n; r++) {
+      a[r] = rnd.nextInt(50) == 0 ? Double.NaN : rnd.nextInt(100) - 50;
+      b[r] = 1 + rnd.nextDouble() / 1000;
+      g[r] = rnd.nextInt(20) == 0 ? null : "g" + rnd.nextInt(rnd.nextBoolean() ? 3 : 40); // Some rare groups
+    }
+    fr = new TestFrameBuilder()
+        .withName("scanTest")
+        .withColNames("a", "b", "g")
+        .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_CAT)
+        .withDataForCol(0, a)
+        .withDataForCol(1, b)
+        .withDataForCol(2, g)
+        .withChunkLayout(100, 0, 1, 499, 300, 300)
+        .build();
+  }
+
+  @AfterClass public static void teardown() {
+    if (fr != null) fr.delete();
+  }
+
+  @Test public void testCumulative() {
+    String[] ops = {"cumsum", "cumprod", "cummin", "cummax"};
+    for (String op : ops) {
+      Frame res = Rapids.exec("(" + op + " (cols scanTest [0 1]) 0)").getFrame();
+      try {
+        assertArrayEquals(new String[]{"a", "b"}, res.names());
+        for (int c = 0; c < 2; c++) {
+          double acc = op.equals("cumsum") ? 0 : op.equals("cumprod") ? 1 : op.equals("cummin") ? Double.MAX_VALUE : -Double.MAX_VALUE;
+          for (long r = 0; r < fr.numRows(); r++) {
+            double x = fr.vec(c).at(r);
+            switch (op) {
+              case "cumsum": acc += x; break;
+              case "cumprod": acc *= x; break;
+              case "cummin": acc = Math.min(acc, x); break;
+              default: acc = Math.max(acc, x);
+            }
+            assertEquals(op + " col " + c + " row " + r, acc, res.vec(c).at(r), Math.abs(acc) * 1e-12);
+          }
+        }
+      } finally {
+        res.delete();
+      }
+    }
+  }
+
+  @Test public void testRowNumber() {
+    for (String by : new String[]{"[]", "[2]"}) {
+      Frame res = Rapids.exec("(row_number scanTest " + by + ")").getFrame();
+      try {
+        assertEquals(1, res.numCols());
+        HashMap<Double, Integer> counts = new HashMap<>();
+        for (long r = 0; r < fr.numRows(); r++) {
+          double key = by.equals("[]") ? 0 : fr.vec(2).at(r);
+          Integer cnt = counts.get(key);
+          counts.put(key, cnt = cnt == null ? 1 : cnt + 1);
+          assertEquals(by + " row " + r, cnt, res.vec(0).at(r), 0);
+        }
+      } finally {
+        res.delete();
+      }
+    }
+  }
+
+  @Test public void testLagLead() {
+    for (String f : new String[]{"lag", "lead"})
+      for (int n : new int[]{1, 3, 250, 1000000})
+        for (String by : new String[]{"[]", "[2]"}) {
+          Frame res = Rapids.exec("(" + f + " scanTest " + n + " " + by + ")").getFrame();
+          try {
+            boolean grouped = by.equals("[2]");
+            assertEquals(grouped ? 2 : 3, res.numCols());
+            if (!grouped) assertArrayEquals(fr.vec(2).domain(), res.vec(2).domain());
+            boolean lead = f.equals("lead");
+            int len = (int) fr.numRows();
+            for (int r = 0; r < len; r++) {
+              // Step n rows of the same group away
+              int s = r, k = 0;
+              while (k < n) {
+                s += lead ? 1 : -1;
+                if (s < 0 || s >= len) break;
+                if (!grouped || Double.compare(fr.vec(2).at(s), fr.vec(2).at(r)) == 0) k++;
+              }
+              for (int c = 0; c < res.numCols(); c++) {
+                double exp = s < 0 || s >= len ? Double.NaN : fr.vec(c).at(s);
+                assertEquals(f + " " + n + " " + by + " col " + c + " row " + r, exp, res.vec(c).at(r), 0);
+              }
+            }
+          } finally {
+            res.delete();
+          }
+        }
+  }
+
+  @Test public void testLagTooWide() {
+    Frame big = new TestFrameBuilder()
+        .withName("scanBig")
+        .withColNames("a")
+        .withVecTypes(Vec.T_NUM)
+        .withDataForCol(0, new double[Scan.MAX_WIDTH + 10])
+        .build();
+    try {
+      Rapids.exec("(lag scanBig " + Scan.MAX_WIDTH + " [])");
+      fail("Expected an error");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("less than " + Scan.MAX_WIDTH));
+    } finally {
+      big.delete();
+    }
+  }
+}
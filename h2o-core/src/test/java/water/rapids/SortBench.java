@@ -0,0 +1,62 @@
+package water.rapids;
+
+import org.junit.BeforeClass;
+import org.junit.Ignore;
+import org.junit.Test;
+import water.MRTask;
+import water.TestUtil;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+import water.util.RandomUtils;
+
+import java.util.Random;
+
+/**
+ * Times the radix sort of a large frame on uniform keys, and on keys of which
+ * a share of the rows have one value.
+ */
+public class SortBench extends TestUtil {
+  @BeforeClass public static void setup() { stall_till_cloudsize(1); }
+
+  @Ignore @Test public void benchSort() {
+    long nrows = 20000000;
+    for (double skew : new double[]{0, 0.5, 0.9}) {
+      Frame fr = keys(nrows, skew);
+      try {
+        time("skew " + skew, fr);
+      } finally {
+        fr.delete();
+      }
+    }
+  }
+
+  private static void time(String what, Frame fr) {
+    for (int i = 0; i < 2; i++) {  // The first run warms up
+      long t0 = System.currentTimeMillis();
+      Frame res = Merge.sort(fr, new int[]{0, 1});
+      long t = System.currentTimeMillis() - t0;
+      res.delete();
+      if (i == 1) System.out.println(what + ": " + fr.numRows() + " rows sorted in " + t + " ms");
+    }
+  }
+
+  // Two integer key columns: the first spans 2^30 values, the given share of
+  // the rows having the same value; the second spans 1000 values
+  private static Frame keys(long nrows, final double skew) {
+    Vec v = Vec.makeCon(0, nrows);
+    Frame fr = new MRTask() {
+      @Override public void map(Chunk[] cs, NewChunk[] ncs) {
+        Chunk c = cs[0];
+        Random rnd = RandomUtils.getRNG(c.start());
+        for (int r = 0; r < c._len; r++) {
+          ncs[0].addNum(rnd.nextDouble() < skew ? 1 << 29 : rnd.nextInt(1 << 30));
+          ncs[1].addNum(rnd.nextInt(1000));
+        }
+      }
+    }.doAll(2, Vec.T_NUM, new Frame(v)).outputFrame(new String[]{"k0", "k1"}, null);
+    v.remove();
+    return fr;
+  }
+}
@@ -7,8 +7,11 @@ import water.fvec.*;
 import water.nbhm.NonBlockingHashMapLong;
 import water.rapids.vals.ValFrame;
 
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Random;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class SortTest extends TestUtil {
@@ -67,6 +70,106 @@ public class SortTest extends TestUtil {
     }
   }
 
+  @Test public void testSortSkewedParallel() {
+    // Sort buckets in pieces and send batches one at a time
+    for (double skew : new double[]{0, 0.5, 1}) {
+      Frame fr = null, res = null;
+      try {
+        fr = buildSkewed(20000, skew);
+        res = Merge.sort(fr, new int[]{0, 1}, 300, 1);
+        new CheckSort().doAll(res);
+        for (int c = 0; c < 3; c++)
+          assertEquals(fr.vec(c).mean(), res.vec(c).mean(), 1e-9 * fr.vec(c).mean());
+      } finally {
+        if( fr  != null ) fr .delete();
+        if( res != null ) res.delete();
+      }
+    }
+  }
+
+  @Test public void testOwnersOfMSBs() {
+    // Heavy MSBs that round-robin would all put on node 0 go to distinct nodes
+    long[] hist = new long[256];
+    for (int msb = 0; msb < 16; msb++) hist[msb] = msb % 4 == 0 ? 1000 : 1;
+    int[] owners = SplitByMSBLocal.ownersOfMSBs(hist, 4);
+    boolean[] seen = new boolean[4];
+    long[] load = new long[4];
+    for (int msb = 0; msb < 16; msb += 4) {
+      assertTrue("MSB " + msb + " shares node " + owners[msb], !seen[owners[msb]]);
+      seen[owners[msb]] = true;
+    }
+    for (int msb = 0; msb < 256; msb++) load[owners[msb]] += hist[msb];
+    for (long l : load) assertEquals(1003, l);
+    // Empty MSBs keep their round-robin owner
+    for (int msb = 16; msb < 256; msb++) assertEquals(msb % 4, owners[msb]);
+  }
+
+  @Test public void testInsertStraddlingBatches() {
+    // Short runs are insertion sorted; runs crossing a batch boundary are
+    // sorted in a copy and copied back into both batches
+    int batchSize = 256, keySize = 2, nrows = 4 * batchSize;
+    Random rnd = new Random(0x5ad);
+    for (int[] run : new int[][]{{200, 100}, {255, 2}, {256 + 57, 199}, {3 * 256 - 1, 150}, {10, 190}}) {
+      SingleThreadRadixOrder sort = new SingleThreadRadixOrder(null, true, batchSize, keySize, 0, null, SingleThreadRadixOrder.PARALLEL_ROWS);
+      sort._o = new long[4][batchSize];
+      sort._x = new byte[4][batchSize * keySize];
+      long[] o = new long[nrows];
+      byte[] x = new byte[nrows * keySize];
+      for (int r = 0; r < nrows; r++) {
+        o[r] = r;
+        x[r * keySize] = (byte) rnd.nextInt(3);  // Many ties, to check stability
+        x[r * keySize + 1] = (byte) (rnd.nextInt(256) & 0xF0);
+        sort._o[r / batchSize][r % batchSize] = o[r];
+        System.arraycopy(x, r * keySize, sort._x[r / batchSize], (r % batchSize) * keySize, keySize);
+      }
+      int start = run[0], len = run[1];
+      sort.insert(start, len, new byte[keySize]);
+
+      // Expected: the run stably sorted by unsigned key, the other rows untouched
+      Long[] exp = new Long[nrows];
+      for (int r = 0; r < nrows; r++) exp[r] = (long) r;
+      final byte[] keys = x;
+      final int ks = keySize;
+      Arrays.sort(exp, start, start + len, new Comparator<Long>() {
+        @Override public int compare(Long a, Long b) {
+          for (int i = 0; i < ks; i++) {
+            int c = (keys[(int) (a * ks) + i] & 0xFF) - (keys[(int) (b * ks) + i] & 0xFF);
+            if (c != 0) return c;
+          }
+          return 0;
+        }
+      });
+      for (int r = 0; r < nrows; r++) {
+        long row = exp[r];
+        assertEquals("run " + Arrays.toString(run) + " row " + r, row, sort._o[r / batchSize][r % batchSize]);
+        for (int i = 0; i < keySize; i++)
+          assertEquals("run " + Arrays.toString(run) + " key of row " + r,
+              x[(int) row * keySize + i], sort._x[r / batchSize][(r % batchSize) * keySize + i]);
+      }
+    }
+  }
+
+  // Col #0 is a key with a share skew of rows of one value, and uniform over a
+  // wide range otherwise; col #1 a second key of few values; col #2 the row
+  // number.
+  static Frame buildSkewed( int nrows, double skew ) {
+    Random R = new Random(nrows);
+    double[] k0 = new double[nrows], k1 = new double[nrows], row = new double[nrows];
+    for( int i=0; i<nrows; i++ ) {
+      k0[i] = R.nextDouble() < skew ? 123456 : R.nextInt(1 << 20);
+      k1[i] = R.nextInt(50);
+      row[i] = i;
+    }
+    return new TestFrameBuilder()
+        .withName("skewed")
+        .withColNames("k0", "k1", "row")
+        .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+        .withDataForCol(0, k0)
+        .withDataForCol(1, k1)
+        .withDataForCol(2, row)
+        .withChunkLayout(5000, 7000, 8000)
+        .build();
+  }
 
   // Assert that result is indeed sorted - on all 3 columns, as this is a
   // stable sort.
@@ -7,7 +7,13 @@ import water.Key;
 import water.Keyed;
 import water.TestUtil;
 import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+import water.rapids.ast.prims.advmath.AstTable;
 import water.rapids.vals.ValFrame;
+import water.util.ArrayUtils;
+
+import java.util.*;
 
 public class TableTest extends TestUtil {
   @BeforeClass public static void setup() { stall_till_cloudsize(1); }
@@ -40,6 +46,116 @@ public class TableTest extends TestUtil {
   }
 
 
+  // Columns: categorical, small integers, reals, integers of a wide span
+  private static Frame mixed() {
+    Random rnd = new Random(0x7ab);
+    int n = 2000;
+    String[] a = new String[n];
+    double[] b = new double[n], c = new double[n], d = new double[n], w = new double[n];
+    for (int i = 0; i < n; i++) {
+      a[i] = "L" + rnd.nextInt(5);
+      b[i] = rnd.nextInt(30) == 0 ? Double.NaN : rnd.nextInt(7) - 3;
+      c[i] = rnd.nextInt(4) * 0.5 - 0.5;
+      d[i] = rnd.nextInt(3) * (1L << 40) - (1L << 41);
+      w[i] = rnd.nextInt(4);
+    }
+    return new TestFrameBuilder()
+        .withName("tab")
+        .withColNames("a", "b", "c", "d", "w")
+        .withVecTypes(Vec.T_CAT, Vec.T_NUM, Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+        .withDataForCol(0, a)
+        .withDataForCol(1, b)
+        .withDataForCol(2, c)
+        .withDataForCol(3, d)
+        .withDataForCol(4, w)
+        .withChunkLayout(500, 0, 700, 800)
+        .build();
+  }
+
+  // Compare a dense table against counting the rows without NAs
+  private static void chkCounts(Frame fr, int[] cols, Frame res, boolean weighted) {
+    TreeMap<List<Double>, Double> exp = new TreeMap<>(new Comparator<List<Double>>() {
+      @Override public int compare(List<Double> x, List<Double> y) {
+        for (int i = 0; i < x.size(); i++) {
+          int c = Double.compare(x.get(i), y.get(i));
+          if (c != 0) return c;
+        }
+        return 0;
+      }
+    });
+    rows:
+    for (long r = 0; r < fr.numRows(); r++) {
+      List<Double> key = new ArrayList<>();
+      for (int c : cols) {
+        if (fr.vec(c).isNA(r)) continue rows;
+        key.add(fr.vec(c).at(r));
+      }
+      Double cnt = exp.get(key);
+      exp.put(key, (cnt == null ? 0 : cnt) + (weighted ? fr.vec("w").at(r) : 1));
+    }
+    Assert.assertEquals(cols.length + 1, res.numCols());
+    Assert.assertEquals(exp.size(), res.numRows());
+    int i = 0;
+    for (Map.Entry<List<Double>, Double> e : exp.entrySet()) {
+      for (int c = 0; c < cols.length; c++) {
+        Assert.assertEquals(fr.name(cols[c]), res.name(c));
+        Assert.assertEquals(e.getKey().get(c), res.vec(c).at(i), 0);
+      }
+      Assert.assertEquals(e.getValue(), res.vec(cols.length).at(i), 0);
+      i++;
+    }
+  }
+
+  @Test public void testMultiColumn() {
+    Frame fr = mixed();
+    try {
+      int[][] colss = {{0, 1}, {1, 0, 2}, {2}, {3, 1}, {0, 1, 2, 3}};
+      for (int[] cols : colss) {
+        StringBuilder sb = new StringBuilder("(table (cols tab [");
+        for (int c : cols) sb.append(c).append(' ');
+        Frame res = Rapids.exec(sb.append("]) TRUE)").toString()).getFrame();
+        try {
+          chkCounts(fr, cols, res, false);
+          if (cols[0] == 0) Assert.assertArrayEquals(fr.vec(0).domain(), res.vec(0).domain());
+        } finally {
+          res.delete();
+        }
+      }
+      // Weighted
+      Frame res = AstTable.table(new String[]{"a", "c"}, new Vec[]{fr.vec(0), fr.vec(2)}, fr.vec("w"));
+      try {
+        chkCounts(fr, new int[]{0, 2}, res, true);
+      } finally {
+        res.delete();
+      }
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test public void testWide() {
+    Frame fr = mixed();
+    Frame res = Rapids.exec("(table (cols tab [1]) (cols tab [0]) FALSE)").getFrame();
+    try {
+      // A row per value of b, a column of counts per level of a
+      Assert.assertEquals("b", res.name(0));
+      Assert.assertArrayEquals(ArrayUtils.append(new String[]{"b"}, fr.vec(0).domain()), res.names());
+      Assert.assertEquals(7, res.numRows());
+      for (int row = 0; row < 7; row++) {
+        Assert.assertEquals(row - 3, res.vec(0).at(row), 0);
+        for (int lvl = 0; lvl < 5; lvl++) {
+          long cnt = 0;
+          for (long r = 0; r < fr.numRows(); r++)
+            if (fr.vec(1).at(r) == row - 3 && fr.vec(0).at8(r) == lvl) cnt++;
+          Assert.assertEquals(cnt, res.vec(lvl + 1).at8(row));
+        }
+      }
+    } finally {
+      res.delete();
+      fr.delete();
+    }
+  }
+
   private void chkDim( Frame fr, int col, int row ) {
     Assert.assertEquals(col,fr.numCols());
     Assert.assertEquals(row,fr.numRows());
@@ -0,0 +1,113 @@
+package water.rapids;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+import water.parser.BufferedString;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TopNTest extends TestUtil {
+  private static Frame fr;
+
+  @BeforeClass public static void setup() {
+    stall_till_cloudsize(1);
+    Random rnd = new Random(0x70b);
+    int n = 1000;
+    double[] a = new double[n], c = new double[n];
+    String[] b = new String[n], s = new String[n];
+    for (int r = 0; r < n; r++) {
+      a[r] = rnd.nextInt(8) == 0 ? Double.NaN : rnd.nextInt(10) - 3; // Many ties
+      b[r] = rnd.nextInt(10) == 0 ? null : "l" + rnd.nextInt(4);
+      c[r] = rnd.nextInt(10) == 0 ? Double.NaN : rnd.nextGaussian();
+      s[r] = "row" + r;
+    }
+    fr = new TestFrameBuilder()
+        .withName("topTest")
+        .withColNames("a", "b", "c", "s")
+        .withVecTypes(Vec.T_NUM, Vec.T_CAT, Vec.T_NUM, Vec.T_STR)
+        .withDataForCol(0, a)
+        .withDataForCol(1, b)
+        .withDataForCol(2, c)
+        .withDataForCol(3, s)
+        .withChunkLayout(300, 0, 5, 395, 300)
+        .build();
+  }
+
+  @AfterClass public static void teardown() {
+    if (fr != null) fr.delete();
+  }
+
+  @Test public void testTopN() {
+    int[][] keys = {{0}, {2}, {0, 2}, {1, 0}, {0, 1, 2}};
+    for (int[] cols : keys)
+      for (boolean decreasing : new boolean[]{false, true})
+        for (long n : new long[]{1, 7, 150, 1000, 5000})
+          check(fr.topN(cols, n, decreasing), cols, n, decreasing);
+  }
+
+  @Test public void testRapids() {
+    Frame res = Rapids.exec("(topn topTest [0 2] 25 1)").getFrame();
+    check(res, new int[]{0, 2}, 25, true);
+    res = Rapids.exec("(topn topTest ['b' 'c'] 25 0)").getFrame();
+    check(res, new int[]{1, 2}, 25, false);
+  }
+
+  @Test public void testSameAsSort() {
+    // Ascending is the order of the whole frame sorted; sort carries no strings
+    Frame nums = new Frame(new String[]{"a", "b", "c"}, fr.vecs(new int[]{0, 1, 2}));
+    Frame sorted = null, top = null;
+    try {
+      sorted = nums.sort(new int[]{1, 0});
+      top = nums.topN(new int[]{1, 0}, nums.numRows(), false);
+      for (long r = 0; r < nums.numRows(); r++)
+        for (int c = 0; c < 3; c++) assertEquals(sorted.vec(c).at(r), top.vec(c).at(r), 0);
+    } finally {
+      if (sorted != null) sorted.delete();
+      if (top != null) top.delete();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class) public void testStringKey() {
+    fr.topN(new int[]{3}, 10, true);
+  }
+
+  // Compare against a stable sort of the row numbers
+  private static void check(Frame res, final int[] cols, long n, final boolean decreasing) {
+    try {
+      Integer[] rows = new Integer[(int) fr.numRows()];
+      for (int r = 0; r < rows.length; r++) rows[r] = r;
+      Arrays.sort(rows, new Comparator<Integer>() {
+        @Override public int compare(Integer x, Integer y) {
+          for (int c : cols) {
+            double a = fr.vec(c).at(x), b = fr.vec(c).at(y);
+            int z = Double.isNaN(a) ? (Double.isNaN(b) ? 0 : -1) : Double.isNaN(b) ? 1 : Double.compare(a, b);
+            if (z != 0) return decreasing ? -z : z;
+          }
+          return 0;
+        }
+      });
+      String msg = Arrays.toString(cols) + " n=" + n + " decreasing=" + decreasing;
+      assertEquals(msg, Math.min(n, fr.numRows()), res.numRows());
+      assertArrayEquals(fr.names(), res.names());
+      assertArrayEquals(fr.vec(1).domain(), res.vec(1).domain());
+      assertTrue(res.vec(3).isString());
+      BufferedString bs = new BufferedString();
+      for (int i = 0; i < res.numRows(); i++) {
+        long r = rows[i];
+        assertEquals(msg + " rank " + i, "row" + r, res.vec(3).atStr(bs, i).toString());
+        for (int c = 0; c < 3; c++) assertEquals(msg, fr.vec(c).at(r), res.vec(c).at(i), 0);
+      }
+    } finally {
+      res.delete();
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package water.rapids.ast;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+import water.rapids.Env;
+import water.rapids.Rapids;
+import water.rapids.Session;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the cache of the classes generated for the compiled functions.
+ */
+public class FunctionCompilerTest extends TestUtil {
+  @BeforeClass public static void setup() { stall_till_cloudsize(1); }
+
+  @Test public void testCacheBounded() {
+    Frame fr = new TestFrameBuilder()
+        .withName("compilerTest")
+        .withColNames("a")
+        .withVecTypes(Vec.T_NUM)
+        .withDataForCol(0, ard(1, 2, 3))
+        .build();
+    try {
+      Env env = new Env(new Session());
+      FunctionCompiler.Compiled first = null;
+      for (int i = 0; i < FunctionCompiler.MAX_CLASSES + 20; i++) {
+        FunctionCompiler.Compiled code = compile(env, fr, i);
+        assertNotNull(code);
+        if (first == null) first = code;
+        assertTrue(FunctionCompiler.cachedClasses() <= FunctionCompiler.MAX_CLASSES);
+      }
+      // The first class was dropped; compiled again and still correct
+      assertEquals(FunctionCompiler.MAX_CLASSES, FunctionCompiler.cachedClasses());
+      FunctionCompiler.Kernel k = FunctionCompiler.load(first);
+      double[][] out = new double[1][2];
+      k.apply(new double[][]{{1, 2}}, 2, out);
+      assertArrayEquals(new double[]{1000, 1001}, out[0], 0);
+    } finally {
+      fr.delete();
+    }
+  }
+
+  // x + 999 + i, a distinct class for every i
+  private static FunctionCompiler.Compiled compile(Env env, Frame fr, int i) {
+    AstPrimitive fun = Rapids.parse("{x . (+ x " + (999 + i) + ")}").exec(env).getFun();
+    return FunctionCompiler.compileCol(env, fun, fr);
+  }
+}
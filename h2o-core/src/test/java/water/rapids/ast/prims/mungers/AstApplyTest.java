@@ -0,0 +1,164 @@
+package water.rapids.ast.prims.mungers;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+import water.rapids.Env;
+import water.rapids.Rapids;
+import water.rapids.Session;
+import water.rapids.Val;
+import water.rapids.ast.AstPrimitive;
+import water.rapids.ast.AstRoot;
+import water.rapids.ast.AstRow;
+import water.rapids.ast.FunctionCompiler;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test that the functions compiled by AstApply compute exactly what the
+ * interpreter computes.
+ */
+public class AstApplyTest extends TestUtil {
+  private static Frame fr;
+
+  @BeforeClass public static void setup() {
+    stall_till_cloudsize(1);
+    Random rnd = new Random(0xa99);
+    int n = 2500;             // Several blocks per chunk
+    double[][] cols = new double[3][n];
+    for (int c = 0; c < cols.length; c++)
+      for (int r = 0; r < n; r++)
+        cols[c][r] = rnd.nextInt(10) == 0 ? Double.NaN : rnd.nextInt(20) == 0 ? 0 : (rnd.nextDouble() - 0.3) * 100;
+    cols[0][0] = 1.5;         // No NAs in the first row
+    fr = new TestFrameBuilder()
+        .withName("applyTest")
+        .withColNames("a", "b", "c")
+        .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+        .withDataForCol(0, cols[0])
+        .withDataForCol(1, cols[1])
+        .withDataForCol(2, cols[2])
+        .withChunkLayout(1200, 1300)
+        .build();
+  }
+
+  @AfterClass public static void teardown() {
+    if (fr != null) fr.delete();
+  }
+
+  private static final String[] COMPILED = {
+      "sum",
+      "max",
+      "{x . (sum (* x x))}",
+      "{x . (+ (* (cols x [0]) 2) (/ (cols_py x 1) 3))}",
+      "{x . (ifelse (> x 10) (log x) (- 0 x))}",
+      "{x . (ifelse (>= (cols x 'a') 0) (sqrt (cols x 'a')) -1)}",
+      "{x . (abs x)}",
+      "{x . (mean x 1 0)}",
+      "{x . (mean x 0 0)}",
+      "{x . (min (cos (% x 7)))}",
+      "{x . (== (floor x) (ceiling x))}",
+      "{x . (- (max x) (min x))}",
+  };
+
+  @Test public void testRowwiseCompiled() {
+    for (String f : COMPILED) {
+      assertTrue(f, compiles(f));
+      checkRowwise(f);
+    }
+  }
+
+  @Test public void testRowwiseInterpreted() {
+    // Not compiled, still computed by the interpreter
+    for (String f : new String[]{"{x . ({y . (* y 2)} x)}", "{x . (&& (cols x [0]) 3)}"}) {
+      assertFalse(f, compiles(f));
+      checkRowwise(f);
+    }
+  }
+
+  @Test public void testFreeVariable() {
+    Frame res = null;
+    try {
+      res = Rapids.exec("({y . (apply applyTest 1 {x . (sum (* x y))})} 2)").getFrame();
+      Vec v = res.vec(0);
+      for (long r = 0; r < fr.numRows(); r++) {
+        double d = 0;
+        for (int c = 0; c < 3; c++) d += fr.vec(c).at(r) * 2;
+        assertEquals(Double.doubleToLongBits(d), Double.doubleToLongBits(v.at(r)));
+      }
+    } finally {
+      if (res != null) res.delete();
+    }
+  }
+
+  @Test public void testColwise() {
+    String[][] funs = {
+        {"{x . (+ (* x 2) 1)}", "(+ (* applyTest 2) 1)"},
+        {"abs", "(abs applyTest)"},
+        {"{x . (ifelse (> x 0) x 0)}", "(ifelse (> applyTest 0) applyTest 0)"},
+    };
+    for (String[] f : funs) {
+      Env env = new Env(new Session());
+      assertNotNull(f[0], FunctionCompiler.compileCol(env, Rapids.parse(f[0]).exec(env).getFun(), fr));
+      Frame res = null, exp = null;
+      try {
+        res = Rapids.exec("(apply applyTest 2 " + f[0] + ")").getFrame();
+        exp = Rapids.exec(f[1]).getFrame();
+        assertArrayEquals(fr.names(), res.names());
+        for (int c = 0; c < fr.numCols(); c++)
+          for (long r = 0; r < fr.numRows(); r++)
+            assertEquals(f[0] + " col " + c + " row " + r,
+                Double.doubleToLongBits(exp.vec(c).at(r)), Double.doubleToLongBits(res.vec(c).at(r)));
+      } finally {
+        if (res != null) res.delete();
+        if (exp != null) exp.delete();
+      }
+    }
+  }
+
+  private static boolean compiles(String f) {
+    Env env = new Env(new Session());
+    AstPrimitive fun = Rapids.parse(f).exec(env).getFun();
+    double[][] rows = {row(0), row(1), row(fr.numRows() - 1)};
+    double[][] res = new double[rows.length][];
+    for (int r = 0; r < rows.length; r++)
+      try (Env.StackHelp stk = env.stk()) {
+        res[r] = fun.apply(env, stk, new AstRoot[]{fun, new AstRow(rows[r], fr.names())}).getRow();
+      }
+    return FunctionCompiler.compileRow(env, fun, fr.names(), rows, res) != null;
+  }
+
+  // Compare apply against the function interpreted row by row
+  private static void checkRowwise(String f) {
+    Frame res = null;
+    try {
+      res = Rapids.exec("(apply applyTest 1 " + f + ")").getFrame();
+      assertEquals(fr.numRows(), res.numRows());
+      Env env = new Env(new Session());
+      AstPrimitive fun = Rapids.parse(f).exec(env).getFun();
+      for (long r = 0; r < fr.numRows(); r++) {
+        Val v;
+        try (Env.StackHelp stk = env.stk()) {
+          v = fun.apply(env, stk, new AstRoot[]{fun, new AstRow(row(r), fr.names())});
+        }
+        double[] exp = v.getRow();
+        assertEquals(exp.length, res.numCols());
+        for (int c = 0; c < exp.length; c++)
+          assertEquals(f + " row " + r, Double.doubleToLongBits(exp[c]), Double.doubleToLongBits(res.vec(c).at(r)));
+      }
+    } finally {
+      if (res != null) res.delete();
+    }
+  }
+
+  private static double[] row(long r) {
+    double[] ds = new double[fr.numCols()];
+    for (int c = 0; c < ds.length; c++) ds[c] = fr.vec(c).at(r);
+    return ds;
+  }
+}
@@ -0,0 +1,124 @@
+package water.rapids.ast.prims.mungers;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+import water.rapids.Rapids;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test ddply against sums and counts computed here, with NA groups.
+ */
+public class AstDdplyTest extends TestUtil {
+  private static Frame fr;
+  private static double[] g, x;
+
+  @BeforeClass public static void setup() {
+    stall_till_cloudsize(1);
+    Random rnd = new Random(0xdd1);
+    int n = 1000;
+    g = new double[n];
+    x = new double[n];
+    String[] c = new String[n];
+    for (int r = 0; r < n; r++) {
+      g[r] = rnd.nextInt(25) == 0 ? Double.NaN : rnd.nextInt(300) - 100;
+      x[r] = rnd.nextInt(10) == 0 ? Double.NaN : rnd.nextDouble() * 10;
+      c[r] = "l" + rnd.nextInt(3);
+    }
+    fr = new TestFrameBuilder()
+        .withName("ddplyTest")
+        .withColNames("g", "c", "x")
+        .withVecTypes(Vec.T_NUM, Vec.T_CAT, Vec.T_NUM)
+        .withDataForCol(0, g)
+        .withDataForCol(1, c)
+        .withDataForCol(2, x)
+        .withChunkLayout(300, 300, 400)
+        .build();
+  }
+
+  @AfterClass public static void teardown() {
+    if (fr != null) fr.delete();
+  }
+
+  @Test public void testSums() {
+    // Sum and count of x by g, NA group first
+    TreeMap<Double, double[]> exp = new TreeMap<>();
+    for (int r = 0; r < g.length; r++) {
+      double k = Double.isNaN(g[r]) ? Double.NEGATIVE_INFINITY : g[r];
+      double[] e = exp.get(k);
+      if (e == null) exp.put(k, e = new double[2]);
+      e[0] += Double.isNaN(x[r]) ? 0 : x[r];
+      e[1]++;
+    }
+    Frame res = Rapids.exec("(ddply ddplyTest [0] {x . (sumNA (cols x 2))})").getFrame();
+    Frame cnt = Rapids.exec("(ddply ddplyTest [0] nrow)").getFrame();
+    try {
+      assertEquals(exp.size(), res.numRows());
+      assertEquals(2, res.numCols());
+      int r = 0;
+      for (double k : exp.keySet()) {
+        if (k == Double.NEGATIVE_INFINITY) assertTrue(res.vec(0).isNA(r));
+        else assertEquals(k, res.vec(0).at(r), 0);
+        assertEquals(exp.get(k)[0], res.vec(1).at(r), 1e-10);
+        assertEquals(exp.get(k)[1], cnt.vec(1).at(r), 0);
+        r++;
+      }
+    } finally {
+      res.delete();
+      cnt.delete();
+    }
+  }
+
+  @Test public void testManyChunks() {
+    // Chunks spread over the Nodes of a multi-node cloud, and groups running
+    // across Chunks (and Nodes)
+    Frame big = null, cnt = null, max = null;
+    try {
+      Random rnd = new Random(0xdd2);
+      int n = 6000;
+      double[] bg = new double[n], bx = new double[n];
+      TreeMap<Double, double[]> exp = new TreeMap<>();
+      for (int r = 0; r < n; r++) {
+        bg[r] = rnd.nextInt(40);
+        bx[r] = rnd.nextInt(8);
+        double[] e = exp.get(bg[r]);
+        if (e == null) exp.put(bg[r], e = new double[2]);
+        e[0]++;
+        e[1] = Math.max(e[1], bx[r]);
+      }
+      long[] layout = new long[16];
+      for (int c = 0; c < layout.length; c++) layout[c] = n / layout.length;
+      big = new TestFrameBuilder()
+          .withName("ddplyBig")
+          .withColNames("g", "x")
+          .withVecTypes(Vec.T_NUM, Vec.T_NUM)
+          .withDataForCol(0, bg)
+          .withDataForCol(1, bx)
+          .withChunkLayout(layout)
+          .build();
+      cnt = Rapids.exec("(ddply ddplyBig [0] nrow)").getFrame();
+      max = Rapids.exec("(ddply ddplyBig [0] {x . (max (cols x 1))})").getFrame();
+      assertEquals(exp.size(), cnt.numRows());
+      assertEquals(exp.size(), max.numRows());
+      int r = 0;
+      for (double k : exp.keySet()) {
+        assertEquals(k, cnt.vec(0).at(r), 0);
+        assertEquals(exp.get(k)[0], cnt.vec(1).at(r), 0);
+        assertEquals(exp.get(k)[1], max.vec(1).at(r), 0);
+        r++;
+      }
+    } finally {
+      if (big != null) big.delete();
+      if (cnt != null) cnt.delete();
+      if (max != null) max.delete();
+    }
+  }
+}
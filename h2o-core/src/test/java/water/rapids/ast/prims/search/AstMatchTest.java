@@ -0,0 +1,193 @@
+package water.rapids.ast.prims.search;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.AutoBuffer;
+import water.DKV;
+import water.Key;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+import water.parser.BufferedString;
+import water.rapids.Rapids;
+import water.util.IcedLongHashSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test match and unique on numeric, string and categorical columns.
+ */
+public class AstMatchTest extends TestUtil {
+  @BeforeClass public static void setup() { stall_till_cloudsize(1); }
+
+  @Test public void testMatchNumeric() {
+    Frame fr = frame("nums", dvec(1.5, -0.0, Double.NaN, 3, 7, 1.5 + Math.ulp(1.5), 2));
+    Frame tbl = frame("tbl", dvec(0, 3, Double.NaN, 1.5));
+    try {
+      double[] exp = {1, 1, -1, 1, -1, 1, -1};
+      check(exp, "(match nums [0 3 1.5] -1 _)");
+      check(exp, "(match nums tbl -1 _)");
+      check(new double[]{-1, -1, -1, -1, 1, -1, -1}, "(match nums 7 -1 _)");
+    } finally {
+      fr.delete();
+      tbl.delete();
+    }
+  }
+
+  @Test public void testMatchStrings() {
+    Frame fr = frame("strs", svec("a", "bb", null, "é", "", "a"));
+    Frame tbl = frame("tbl", svec("é", "a", null));
+    try {
+      check(new double[]{1, 0, 0, 0, 1, 1}, "(match strs ['a' ''] 0 _)");
+      check(new double[]{1, 0, 0, 1, 0, 1}, "(match strs tbl 0 _)");
+    } finally {
+      fr.delete();
+      tbl.delete();
+    }
+  }
+
+  @Test public void testMatchCategorical() {
+    Frame fr = frame("cats", cvec(ar("x", "y", "z"), "y", "z", "x", "y"));
+    Frame tbl = frame("tbl", cvec(ar("q", "z"), "z", "z"));
+    try {
+      check(new double[]{1, 0, 1, 1}, "(match cats ['x' 'y'] 0 _)");
+      check(new double[]{0, 1, 0, 0}, "(match cats tbl 0 _)");
+      check(new double[]{0, 1, 0, 0}, "(match cats 2 0 _)");
+    } finally {
+      fr.delete();
+      tbl.delete();
+    }
+  }
+
+  @Test public void testMatchMismatch() {
+    Frame fr = frame("nums", dvec(1, 2));
+    try {
+      Rapids.exec("(match nums ['a'] 0 _)");
+      fail("Expected an error");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("against numbers"));
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test public void testUnique() {
+    ArrayList<Frame> frames = new ArrayList<>();
+    try {
+      frames.add(frame("nums", dvec(3, Double.NaN, -0.0, 3, 1e300, 0, -2, Double.NaN)));
+      Frame res = Rapids.exec("(unique nums)").getFrame();
+      frames.add(res);
+      assertVecEquals(new double[]{-2, 0, 3, 1e300, Double.NaN}, res.vec(0));
+
+      frames.add(frame("strs", svec("b", null, "a", "é", "b", "a")));
+      res = Rapids.exec("(unique strs)").getFrame();
+      frames.add(res);
+      assertTrue(res.vec(0).isString());
+      assertEquals(4, res.numRows());
+      BufferedString tmpStr = new BufferedString();
+      String[] exp = {"a", "b", "é"};
+      for (int r = 0; r < exp.length; r++) assertEquals(exp[r], res.vec(0).atStr(tmpStr, r).toString());
+      assertTrue(res.vec(0).isNA(3));
+
+      frames.add(frame("cats", cvec(ar("x", "y", "z"), "z", "x", "z")));
+      res = Rapids.exec("(unique cats)").getFrame();
+      frames.add(res);
+      assertArrayEquals(ar("x", "y", "z"), res.vec(0).domain());
+      assertEquals(3, res.numRows());
+    } finally {
+      for (Frame f : frames) f.delete();
+    }
+  }
+
+  @Test public void testUniqueManyChunks() {
+    // Values repeated across Chunks, which spread over the Nodes of a
+    // multi-node cloud, so the merged parts come from every Node
+    Random rnd = new Random(0xd15);
+    int n = 8000;
+    double[] nums = new double[n];
+    String[] strs = new String[n];
+    TreeSet<Double> expNums = new TreeSet<>();
+    TreeSet<String> expStrs = new TreeSet<>();
+    for (int r = 0; r < n; r++) {
+      nums[r] = rnd.nextInt(50) == 0 ? Double.NaN : rnd.nextInt(3000) * 0.5;
+      strs[r] = rnd.nextInt(50) == 0 ? null : "s" + rnd.nextInt(2000);
+      if (!Double.isNaN(nums[r])) expNums.add(nums[r]);
+      if (strs[r] != null) expStrs.add(strs[r]);
+    }
+    long[] layout = new long[16];
+    Arrays.fill(layout, n / layout.length);
+    Frame fr = null, un = null, us = null;
+    try {
+      fr = new TestFrameBuilder()
+          .withName("uniqueMany")
+          .withColNames("n", "s")
+          .withVecTypes(Vec.T_NUM, Vec.T_STR)
+          .withDataForCol(0, nums)
+          .withDataForCol(1, strs)
+          .withChunkLayout(layout)
+          .build();
+      un = Rapids.exec("(unique (cols uniqueMany 0))").getFrame();
+      us = Rapids.exec("(unique (cols uniqueMany 1))").getFrame();
+      double[] exp = new double[expNums.size() + 1];
+      int i = 0;
+      for (double d : expNums) exp[i++] = d;
+      exp[i] = Double.NaN;
+      assertVecEquals(exp, un.vec(0));
+      assertEquals(expStrs.size() + 1, us.numRows());
+      BufferedString tmpStr = new BufferedString();
+      i = 0;
+      for (String e : expStrs) assertEquals(e, us.vec(0).atStr(tmpStr, i++).toString());
+      assertTrue(us.vec(0).isNA(i));
+    } finally {
+      if (fr != null) fr.delete();
+      if (un != null) un.delete();
+      if (us != null) us.delete();
+    }
+  }
+
+  @Test public void testLongHashSet() {
+    IcedLongHashSet set = new IcedLongHashSet();
+    long[] keys = new long[10000];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = (i - 5000L) * 0x100000001L;
+      assertTrue(set.add(keys[i]));
+    }
+    assertFalse(set.add(0));
+    assertEquals(keys.length, set.size());
+    IcedLongHashSet copy = new AutoBuffer().put(set).flipForReading().get();
+    assertEquals(keys.length, copy.size());
+    for (long k : keys) assertTrue(copy.contains(k));
+    assertFalse(copy.contains(1));
+    long[] ks = copy.keys();
+    Arrays.sort(ks);
+    Arrays.sort(keys);
+    assertArrayEquals(keys, ks);
+  }
+
+  private static Frame frame(String name, Vec v) {
+    Frame fr = new Frame(Key.<Frame>make(name), new String[]{"C1"}, new Vec[]{v});
+    DKV.put(fr);
+    return fr;
+  }
+
+  private static void check(double[] exp, String rapids) {
+    Frame res = Rapids.exec(rapids).getFrame();
+    try {
+      assertVecEquals(exp, res.vec(0));
+    } finally {
+      res.delete();
+    }
+  }
+
+  private static void assertVecEquals(double[] exp, Vec v) {
+    assertEquals(exp.length, v.length());
+    for (int r = 0; r < exp.length; r++)
+      assertEquals("row " + r, exp[r], v.at(r), 0);
+  }
+}
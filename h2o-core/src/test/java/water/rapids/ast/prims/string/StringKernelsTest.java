@@ -0,0 +1,143 @@
+package water.rapids.ast.prims.string;
+
+import org.apache.commons.lang.StringUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.TestUtil;
+import water.fvec.CStrChunk;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+import water.parser.BufferedString;
+import water.rapids.Rapids;
+
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test that the string kernels compute what the String methods compute, on
+ * ASCII and on UTF-8 chunks.
+ */
+public class StringKernelsTest extends TestUtil {
+  private static final String[] STRS = {
+      "a,b,,c", "Hello, World", null, "", ",", ",,x,,", "aaaa", "AbcABCabc", "no match", "x.y.z",
+      "é,ü,,", "Ünïcödé aa", null, "日本,語", "AAé", "", "ßaß", ",é", "aaa", "Aé.b"
+  };
+  private static Frame fr;
+
+  @BeforeClass public static void setup() {
+    stall_till_cloudsize(1);
+    fr = new TestFrameBuilder()
+        .withName("strs")
+        .withColNames("s")
+        .withVecTypes(Vec.T_STR)
+        .withDataForCol(0, STRS)
+        .withChunkLayout(10, 10)  // An ASCII chunk, then a UTF-8 one
+        .build();
+  }
+
+  @AfterClass public static void teardown() {
+    if (fr != null) fr.delete();
+  }
+
+  @Test public void testChunks() {
+    assertTrue(((CStrChunk) fr.vec(0).chunkForChunkIdx(0))._isAllASCII);
+    assertFalse(((CStrChunk) fr.vec(0).chunkForChunkIdx(1))._isAllASCII);
+  }
+
+  @Test public void testReplace() {
+    String[][] cases = {{"a", "-"}, {",", ""}, {"abc", "$0"}, {"a+", "<$0>"}, {"[bé]", "X"}, {".", "_"}, {"é", "e"}, {"aa", "a"}};
+    for (String[] c : cases)
+      for (int ic = 0; ic < 2; ic++)
+        for (String op : new String[]{"replaceall", "replacefirst"}) {
+          Frame res = Rapids.exec("(" + op + " strs '" + c[0] + "' '" + c[1] + "' " + ic + ")").getFrame();
+          try {
+            for (int r = 0; r < STRS.length; r++) {
+              String s = STRS[r], exp = null;
+              if (s != null) {
+                if (ic == 1) s = s.toLowerCase(Locale.ENGLISH);
+                exp = op.equals("replaceall") ? s.replaceAll(c[0], c[1]) : s.replaceFirst(c[0], c[1]);
+              }
+              assertEquals(op + " " + c[0] + " " + ic + " row " + r, exp, str(res.vec(0), r));
+            }
+          } finally {
+            res.delete();
+          }
+        }
+  }
+
+  @Test public void testCountMatches() {
+    Frame res = Rapids.exec("(countmatches strs ['a' ',' 'é' ''])").getFrame();
+    try {
+      for (int r = 0; r < STRS.length; r++) {
+        if (STRS[r] == null) assertTrue(res.vec(0).isNA(r));
+        else {
+          int exp = 0;
+          for (String p : new String[]{"a", ",", "é", ""}) exp += StringUtils.countMatches(STRS[r], p);
+          assertEquals("row " + r, exp, res.vec(0).at8(r));
+        }
+      }
+    } finally {
+      res.delete();
+    }
+  }
+
+  @Test public void testSplit() {
+    for (String regex : new String[]{",", "a", ",+", "[.]", "aa"}) {
+      Frame res = Rapids.exec("(strsplit strs '" + regex + "')").getFrame();
+      try {
+        int ncols = 0;
+        for (String s : STRS) if (s != null) ncols = Math.max(ncols, s.split(regex).length);
+        assertEquals(regex, ncols, res.numCols());
+        for (int r = 0; r < STRS.length; r++) {
+          String[] exp = STRS[r] == null ? new String[0] : STRS[r].split(regex);
+          for (int c = 0; c < ncols; c++)
+            assertEquals(regex + " row " + r + " col " + c, c < exp.length ? exp[c] : null, str(res.vec(c), r));
+        }
+      } finally {
+        res.delete();
+      }
+    }
+  }
+
+  @Test public void testCategorical() {
+    Frame cat = new TestFrameBuilder()
+        .withName("cats")
+        .withColNames("c")
+        .withVecTypes(Vec.T_CAT)
+        .withDataForCol(0, new String[]{"a_1", "b_2", "a_2", "b_1", "a_1"})
+        .build();
+    Frame res = null, split = null;
+    try {
+      // Levels that become equal are merged
+      res = Rapids.exec("(replaceall cats '_.*' '' 0)").getFrame();
+      assertArrayEquals(new String[]{"a", "b"}, res.vec(0).domain());
+      for (int r = 0; r < 5; r++)
+        assertEquals(cat.vec(0).domain()[(int) cat.vec(0).at8(r)].substring(0, 1), res.vec(0).domain()[(int) res.vec(0).at8(r)]);
+      split = Rapids.exec("(strsplit cats '_')").getFrame();
+      assertEquals(2, split.numCols());
+      for (int r = 0; r < 5; r++) {
+        String[] exp = cat.vec(0).domain()[(int) cat.vec(0).at8(r)].split("_");
+        for (int c = 0; c < 2; c++)
+          assertEquals(exp[c], split.vec(c).domain()[(int) split.vec(c).at8(r)]);
+      }
+    } finally {
+      cat.delete();
+      if (res != null) res.delete();
+      if (split != null) split.delete();
+    }
+  }
+
+  @Test public void testLiteral() {
+    assertTrue(StringKernels.isLiteral("abc, d"));
+    assertFalse(StringKernels.isLiteral(""));
+    assertFalse(StringKernels.isLiteral("a.b"));
+    assertFalse(StringKernels.isLiteral("\\d"));
+  }
+
+  private static String str(Vec v, long r) {
+    return v.isNA(r) ? null : v.atStr(new BufferedString(), r).toString();
+  }
+}
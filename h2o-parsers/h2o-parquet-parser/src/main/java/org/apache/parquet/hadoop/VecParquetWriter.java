@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.parquet.hadoop;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnWriteStore;
+import org.apache.parquet.column.ColumnWriter;
+import org.apache.parquet.column.ParquetProperties;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.schema.MessageType;
+
+/**
+ * Column-at-a-time Parquet writer.
+ *
+ * As opposed to Parquet's ParquetWriter, which shreds records, the caller writes a whole row group one column
+ * after another and then ends the row group: {@code startRowGroup(), columnWriter(0..n), endRowGroup(rowCount)}.
+ *
+ * Note: This class was derived from Parquet's InternalParquetRecordWriter. We need to keep this class in package
+ * "org.apache.parquet.hadoop" to get access to Parquet's CodecFactory and ColumnChunkPageWriteStore.
+ */
+public class VecParquetWriter implements Closeable {
+
+  private final MessageType schema;
+  private final ParquetFileWriter fileWriter;
+  private final CodecFactory codecFactory;
+  private final CodecFactory.BytesCompressor compressor;
+  private final ParquetProperties properties;
+  private final int pageSize;
+
+  private ColumnChunkPageWriteStore pageStore;
+  private ColumnWriteStore columnStore;
+
+  public VecParquetWriter(Configuration conf, MessageType schema, Path file, CompressionCodecName codec,
+                          int pageSize, int dictionaryPageSize, boolean enableDictionary) throws IOException {
+    this.schema = schema;
+    this.pageSize = pageSize;
+    this.codecFactory = new CodecFactory(conf);
+    this.compressor = codecFactory.getCompressor(codec, pageSize);
+    this.properties = new ParquetProperties(dictionaryPageSize, ParquetProperties.WriterVersion.PARQUET_1_0, enableDictionary);
+    this.fileWriter = new ParquetFileWriter(conf, schema, file);
+    fileWriter.start();
+  }
+
+  public void startRowGroup() {
+    assert columnStore == null;
+    pageStore = new ColumnChunkPageWriteStore(compressor, schema, pageSize);
+    columnStore = properties.newColumnWriteStore(schema, pageStore, pageSize);
+  }
+
+  /** Writer of the i-th column of the current row group, values are written with repetition level 0. */
+  public ColumnWriter columnWriter(int i) {
+    ColumnDescriptor column = schema.getColumns().get(i);
+    return columnStore.getColumnWriter(column);
+  }
+
+  /** Max definition level of the i-th column, ie. the level of a non-null value. */
+  public int maxDefinitionLevel(int i) {
+    return schema.getColumns().get(i).getMaxDefinitionLevel();
+  }
+
+  public void endRowGroup(long rowCount) throws IOException {
+    columnStore.flush();
+    fileWriter.startBlock(rowCount);
+    pageStore.flushToFileWriter(fileWriter);
+    fileWriter.endBlock();
+    columnStore = null;
+    pageStore = null;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      fileWriter.end(new HashMap<String, String>());
+    } finally {
+      codecFactory.release();
+    }
+  }
+
+}
@@ -0,0 +1,301 @@
+package water.parser.parquet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReader;
+import org.apache.parquet.column.Dictionary;
+import org.apache.parquet.column.impl.ColumnReadStoreImpl;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.io.api.Converter;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+import water.fvec.Vec;
+import water.parser.BufferedString;
+import water.parser.FVecParseWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-at-a-time reader of Parquet row groups into H2O's Chunks.
+ *
+ * As opposed to {@link org.apache.parquet.hadoop.VecParquetReader} this reader doesn't assemble records, it reads
+ * each column of a row group with Parquet's ColumnReader (which decodes the dictionary, RLE and plain encoded pages)
+ * and appends the values of the whole column to the column's NewChunk before moving on to the next column.
+ *
+ * Only the column chunks of the columns requested by the parse setup are fetched and decoded (column projection).
+ * For categorical columns the Parquet dictionary of a column chunk is mapped to H2O's categorical ids once and the
+ * values are then written as ids, without hashing the string of each value.
+ *
+ * The reader is used only when the parse setup asks for it and {@link #supports} accepts the columns of the file;
+ * everything else (e.g. INT96 timestamps) is read by the record reader.
+ */
+class ChunkReader {
+
+  private final Vec _vec;
+  private final ParquetMetadata _metadata;
+  private final FVecParseWriter _writer;
+  private final byte[] _chunkSchema;
+  private final ColumnDescriptor[] _columns; // per H2O column, null if the column is not in the file
+  private final DictionaryConverter _converter;
+
+  ChunkReader(Vec vec, ParquetMetadata metadata, FVecParseWriter writer, String[] columnNames, byte[] chunkSchema) {
+    _vec = vec;
+    _metadata = metadata;
+    _writer = writer;
+    _chunkSchema = chunkSchema;
+    MessageType schema = metadata.getFileMetaData().getSchema();
+    Map<String, ColumnDescriptor> byName = new HashMap<>();
+    for (ColumnDescriptor cd : schema.getColumns()) {
+      assert cd.getPath().length == 1;
+      byName.put(cd.getPath()[0], cd);
+    }
+    _columns = new ColumnDescriptor[chunkSchema.length];
+    for (int i = 0; i < _columns.length; i++)
+      _columns[i] = byName.get(columnNames[i]);
+    _converter = new DictionaryConverter(schema);
+  }
+
+  /**
+   * Checks that every requested column can be read column-wise with the same result as the record reader:
+   * numeric columns need a numeric physical type, the other types need BINARY values or INT64 timestamps.
+   * @return false if some column has to be read by the record reader
+   */
+  static boolean supports(MessageType schema, String[] columnNames, byte[] chunkSchema) {
+    for (int i = 0; i < chunkSchema.length; i++) {
+      if (! schema.containsField(columnNames[i])) continue; // NA column
+      Type field = schema.getType(columnNames[i]);
+      if (! field.isPrimitive()) return false;
+      PrimitiveType.PrimitiveTypeName typeName = field.asPrimitiveType().getPrimitiveTypeName();
+      switch (chunkSchema[i]) {
+        case Vec.T_NUM:
+          switch (typeName) {
+            case BOOLEAN: case INT32: case INT64: case FLOAT: case DOUBLE: continue;
+            default: return false;
+          }
+        case Vec.T_BAD:
+        case Vec.T_CAT:
+        case Vec.T_STR:
+        case Vec.T_UUID:
+        case Vec.T_TIME:
+          if (field.getOriginalType() == OriginalType.TIMESTAMP_MILLIS ? typeName == PrimitiveType.PrimitiveTypeName.INT64
+                  : typeName == PrimitiveType.PrimitiveTypeName.BINARY) continue;
+          return false;
+        default:
+          return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Reads all the row groups of the metadata.
+   * @return number of rows written
+   */
+  long read() throws IOException {
+    List<ColumnDescriptor> projection = new ArrayList<>();
+    for (ColumnDescriptor cd : _columns)
+      if (cd != null) projection.add(cd);
+    MessageType schema = _metadata.getFileMetaData().getSchema();
+    Configuration conf = VecFileSystem.makeConfiguration(_vec);
+    ParquetFileReader reader = new ParquetFileReader(conf, VecFileSystem.VEC_PATH, _metadata.getBlocks(), projection);
+    long rows = 0;
+    try {
+      PageReadStore rowGroup;
+      while ((rowGroup = reader.readNextRowGroup()) != null) {
+        int rowCount = (int) rowGroup.getRowCount();
+        ColumnReadStoreImpl columnStore = new ColumnReadStoreImpl(rowGroup, _converter, schema);
+        for (int col = 0; col < _columns.length; col++) {
+          if (_columns[col] == null) {
+            for (int row = 0; row < rowCount; row++) _writer.addInvalidCol(col);
+          } else {
+            _converter.clearDictionary(_columns[col]); // set again by the reader if the column chunk has one
+            readColumn(col, columnStore.getColumnReader(_columns[col]), rowCount);
+          }
+        }
+        _writer.addLines(rowCount);
+        rows += rowCount;
+      }
+    } finally {
+      reader.close();
+    }
+    return rows;
+  }
+
+  private void readColumn(int col, ColumnReader reader, int rowCount) {
+    assert reader.getTotalValueCount() == rowCount : "Only flat schemas are supported";
+    ColumnDescriptor cd = reader.getDescriptor();
+    PrimitiveType type = _converter.type(cd);
+    switch (_chunkSchema[col]) {
+      case Vec.T_NUM:
+        readNumbers(col, reader, rowCount);
+        break;
+      case Vec.T_BAD:
+      case Vec.T_CAT:
+      case Vec.T_STR:
+      case Vec.T_UUID:
+      case Vec.T_TIME:
+        if (type.getOriginalType() == OriginalType.TIMESTAMP_MILLIS)
+          readNumbers(col, reader, rowCount);
+        else if (_chunkSchema[col] == Vec.T_CAT && _converter.dictionary(cd) != null)
+          readCategoricals(col, reader, rowCount, _converter.dictionary(cd));
+        else
+          readStrings(col, reader, rowCount);
+        break;
+      default:
+        throw new UnsupportedOperationException("Unsupported type " + _chunkSchema[col]);
+    }
+  }
+
+  private void readNumbers(int col, ColumnReader reader, int rowCount) {
+    final int maxDef = reader.getDescriptor().getMaxDefinitionLevel();
+    final FVecParseWriter w = _writer;
+    switch (reader.getDescriptor().getType()) {
+      case BOOLEAN:
+        for (int row = 0; row < rowCount; row++, reader.consume())
+          if (reader.getCurrentDefinitionLevel() < maxDef) w.addInvalidCol(col);
+          else w.addNumCol(col, reader.getBoolean() ? 1 : 0, 0);
+        break;
+      case INT32:
+        for (int row = 0; row < rowCount; row++, reader.consume())
+          if (reader.getCurrentDefinitionLevel() < maxDef) w.addInvalidCol(col);
+          else w.addNumCol(col, reader.getInteger(), 0);
+        break;
+      case INT64:
+        for (int row = 0; row < rowCount; row++, reader.consume())
+          if (reader.getCurrentDefinitionLevel() < maxDef) w.addInvalidCol(col);
+          else w.addNumCol(col, reader.getLong(), 0);
+        break;
+      case FLOAT:
+        for (int row = 0; row < rowCount; row++, reader.consume())
+          if (reader.getCurrentDefinitionLevel() < maxDef) w.addInvalidCol(col);
+          else w.addNumCol(col, reader.getFloat());
+        break;
+      case DOUBLE:
+        for (int row = 0; row < rowCount; row++, reader.consume())
+          if (reader.getCurrentDefinitionLevel() < maxDef) w.addInvalidCol(col);
+          else w.addNumCol(col, reader.getDouble());
+        break;
+      default:
+        throw new UnsupportedOperationException("Unsupported physical type " + reader.getDescriptor().getType());
+    }
+  }
+
+  private void readStrings(int col, ColumnReader reader, int rowCount) {
+    final int maxDef = reader.getDescriptor().getMaxDefinitionLevel();
+    assert reader.getDescriptor().getType() == PrimitiveType.PrimitiveTypeName.BINARY;
+    BufferedString bs = new BufferedString();
+    for (int row = 0; row < rowCount; row++, reader.consume()) {
+      if (reader.getCurrentDefinitionLevel() < maxDef) {
+        _writer.addInvalidCol(col);
+      } else {
+        bs.set(reader.getBinary().toStringUsingUTF8().getBytes()); // same bytes as the record reader
+        _writer.addStrCol(col, bs);
+      }
+    }
+  }
+
+  /**
+   * Dictionary encoded pages are read as dictionary ids, mapped to categorical ids once per column chunk.
+   * Parquet writers fall back to plain encoding when a dictionary grows too large; the remaining pages of
+   * the column chunk are then read as strings.
+   */
+  private void readCategoricals(int col, ColumnReader reader, int rowCount, Dictionary dict) {
+    final int maxDef = reader.getDescriptor().getMaxDefinitionLevel();
+    int[] catIds = new int[dict.getMaxId() + 1];
+    BufferedString bs = new BufferedString();
+    for (int i = 0; i < catIds.length; i++) {
+      bs.set(dict.decodeToBinary(i).toStringUsingUTF8().getBytes());
+      catIds[i] = _writer.addCategoricalLevel(col, bs);
+    }
+    int row = 0;
+    try {
+      for (; row < rowCount; row++, reader.consume())
+        if (reader.getCurrentDefinitionLevel() < maxDef) _writer.addInvalidCol(col);
+        else _writer.addNumCol(col, catIds[reader.getCurrentValueDictionaryID()], 0);
+    } catch (UnsupportedOperationException e) { // current page is not dictionary encoded
+      for (; row < rowCount; row++, reader.consume()) {
+        if (reader.getCurrentDefinitionLevel() < maxDef) {
+          _writer.addInvalidCol(col);
+        } else {
+          bs.set(reader.getBinary().toStringUsingUTF8().getBytes());
+          _writer.addStrCol(col, bs);
+        }
+      }
+    }
+  }
+
+  /**
+   * Root converter of the column store. Parquet's ColumnReader takes the dictionaries of the column chunks
+   * from the converters; no values are ever written to them (the values are read directly from the ColumnReader).
+   */
+  private static class DictionaryConverter extends GroupConverter {
+
+    private final MessageType _schema;
+    private final ColumnConverter[] _converters;
+
+    DictionaryConverter(MessageType schema) {
+      _schema = schema;
+      _converters = new ColumnConverter[schema.getFieldCount()];
+      for (int i = 0; i < _converters.length; i++) {
+        Type field = schema.getType(i);
+        assert field.isPrimitive();
+        OriginalType ot = field.getOriginalType();
+        _converters[i] = new ColumnConverter(ot == OriginalType.UTF8 || ot == OriginalType.ENUM);
+      }
+    }
+
+    PrimitiveType type(ColumnDescriptor cd) {
+      return _schema.getType(cd.getPath()).asPrimitiveType();
+    }
+
+    Dictionary dictionary(ColumnDescriptor cd) {
+      return _converters[_schema.getFieldIndex(cd.getPath()[0])]._dict;
+    }
+
+    void clearDictionary(ColumnDescriptor cd) {
+      _converters[_schema.getFieldIndex(cd.getPath()[0])]._dict = null;
+    }
+
+    @Override
+    public Converter getConverter(int fieldIndex) {
+      return _converters[fieldIndex];
+    }
+
+    @Override
+    public void start() {}
+
+    @Override
+    public void end() {}
+  }
+
+  private static class ColumnConverter extends PrimitiveConverter {
+
+    private final boolean _dictionarySupport;
+    private Dictionary _dict;
+
+    ColumnConverter(boolean dictionarySupport) {
+      _dictionarySupport = dictionarySupport;
+    }
+
+    @Override
+    public boolean hasDictionarySupport() {
+      return _dictionarySupport;
+    }
+
+    @Override
+    public void setDictionary(Dictionary dictionary) {
+      _dict = dictionary;
+    }
+  }
+
+}
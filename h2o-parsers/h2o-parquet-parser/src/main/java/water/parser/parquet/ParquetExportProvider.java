@@ -0,0 +1,149 @@
+package water.parser.parquet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.apache.parquet.column.ColumnWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.VecParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type;
+import water.Job;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.parser.BufferedString;
+import water.util.ExportFormatProvider;
+import water.util.PrettyPrint;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exports Frames to Parquet files readable by {@link ParquetParser}.
+ *
+ * Columns are written with their H2O types: integer columns as INT32/INT64, real columns as DOUBLE, time columns
+ * as INT64 (TIMESTAMP_MILLIS) and categorical, string and UUID columns as UTF8 strings. Categorical columns are
+ * dictionary encoded, the Binary of each level is prepared once per column. Missing values are written as nulls.
+ *
+ * The part is written on the node that was asked to export it: each H2O chunk becomes one row group and the row
+ * group is written column by column, the values of a Chunk go straight to the column writer (no records are
+ * assembled).
+ */
+public class ParquetExportProvider extends ExportFormatProvider {
+
+  private static final int PAGE_SIZE = ParquetWriter.DEFAULT_PAGE_SIZE;
+
+  private static final byte INT32 = 0, INT64 = 1, DOUBLE = 2, CAT = 3, STR = 4, UUID_STR = 5;
+
+  @Override
+  public String name() {
+    return "parquet";
+  }
+
+  @Override
+  public long exportPart(Frame fr, int firstChunk, int nChunks, String path, boolean overwrite, Job j) throws IOException {
+    Configuration conf = new Configuration();
+    // no checksum (.crc) files next to local part files, they would be picked up when the directory is imported
+    conf.setClass("fs.file.impl", RawLocalFileSystem.class, FileSystem.class);
+    conf.setBoolean("fs.file.impl.disable.cache", true);
+    Path file = new Path(path);
+    FileSystem fs = file.getFileSystem(conf);
+    if (fs.exists(file)) {
+      if (!overwrite) throw new IOException("File " + path + " already exists!");
+      fs.delete(file, false);
+    }
+    Vec[] vecs = fr.vecs();
+    String[] names = fr.names();
+    byte[] kinds = new byte[vecs.length];
+    Binary[][] levels = new Binary[vecs.length][];
+    MessageType schema = schema(names, vecs, kinds, levels);
+    VecParquetWriter writer = new VecParquetWriter(conf, schema, file, CompressionCodecName.SNAPPY,
+            PAGE_SIZE, PAGE_SIZE, true);
+    try {
+      BufferedString bs = new BufferedString();
+      for (int cidx = firstChunk; cidx < firstChunk + nChunks; cidx++) {
+        writer.startRowGroup();
+        int len = 0;
+        for (int c = 0; c < vecs.length; c++) {
+          Chunk chk = vecs[c].chunkForChunkIdx(cidx);
+          len = chk._len;
+          writeColumn(chk, kinds[c], levels[c], writer.columnWriter(c), writer.maxDefinitionLevel(c), bs);
+        }
+        writer.endRowGroup(len);
+        if (j != null) {
+          if (j.stop_requested()) throw new Job.JobCancelledException();
+          j.update(1);
+        }
+      }
+    } finally {
+      writer.close();
+    }
+    return fs.getFileStatus(file).getLen();
+  }
+
+  private static void writeColumn(Chunk c, byte kind, Binary[] levels, ColumnWriter w, int dl, BufferedString bs) {
+    final int len = c._len;
+    for (int row = 0; row < len; row++) {
+      if (c.isNA(row)) {
+        w.writeNull(0, dl - 1); // nulls are absent optional fields
+        continue;
+      }
+      switch (kind) {
+        case INT32: w.write((int) c.at8(row), 0, dl); break;
+        case INT64: w.write(c.at8(row), 0, dl); break;
+        case DOUBLE: w.write(c.atd(row), 0, dl); break;
+        case CAT: w.write(levels[(int) c.at8(row)], 0, dl); break;
+        case STR:
+          c.atStr(bs, row);
+          w.write(Binary.fromByteArray(bs.getBuffer(), bs.getOffset(), bs.length()), 0, dl);
+          break;
+        case UUID_STR: w.write(Binary.fromString(PrettyPrint.UUID(c.at16l(row), c.at16h(row))), 0, dl); break;
+        default: throw new IllegalStateException("Unexpected column kind " + kind);
+      }
+    }
+  }
+
+  private static MessageType schema(String[] names, Vec[] vecs, byte[] kinds, Binary[][] levels) {
+    List<Type> fields = new ArrayList<>(vecs.length);
+    for (int i = 0; i < vecs.length; i++) {
+      Vec v = vecs[i];
+      Type.Repetition opt = Type.Repetition.OPTIONAL;
+      if (v.isCategorical()) {
+        kinds[i] = CAT;
+        String[] domain = v.domain();
+        levels[i] = new Binary[domain.length];
+        for (int l = 0; l < domain.length; l++)
+          levels[i][l] = Binary.fromString(domain[l]);
+        fields.add(new PrimitiveType(opt, PrimitiveTypeName.BINARY, names[i], OriginalType.UTF8));
+      } else if (v.isString()) {
+        kinds[i] = STR;
+        fields.add(new PrimitiveType(opt, PrimitiveTypeName.BINARY, names[i], OriginalType.UTF8));
+      } else if (v.isUUID()) {
+        kinds[i] = UUID_STR;
+        fields.add(new PrimitiveType(opt, PrimitiveTypeName.BINARY, names[i], OriginalType.UTF8));
+      } else if (v.isTime()) {
+        kinds[i] = INT64;
+        fields.add(new PrimitiveType(opt, PrimitiveTypeName.INT64, names[i], OriginalType.TIMESTAMP_MILLIS));
+      } else if (v.isInt() && v.min() >= Integer.MIN_VALUE && v.max() <= Integer.MAX_VALUE) {
+        kinds[i] = INT32;
+        fields.add(new PrimitiveType(opt, PrimitiveTypeName.INT32, names[i]));
+      } else if (v.isInt()) {
+        kinds[i] = INT64;
+        fields.add(new PrimitiveType(opt, PrimitiveTypeName.INT64, names[i]));
+      } else {
+        kinds[i] = DOUBLE;
+        fields.add(new PrimitiveType(opt, PrimitiveTypeName.DOUBLE, names[i]));
+      }
+    }
+    return new MessageType("h2o", fields);
+  }
+
+}
@@ -9,6 +9,7 @@ import org.apache.parquet.hadoop.metadata.ParquetMetadata;
 import org.apache.parquet.schema.MessageType;
 import org.apache.parquet.schema.OriginalType;
 import org.apache.parquet.schema.Type;
+import water.H2O;
 import water.Job;
 import water.Key;
 
@@ -19,7 +20,9 @@ import water.parser.*;
 import water.util.Log;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 /**
  * Parquet parser for H2O distributed parsing subsystem.
@@ -28,11 +31,16 @@ public class ParquetParser extends Parser {
 
   private static final int MAX_PREVIEW_RECORDS = 1000;
 
+  /** System property switching the column-wise {@link ChunkReader} off by default (when set to false). */
+  public static final String COLUMN_READER_PROP = H2O.OptArgs.SYSTEM_PROP_PREFIX + "parquet.columnReader";
+
   private final byte[] _metadata;
+  private final RowGroupFilter[] _rowGroupFilters;
 
   ParquetParser(ParseSetup setup, Key<Job> jobKey) {
     super(setup, jobKey);
     _metadata = ((ParquetParseSetup) setup).parquetMetadata;
+    _rowGroupFilters = RowGroupFilter.parse(setup.getRowGroupFilters(), null);
   }
 
   @Override
@@ -47,17 +55,29 @@ public class ParquetParser extends Parser {
     ParquetMetadataConverter.MetadataFilter chunkFilter = ParquetMetadataConverter.range(
             chunk.start(), chunk.start() + chunk.len());
     ParquetMetadata metadata = VecParquetReader.readFooter(_metadata, chunkFilter);
+    List<BlockMetaData> blocks = RowGroupFilter.prune(metadata.getBlocks(), _rowGroupFilters);
+    if (blocks.size() < metadata.getBlocks().size()) {
+      Log.debug("Skipping ", metadata.getBlocks().size() - blocks.size(), " blocks of chunk #", cidx, " (filters: ", Arrays.toString(_rowGroupFilters), ")");
+      metadata = new ParquetMetadata(metadata.getFileMetaData(), blocks);
+    }
     if (metadata.getBlocks().isEmpty()) {
       Log.trace("Chunk #", cidx, " doesn't contain any Parquet block center.");
       return dout;
     }
     Log.info("Processing ", metadata.getBlocks().size(), " blocks of chunk #", cidx);
-    VecParquetReader reader = new VecParquetReader(vec, metadata, dout, _setup.getColumnTypes());
     try {
-      Integer recordNumber;
-      do {
-        recordNumber = reader.read();
-      } while (recordNumber != null);
+      ParquetParseSetup setup = (ParquetParseSetup) _setup;
+      if (setup.columnReader && (dout instanceof FVecParseWriter) &&
+              ChunkReader.supports(metadata.getFileMetaData().getSchema(), _setup.getColumnNames(), _setup.getColumnTypes())) {
+        // column-wise, straight into the chunks
+        new ChunkReader(vec, metadata, (FVecParseWriter) dout, _setup.getColumnNames(), _setup.getColumnTypes()).read();
+      } else {
+        VecParquetReader reader = new VecParquetReader(vec, metadata, dout, _setup.getColumnTypes());
+        Integer recordNumber;
+        do {
+          recordNumber = reader.read();
+        } while (recordNumber != null);
+      }
     } catch (IOException e) {
       throw new RuntimeException("Failed to parse records", e);
     }
@@ -122,6 +142,8 @@ public class ParquetParser extends Parser {
 
   public static class ParquetParseSetup extends ParseSetup {
     transient byte[] parquetMetadata;
+    /** Read the row groups column by column where the file allows it (on by default), see {@link ChunkReader}. */
+    public boolean columnReader = Boolean.parseBoolean(System.getProperty(COLUMN_READER_PROP, "true"));
 
     public ParquetParseSetup() { super(); }
     public ParquetParseSetup(String[] columnNames, byte[] ctypes, String[][] data, byte[] parquetMetadata) {
@@ -44,6 +44,8 @@ public class ParquetParserProvider extends ParserProvider {
 
   @Override
   public ParseSetup createParserSetup(Key[] inputs, ParseSetup requestedSetup) {
+    // fail early on malformed row group filters, the parsers read them again on each node
+    RowGroupFilter.parse(requestedSetup.getRowGroupFilters(), requestedSetup.getColumnNames());
     // pass through for now (just convert to an instance of ParquetParseSetup if needed)
     return requestedSetup instanceof ParquetParser.ParquetParseSetup ?
             requestedSetup : requestedSetup.copyTo(new ParquetParser.ParquetParseSetup());
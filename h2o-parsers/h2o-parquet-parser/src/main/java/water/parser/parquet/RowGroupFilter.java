@@ -0,0 +1,116 @@
+package water.parser.parquet;
+
+import org.apache.parquet.column.statistics.DoubleStatistics;
+import org.apache.parquet.column.statistics.FloatStatistics;
+import org.apache.parquet.column.statistics.IntStatistics;
+import org.apache.parquet.column.statistics.LongStatistics;
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import water.Iced;
+import water.exceptions.H2OIllegalArgumentException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Range predicate on a numeric column used to prune whole Parquet row groups.
+ *
+ * A row group is skipped when the min/max statistics of the column chunk prove
+ * that no value of the column falls into [min, max]. Row groups without usable
+ * statistics (not recorded, or a non-numeric column) are always read; rows of
+ * the row groups that are read are not filtered individually.
+ *
+ * Filters come with the parse setup as "column:min:max", where an empty bound
+ * is unbounded, e.g. "year:2010:" for the years from 2010 on.
+ */
+public class RowGroupFilter extends Iced<RowGroupFilter> {
+
+  final String _column;
+  final double _min;
+  final double _max;
+
+  public RowGroupFilter(String column, double min, double max) {
+    _column = column;
+    _min = min;
+    _max = max;
+  }
+
+  /**
+   * Parses the filters of a parse setup.
+   * @param specs filters as "column:min:max", or null
+   * @param columnNames columns of the file, to check the filters against (if known)
+   * @return the filters, or null if there are none
+   */
+  static RowGroupFilter[] parse(String[] specs, String[] columnNames) {
+    if (specs == null || specs.length == 0) return null;
+    RowGroupFilter[] filters = new RowGroupFilter[specs.length];
+    for (int i = 0; i < specs.length; i++) {
+      String spec = specs[i];
+      int hi = spec == null ? -1 : spec.lastIndexOf(':');
+      int lo = hi <= 0 ? -1 : spec.lastIndexOf(':', hi - 1);
+      if (lo <= 0)
+        throw new H2OIllegalArgumentException("Row group filter '" + spec + "' is not of the form column:min:max");
+      String column = spec.substring(0, lo);
+      if (columnNames != null && ! Arrays.asList(columnNames).contains(column))
+        throw new H2OIllegalArgumentException("Row group filter '" + spec + "' refers to unknown column " + column);
+      filters[i] = new RowGroupFilter(column,
+              bound(spec, spec.substring(lo + 1, hi), Double.NEGATIVE_INFINITY),
+              bound(spec, spec.substring(hi + 1), Double.POSITIVE_INFINITY));
+    }
+    return filters;
+  }
+
+  private static double bound(String spec, String bound, double none) {
+    if (bound.trim().isEmpty()) return none;
+    try {
+      return Double.parseDouble(bound);
+    } catch (NumberFormatException e) {
+      throw new H2OIllegalArgumentException("Row group filter '" + spec + "' has a bound that is not a number: " + bound);
+    }
+  }
+
+  /** Can the given row group contain a row that satisfies this predicate? */
+  boolean canMatch(BlockMetaData block) {
+    for (ColumnChunkMetaData column : block.getColumns()) {
+      String[] path = column.getPath().toArray();
+      if (path.length != 1 || !_column.equals(path[0])) continue;
+      Statistics stats = column.getStatistics();
+      if (stats == null || stats.isEmpty()) return true;
+      double min, max;
+      if (stats instanceof IntStatistics) {
+        min = ((IntStatistics) stats).getMin(); max = ((IntStatistics) stats).getMax();
+      } else if (stats instanceof LongStatistics) {
+        min = ((LongStatistics) stats).getMin(); max = ((LongStatistics) stats).getMax();
+      } else if (stats instanceof FloatStatistics) {
+        min = ((FloatStatistics) stats).getMin(); max = ((FloatStatistics) stats).getMax();
+      } else if (stats instanceof DoubleStatistics) {
+        min = ((DoubleStatistics) stats).getMin(); max = ((DoubleStatistics) stats).getMax();
+      } else {
+        return true;
+      }
+      return max >= _min && min <= _max;
+    }
+    return true; // unknown column, nothing to prune on
+  }
+
+  /** Row groups that can match all the given filters (all row groups if there are no filters). */
+  static List<BlockMetaData> prune(List<BlockMetaData> blocks, RowGroupFilter[] filters) {
+    if (filters == null || filters.length == 0) return blocks;
+    List<BlockMetaData> result = new ArrayList<>(blocks.size());
+    for (BlockMetaData block : blocks) {
+      boolean match = true;
+      for (RowGroupFilter f : filters)
+        match &= f.canMatch(block);
+      if (match) result.add(block);
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return _min + " <= " + _column + " <= " + _max;
+  }
+
+}
@@ -3,6 +3,7 @@ package water.parser.parquet;
 import com.google.common.io.Files;
 import com.google.common.io.Resources;
 import org.apache.avro.Schema;
+import org.apache.commons.io.FileUtils;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.generic.GenericRecordBuilder;
@@ -14,6 +15,7 @@ import org.apache.parquet.example.data.Group;
 import org.apache.parquet.example.data.simple.SimpleGroupFactory;
 import org.apache.parquet.hadoop.ParquetWriter;
 import org.apache.parquet.hadoop.example.GroupWriteSupport;
+import org.apache.parquet.io.api.Binary;
 import org.apache.parquet.schema.MessageType;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -28,11 +30,20 @@ import static org.apache.parquet.hadoop.metadata.CompressionCodecName.UNCOMPRESS
 import static org.apache.parquet.schema.MessageTypeParser.parseMessageType;
 import static org.junit.Assert.*;
 
+import water.DKV;
+import water.H2O;
+import water.Key;
 import water.TestUtil;
+import water.exceptions.H2OIllegalArgumentException;
 import water.fvec.Frame;
+import water.fvec.NFSFileVec;
+import water.fvec.RebalanceDataSet;
 import water.fvec.RollupStatsHelpers;
 import water.fvec.Vec;
 import water.parser.BufferedString;
+import water.parser.ParseDataset;
+import water.parser.ParseSetup;
+import water.util.ArrayUtils;
 
 /**
  * Test suite for Parquet parser.
@@ -148,6 +159,157 @@ public class ParseTestParquet extends TestUtil {
     assertFrameAssertion(assertion);
   }
 
+  @Test
+  public void testParseRowGroupFilter() throws IOException {
+    final int nrows = 10000;
+    File f = ParquetFileGenerator.generateParquetFile(Files.createTempDir(), "rowGroupFilter.parquet", nrows, new Date());
+    Frame actual = null;
+    try {
+      NFSFileVec nfs = NFSFileVec.make(f);
+      ParquetParser.ParquetParseSetup setup = ParseSetup.guessSetup(new Key[]{nfs._key}, false, ParseSetup.HAS_HEADER)
+              .copyTo(new ParquetParser.ParquetParseSetup());
+      setup.setRowGroupFilters(new String[]{"int32_field:" + (32 + 5000) + ":" + (32 + 5099), "int64_field::"});
+      actual = ParseDataset.parse(Key.make(), new Key[]{nfs._key}, true, setup);
+
+      assertTrue("Row groups were skipped", actual.numRows() < nrows);
+      int matching = 0;
+      for (long row = 0; row < actual.numRows(); row++) {
+        long value = actual.vec("int32_field").at8(row);
+        assertEquals("Columns are aligned", value + 32, actual.vec("int64_field").at8(row));
+        if (value >= 32 + 5000 && value <= 32 + 5099) matching++;
+      }
+      assertEquals("All matching rows were parsed", 100, matching);
+    } finally {
+      if (actual != null) actual.delete();
+      FileUtils.deleteQuietly(f);
+    }
+  }
+
+  @Test
+  public void testParseRowGroupFilterMalformed() throws IOException {
+    File f = ParquetFileGenerator.generateParquetFile(Files.createTempDir(), "rowGroupFilterMalformed.parquet", 100, new Date());
+    NFSFileVec nfs = NFSFileVec.make(f);
+    try {
+      for (String spec : new String[]{"int32_field", "int32_field:1", ":1:2", "int32_field:one:2", "no_such_field:1:2"}) {
+        ParseSetup setup = ParseSetup.guessSetup(new Key[]{nfs._key}, false, ParseSetup.HAS_HEADER);
+        setup.setRowGroupFilters(new String[]{spec});
+        try {
+          ParseDataset.parse(Key.make(), new Key[]{nfs._key}, false, setup).delete();
+          fail("Expected a failure for " + spec);
+        } catch (H2OIllegalArgumentException e) {
+          assertTrue(e.getMessage(), e.getMessage().contains(spec));
+        }
+      }
+    } finally {
+      nfs.remove();
+      FileUtils.deleteQuietly(f);
+    }
+  }
+
+  /**
+   * The column reader needs to produce the same frames as the record reader for all physical types
+   * and for dictionary encoded, plain encoded and mixed (dictionary falls back to plain) column chunks.
+   */
+  @Test
+  public void testColumnReaderSameAsRecordReader() throws IOException {
+    final int nrows = 3000;
+    File dir = Files.createTempDir();
+    try {
+      for (boolean int96 : new boolean[]{false, true}) {
+        // dictionary disabled, dictionary enabled, dictionary too small for the column chunks
+        File[] files = {
+                ParquetFileGenerator.generateAllTypesParquetFile(dir, "plain" + int96 + ".parquet", nrows, int96, false, 1024),
+                ParquetFileGenerator.generateAllTypesParquetFile(dir, "dict" + int96 + ".parquet", nrows, int96, true, 1024 * 1024),
+                ParquetFileGenerator.generateAllTypesParquetFile(dir, "mixed" + int96 + ".parquet", nrows, int96, true, 256)
+        };
+        for (File f : files) {
+          assertSameAsRecordReader(f, null);
+          assertSameAsRecordReader(f, "cat_field");
+        }
+      }
+    } finally {
+      FileUtils.deleteQuietly(dir);
+    }
+  }
+
+  private static void assertSameAsRecordReader(File f, String categorical) {
+    NFSFileVec nfs = NFSFileVec.make(f);
+    Frame records = null, columns = null;
+    try {
+      ParquetParser.ParquetParseSetup setup = ParseSetup.guessSetup(new Key[]{nfs._key}, false, ParseSetup.HAS_HEADER)
+              .copyTo(new ParquetParser.ParquetParseSetup());
+      if (categorical != null) {
+        byte[] types = setup.getColumnTypes();
+        types[ArrayUtils.find(setup.getColumnNames(), categorical)] = Vec.T_CAT;
+        setup.setColumnTypes(types);
+      }
+      setup.columnReader = false;
+      records = ParseDataset.parse(Key.make(), new Key[]{nfs._key}, false, setup);
+      setup.columnReader = true;
+      columns = ParseDataset.parse(Key.make(), new Key[]{nfs._key}, false, setup);
+
+      String msg = f.getName() + (categorical != null ? " with categorical " + categorical : "");
+      assertArrayEquals(msg, records.names(), columns.names());
+      assertArrayEquals(msg, records.types(), columns.types());
+      assertArrayEquals(msg, records.domains(), columns.domains());
+      assertTrue(msg, isBitIdentical(records, columns));
+    } finally {
+      if (records != null) records.delete();
+      if (columns != null) columns.delete();
+      nfs.remove();
+    }
+  }
+
+  @Test
+  public void testExportParquet() throws IOException {
+    File dir = Files.createTempDir();
+    try {
+      File[] files = {
+              ParquetFileGenerator.generateAvroPrimitiveTypes(dir, "exportAvro.parquet", 1000, new Date()),
+              ParquetFileGenerator.generateAllTypesParquetFile(dir, "exportAllTypes.parquet", 3000, false, true, 256)
+      };
+      for (File f : files)
+        for (int nParts : new int[]{1, 3})
+          assertExportRoundTrip(f, new File(dir, "export-" + nParts + "-" + f.getName()), nParts);
+    } finally {
+      FileUtils.deleteQuietly(dir);
+    }
+  }
+
+  private static void assertExportRoundTrip(File f, File export, int nParts) throws IOException {
+    Frame parsed = null, expected = null, actual = null;
+    try {
+      parsed = parse_test_file(f.getCanonicalPath());
+      // parts span several chunks, each chunk is written as a row group
+      Key<Frame> rebalanced = Key.make();
+      H2O.submitTask(new RebalanceDataSet(parsed, rebalanced, 7)).join();
+      expected = DKV.getGet(rebalanced);
+      Frame.export(expected, export.getCanonicalPath(), expected._key.toString(), false, nParts, "parquet").get();
+      File[] parts = nParts == 1 ? new File[]{export} : export.listFiles();
+      assertNotNull(parts);
+      assertEquals("Number of part files", nParts, parts.length);
+      Arrays.sort(parts);
+      Key[] keys = new Key[parts.length];
+      for (int i = 0; i < parts.length; i++)
+        keys[i] = NFSFileVec.make(parts[i])._key;
+      // the types are guessed from the first row group only, parse with the types of the exported frame
+      ParseSetup setup = ParseSetup.guessSetup(keys, false, ParseSetup.HAS_HEADER);
+      setup.setColumnTypes(expected.types());
+      actual = ParseDataset.parse(Key.make(), keys, true, setup);
+
+      String msg = f.getName() + " in " + nParts + " part(s)";
+      assertArrayEquals(msg, expected.names(), actual.names());
+      assertArrayEquals(msg, expected.types(), actual.types());
+      assertArrayEquals(msg, expected.domains(), actual.domains());
+      // the parser doesn't read doubles bit-exactly
+      assertTrue(msg, isIdenticalUpToRelTolerance(expected, actual, EPSILON));
+    } finally {
+      if (parsed != null) parsed.delete();
+      if (expected != null) expected.delete();
+      if (actual != null) actual.delete();
+    }
+  }
+
 }
 
 class ParquetFileGenerator {
@@ -211,6 +373,55 @@ class ParquetFileGenerator {
     return f;
   }
 
+  static File generateAllTypesParquetFile(File parentDir, String filename, int nrows, boolean int96,
+                                          boolean dictionary, int dictionaryPageSize) throws IOException {
+    File f = new File(parentDir, filename);
+
+    Configuration conf = new Configuration();
+    MessageType schema = parseMessageType(
+            "message test { "
+                    + "optional boolean boolean_field; "
+                    + "optional int32 int32_field; "
+                    + "optional int64 int64_field; "
+                    + "optional float float_field; "
+                    + "optional double double_field; "
+                    + "optional int64 timestamp_field (TIMESTAMP_MILLIS); "
+                    + "optional binary string_field (UTF8); "
+                    + "optional binary cat_field (UTF8); "
+                    + "required int32 row; "
+                    + (int96 ? "optional int96 int96_field; optional fixed_len_byte_array(3) fixed_field; " : "")
+                    + "} ");
+    GroupWriteSupport.setSchema(schema, conf);
+    SimpleGroupFactory fact = new SimpleGroupFactory(schema);
+    ParquetWriter<Group> writer = new ParquetWriter<Group>(new Path(f.getPath()), new GroupWriteSupport(),
+            UNCOMPRESSED, 16 * 1024, 1024, dictionaryPageSize, dictionary, false, ParquetProperties.WriterVersion.PARQUET_1_0, conf);
+    try {
+      Random rnd = new Random(42);
+      for (int i = 0; i < nrows; i++) {
+        Group g = fact.newGroup();
+        if (rnd.nextInt(10) != 0) g.append("boolean_field", rnd.nextBoolean());
+        if (rnd.nextInt(10) != 0) g.append("int32_field", rnd.nextInt(100) - 50);
+        if (rnd.nextInt(10) != 0) g.append("int64_field", rnd.nextLong());
+        if (rnd.nextInt(10) != 0) g.append("float_field", rnd.nextFloat());
+        if (rnd.nextInt(10) != 0) g.append("double_field", rnd.nextGaussian());
+        if (rnd.nextInt(10) != 0) g.append("timestamp_field", 1500000000000L + rnd.nextInt(1000000));
+        if (rnd.nextInt(10) != 0) g.append("string_field", "s" + rnd.nextInt(nrows) + "\u00e9");
+        if (rnd.nextInt(10) != 0) g.append("cat_field", "CAT_" + rnd.nextInt(i < nrows / 2 ? 5 : 500));
+        g.append("row", i);
+        if (int96) {
+          byte[] nanoTime = new byte[12];
+          rnd.nextBytes(nanoTime);
+          if (rnd.nextInt(10) != 0) g.append("int96_field", Binary.fromByteArray(nanoTime));
+          if (rnd.nextInt(10) != 0) g.append("fixed_field", Binary.fromByteArray(new byte[]{'a', (byte) ('a' + rnd.nextInt(26)), 'z'}));
+        }
+        writer.write(g);
+      }
+    } finally {
+      writer.close();
+    }
+    return f;
+  }
+
   static File generateSparseParquetFile(File parentDir, String filename, int nrows) throws IOException {
     File f = new File(parentDir, filename);
 
@@ -0,0 +1,226 @@
+package water.persist;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import water.MemoryManager;
+import water.util.FileUtils;
+import water.util.Log;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node-local reader of byte ranges (chunks) of HDFS files.
+ *
+ * <p>Input streams are pooled per file: a read borrows an idle stream of the file (or opens a new one)
+ * and gives it back when done, instead of opening (NameNode round-trip, connection setup) and closing
+ * a stream for every chunk. At most <code>streamsPerFile</code> idle streams are kept per file and
+ * streams of at most <code>maxFiles</code> files, the least recently used files are closed first.
+ *
+ * <p>A read can be given the lengths of the chunks that follow the requested one (read-ahead). These
+ * are read together with the requested chunk in one sequential read and kept in memory until they are
+ * requested. A read of a chunk which is already being read ahead by another thread waits for that read
+ * instead of issuing its own, so adjacent chunk reads are coalesced into larger sequential reads.
+ * Read-ahead chunks not requested within the memory budget are dropped, oldest first.
+ *
+ * <p>The reader only depends on the Hadoop FileSystem API, it can be exercised with the local filesystem.
+ */
+final class HdfsChunkReader {
+
+  private final int _streamsPerFile;
+  private final int _maxFiles;
+  private final long _maxAheadBytes;
+
+  /** Idle streams per file, in access order (least recently used file first). */
+  private final LinkedHashMap<Path, ArrayDeque<FSDataInputStream>> _idle = new LinkedHashMap<>(16, 0.75f, true);
+  /** Chunks being read or already read ahead, by file and offset. */
+  private final ConcurrentHashMap<String, Block> _blocks = new ConcurrentHashMap<>();
+  /** Keys of the read-ahead blocks in the order they were claimed, used to evict the oldest ones. */
+  private final ConcurrentLinkedQueue<String> _claimed = new ConcurrentLinkedQueue<>();
+  /** Bytes of the read-ahead blocks held in _blocks; whoever removes a block from _blocks releases its bytes. */
+  private final AtomicLong _aheadBytes = new AtomicLong();
+
+  HdfsChunkReader(int streamsPerFile, int maxFiles, long maxAheadBytes) {
+    _streamsPerFile = streamsPerFile;
+    _maxFiles = maxFiles;
+    _maxAheadBytes = maxAheadBytes;
+  }
+
+  /** A chunk being read (or already read) by some thread. */
+  private static final class Block {
+    final int _len;
+    final CountDownLatch _done = new CountDownLatch(1);
+    volatile byte[] _data; // null if the read failed
+    Block(int len) { _len = len; }
+    void complete(byte[] data) { _data = data; _done.countDown(); }
+  }
+
+  private static String blockKey(Path p, long off) { return p.toString() + '@' + off; }
+
+  /**
+   * Reads <code>len</code> bytes of the file starting at <code>off</code>.
+   *
+   * @param aheadLens lengths of the chunks directly following the requested one which should be read
+   *                  ahead in the same sequential read (can be empty)
+   * @return the bytes of the requested chunk
+   */
+  byte[] read(FileSystem fs, Path p, long off, int len, int[] aheadLens) throws IOException, InterruptedException {
+    Block pending = _blocks.remove(blockKey(p, off));
+    if (pending != null) {
+      try {
+        pending._done.await();
+      } finally {
+        _aheadBytes.addAndGet(-pending._len);  // Taken out of _blocks, whatever the outcome of the read
+      }
+      byte[] data = pending._data;
+      if (data != null && data.length == len) return data;
+      // The read-ahead failed (or chunk boundaries changed), read the chunk on our own
+    }
+    // Claim the following chunks, up to the first one somebody else is already reading
+    List<Block> ahead = new ArrayList<>(aheadLens.length);
+    List<String> aheadKeys = new ArrayList<>(aheadLens.length);
+    long pos = off + len;
+    for (int l : aheadLens) {
+      if (!reserve(l)) break;
+      String key = blockKey(p, pos);
+      Block b = new Block(l);
+      if (_blocks.putIfAbsent(key, b) != null) {
+        _aheadBytes.addAndGet(-l);
+        break;
+      }
+      _claimed.add(key);
+      ahead.add(b);
+      aheadKeys.add(key);
+      pos += l;
+    }
+    boolean ok = false;
+    FSDataInputStream s = borrow(fs, p);
+    try {
+      byte[] b = MemoryManager.malloc1(len);
+      if (ahead.isEmpty() && positionalReads(p)) {
+        s.readFully(off, b, 0, len);
+      } else {
+        s.seek(off);
+        s.readFully(b);
+      }
+      for (Block blk : ahead) {
+        byte[] data = MemoryManager.malloc1(blk._len);
+        s.readFully(data);   // Continue the sequential read
+        blk.complete(data);
+      }
+      ok = true;
+      return b;
+    } finally {
+      release(p, s, ok);
+      if (!ok) {
+        for (int i = 0; i < ahead.size(); i++) {
+          Block blk = ahead.get(i);
+          if (blk._data == null && _blocks.remove(aheadKeys.get(i), blk))
+            _aheadBytes.addAndGet(-blk._len);
+          blk.complete(blk._data);  // Wake up the waiters, they will read on their own if needed
+        }
+      }
+    }
+  }
+
+  /**
+   * Positional reads of the S3 filesystems seek the underlying HTTP stream there and back which makes
+   * them very slow, MapR skips by reading. Streams of these filesystems are read sequentially after a seek
+   * (the borrowed stream is not shared, the seek is safe).
+   */
+  private static boolean positionalReads(Path p) {
+    String scheme = p.toUri().getScheme();
+    if (scheme == null) return true;
+    scheme = scheme.toLowerCase();
+    return !scheme.startsWith("s3") && !scheme.equals("maprfs");
+  }
+
+  /** Reserves memory for a read-ahead block, evicts the oldest read-ahead blocks if needed. */
+  private boolean reserve(int len) {
+    if (len > _maxAheadBytes) return false;
+    while (_aheadBytes.addAndGet(len) > _maxAheadBytes) {
+      _aheadBytes.addAndGet(-len);
+      if (!evictOldest()) return false;
+    }
+    return true;
+  }
+
+  private boolean evictOldest() {
+    String key;
+    while ((key = _claimed.poll()) != null) {
+      Block b = _blocks.get(key);
+      if (b == null) continue;  // Already consumed
+      if (b._done.getCount() > 0) { _claimed.add(key); return false; } // Still being read
+      if (_blocks.remove(key, b)) {
+        _aheadBytes.addAndGet(-b._len);
+        Log.debug("HDFS read-ahead of " + key + " dropped, it was not requested in time.");
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private FSDataInputStream borrow(FileSystem fs, Path p) throws IOException {
+    synchronized (_idle) {
+      ArrayDeque<FSDataInputStream> q = _idle.get(p);
+      if (q != null && !q.isEmpty()) return q.pop();
+    }
+    return fs.open(p);
+  }
+
+  private void release(Path p, FSDataInputStream s, boolean reuse) {
+    List<FSDataInputStream> toClose = new ArrayList<>();
+    if (reuse) {
+      synchronized (_idle) {
+        ArrayDeque<FSDataInputStream> q = _idle.get(p);
+        if (q == null) _idle.put(p, q = new ArrayDeque<FSDataInputStream>());
+        if (q.size() < _streamsPerFile) q.push(s);
+        else toClose.add(s);
+        Iterator<Map.Entry<Path, ArrayDeque<FSDataInputStream>>> it = _idle.entrySet().iterator();
+        while (_idle.size() > _maxFiles && it.hasNext()) {
+          toClose.addAll(it.next().getValue());
+          it.remove();
+        }
+      }
+    } else {
+      toClose.add(s);  // The stream might be broken, do not reuse it
+    }
+    for (FSDataInputStream c : toClose)
+      close(c);
+  }
+
+  /** Bytes reserved by the read-ahead blocks not taken yet. */
+  long aheadBytes() { return _aheadBytes.get(); }
+
+  /** Closes all the idle streams of the given file (eg. when the file is deleted or overwritten). */
+  void evict(Path p) {
+    ArrayDeque<FSDataInputStream> q;
+    synchronized (_idle) {
+      q = _idle.remove(p);
+    }
+    if (q != null)
+      for (FSDataInputStream s : q)
+        close(s);
+  }
+
+  private static void close(FSDataInputStream s) {
+    try {
+      s.getWrappedStream().close();
+    } catch (IOException e) {
+      Log.trace(e);
+    }
+    FileUtils.close(s);
+  }
+
+}
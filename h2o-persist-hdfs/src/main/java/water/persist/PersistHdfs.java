@@ -19,12 +19,14 @@ import java.util.concurrent.Callable;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import water.DKV;
 import water.Futures;
 import water.H2O;
 import water.Key;
 import water.MemoryManager;
 import water.Value;
 import water.api.HDFSIOException;
+import water.fvec.FileVec;
 import water.fvec.HDFSFileVec;
 import water.fvec.Vec;
 import water.util.FileUtils;
@@ -41,6 +43,22 @@ public final class PersistHdfs extends Persist {
   /** Root path of HDFS */
   private final Path _iceRoot;
 
+  /** Number of following chunks read ahead together with a chunk of an imported file. */
+  public static final String READ_AHEAD_CHUNKS_PROP = H2O.OptArgs.SYSTEM_PROP_PREFIX + "persist.hdfs.readAheadChunks";
+  /** Maximum number of idle streams kept open per file. */
+  public static final String STREAMS_PER_FILE_PROP = H2O.OptArgs.SYSTEM_PROP_PREFIX + "persist.hdfs.streamsPerFile";
+  /** Maximum number of files with idle streams kept open. */
+  public static final String OPEN_FILES_PROP = H2O.OptArgs.SYSTEM_PROP_PREFIX + "persist.hdfs.openFiles";
+  /** Maximum number of bytes read ahead and not requested yet. */
+  public static final String READ_AHEAD_BYTES_PROP = H2O.OptArgs.SYSTEM_PROP_PREFIX + "persist.hdfs.readAheadBytes";
+
+  private static final int READ_AHEAD_CHUNKS = Integer.getInteger(READ_AHEAD_CHUNKS_PROP, 2);
+  /** Node-local pool of open streams of imported files, shared by all the loads. */
+  static final HdfsChunkReader READER = new HdfsChunkReader(
+          Integer.getInteger(STREAMS_PER_FILE_PROP, Math.max(1, (int) H2O.ARGS.nthreads)),
+          Integer.getInteger(OPEN_FILES_PROP, 64),
+          Long.getLong(READ_AHEAD_BYTES_PROP, 4L * READ_AHEAD_CHUNKS * H2O.ARGS.nthreads * FileVec.DFLT_CHUNK_SIZE));
+
   // Global HDFS initialization
   // FIXME: do not share it via classes, but initialize it by object
   static {
@@ -139,56 +157,64 @@ public final class PersistHdfs extends Persist {
     // new library version.  Might make sense to go to straight to 's3a' which is a replacement
     // for 's3n'.
     //
+    // Chunks of imported files are read through the pool of open streams,
+    // together with the chunks which follow them on this node (read-ahead).
     long end, start = System.currentTimeMillis();
-    final byte[] b = MemoryManager.malloc1(v._max);
-    Key k = v._key;
-
-    long skip = k.isChunkKey() ? water.fvec.NFSFileVec.chunkOffset(k) : 0;
+    final Key k = v._key;
+    final long skip = k.isChunkKey() ? water.fvec.NFSFileVec.chunkOffset(k) : 0;
     final Path p = _iceRoot == null?new Path(getPathForKey(k)):new Path(_iceRoot, getIceName(v));
-    final long skip_ = skip;
-    run(new Callable() {
-      @Override public Object call() throws Exception {
-        FileSystem fs = FileSystem.get(p.toUri(), CONF);
-        FSDataInputStream s = null;
-        try {
-//          fs.getDefaultBlockSize(p);
-
+    final byte[][] res = new byte[1][];
+    if (_iceRoot == null && k.isChunkKey()) {
+      final int[] ahead = readAheadLengths(k);
+      run(new Callable() {
+        @Override public Object call() throws Exception {
+          FileSystem fs = FileSystem.get(p.toUri(), CONF);
+          res[0] = READER.read(fs, p, skip, v._max, ahead);
+          assert v.isPersisted();
+          return null;
+        }
+      }, true, v._max);
+    } else {
+      res[0] = MemoryManager.malloc1(v._max);
+      run(new Callable() {
+        @Override public Object call() throws Exception {
+          FileSystem fs = FileSystem.get(p.toUri(), CONF);
+          FSDataInputStream s = null;
+          try {
             s = fs.open(p);
-//          System.out.println("default block size = " + fs.getDefaultBlockSize(p));
-//          FileStatus f = fs.getFileStatus(p);
-//          BlockLocation [] bs = fs.getFileBlockLocations(f,0,f.getLen());
-//          System.out.println(Arrays.toString(bs));
-          if (p.toString().toLowerCase().startsWith("maprfs:")) {
-            // MapR behaves really horribly with the google ByteStreams code below.
-            // Instead of skipping by seeking, it skips by reading and dropping.  Very bad.
-            // Use the HDFS API here directly instead.
-
-            s.seek(skip_);
-            s.readFully(b);
-          }
-          else {
-            // NOTE:
-            // The following line degrades performance of HDFS load from S3 API: s.readFully(skip,b,0,b.length);
-            // Google API's simple seek has better performance
-            // Load of 300MB file via Google API ~ 14sec, via s.readFully ~ 5min (under the same condition)
-//            ByteStreams.skipFully(s, skip_);
-//            ByteStreams.readFully(s, b);
-            s.seek(skip_);
-            s.readFully(b);
+            s.seek(skip);
+            s.readFully(res[0]);
+            assert v.isPersisted();
+          } finally {
+            if (s != null) s.getWrappedStream().close();
+            FileUtils.close(s);
           }
-          assert v.isPersisted();
-        } finally {
-          s.getWrappedStream().close();
-          FileUtils.close(s);
+          return null;
         }
-        return null;
-      }
-    }, true, v._max);
+      }, true, v._max);
+    }
     end = System.currentTimeMillis();
     if (end-start > 1000) // Only log read that took over 1 second to complete
-      Log.debug("Slow Read: "+(end-start)+" millis to get bytes "+skip_ +"-"+(skip_+b.length)+" in HDFS read.");
+      Log.debug("Slow Read: "+(end-start)+" millis to get bytes "+skip +"-"+(skip+v._max)+" in HDFS read.");
+
+    return res[0];
+  }
 
-    return b;
+  /**
+   * Lengths of the chunks following the given chunk which are homed on this
+   * node (and therefore will be loaded here), at most {@link #READ_AHEAD_CHUNKS}.
+   * The run stops at the first chunk homed elsewhere.
+   */
+  private static int[] readAheadLengths(Key chunkKey) {
+    if (READ_AHEAD_CHUNKS <= 0) return new int[0];
+    FileVec vec = DKV.getGet(Vec.getVecKey(chunkKey));
+    int nchks = vec.nChunks();
+    int cidx = (int) (FileVec.chunkOffset(chunkKey) / vec._chunkSize);
+    int n = 0;
+    int[] lens = new int[Math.min(READ_AHEAD_CHUNKS, nchks - 1 - cidx)];
+    for (int c = cidx + 1; n < lens.length && vec.chunkKey(c).home(); c++)
+      lens[n++] = (int) (c < nchks - 1 ? vec._chunkSize : vec.length() - (long) c * vec._chunkSize);
+    return n == lens.length ? lens : Arrays.copyOf(lens, n);
   }
 
   @Override public void store(Value v) {
@@ -533,6 +559,7 @@ public final class PersistHdfs extends Persist {
     URI uri = p.toUri();
     try {
       FileSystem fs = FileSystem.get(uri, CONF);
+      READER.evict(p);
       return fs.create(p, overwrite);
     }
     catch (IOException e) {
@@ -546,6 +573,7 @@ public final class PersistHdfs extends Persist {
     URI uri = p.toUri();
     try {
       FileSystem fs = FileSystem.get(uri, CONF);
+      READER.evict(p);
       return fs.delete(p, true);
     }
     catch (IOException e) {
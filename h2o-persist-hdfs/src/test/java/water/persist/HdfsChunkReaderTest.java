@@ -0,0 +1,252 @@
+package water.persist;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.FilterFileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.TestUtil;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test reading chunks of a local (file://) file through the pool of streams, with and without read-ahead.
+ */
+public class HdfsChunkReaderTest extends TestUtil {
+
+  private static final int CHUNK_SIZE = 64 * 1024;
+  private static final int NCHUNKS = 10;
+
+  private static File file;
+  private static byte[] data;
+
+  @BeforeClass
+  public static void setup() throws IOException {
+    stall_till_cloudsize(1);
+    data = new byte[(NCHUNKS - 1) * CHUNK_SIZE + 1234]; // the last chunk is shorter
+    new Random(0xfeed).nextBytes(data);
+    file = File.createTempFile("hdfsChunkReader", ".bin");
+    FileOutputStream os = new FileOutputStream(file);
+    try {
+      os.write(data);
+    } finally {
+      os.close();
+    }
+  }
+
+  @AfterClass
+  public static void teardown() {
+    if (file != null && !file.delete()) file.deleteOnExit();
+  }
+
+  @Test
+  public void testSequentialReads() throws Exception {
+    for (int ahead : new int[]{0, 2}) {
+      TrackingFileSystem fs = new TrackingFileSystem();
+      Path p = path();
+      HdfsChunkReader reader = new HdfsChunkReader(2, 4, 1 << 20);
+      for (int c = 0; c < NCHUNKS; c++)
+        assertChunk(c, reader.read(fs, p, offset(c), length(c), aheadLengths(c, ahead)));
+      assertEquals("One stream reused for all the reads", 1, fs._opened.get());
+      // without read-ahead each chunk is one read, with read-ahead a read covers 1 + ahead chunks
+      assertEquals("Reads issued with " + ahead + " chunks read ahead", (NCHUNKS + ahead) / (ahead + 1), fs._reads.get());
+      reader.evict(p);
+      assertEquals("Pooled streams are closed", fs._opened.get(), fs._closed.get());
+    }
+  }
+
+  @Test
+  public void testConcurrentReads() throws Exception {
+    for (final int ahead : new int[]{0, 2}) {
+      final TrackingFileSystem fs = new TrackingFileSystem();
+      final Path p = path();
+      final HdfsChunkReader reader = new HdfsChunkReader(2, 4, 1 << 20);
+      List<Integer> order = new ArrayList<>();
+      for (int r = 0; r < 5; r++)
+        for (int c = 0; c < NCHUNKS; c++) order.add(c);
+      Collections.shuffle(order, new Random(ahead));
+      final Integer[] chunks = order.toArray(new Integer[order.size()]);
+      final AtomicInteger next = new AtomicInteger();
+      final Throwable[] failure = new Throwable[1];
+      Thread[] threads = new Thread[4];
+      for (int t = 0; t < threads.length; t++) {
+        threads[t] = new Thread() {
+          @Override public void run() {
+            try {
+              int i;
+              while ((i = next.getAndIncrement()) < chunks.length) {
+                int c = chunks[i];
+                assertChunk(c, reader.read(fs, p, offset(c), length(c), aheadLengths(c, ahead)));
+              }
+            } catch (Throwable e) {
+              failure[0] = e;
+            }
+          }
+        };
+        threads[t].start();
+      }
+      for (Thread t : threads) t.join();
+      if (failure[0] != null) throw new AssertionError(failure[0]);
+      assertTrue("At most 2 idle streams are kept", fs._opened.get() - fs._closed.get() <= 2);
+      reader.evict(p);
+      assertEquals("Pooled streams are closed", fs._opened.get(), fs._closed.get());
+    }
+  }
+
+  /** A read-ahead which fails after another thread took its block gives its memory back. */
+  @Test
+  public void testFailedReadAheadReleasesMemory() throws Exception {
+    final TrackingFileSystem fs = new TrackingFileSystem();
+    final Path p = path();
+    final HdfsChunkReader reader = new HdfsChunkReader(2, 4, 1 << 20);
+    fs._failFrom = offset(1);   // The sequential read of chunk 1 fails, once the gate opens
+    final Throwable[] failure = new Throwable[2];
+    Thread owner = new Thread() {
+      @Override public void run() {
+        try {
+          reader.read(fs, p, offset(0), length(0), aheadLengths(0, 1));
+          failure[0] = new AssertionError("Expected the read to fail");
+        } catch (IOException expected) {
+        } catch (Throwable e) {
+          failure[0] = e;
+        }
+      }
+    };
+    owner.start();
+    while (reader.aheadBytes() == 0) Thread.sleep(1);
+    Thread waiter = new Thread() {
+      @Override public void run() {
+        try {
+          assertChunk(1, reader.read(fs, p, offset(1), length(1), new int[0]));
+        } catch (Throwable e) {
+          failure[1] = e;
+        }
+      }
+    };
+    waiter.start();
+    while (waiter.getState() != Thread.State.WAITING) Thread.sleep(1);
+    fs._gate.countDown();
+    owner.join();
+    waiter.join();
+    for (Throwable e : failure) if (e != null) throw new AssertionError(e);
+    assertEquals("Read-ahead memory released", 0, reader.aheadBytes());
+    reader.evict(p);
+  }
+
+  /** Removing a file through PersistHdfs closes the pooled streams of the file. */
+  @Test
+  public void testDeleteClosesStreams() throws Exception {
+    File f = File.createTempFile("hdfsChunkReaderDelete", ".bin");
+    FileOutputStream os = new FileOutputStream(f);
+    try {
+      os.write(data);
+    } finally {
+      os.close();
+    }
+    TrackingFileSystem fs = new TrackingFileSystem();
+    Path p = new Path(f.toURI());
+    for (int c = 0; c < NCHUNKS; c++)
+      assertChunk(c, PersistHdfs.READER.read(fs, p, offset(c), length(c), aheadLengths(c, 2)));
+    assertTrue("A stream is pooled", fs._opened.get() > fs._closed.get());
+    assertTrue(new PersistHdfs().delete(p.toString()));
+    assertFalse(f.exists());
+    assertEquals("Pooled streams are closed", fs._opened.get(), fs._closed.get());
+  }
+
+  private static Path path() {
+    return new Path(file.toURI());
+  }
+
+  private static long offset(int c) {
+    return (long) c * CHUNK_SIZE;
+  }
+
+  private static int length(int c) {
+    return c < NCHUNKS - 1 ? CHUNK_SIZE : data.length - (NCHUNKS - 1) * CHUNK_SIZE;
+  }
+
+  private static int[] aheadLengths(int c, int ahead) {
+    int[] lens = new int[Math.min(ahead, NCHUNKS - 1 - c)];
+    for (int i = 0; i < lens.length; i++) lens[i] = length(c + 1 + i);
+    return lens;
+  }
+
+  private static void assertChunk(int c, byte[] bytes) {
+    assertArrayEquals("Bytes of chunk " + c, Arrays.copyOfRange(data, (int) offset(c), (int) offset(c) + length(c)), bytes);
+  }
+
+  /** Local filesystem counting the opened and closed streams and the reads issued on them. */
+  private static class TrackingFileSystem extends FilterFileSystem {
+    final AtomicInteger _opened = new AtomicInteger();
+    final AtomicInteger _closed = new AtomicInteger();
+    final AtomicInteger _reads = new AtomicInteger();
+    volatile long _failFrom = Long.MAX_VALUE; // Sequential reads from here on wait for the gate and fail
+    final CountDownLatch _gate = new CountDownLatch(1);
+
+    TrackingFileSystem() throws IOException {
+      super(FileSystem.getLocal(new Configuration()));
+    }
+
+    @Override
+    public FSDataInputStream open(Path f, int bufferSize) throws IOException {
+      FSDataInputStream in = super.open(f, bufferSize);
+      _opened.incrementAndGet();
+      return new FSDataInputStream(new TrackedStream(in));
+    }
+
+    private class TrackedStream extends FSInputStream {
+      private final FSDataInputStream _in;
+      private boolean _isClosed;
+      private boolean _reading; // a sequential read after a seek is one read
+
+      TrackedStream(FSDataInputStream in) { _in = in; }
+
+      @Override public void seek(long pos) throws IOException { _in.seek(pos); _reading = false; }
+      @Override public long getPos() throws IOException { return _in.getPos(); }
+      @Override public boolean seekToNewSource(long targetPos) throws IOException { return false; }
+      @Override public int read() throws IOException { countRead(); return _in.read(); }
+      @Override public int read(byte[] b, int off, int len) throws IOException {
+        if (getPos() >= _failFrom) {
+          try {
+            _gate.await();
+          } catch (InterruptedException e) {
+            throw new IOException(e);
+          }
+          throw new IOException("Failing the read at " + getPos());
+        }
+        countRead();
+        return _in.read(b, off, len);
+      }
+      @Override public void readFully(long position, byte[] buffer, int offset, int length) throws IOException {
+        _reads.incrementAndGet();
+        _in.readFully(position, buffer, offset, length);
+      }
+      @Override public synchronized void close() throws IOException {
+        if (_isClosed) return;
+        _isClosed = true;
+        _closed.incrementAndGet();
+        _in.close();
+      }
+      private void countRead() {
+        if (!_reading) _reads.incrementAndGet();
+        _reading = true;
+      }
+    }
+  }
+
+}
@@ -4,6 +4,10 @@ import java.io.*;
 import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import water.*;
 import water.fvec.FileVec;
@@ -21,8 +25,6 @@ import com.amazonaws.services.s3.AmazonS3Client;
 import com.amazonaws.services.s3.S3ClientOptions;
 import com.amazonaws.services.s3.model.*;
 
-import com.google.common.io.ByteStreams;
-
 import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
 
 /** Persistence backend for S3 */
@@ -165,23 +167,22 @@ public final class PersistS3 extends Persist {
   // no matter what).
   @Override public byte[] load(Value v) {
     long start_io_ms = System.currentTimeMillis();
-    byte[] b = MemoryManager.malloc1(v._max);
     Key k = v._key;
     long skip = 0;
     // Skip offset based on chunk number
     if(k._kb[0] == Key.CHK)
       skip = FileVec.chunkOffset(k); // The offset
+    String[] bk = decodeKey(k);
+    int[] ahead = k._kb[0] == Key.CHK ? readAheadLengths(k) : new int[0];
     // Too complicate matters, S3 likes to reset connections when H2O hits it
     // too hard.  We "fix" this by just trying again, assuming we're getting
     // hit with a bogus resource limit (H2O doing a parse looks like a DDOS to
     // Amazon S3).
-    S3ObjectInputStream s = null;
-
     while( true ) {             // Loop, in case we get premature EOF's
       try {
         long start_ns = System.nanoTime(); // Blocking i/o call timing - without counting repeats
-        s = getObjectForKey(k, skip, v._max).getObjectContent();
-        ByteStreams.readFully(s, b); // delegate work to Google (it reads the byte buffer in a cycle as we did)
+        // Chunks are fetched in batches of ranged requests, see S3ChunkLoader
+        byte[] b = LOADER.load(getClient(), bk[0], bk[1], skip, v._max, ahead);
         assert v.isPersisted();
 //        TimeLine.record_IOclose(start_ns, start_io_ms, 1/* read */, v._max, Value.S3);
         return b;
@@ -193,19 +194,37 @@ public final class PersistS3 extends Persist {
         ignoreAndWait(e, false);
       } catch( IOException e ) {
         ignoreAndWait(e, true);
-      } finally {
-        try {
-          if( s != null ) s.close();
-        } catch( IOException e ) {}
+      } catch( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
       }
     }
   }
 
+  /**
+   * Lengths of the chunks following the given chunk which are homed on this
+   * node (and therefore will be loaded here), up to the read-ahead limit.
+   * The run stops at the first chunk homed elsewhere.
+   */
+  private static int[] readAheadLengths(Key chunkKey) {
+    FileVec vec = DKV.getGet(Vec.getVecKey(chunkKey));
+    int nchks = vec.nChunks();
+    int cidx = (int) (FileVec.chunkOffset(chunkKey) / vec._chunkSize);
+    int n = 0;
+    int[] lens = new int[(int) Math.min(nchks - 1 - cidx, S3_READ_AHEAD_BYTES / vec._chunkSize)];
+    for (int c = cidx + 1; n < lens.length && vec.chunkKey(c).home(); c++)
+      lens[n++] = (int) (c < nchks - 1 ? vec._chunkSize : vec.length() - (long) c * vec._chunkSize);
+    return n == lens.length ? lens : Arrays.copyOf(lens, n);
+  }
+
   private static void ignoreAndWait(final Exception e, boolean printException) {
     Log.ignore(e, "Hit the S3 reset problem, waiting and retrying...", printException);
     try {
       Thread.sleep(500);
-    } catch( InterruptedException ie ) {}
+    } catch( InterruptedException ie ) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting to retry the S3 request", ie);
+    }
   }
 
   // Store Value v to disk.
@@ -280,14 +299,6 @@ public final class PersistS3 extends Persist {
     return decodePath(s);
   }
 
-  // Gets the S3 object associated with the key that can read length bytes from offset
-  private static S3Object getObjectForKey(Key k, long offset, long length) throws IOException {
-    String[] bk = decodeKey(k);
-    GetObjectRequest r = new GetObjectRequest(bk[0], bk[1]);
-    r.setRange(offset, offset + length - 1); // Range is *inclusive* according to docs???
-    return getClient().getObject(r);
-  }
-
   // Gets the object metadata associated with given key.
   private static ObjectMetadata getObjectMetadataForKey(Key k) {
     String[] bk = decodeKey(k);
@@ -313,6 +324,36 @@ public final class PersistS3 extends Persist {
   /** Enable S3 path style access via setting the property to true.
    * See: {@link com.amazonaws.services.s3.S3ClientOptions#setPathStyleAccess(boolean)} */
   public final static String S3_ENABLE_PATH_STYLE = SYSTEM_PROP_PREFIX + "persist.s3.enable.path.style";
+  /** Maximal number of parallel S3 requests (chunk fetches and part uploads) per node */
+  public final static String S3_PARALLEL_REQUESTS_PROP = SYSTEM_PROP_PREFIX + "persist.s3.parallelRequests";
+  /** Minimal size of a ranged GET fetching chunks, in bytes */
+  public final static String S3_MIN_REQUEST_SIZE_PROP = SYSTEM_PROP_PREFIX + "persist.s3.minRequestSize";
+  /** Maximal size of a ranged GET fetching chunks, in bytes */
+  public final static String S3_MAX_REQUEST_SIZE_PROP = SYSTEM_PROP_PREFIX + "persist.s3.maxRequestSize";
+  /** Maximal number of bytes fetched ahead and not loaded yet, per node (0 disables read-ahead). By default a full-size
+   * request for each parallel request, at most 1/16 of the heap. */
+  public final static String S3_READ_AHEAD_BYTES_PROP = SYSTEM_PROP_PREFIX + "persist.s3.readAheadBytes";
+  /** Size of the parts of multipart uploads, in bytes (S3 requires at least 5MB) */
+  public final static String S3_PART_SIZE_PROP = SYSTEM_PROP_PREFIX + "persist.s3.partSize";
+
+  private static final int S3_PARALLEL_REQUESTS = Integer.getInteger(S3_PARALLEL_REQUESTS_PROP, 8);
+  private static final int S3_MAX_REQUEST_SIZE = Integer.getInteger(S3_MAX_REQUEST_SIZE_PROP, 64 << 20);
+  private static final long S3_READ_AHEAD_BYTES = Long.getLong(S3_READ_AHEAD_BYTES_PROP,
+          Math.min((long) S3_PARALLEL_REQUESTS * S3_MAX_REQUEST_SIZE, Runtime.getRuntime().maxMemory() / 16));
+  private static final int S3_PART_SIZE = Math.max(S3MultipartOutputStream.MIN_PART_SIZE, Integer.getInteger(S3_PART_SIZE_PROP, 16 << 20));
+
+  /** Threads of the background chunk fetches and part uploads, shared by all the S3 requests of this node */
+  private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(S3_PARALLEL_REQUESTS, new ThreadFactory() {
+    private final AtomicInteger _cnt = new AtomicInteger();
+    @Override public Thread newThread(Runnable r) {
+      Thread t = new Thread(r, "S3-IO-" + _cnt.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    }
+  });
+  private static final S3ChunkLoader LOADER = new S3ChunkLoader(
+          Integer.getInteger(S3_MIN_REQUEST_SIZE_PROP, FileVec.DFLT_CHUNK_SIZE), S3_MAX_REQUEST_SIZE,
+          S3_PARALLEL_REQUESTS, S3_READ_AHEAD_BYTES, EXECUTOR);
 
 
   static ClientConfiguration s3ClientCfg() {
@@ -322,6 +363,8 @@ public final class PersistS3 extends Persist {
     if (prop.containsKey(S3_CONNECTION_TIMEOUT_PROP)) cfg.setConnectionTimeout(Integer.getInteger(S3_CONNECTION_TIMEOUT_PROP));
     if (prop.containsKey(S3_MAX_ERROR_RETRY_PROP)) cfg.setMaxErrorRetry(Integer.getInteger(S3_MAX_ERROR_RETRY_PROP));
     if (prop.containsKey(S3_MAX_HTTP_CONNECTIONS_PROP)) cfg.setMaxConnections(Integer.getInteger(S3_MAX_HTTP_CONNECTIONS_PROP));
+    // Enough connections for the loads of all the F/J threads and the background requests
+    else cfg.setMaxConnections(Math.max(cfg.getMaxConnections(), H2O.ARGS.nthreads + S3_PARALLEL_REQUESTS));
     if (prop.containsKey(S3_FORCE_HTTP)) cfg.setProtocol(Protocol.HTTP);
 
     return cfg;
@@ -373,6 +416,30 @@ public final class PersistS3 extends Persist {
   @Override
   public void cleanUp() { throw H2O.unimpl(); /** user-mode swapping not implemented */}
 
+  /**
+   * Creates the S3 object, the returned stream uploads it in parts, in parallel (multipart upload).
+   * The object is visible once the stream is closed.
+   */
+  @Override
+  public OutputStream create(String path, boolean overwrite) {
+    String[] bk = decodePath(path);
+    if (!overwrite && exists(path))
+      throw new IllegalArgumentException("File already exists (" + path + ")");
+    return new S3MultipartOutputStream(getClient(), bk[0], bk[1], S3_PART_SIZE, S3_PARALLEL_REQUESTS, EXECUTOR);
+  }
+
+  @Override
+  public boolean exists(String path) {
+    String[] bk = decodePath(path);
+    try {
+      getClient().getObjectMetadata(bk[0], bk[1]);
+      return true;
+    } catch (AmazonServiceException e) {
+      if (e.getStatusCode() == 404) return false;
+      throw e;
+    }
+  }
+
   private static class Cache {
     long _lastUpdated = 0;
     long _timeoutMillis = 5*60*1000;
@@ -0,0 +1,237 @@
+package water.persist;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import com.google.common.io.ByteStreams;
+import water.MemoryManager;
+import water.util.Log;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node-local loader of chunks of S3 objects which batches chunk loads into large ranged GET requests.
+ *
+ * <p>A load of a chunk fetches, in a single ranged GET, the requested chunk together with the chunks
+ * directly following it (which are homed on this node and will be loaded here) up to the current
+ * request size. Further runs of following chunks are fetched in the background, in parallel, with at
+ * most <code>parallelRequests</code> requests in flight per node. Fetched chunks are kept in memory
+ * until they are loaded; a load of a chunk which is being fetched waits for that request.
+ *
+ * <p>The request size adapts between the minimal and maximal request size: it doubles while requests
+ * complete quickly (the per-request latency dominates) and halves when they are slow or fail.
+ */
+final class S3ChunkLoader {
+
+  /** Requests completing faster than this grow the request size, requests 4x slower shrink it. */
+  private static final long TARGET_REQUEST_MILLIS = 1000;
+  /** Fetched blocks not loaded within this time can be dropped to make room for new ones. */
+  private static final long STALE_BLOCK_MILLIS = 30 * 1000;
+
+  private final int _minRequestSize;
+  private final int _maxRequestSize;
+  private final int _parallelRequests;
+  private final long _maxAheadBytes;
+  private final ExecutorService _executor;
+
+  private final AtomicInteger _requestSize;
+  private final AtomicInteger _inflight = new AtomicInteger();
+  /** Chunks being fetched or already fetched, by object and offset. */
+  private final ConcurrentHashMap<String, Block> _blocks = new ConcurrentHashMap<>();
+  /** Keys of the fetched-ahead blocks in the order they were claimed, used to evict the oldest ones. */
+  private final ConcurrentLinkedQueue<String> _claimed = new ConcurrentLinkedQueue<>();
+  /** Bytes of the blocks held in _blocks; whoever removes a block from _blocks releases its bytes. */
+  private final AtomicLong _aheadBytes = new AtomicLong();
+
+  S3ChunkLoader(int minRequestSize, int maxRequestSize, int parallelRequests, long maxAheadBytes, ExecutorService executor) {
+    _minRequestSize = minRequestSize;
+    _maxRequestSize = Math.max(minRequestSize, maxRequestSize);
+    _parallelRequests = parallelRequests;
+    _maxAheadBytes = maxAheadBytes;
+    _executor = executor;
+    _requestSize = new AtomicInteger(_minRequestSize);
+  }
+
+  /** A chunk being fetched (or already fetched). */
+  private static final class Block {
+    final String _key;
+    final int _len;
+    final CountDownLatch _done = new CountDownLatch(1);
+    final long _claimedMillis = System.currentTimeMillis();
+    volatile byte[] _data; // null if the fetch failed
+    Block(String key, int len) { _key = key; _len = len; }
+    void complete(byte[] data) { _data = data; _done.countDown(); }
+  }
+
+  private static String blockKey(String bucket, String key, long off) { return bucket + '/' + key + '@' + off; }
+
+  /**
+   * Loads <code>len</code> bytes of the object starting at <code>off</code>.
+   *
+   * @param aheadLens lengths of the chunks directly following the requested one which can be fetched
+   *                  together with it (can be empty)
+   * @return the bytes of the requested chunk
+   */
+  byte[] load(AmazonS3 s3, String bucket, String key, long off, int len, int[] aheadLens) throws IOException, InterruptedException {
+    Block pending = _blocks.remove(blockKey(bucket, key, off));
+    byte[] data = null;
+    if (pending != null) {
+      try {
+        pending._done.await();
+      } finally {
+        _aheadBytes.addAndGet(-pending._len);  // Taken out of _blocks, whatever the outcome of the fetch
+      }
+      if (pending._data != null && pending._data.length == len) data = pending._data;
+      // else the background fetch failed, fetch the chunk on our own
+    }
+    long pos = off + len;
+    int next = 0;
+    if (data == null) {
+      // Fetch the requested chunk together with the following chunks fitting the request size
+      List<Block> run = new ArrayList<>();
+      run.add(new Block(null, len));
+      next = claimRun(bucket, key, pos, aheadLens, 0, _requestSize.get() - len, run);
+      for (int i = 0; i < next; i++) pos += aheadLens[i];
+      fetch(s3, bucket, key, off, run);
+      data = run.get(0)._data;
+    } else {
+      // Skip the chunks already being fetched by somebody else
+      while (next < aheadLens.length && _blocks.containsKey(blockKey(bucket, key, pos)))
+        pos += aheadLens[next++];
+    }
+    // Fetch the following runs in the background, in parallel
+    while (next < aheadLens.length && _inflight.get() < _parallelRequests - 1) {
+      final List<Block> run = new ArrayList<>();
+      int end = claimRun(bucket, key, pos, aheadLens, next, _requestSize.get(), run);
+      if (run.isEmpty()) break;
+      _inflight.incrementAndGet();
+      final long runOff = pos;
+      final AmazonS3 fs3 = s3;
+      final String fbucket = bucket, fkey = key;
+      _executor.submit(new Runnable() {
+        @Override public void run() {
+          try {
+            fetch(fs3, fbucket, fkey, runOff, run);
+          } catch (Exception e) {
+            Log.debug("Background fetch of s3://" + fbucket + "/" + fkey + " at " + runOff + " failed: " + e);
+          } finally {
+            _inflight.decrementAndGet();
+          }
+        }
+      });
+      for (int i = next; i < end; i++) pos += aheadLens[i];
+      next = end;
+    }
+    return data;
+  }
+
+  /**
+   * Claims the chunks starting at <code>pos</code> (of lengths <code>aheadLens[from..]</code>) up to
+   * <code>maxBytes</code> and adds them to the run (an empty run gets at least one chunk).
+   * Stops at the first chunk somebody else is fetching or when the memory budget is exhausted.
+   * @return index of the first chunk not claimed
+   */
+  private int claimRun(String bucket, String key, long pos, int[] aheadLens, int from, long maxBytes, List<Block> run) {
+    int i = from;
+    long bytes = 0;
+    for (; i < aheadLens.length; i++) {
+      int l = aheadLens[i];
+      if (!run.isEmpty() && bytes + l > maxBytes) break;
+      if (!reserve(l)) break;
+      String k = blockKey(bucket, key, pos);
+      Block b = new Block(k, l);
+      if (_blocks.putIfAbsent(k, b) != null) {
+        _aheadBytes.addAndGet(-l);
+        break;
+      }
+      _claimed.add(k);
+      run.add(b);
+      bytes += l;
+      pos += l;
+    }
+    return i;
+  }
+
+  /** Fetches the consecutive chunks of the run with a single ranged GET. */
+  private void fetch(AmazonS3 s3, String bucket, String key, long off, List<Block> run) throws IOException {
+    long total = 0;
+    for (Block b : run) total += b._len;
+    long start = System.currentTimeMillis();
+    boolean ok = false;
+    S3ObjectInputStream s = null;
+    try {
+      GetObjectRequest r = new GetObjectRequest(bucket, key);
+      r.setRange(off, off + total - 1); // Range is inclusive
+      s = s3.getObject(r).getObjectContent();
+      for (Block b : run) {
+        byte[] data = MemoryManager.malloc1(b._len);
+        ByteStreams.readFully(s, data);
+        b.complete(data);
+      }
+      ok = true;
+    } finally {
+      try {
+        if (s != null) s.close();
+      } catch (IOException e) {}
+      if (!ok) {
+        for (Block b : run) {
+          if (b._data == null && b._key != null && _blocks.remove(b._key, b))
+            _aheadBytes.addAndGet(-b._len);
+          b.complete(b._data); // Wake up the waiters, they will fetch on their own if needed
+        }
+      }
+      adapt(ok, total, System.currentTimeMillis() - start);
+    }
+  }
+
+  /** Bytes reserved by the fetched-ahead blocks not loaded yet. */
+  long aheadBytes() { return _aheadBytes.get(); }
+
+  private void adapt(boolean ok, long bytes, long millis) {
+    int size = _requestSize.get();
+    int newSize = size;
+    if (!ok || millis > 4 * TARGET_REQUEST_MILLIS) newSize = Math.max(_minRequestSize, size / 2);
+    else if (millis < TARGET_REQUEST_MILLIS && bytes >= size) newSize = (int) Math.min(_maxRequestSize, 2L * size);
+    if (newSize != size && _requestSize.compareAndSet(size, newSize))
+      Log.debug("S3 request size changed to " + newSize + " bytes (" + bytes + " bytes in " + millis + "ms).");
+  }
+
+  /**
+   * Reserves memory for a fetched-ahead block. When the budget is exhausted only blocks which were not
+   * loaded in time are dropped; the others are about to be loaded, the read-ahead rather stops.
+   */
+  private boolean reserve(int len) {
+    if (len > _maxAheadBytes) return false;
+    while (_aheadBytes.addAndGet(len) > _maxAheadBytes) {
+      _aheadBytes.addAndGet(-len);
+      if (!evictStale()) return false;
+    }
+    return true;
+  }
+
+  private boolean evictStale() {
+    String key;
+    while ((key = _claimed.peek()) != null) {
+      Block b = _blocks.get(key);
+      if (b == null) { _claimed.remove(key); continue; }  // Already loaded
+      if (b._done.getCount() > 0 || System.currentTimeMillis() - b._claimedMillis < STALE_BLOCK_MILLIS)
+        return false; // Still being fetched or still expected to be loaded
+      _claimed.remove(key);
+      if (_blocks.remove(key, b)) {
+        _aheadBytes.addAndGet(-b._len);
+        Log.debug("S3 read-ahead of " + key + " dropped, it was not requested in time.");
+        return true;
+      }
+    }
+    return false;
+  }
+
+}
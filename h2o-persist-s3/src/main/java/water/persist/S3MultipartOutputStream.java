@@ -0,0 +1,145 @@
+package water.persist;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import water.util.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Output stream writing an S3 object using a multipart upload.
+ *
+ * <p>The written bytes are buffered into parts of <code>partSize</code> bytes, each full part is
+ * uploaded in the background while the writer fills the next one. At most <code>maxPendingParts</code>
+ * parts are being uploaded (and held in memory) at once, the writer blocks when the limit is reached.
+ * Closing the stream uploads the last part and completes the upload; objects smaller than a single part
+ * are written with a single PUT. If any part fails the upload is aborted and no object is created.
+ */
+final class S3MultipartOutputStream extends OutputStream {
+
+  /** Minimal size of a part (except the last one) accepted by S3 */
+  static final int MIN_PART_SIZE = 5 << 20;
+
+  private final AmazonS3 _s3;
+  private final String _bucket;
+  private final String _key;
+  private final int _partSize;
+  private final int _maxPendingParts;
+  private final ExecutorService _executor;
+
+  private byte[] _buf;
+  private int _len;
+  private String _uploadId;
+  private int _partNumber;
+  private final ArrayDeque<Future<PartETag>> _pending = new ArrayDeque<>();
+  private final List<PartETag> _etags = new ArrayList<>();
+  private boolean _closed;
+
+  S3MultipartOutputStream(AmazonS3 s3, String bucket, String key, int partSize, int maxPendingParts, ExecutorService executor) {
+    _s3 = s3;
+    _bucket = bucket;
+    _key = key;
+    _partSize = partSize;
+    _maxPendingParts = Math.max(1, maxPendingParts);
+    _executor = executor;
+    _buf = new byte[partSize];
+  }
+
+  @Override public void write(int b) throws IOException {
+    if (_len == _partSize) uploadPart();
+    _buf[_len++] = (byte) b;
+  }
+
+  @Override public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      if (_len == _partSize) uploadPart();
+      int n = Math.min(len, _partSize - _len);
+      System.arraycopy(b, off, _buf, _len, n);
+      _len += n;
+      off += n;
+      len -= n;
+    }
+  }
+
+  /** Submits the upload of the buffered part, the buffer is handed over to the upload. */
+  private void uploadPart() throws IOException {
+    try {
+      if (_uploadId == null)
+        _uploadId = _s3.initiateMultipartUpload(new InitiateMultipartUploadRequest(_bucket, _key)).getUploadId();
+      while (_pending.size() >= _maxPendingParts)
+        _etags.add(_pending.poll().get());
+    } catch (Exception e) {
+      throw abort(e);
+    }
+    final UploadPartRequest r = new UploadPartRequest()
+            .withBucketName(_bucket)
+            .withKey(_key)
+            .withUploadId(_uploadId)
+            .withPartNumber(++_partNumber)
+            .withInputStream(new ByteArrayInputStream(_buf, 0, _len))
+            .withPartSize(_len);
+    _pending.add(_executor.submit(new Callable<PartETag>() {
+      @Override public PartETag call() {
+        return _s3.uploadPart(r).getPartETag();
+      }
+    }));
+    _buf = new byte[_partSize];
+    _len = 0;
+  }
+
+  @Override public void close() throws IOException {
+    if (_closed) return;
+    _closed = true;
+    if (_uploadId == null) {
+      // Small object, a single request is enough
+      ObjectMetadata md = new ObjectMetadata();
+      md.setContentLength(_len);
+      _s3.putObject(_bucket, _key, new ByteArrayInputStream(_buf, 0, _len), md);
+      _buf = null;
+      return;
+    }
+    if (_len > 0) uploadPart();  // The last part can be smaller than the minimal part size
+    try {
+      while (!_pending.isEmpty())
+        _etags.add(_pending.poll().get());
+      _s3.completeMultipartUpload(new CompleteMultipartUploadRequest(_bucket, _key, _uploadId, _etags));
+    } catch (Exception e) {
+      throw abort(e);
+    } finally {
+      _buf = null;
+    }
+  }
+
+  private IOException abort(Exception e) {
+    if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+    for (Future<PartETag> f : _pending)
+      f.cancel(true);
+    _pending.clear();
+    _closed = true;
+    if (_uploadId != null) {
+      try {
+        _s3.abortMultipartUpload(new AbortMultipartUploadRequest(_bucket, _key, _uploadId));
+      } catch (Exception ae) {
+        Log.warn("Failed to abort the multipart upload of s3://" + _bucket + "/" + _key + ": " + ae);
+      }
+    }
+    Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+    return cause instanceof IOException ? (IOException) cause :
+            new IOException("Upload of s3://" + _bucket + "/" + _key + " failed", cause);
+  }
+
+}
@@ -1,5 +1,6 @@
 package water.persist;
 
+import org.junit.Assume;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import water.*;
@@ -8,6 +9,7 @@ import water.fvec.Chunk;
 import water.fvec.FileVec;
 import water.fvec.Frame;
 
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 
@@ -58,4 +60,38 @@ public class PersistS3Test extends TestUtil {
       Scope.exit();
     }
   }
+
+  /**
+   * Writes an object spanning several multipart-upload parts and reads it back in many chunks.
+   * Runs against an S3-compatible server (eg. a local minio) given by the endpoint property, the bucket
+   * must exist: -Dsys.ai.h2o.persist.s3.endPoint=http://localhost:9000 -Dsys.ai.h2o.persist.s3.testBucket=test
+   */
+  @Test
+  public void testS3UploadAndRangedLoad() throws Exception {
+    String bucket = System.getProperty(H2O.OptArgs.SYSTEM_PROP_PREFIX + "persist.s3.testBucket");
+    Assume.assumeTrue(System.getProperty(PersistS3.S3_END_POINT) != null && bucket != null);
+    String path = "s3://" + bucket + "/" + Key.make();
+    byte[] data = new byte[40 << 20]; // 3 parts of the default part size
+    long xor = 0;
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) (i * 31 + (i >> 12));
+      xor ^= data[i] & 0xFF;
+    }
+    OutputStream os = H2O.getPM().create(path, true);
+    for (int off = 0; off < data.length; off += 1 << 20)
+      os.write(data, off, 1 << 20);
+    os.close();
+    Scope.enter();
+    try {
+      Key k = H2O.getPM().anyURIToKey(new URI(path));
+      Frame fr = DKV.getGet(k);
+      FileVec v = (FileVec) fr.anyVec();
+      assertEquals(data.length, v.length());
+      v.setChunkSize(fr, 1 << 20); // many chunks, batched into larger requests
+      assertEquals(xor, new XORTask().doAll(v)._res);
+      fr.delete();
+    } finally {
+      Scope.exit();
+    }
+  }
 }
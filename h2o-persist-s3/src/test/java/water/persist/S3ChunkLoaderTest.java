@@ -0,0 +1,261 @@
+package water.persist;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import com.google.common.io.ByteStreams;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.TestUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the batched chunk loads and the multipart upload against an in-memory S3 (no endpoint needed).
+ */
+public class S3ChunkLoaderTest extends TestUtil {
+
+  private static final int CHUNK_SIZE = 1 << 20;
+  private static final int NCHUNKS = 20;
+
+  private static ExecutorService executor;
+  private static byte[] data;
+
+  @BeforeClass
+  public static void setup() {
+    stall_till_cloudsize(1);
+    executor = Executors.newFixedThreadPool(4);
+    data = new byte[(NCHUNKS - 1) * CHUNK_SIZE + 4321];
+    new Random(0x53).nextBytes(data);
+  }
+
+  @AfterClass
+  public static void teardown() {
+    if (executor != null) executor.shutdownNow();
+  }
+
+  @Test
+  public void testLoadWithoutReadAhead() throws Exception {
+    MockS3 mock = new MockS3();
+    mock._objects.put("b/data", data);
+    S3ChunkLoader loader = new S3ChunkLoader(CHUNK_SIZE, 4 * CHUNK_SIZE, 4, 0, executor);
+    for (int c = 0; c < NCHUNKS; c++)
+      assertChunk(c, loader.load(mock.client(), "b", "data", offset(c), length(c), aheadLengths(c)));
+    assertEquals("One GET per chunk", NCHUNKS, mock._gets.get());
+  }
+
+  @Test
+  public void testLoadWithReadAhead() throws Exception {
+    MockS3 mock = new MockS3();
+    mock._objects.put("b/data", data);
+    S3ChunkLoader loader = new S3ChunkLoader(CHUNK_SIZE, 4 * CHUNK_SIZE, 4, 8 * CHUNK_SIZE, executor);
+    for (int c = 0; c < NCHUNKS; c++)
+      assertChunk(c, loader.load(mock.client(), "b", "data", offset(c), length(c), aheadLengths(c)));
+    assertTrue("Chunks are fetched in batches, GETs: " + mock._gets.get(), mock._gets.get() < NCHUNKS);
+  }
+
+  @Test
+  public void testFailedBackgroundFetch() throws Exception {
+    MockS3 mock = new MockS3();
+    mock._objects.put("b/data", data);
+    mock._failGets.set(1); // the first background fetch fails
+    S3ChunkLoader loader = new S3ChunkLoader(CHUNK_SIZE, 4 * CHUNK_SIZE, 4, 8 * CHUNK_SIZE, executor);
+    for (int c = 0; c < NCHUNKS; c++)
+      assertChunk(c, loader.load(mock.client(), "b", "data", offset(c), length(c), aheadLengths(c)));
+    assertEquals(0, mock._failGets.get());
+  }
+
+  /** A background fetch which fails after a load took its block gives its memory back. */
+  @Test
+  public void testFailedFetchReleasesMemory() throws Exception {
+    final MockS3 mock = new MockS3();
+    mock._objects.put("b/data", data);
+    mock._gate = new CountDownLatch(1);  // Background fetches wait for the gate and fail
+    final S3ChunkLoader loader = new S3ChunkLoader(CHUNK_SIZE, 4 * CHUNK_SIZE, 4, 8 * CHUNK_SIZE, executor);
+    assertChunk(0, loader.load(mock.client(), "b", "data", offset(0), length(0), aheadLengths(0)));
+    assertTrue("Chunks are fetched ahead", loader.aheadBytes() > 0);
+    final Throwable[] failure = new Throwable[1];
+    Thread waiter = new Thread("main-waiter") { // Fetches on its own when the background fetch fails
+      @Override public void run() {
+        try {
+          assertChunk(1, loader.load(mock.client(), "b", "data", offset(1), length(1), new int[0]));
+        } catch (Throwable e) {
+          failure[0] = e;
+        }
+      }
+    };
+    waiter.start();
+    while (waiter.getState() != Thread.State.WAITING) Thread.sleep(1);
+    mock._gate.countDown();
+    waiter.join();
+    if (failure[0] != null) throw new AssertionError(failure[0]);
+    for (int i = 0; i < 1000 && loader.aheadBytes() > 0; i++) Thread.sleep(10);
+    assertEquals("Read-ahead memory released", 0, loader.aheadBytes());
+  }
+
+  @Test
+  public void testMultipartUpload() throws Exception {
+    MockS3 mock = new MockS3();
+    int partSize = S3MultipartOutputStream.MIN_PART_SIZE;
+    OutputStream os = new S3MultipartOutputStream(mock.client(), "b", "up", partSize, 2, executor);
+    for (int off = 0; off < data.length; off += 12345)
+      os.write(data, off, Math.min(12345, data.length - off));
+    os.close();
+    assertEquals("Parts uploaded", (data.length + partSize - 1) / partSize, mock._parts.get());
+    assertArrayEquals(data, mock._objects.get("b/up"));
+
+    os = new S3MultipartOutputStream(mock.client(), "b", "small", partSize, 2, executor);
+    os.write(data, 0, 1000);
+    os.close();
+    assertEquals("Small objects are a single PUT", 1, mock._puts.get());
+    assertArrayEquals(Arrays.copyOf(data, 1000), mock._objects.get("b/small"));
+  }
+
+  @Test
+  public void testFailedUploadIsAborted() throws Exception {
+    MockS3 mock = new MockS3();
+    mock._failParts.set(1);
+    int partSize = S3MultipartOutputStream.MIN_PART_SIZE;
+    OutputStream os = new S3MultipartOutputStream(mock.client(), "b", "up", partSize, 2, executor);
+    try {
+      os.write(data);
+      os.close();
+      fail("Expected the upload to fail");
+    } catch (IOException e) {
+      // expected
+    }
+    assertEquals("Upload was aborted", 1, mock._aborts.get());
+    assertFalse("No object was created", mock._objects.containsKey("b/up"));
+  }
+
+  private static long offset(int c) {
+    return (long) c * CHUNK_SIZE;
+  }
+
+  private static int length(int c) {
+    return c < NCHUNKS - 1 ? CHUNK_SIZE : data.length - (NCHUNKS - 1) * CHUNK_SIZE;
+  }
+
+  private static int[] aheadLengths(int c) {
+    int[] lens = new int[NCHUNKS - 1 - c];
+    for (int i = 0; i < lens.length; i++) lens[i] = length(c + 1 + i);
+    return lens;
+  }
+
+  private static void assertChunk(int c, byte[] bytes) {
+    assertArrayEquals("Bytes of chunk " + c, Arrays.copyOfRange(data, (int) offset(c), (int) offset(c) + length(c)), bytes);
+  }
+
+  /** In-memory S3 serving the requests used by the loader and the upload stream. */
+  private static class MockS3 implements InvocationHandler {
+    final Map<String, byte[]> _objects = new ConcurrentHashMap<>();
+    final Map<String, Map<Integer, byte[]>> _uploads = new ConcurrentHashMap<>();
+    final AtomicInteger _gets = new AtomicInteger();
+    final AtomicInteger _puts = new AtomicInteger();
+    final AtomicInteger _parts = new AtomicInteger();
+    final AtomicInteger _aborts = new AtomicInteger();
+    final AtomicInteger _failGets = new AtomicInteger();
+    final AtomicInteger _failParts = new AtomicInteger();
+    volatile CountDownLatch _gate; // If set, background fetches wait for it and fail
+
+    AmazonS3 client() {
+      return (AmazonS3) Proxy.newProxyInstance(AmazonS3.class.getClassLoader(), new Class[]{AmazonS3.class}, this);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "getObject": {
+          GetObjectRequest r = (GetObjectRequest) args[0];
+          _gets.incrementAndGet();
+          // fail a background fetch (they run on the executor threads)
+          if (!Thread.currentThread().getName().startsWith("main") && decrementIfPositive(_failGets))
+            throw new AmazonClientException("Mock failure");
+          if (!Thread.currentThread().getName().startsWith("main") && _gate != null) {
+            _gate.await();
+            throw new AmazonClientException("Mock failure");
+          }
+          byte[] obj = _objects.get(r.getBucketName() + "/" + r.getKey());
+          long[] range = r.getRange();
+          byte[] bytes = Arrays.copyOfRange(obj, (int) range[0], (int) Math.min(obj.length, range[1] + 1));
+          S3Object o = new S3Object();
+          o.setObjectContent(new S3ObjectInputStream(new ByteArrayInputStream(bytes), null));
+          return o;
+        }
+        case "putObject": {
+          _puts.incrementAndGet();
+          _objects.put(args[0] + "/" + args[1], ByteStreams.toByteArray((InputStream) args[2]));
+          return new PutObjectResult();
+        }
+        case "initiateMultipartUpload": {
+          InitiateMultipartUploadResult res = new InitiateMultipartUploadResult();
+          res.setUploadId("upload" + _uploads.size());
+          _uploads.put(res.getUploadId(), new ConcurrentHashMap<Integer, byte[]>());
+          return res;
+        }
+        case "uploadPart": {
+          UploadPartRequest r = (UploadPartRequest) args[0];
+          if (decrementIfPositive(_failParts)) throw new AmazonClientException("Mock failure");
+          byte[] part = new byte[(int) r.getPartSize()];
+          ByteStreams.readFully(r.getInputStream(), part);
+          _uploads.get(r.getUploadId()).put(r.getPartNumber(), part);
+          _parts.incrementAndGet();
+          UploadPartResult res = new UploadPartResult();
+          res.setPartNumber(r.getPartNumber());
+          res.setETag("etag" + r.getPartNumber());
+          return res;
+        }
+        case "completeMultipartUpload": {
+          CompleteMultipartUploadRequest r = (CompleteMultipartUploadRequest) args[0];
+          Map<Integer, byte[]> parts = new TreeMap<>(_uploads.remove(r.getUploadId()));
+          assertEquals("All parts are completed", parts.size(), r.getPartETags().size());
+          ByteArrayOutputStream bos = new ByteArrayOutputStream();
+          for (PartETag tag : r.getPartETags()) bos.write(parts.get(tag.getPartNumber()));
+          _objects.put(r.getBucketName() + "/" + r.getKey(), bos.toByteArray());
+          return new CompleteMultipartUploadResult();
+        }
+        case "abortMultipartUpload":
+          _aborts.incrementAndGet();
+          return null;
+        default:
+          throw new UnsupportedOperationException(method.getName());
+      }
+    }
+
+    private static boolean decrementIfPositive(AtomicInteger cnt) {
+      int n;
+      while ((n = cnt.get()) > 0)
+        if (cnt.compareAndSet(n, n - 1)) return true;
+      return false;
+    }
+  }
+
+}
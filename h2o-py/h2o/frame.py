@@ -296,11 +296,13 @@ class H2OFrame(object):
 
 
 
-    def _import_parse(self, path, destination_frame, header, separator, column_names, column_types, na_strings):
+    def _import_parse(self, path, destination_frame, header, separator, column_names, column_types, na_strings,
+                      row_group_filters=None):
         if is_type(path, str) and "://" not in path:
             path = os.path.abspath(path)
         rawkey = h2o.lazy_import(path)
-        self._parse(rawkey, destination_frame, header, separator, column_names, column_types, na_strings)
+        self._parse(rawkey, destination_frame, header, separator, column_names, column_types, na_strings,
+                    row_group_filters)
         return self
 
     def _upload_parse(self, path, destination_frame, header, sep, column_names, column_types, na_strings):
@@ -311,8 +313,9 @@ class H2OFrame(object):
 
 
     def _parse(self, rawkey, destination_frame="", header=None, separator=None, column_names=None, column_types=None,
-               na_strings=None):
-        setup = h2o.parse_setup(rawkey, destination_frame, header, separator, column_names, column_types, na_strings)
+               na_strings=None, row_group_filters=None):
+        setup = h2o.parse_setup(rawkey, destination_frame, header, separator, column_names, column_types, na_strings,
+                                row_group_filters)
         return self._parse_raw(setup)
 
     def _parse_raw(self, setup):
@@ -331,6 +334,7 @@ class H2OFrame(object):
 
         if setup["column_names"]: p["column_names"] = None
         if setup["na_strings"]: p["na_strings"] = None
+        if setup.get("row_group_filters"): p["row_group_filters"] = None
 
         p.update({k: v for k, v in viewitems(setup) if k in p})
 
@@ -322,7 +322,7 @@ def upload_file(path, destination_frame=None, header=0, sep=None, col_names=None
 
 
 def import_file(path=None, destination_frame=None, parse=True, header=0, sep=None, col_names=None, col_types=None,
-                na_strings=None):
+                na_strings=None, row_group_filters=None):
     """
     Import a dataset that is already on the cluster.
 
@@ -353,6 +353,9 @@ def import_file(path=None, destination_frame=None, parse=True, header=0, sep=Non
             Times can also contain "AM" or "PM".
     :param na_strings: A list of strings, or a list of lists of strings (one list per column), or a dictionary
         of column names to strings which are to be interpreted as missing values.
+    :param row_group_filters: A dictionary of numeric column names to (min, max) ranges, either bound may be None.
+        Blocks of rows whose values of a column cannot fall into its range are not parsed (Parquet row groups,
+        pruned by their statistics); the rows of the blocks that are parsed are not filtered.
 
     :returns: a new H2OFrame instance.
     """
@@ -367,6 +370,7 @@ def import_file(path=None, destination_frame=None, parse=True, header=0, sep=Non
     assert_is_type(col_names, [str], None)
     assert_is_type(col_types, [coltype], {str: coltype}, None)
     assert_is_type(na_strings, [natype], {str: natype}, None)
+    assert_is_type(row_group_filters, {str: (U(numeric, None), U(numeric, None))}, None)
     check_frame_id(destination_frame)
     patharr = path if isinstance(path, list) else [path]
     if any(os.path.split(p)[0] == "~" for p in patharr):
@@ -375,7 +379,8 @@ def import_file(path=None, destination_frame=None, parse=True, header=0, sep=Non
     if not parse:
         return lazy_import(path)
     else:
-        return H2OFrame()._import_parse(path, destination_frame, header, sep, col_names, col_types, na_strings)
+        return H2OFrame()._import_parse(path, destination_frame, header, sep, col_names, col_types, na_strings,
+                                        row_group_filters)
 
 
 def import_sql_table(connection_url, table, username, password, columns=None, optimize=True):
@@ -465,7 +470,7 @@ def import_sql_select(connection_url, select_query, username, password, optimize
 
 
 def parse_setup(raw_frames, destination_frame=None, header=0, separator=None, column_names=None,
-                column_types=None, na_strings=None):
+                column_types=None, na_strings=None, row_group_filters=None):
     """
     Retrieve H2O's best guess as to what the structure of the data file is.
 
@@ -496,6 +501,9 @@ def parse_setup(raw_frames, destination_frame=None, header=0, separator=None, co
             Times can also contain "AM" or "PM".
     :param na_strings: A list of strings, or a list of lists of strings (one list per column), or a dictionary
         of column names to strings which are to be interpreted as missing values.
+    :param row_group_filters: A dictionary of numeric column names to (min, max) ranges, either bound may be None.
+        Blocks of rows whose values of a column cannot fall into its range are not parsed (Parquet row groups,
+        pruned by their statistics); the rows of the blocks that are parsed are not filtered.
 
     :returns: a dictionary is returned containing all of the guesses made by the H2O backend.
     """
@@ -509,6 +517,7 @@ def parse_setup(raw_frames, destination_frame=None, header=0, separator=None, co
     assert_is_type(column_names, [str], None)
     assert_is_type(column_types, [coltype], {str: coltype}, None)
     assert_is_type(na_strings, [natype], {str: natype}, None)
+    assert_is_type(row_group_filters, {str: (U(numeric, None), U(numeric, None))}, None)
     check_frame_id(destination_frame)
 
     # The H2O backend only accepts things that are quoted
@@ -580,6 +589,13 @@ def parse_setup(raw_frames, destination_frame=None, header=0, separator=None, co
                 "na_strings should be a list, a list of lists (one list per column), or a dictionary of column "
                 "names to strings which are to be interpreted as missing values")
 
+    if row_group_filters is not None:
+        if not set(row_group_filters.keys()).issubset(set(j["column_names"] or [])): raise ValueError(
+            "names specified in row_group_filters is not a subset of the column names")
+        bound = lambda b: "" if b is None else repr(float(b))
+        j["row_group_filters"] = [quoted("%s:%s:%s" % (name, bound(lo), bound(hi)))
+                                  for name, (lo, hi) in row_group_filters.items()]
+
     # quote column names and column types also when not specified by user
     if j["column_names"]: j["column_names"] = list(map(quoted, j["column_names"]))
     j["column_types"] = list(map(quoted, j["column_types"]))
@@ -912,7 +928,7 @@ def load_model(path):
     return get_model(res["models"][0]["model_id"]["name"])
 
 
-def export_file(frame, path, force=False, parts=1):
+def export_file(frame, path, force=False, parts=1, format="csv"):
     """
     Export a given H2OFrame to a path on the machine this python session is currently connected to.
 
@@ -925,12 +941,16 @@ def export_file(frame, path, force=False, parts=1):
         specify your desired maximum number of part files. Path needs to be a directory
         when exporting to multiple files.
         Default is to export to a single file (parts=1).
+    :param format: output file format, "csv" (default) or "parquet" (requires the Parquet extension).
+        Parquet files are typed and compressed, and faster to import back into H2O.
     """
     assert_is_type(frame, H2OFrame)
     assert_is_type(path, str)
     assert_is_type(force, bool)
     assert_is_type(parts, int)
-    H2OJob(api("POST /3/Frames/%s/export" % (frame.frame_id), data={"path": path, "num_parts": parts, "force": force}),
+    assert_is_type(format, "csv", "parquet")
+    H2OJob(api("POST /3/Frames/%s/export" % (frame.frame_id),
+               data={"path": path, "num_parts": parts, "force": force, "format": format}),
            "Export File").poll()
 
 